@@ -297,16 +297,17 @@ CREATE TABLE IF NOT EXISTS `flow_monitoring_data` (
   `created_at` datetime NOT NULL COMMENT '创建时间',
   `updated_at` datetime NOT NULL COMMENT '更新时间',
   `deleted_at` datetime DEFAULT NULL COMMENT '软删除标记',
-  PRIMARY KEY (`id`),
-  KEY `idx_station_time` (`station_id`, `monitoring_time`),
+  PRIMARY KEY (`id`, `monitoring_time`),
+  UNIQUE KEY `uk_station_time` (`station_id`, `monitoring_time`),
   KEY `idx_monitoring_time` (`monitoring_time`),
   KEY `idx_data_quality` (`data_quality`),
   KEY `idx_data_source` (`data_source`),
   KEY `idx_created_at` (`created_at`),
-  KEY `idx_quality_time` (`data_quality`, `monitoring_time`),
-  CONSTRAINT `FK_flow_data_station_id` FOREIGN KEY (`station_id`)
-    REFERENCES `monitoring_stations` (`id`) ON DELETE SET NULL ON UPDATE CASCADE
-) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='流量监测数据表';
+  KEY `idx_quality_time` (`data_quality`, `monitoring_time`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='流量监测数据表'
+PARTITION BY RANGE COLUMNS(`monitoring_time`) (
+  PARTITION `p_future` VALUES LESS THAN (MAXVALUE)
+);
 
 -- water_level_monitoring_data (水位监测数据表)
 CREATE TABLE IF NOT EXISTS `water_level_monitoring_data` (
@@ -321,16 +322,17 @@ CREATE TABLE IF NOT EXISTS `water_level_monitoring_data` (
   `created_at` datetime NOT NULL COMMENT '创建时间',
   `updated_at` datetime NOT NULL COMMENT '更新时间',
   `deleted_at` datetime DEFAULT NULL COMMENT '软删除标记',
-  PRIMARY KEY (`id`),
-  KEY `idx_station_time` (`station_id`, `monitoring_time`),
+  PRIMARY KEY (`id`, `monitoring_time`),
+  UNIQUE KEY `uk_station_time` (`station_id`, `monitoring_time`),
   KEY `idx_monitoring_time` (`monitoring_time`),
   KEY `idx_data_quality` (`data_quality`),
   KEY `idx_data_source` (`data_source`),
   KEY `idx_created_at` (`created_at`),
-  KEY `idx_quality_time` (`data_quality`, `monitoring_time`),
-  CONSTRAINT `FK_water_level_data_station_id` FOREIGN KEY (`station_id`)
-    REFERENCES `monitoring_stations` (`id`) ON DELETE SET NULL ON UPDATE CASCADE
-) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='水位监测数据表';
+  KEY `idx_quality_time` (`data_quality`, `monitoring_time`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='水位监测数据表'
+PARTITION BY RANGE COLUMNS(`monitoring_time`) (
+  PARTITION `p_future` VALUES LESS THAN (MAXVALUE)
+);
 
 -- water_quality_monitoring_data (水质监测数据表) - 水平存储模式
 CREATE TABLE IF NOT EXISTS `water_quality_monitoring_data` (
@@ -359,15 +361,16 @@ CREATE TABLE IF NOT EXISTS `water_quality_monitoring_data` (
   `updated_at` datetime NOT NULL COMMENT '更新时间',
   `deleted_at` datetime DEFAULT NULL COMMENT '软删除标记',
 
-  PRIMARY KEY (`id`),
-  KEY `idx_station_time` (`station_id`, `monitoring_time`),
+  PRIMARY KEY (`id`, `monitoring_time`),
+  UNIQUE KEY `uk_station_time` (`station_id`, `monitoring_time`),
   KEY `idx_monitoring_time` (`monitoring_time`),
   KEY `idx_data_quality` (`data_quality`),
   KEY `idx_data_source` (`data_source`),
-  KEY `idx_created_at` (`created_at`),
-  CONSTRAINT `FK_water_quality_data_station_id` FOREIGN KEY (`station_id`)
-    REFERENCES `monitoring_stations` (`id`) ON DELETE SET NULL ON UPDATE CASCADE
-) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='水质监测数据表(水平存储模式)';
+  KEY `idx_created_at` (`created_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='水质监测数据表(水平存储模式)'
+PARTITION BY RANGE COLUMNS(`monitoring_time`) (
+  PARTITION `p_future` VALUES LESS THAN (MAXVALUE)
+);
 
 -- reservoir_monitoring_data (水库监测数据表)
 CREATE TABLE IF NOT EXISTS `reservoir_monitoring_data` (
@@ -386,16 +389,17 @@ CREATE TABLE IF NOT EXISTS `reservoir_monitoring_data` (
   `created_at` datetime NOT NULL COMMENT '创建时间',
   `updated_at` datetime NOT NULL COMMENT '更新时间',
   `deleted_at` datetime DEFAULT NULL COMMENT '软删除标记',
-  PRIMARY KEY (`id`),
-  KEY `idx_station_time` (`station_id`, `monitoring_time`),
+  PRIMARY KEY (`id`, `monitoring_time`),
+  UNIQUE KEY `uk_station_time` (`station_id`, `monitoring_time`),
   KEY `idx_monitoring_time` (`monitoring_time`),
   KEY `idx_data_quality` (`data_quality`),
   KEY `idx_data_source` (`data_source`),
   KEY `idx_created_at` (`created_at`),
-  KEY `idx_quality_time` (`data_quality`, `monitoring_time`),
-  CONSTRAINT `FK_reservoir_data_station_id` FOREIGN KEY (`station_id`)
-    REFERENCES `monitoring_stations` (`id`) ON DELETE SET NULL ON UPDATE CASCADE
-) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='水库监测数据表';
+  KEY `idx_quality_time` (`data_quality`, `monitoring_time`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='水库监测数据表'
+PARTITION BY RANGE COLUMNS(`monitoring_time`) (
+  PARTITION `p_future` VALUES LESS THAN (MAXVALUE)
+);
 
 -- pipelines (管道信息表)
 CREATE TABLE IF NOT EXISTS `pipelines` (
@@ -616,16 +620,68 @@ CREATE TABLE IF NOT EXISTS `rainfall_monitoring_data` (
   `created_at` datetime NOT NULL COMMENT '创建时间',
   `updated_at` datetime NOT NULL COMMENT '更新时间',
   `deleted_at` datetime DEFAULT NULL COMMENT '软删除标记',
-  PRIMARY KEY (`id`),
-  KEY `idx_station_time` (`station_id`, `monitoring_time`),
+  PRIMARY KEY (`id`, `monitoring_time`),
+  UNIQUE KEY `uk_station_time` (`station_id`, `monitoring_time`),
   KEY `idx_monitoring_time` (`monitoring_time`),
   KEY `idx_data_quality` (`data_quality`),
   KEY `idx_data_source` (`data_source`),
   KEY `idx_created_at` (`created_at`),
-  KEY `idx_quality_time` (`data_quality`, `monitoring_time`),
-  CONSTRAINT `FK_rainfall_data_station_id` FOREIGN KEY (`station_id`)
-    REFERENCES `monitoring_stations` (`id`) ON DELETE SET NULL ON UPDATE CASCADE
-) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='雨情监测数据表';
+  KEY `idx_quality_time` (`data_quality`, `monitoring_time`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='雨情监测数据表'
+PARTITION BY RANGE COLUMNS(`monitoring_time`) (
+  PARTITION `p_future` VALUES LESS THAN (MAXVALUE)
+);
+
+-- monitoring_data_rollup (监测数据预聚合表) - 按站点、指标、时间桶预先汇总，供图表查询使用
+CREATE TABLE IF NOT EXISTS `monitoring_data_rollup` (
+  `id` bigint NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+  `data_type` varchar(20) COLLATE utf8mb4_unicode_ci NOT NULL COMMENT '监测类型(flow/water-level/water-quality/rainfall)',
+  `metric` varchar(50) COLLATE utf8mb4_unicode_ci NOT NULL COMMENT '监测指标列名',
+  `station_id` bigint NOT NULL COMMENT '监测站点ID',
+  `granularity` varchar(10) COLLATE utf8mb4_unicode_ci NOT NULL COMMENT '聚合粒度(HOUR/DAY/MONTH)',
+  `bucket_start` datetime NOT NULL COMMENT '时间桶起始时间',
+  `min_value` decimal(18,3) DEFAULT NULL COMMENT '最小值',
+  `max_value` decimal(18,3) DEFAULT NULL COMMENT '最大值',
+  `sum_value` decimal(24,3) DEFAULT NULL COMMENT '合计值',
+  `value_count` int NOT NULL DEFAULT 0 COMMENT '非空数值条数',
+  `sample_count` int NOT NULL DEFAULT 0 COMMENT '原始记录条数',
+  `first_time` datetime DEFAULT NULL COMMENT '首个数值的监测时间',
+  `first_value` decimal(18,3) DEFAULT NULL COMMENT '首个数值',
+  `last_time` datetime DEFAULT NULL COMMENT '最后数值的监测时间',
+  `last_value` decimal(18,3) DEFAULT NULL COMMENT '最后数值',
+  `updated_at` datetime NOT NULL COMMENT '更新时间',
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_rollup_bucket` (`data_type`, `granularity`, `station_id`, `metric`, `bucket_start`),
+  KEY `idx_rollup_type_bucket` (`data_type`, `granularity`, `bucket_start`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='监测数据预聚合表';
+
+-- monitoring_data_sketch (监测数据分位数概要表) - 按站点、指标、日保存可合并的分位数概要，供分位数和分布统计使用
+CREATE TABLE IF NOT EXISTS `monitoring_data_sketch` (
+  `id` bigint NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+  `data_type` varchar(20) COLLATE utf8mb4_unicode_ci NOT NULL COMMENT '监测类型(flow/water-level/water-quality/rainfall)',
+  `metric` varchar(50) COLLATE utf8mb4_unicode_ci NOT NULL COMMENT '监测指标列名',
+  `station_id` bigint NOT NULL COMMENT '监测站点ID',
+  `bucket_date` date NOT NULL COMMENT '统计日期',
+  `value_count` int NOT NULL DEFAULT 0 COMMENT '非空数值条数',
+  `sketch` blob NOT NULL COMMENT '分位数概要(t-digest序列化数据)',
+  `updated_at` datetime NOT NULL COMMENT '更新时间',
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_sketch_day` (`data_type`, `station_id`, `metric`, `bucket_date`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='监测数据分位数概要表';
+
+-- monitoring_import_batch (监测数据导入批次台账) - 记录客户端批次ID及导入结果统计，重复提交同一批次时直接返回该结果
+CREATE TABLE IF NOT EXISTS `monitoring_import_batch` (
+  `batch_id` varchar(64) COLLATE utf8mb4_unicode_ci NOT NULL COMMENT '客户端批次ID',
+  `data_type` varchar(20) COLLATE utf8mb4_unicode_ci NOT NULL COMMENT '监测类型(flow/water-level/water-quality/rainfall/reservoir)',
+  `total_rows` int NOT NULL DEFAULT 0 COMMENT '总行数',
+  `success_rows` int NOT NULL DEFAULT 0 COMMENT '成功行数',
+  `error_rows` int NOT NULL DEFAULT 0 COMMENT '失败行数',
+  `duplicate_rows` int NOT NULL DEFAULT 0 COMMENT '重复行数',
+  `error_report_id` varchar(32) COLLATE utf8mb4_unicode_ci DEFAULT NULL COMMENT '错误报告ID',
+  `created_at` datetime NOT NULL COMMENT '记录时间',
+  PRIMARY KEY (`batch_id`),
+  KEY `idx_created_at` (`created_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='监测数据导入批次台账';
 
 -- --------------------------------------------------------------------------------
 -- 模块: 工程巡检 (新增功能)
@@ -707,4 +763,8 @@ CREATE TABLE IF NOT EXISTS `inspection_attachments` (
 -- 13. 流量监测数据表优化了索引设计，支持高效的时间序列查询
 -- 14. 采用软删除机制和灵活的外键约束，提高数据维护的灵活性
 -- 15. 新增了工程巡检模块的3个数据表（inspection_tasks、inspection_records、inspection_attachments）
+-- 16. 新增了监测数据预聚合表（monitoring_data_rollup），图表查询按小时/日/月预聚合数据
+-- 17. 五张监测数据表按monitoring_time按月范围分区（主键含monitoring_time、去除站点外键），过期分区由应用归档到*_archive表
+-- 18. 五张监测数据表的(station_id, monitoring_time)索引改为唯一键uk_station_time，导入按跳过/覆盖/报错模式处理重复记录
+-- 19. 新增了监测数据导入批次台账表（monitoring_import_batch），携带批次ID的导入和上报重复提交时直接返回首次结果
 -- --------------------------------------------------------------------------------
@@ -0,0 +1,55 @@
+-- --------------------------------------------------------------------------------
+-- 监测数据表分区升级脚本
+-- 说明: 已有数据库升级为按monitoring_time范围分区的监测数据表结构（新库直接使用init-schema.sql）
+--       1. MySQL要求分区列包含在主键中，主键改为(id, monitoring_time)
+--       2. 分区表不支持外键，去除监测数据表到monitoring_stations的外键
+--       3. 初始只建p_future一个分区，按月分区由应用启动后的分区维护任务拆分生成
+-- 注意: 分区改造会重建整表，数据量较大时请在维护窗口执行
+-- --------------------------------------------------------------------------------
+
+USE eb_water_resources;
+
+ALTER TABLE `flow_monitoring_data` DROP FOREIGN KEY `FK_flow_data_station_id`;
+ALTER TABLE `flow_monitoring_data`
+  DROP PRIMARY KEY,
+  ADD PRIMARY KEY (`id`, `monitoring_time`);
+ALTER TABLE `flow_monitoring_data`
+  PARTITION BY RANGE COLUMNS(`monitoring_time`) (
+    PARTITION `p_future` VALUES LESS THAN (MAXVALUE)
+  );
+
+ALTER TABLE `water_level_monitoring_data` DROP FOREIGN KEY `FK_water_level_data_station_id`;
+ALTER TABLE `water_level_monitoring_data`
+  DROP PRIMARY KEY,
+  ADD PRIMARY KEY (`id`, `monitoring_time`);
+ALTER TABLE `water_level_monitoring_data`
+  PARTITION BY RANGE COLUMNS(`monitoring_time`) (
+    PARTITION `p_future` VALUES LESS THAN (MAXVALUE)
+  );
+
+ALTER TABLE `water_quality_monitoring_data` DROP FOREIGN KEY `FK_water_quality_data_station_id`;
+ALTER TABLE `water_quality_monitoring_data`
+  DROP PRIMARY KEY,
+  ADD PRIMARY KEY (`id`, `monitoring_time`);
+ALTER TABLE `water_quality_monitoring_data`
+  PARTITION BY RANGE COLUMNS(`monitoring_time`) (
+    PARTITION `p_future` VALUES LESS THAN (MAXVALUE)
+  );
+
+ALTER TABLE `reservoir_monitoring_data` DROP FOREIGN KEY `FK_reservoir_data_station_id`;
+ALTER TABLE `reservoir_monitoring_data`
+  DROP PRIMARY KEY,
+  ADD PRIMARY KEY (`id`, `monitoring_time`);
+ALTER TABLE `reservoir_monitoring_data`
+  PARTITION BY RANGE COLUMNS(`monitoring_time`) (
+    PARTITION `p_future` VALUES LESS THAN (MAXVALUE)
+  );
+
+ALTER TABLE `rainfall_monitoring_data` DROP FOREIGN KEY `FK_rainfall_data_station_id`;
+ALTER TABLE `rainfall_monitoring_data`
+  DROP PRIMARY KEY,
+  ADD PRIMARY KEY (`id`, `monitoring_time`);
+ALTER TABLE `rainfall_monitoring_data`
+  PARTITION BY RANGE COLUMNS(`monitoring_time`) (
+    PARTITION `p_future` VALUES LESS THAN (MAXVALUE)
+  );
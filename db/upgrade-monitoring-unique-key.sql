@@ -0,0 +1,61 @@
+-- --------------------------------------------------------------------------------
+-- 监测数据唯一键升级脚本
+-- 说明: 已有数据库将五张监测数据表的(station_id, monitoring_time)普通索引升级为唯一键（新库直接使用init-schema.sql）
+--       1. 先清理同站点同监测时间的重复记录：优先保留未软删除的记录，其次保留ID最大（最后写入）的记录
+--       2. 唯一键包含分区列monitoring_time，满足MySQL分区表对唯一键的要求
+--       3. 已软删除的记录同样占用唯一键，导入时按覆盖模式可将其恢复
+--       4. 已归档的*_archive表不再接收导入数据，保留原有普通索引
+-- 注意: 清理和加唯一键都会扫描整表，数据量较大时请在维护窗口执行，执行前请先备份
+-- --------------------------------------------------------------------------------
+
+USE eb_water_resources;
+
+DELETE d FROM `flow_monitoring_data` d
+  JOIN `flow_monitoring_data` k
+    ON k.`station_id` = d.`station_id`
+   AND k.`monitoring_time` = d.`monitoring_time`
+   AND ((k.`deleted_at` IS NULL AND d.`deleted_at` IS NOT NULL)
+        OR ((k.`deleted_at` IS NULL) = (d.`deleted_at` IS NULL) AND k.`id` > d.`id`));
+ALTER TABLE `flow_monitoring_data`
+  DROP INDEX `idx_station_time`,
+  ADD UNIQUE KEY `uk_station_time` (`station_id`, `monitoring_time`);
+
+DELETE d FROM `water_level_monitoring_data` d
+  JOIN `water_level_monitoring_data` k
+    ON k.`station_id` = d.`station_id`
+   AND k.`monitoring_time` = d.`monitoring_time`
+   AND ((k.`deleted_at` IS NULL AND d.`deleted_at` IS NOT NULL)
+        OR ((k.`deleted_at` IS NULL) = (d.`deleted_at` IS NULL) AND k.`id` > d.`id`));
+ALTER TABLE `water_level_monitoring_data`
+  DROP INDEX `idx_station_time`,
+  ADD UNIQUE KEY `uk_station_time` (`station_id`, `monitoring_time`);
+
+DELETE d FROM `water_quality_monitoring_data` d
+  JOIN `water_quality_monitoring_data` k
+    ON k.`station_id` = d.`station_id`
+   AND k.`monitoring_time` = d.`monitoring_time`
+   AND ((k.`deleted_at` IS NULL AND d.`deleted_at` IS NOT NULL)
+        OR ((k.`deleted_at` IS NULL) = (d.`deleted_at` IS NULL) AND k.`id` > d.`id`));
+ALTER TABLE `water_quality_monitoring_data`
+  DROP INDEX `idx_station_time`,
+  ADD UNIQUE KEY `uk_station_time` (`station_id`, `monitoring_time`);
+
+DELETE d FROM `reservoir_monitoring_data` d
+  JOIN `reservoir_monitoring_data` k
+    ON k.`station_id` = d.`station_id`
+   AND k.`monitoring_time` = d.`monitoring_time`
+   AND ((k.`deleted_at` IS NULL AND d.`deleted_at` IS NOT NULL)
+        OR ((k.`deleted_at` IS NULL) = (d.`deleted_at` IS NULL) AND k.`id` > d.`id`));
+ALTER TABLE `reservoir_monitoring_data`
+  DROP INDEX `idx_station_time`,
+  ADD UNIQUE KEY `uk_station_time` (`station_id`, `monitoring_time`);
+
+DELETE d FROM `rainfall_monitoring_data` d
+  JOIN `rainfall_monitoring_data` k
+    ON k.`station_id` = d.`station_id`
+   AND k.`monitoring_time` = d.`monitoring_time`
+   AND ((k.`deleted_at` IS NULL AND d.`deleted_at` IS NOT NULL)
+        OR ((k.`deleted_at` IS NULL) = (d.`deleted_at` IS NULL) AND k.`id` > d.`id`));
+ALTER TABLE `rainfall_monitoring_data`
+  DROP INDEX `idx_station_time`,
+  ADD UNIQUE KEY `uk_station_time` (`station_id`, `monitoring_time`);
@@ -0,0 +1,125 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.utils.ColumnarSeriesReader;
+import com.example.demo.utils.ColumnarSeriesWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 列式监测序列文件基准测试：一个站点一个月分钟级数据（3个指标）的编码、全量扫描耗时，
+ * 以及文件大小与按MySQL行存估算（每行 DATETIME 5字节 + 3×DECIMAL(10,3) 6字节 + TINYINT质量 1字节 = 24字节，不含主键和索引）的对比
+ * 运行（结果按单行计，文件大小在Setup时输出）：
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark.args="ColumnarSeriesBenchmark -prof gc"
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ColumnarSeriesBenchmark {
+
+    private static final int ROWS = 30 * 1440;
+
+    private static final int ROW_STORE_BYTES = 24;
+
+    private static final List<String> METRICS = Arrays.asList("flow_rate", "velocity", "water_level");
+
+    /**
+     * regular：固定1分钟间隔、数值缓慢变化；noisy：间隔抖动、数值随机、含空值
+     */
+    @Param({"regular", "noisy"})
+    private String pattern;
+
+    private LocalDateTime[] times;
+
+    private BigDecimal[][] values;
+
+    private Integer[] qualities;
+
+    private Path file;
+
+    private ColumnarSeriesReader reader;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        Random random = new Random(42);
+        boolean noisy = "noisy".equals(pattern);
+        times = new LocalDateTime[ROWS];
+        values = new BigDecimal[ROWS][];
+        qualities = new Integer[ROWS];
+        LocalDateTime time = LocalDateTime.of(2024, 3, 1, 0, 0);
+        double level = 12.5;
+        for (int i = 0; i < ROWS; i++) {
+            time = time.plusSeconds(noisy ? 55 + random.nextInt(11) : 60);
+            level += noisy ? (random.nextDouble() - 0.5) : Math.sin(i / 720.0) * 0.001;
+            times[i] = time;
+            values[i] = new BigDecimal[]{
+                    noisy && random.nextInt(20) == 0 ? null : BigDecimal.valueOf(Math.round(level * 80_000), 3),
+                    BigDecimal.valueOf(noisy ? random.nextInt(5000) : 1200 + i / 600, 3),
+                    BigDecimal.valueOf(Math.round(level * 1000), 3)};
+            qualities[i] = noisy && random.nextInt(50) == 0 ? 2 : 1;
+        }
+
+        file = Files.createTempFile("columnar-series", ".mcs");
+        long size = encode().writeTo(file);
+        reader = ColumnarSeriesReader.open(file);
+        System.out.printf("%n[%s] 行数: %d，文件: %d 字节（%.2f 字节/行），行存估算: %d 字节，压缩比: %.1fx%n",
+                pattern, ROWS, size, (double) size / ROWS, (long) ROWS * ROW_STORE_BYTES,
+                (double) ROWS * ROW_STORE_BYTES / size);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        reader = null;
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int encodeRows() {
+        return encode().getRowCount();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int scanAll(Blackhole blackhole) {
+        return reader.scan(null, null, (epochSecond, quality, scaledValues, present) -> {
+            blackhole.consume(epochSecond);
+            blackhole.consume(scaledValues[0]);
+        });
+    }
+
+    private ColumnarSeriesWriter encode() {
+        ColumnarSeriesWriter writer = new ColumnarSeriesWriter(METRICS);
+        for (int i = 0; i < ROWS; i++) {
+            writer.add(times[i], qualities[i], values[i]);
+        }
+        return writer;
+    }
+}
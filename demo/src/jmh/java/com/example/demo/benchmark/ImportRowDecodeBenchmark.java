@@ -0,0 +1,123 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.pojo.entity.monitoring.StationTimeKey;
+import com.example.demo.utils.FastTimestampParser;
+import com.example.demo.utils.LongPairHashSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 导入行解码基准测试：监测时间解析与同站点同时间去重的单行耗时和内存分配
+ * <ul>
+ *     <li>legacyRowDecode：原processImportBatch的做法，每行新建DateTimeFormatter、解析两次时间、格式化两次字符串键</li>
+ *     <li>formatterRowDecode：共享DateTimeFormatter解析一次，以StationTimeKey对象去重</li>
+ *     <li>fastRowDecode：FastTimestampParser解析为纪元秒，以LongPairHashSet去重</li>
+ * </ul>
+ * 运行（结果按单行计，gc.alloc.rate.norm为单行分配字节数）：
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark.args="ImportRowDecodeBenchmark -prof gc"
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ImportRowDecodeBenchmark {
+
+    private static final int ROWS = 10000;
+
+    private static final int STATIONS = 20;
+
+    private String[] stationCodes;
+
+    private String[] monitoringTimes;
+
+    private Map<String, Long> stationCodeToIdMap;
+
+    @Setup
+    public void setup() {
+        stationCodes = new String[ROWS];
+        monitoringTimes = new String[ROWS];
+        stationCodeToIdMap = new HashMap<>();
+        for (int i = 0; i < STATIONS; i++) {
+            stationCodeToIdMap.put("ST" + (1000 + i), (long) i + 1);
+        }
+        // 各站点按5分钟间隔连续上报，与实际导入文件的行序一致
+        LocalDateTime start = LocalDateTime.of(2024, 3, 1, 0, 0);
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+        for (int i = 0; i < ROWS; i++) {
+            stationCodes[i] = " ST" + (1000 + i % STATIONS) + " ";
+            monitoringTimes[i] = start.plusMinutes(5L * (i / STATIONS)).format(formatter);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void legacyRowDecode(Blackhole blackhole) {
+        Set<String> duplicateKeys = new HashSet<>();
+        Map<Long, Set<LocalDateTime>> validStationTimes = new HashMap<>();
+        for (int i = 0; i < ROWS; i++) {
+            String trimmedCode = stationCodes[i].trim();
+            Long stationId = stationCodeToIdMap.get(trimmedCode);
+            LocalDateTime monitoringTime = LocalDateTime.parse(monitoringTimes[i],
+                    DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+            String duplicateKey = stationId + "_" + monitoringTime.format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
+            if (!duplicateKeys.add(duplicateKey)) {
+                continue;
+            }
+            validStationTimes.computeIfAbsent(stationId, key -> new HashSet<>()).add(monitoringTime);
+
+            // 写入前再次解析并生成数据库存在性检查的键
+            LocalDateTime reparsed = LocalDateTime.parse(monitoringTimes[i],
+                    DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+            String existingKey = stationId + "_" + reparsed.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+            blackhole.consume(existingKey);
+        }
+        blackhole.consume(validStationTimes);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void formatterRowDecode(Blackhole blackhole) {
+        Set<StationTimeKey> keys = new HashSet<>(ROWS * 2);
+        for (int i = 0; i < ROWS; i++) {
+            Long stationId = stationCodeToIdMap.get(stationCodes[i].trim());
+            LocalDateTime monitoringTime = LocalDateTime.parse(monitoringTimes[i], FastTimestampParser.FORMATTER);
+            blackhole.consume(keys.add(new StationTimeKey(stationId, monitoringTime)));
+            blackhole.consume(monitoringTime);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void fastRowDecode(Blackhole blackhole) {
+        FastTimestampParser timestampParser = new FastTimestampParser();
+        LongPairHashSet keys = new LongPairHashSet(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            Long stationId = stationCodeToIdMap.get(stationCodes[i].trim());
+            long epochSecond = timestampParser.parseEpochSecond(monitoringTimes[i]);
+            blackhole.consume(keys.add(stationId, epochSecond));
+            blackhole.consume(FastTimestampParser.toLocalDateTime(epochSecond));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.utils.QuantileSketch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分位数概要基准测试：构建一天的日概要（每分钟一条，1440条）并序列化，以及合并一年365个日概要后求P99的耗时
+ * 运行：
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark.args="QuantileSketchBenchmark -prof gc"
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QuantileSketchBenchmark {
+
+    private static final int VALUES_PER_DAY = 1440;
+
+    private static final int DAYS = 365;
+
+    private double[] dayValues;
+
+    private byte[][] daySketches;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        dayValues = new double[VALUES_PER_DAY];
+        for (int i = 0; i < VALUES_PER_DAY; i++) {
+            dayValues[i] = Math.round((12.5 + 0.8 * random.nextGaussian()) * 1000) / 1000.0;
+        }
+        daySketches = new byte[DAYS][];
+        for (int d = 0; d < DAYS; d++) {
+            QuantileSketch sketch = new QuantileSketch(QuantileSketch.DEFAULT_COMPRESSION);
+            for (int i = 0; i < VALUES_PER_DAY; i++) {
+                sketch.add(12.5 + d * 0.01 + 0.8 * random.nextGaussian());
+            }
+            daySketches[d] = sketch.toBytes();
+        }
+    }
+
+    @Benchmark
+    public byte[] buildDaySketch() {
+        QuantileSketch sketch = new QuantileSketch(QuantileSketch.DEFAULT_COMPRESSION);
+        for (double value : dayValues) {
+            sketch.add(value);
+        }
+        return sketch.toBytes();
+    }
+
+    @Benchmark
+    public double mergeYear() {
+        QuantileSketch merged = new QuantileSketch(QuantileSketch.DEFAULT_COMPRESSION);
+        for (byte[] bytes : daySketches) {
+            merged.merge(QuantileSketch.fromBytes(bytes));
+        }
+        return merged.quantile(0.99);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.constant.MonitoringType;
+import com.example.demo.pojo.DTO.monitoring.TelemetryReadingDTO;
+import com.example.demo.service.monitoring.gateway.TelemetryFrameCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 遥测消息帧解码基准测试：协议接入网关解码单条水质消息帧（8项数值，最长的帧）的耗时和内存分配
+ * 运行（结果按单条计，gc.alloc.rate.norm为单条分配字节数）：
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark.args="TelemetryFrameDecodeBenchmark -prof gc"
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TelemetryFrameDecodeBenchmark {
+
+    private static final int FRAMES = 1000;
+
+    private byte[][] frames;
+
+    private int[] lengths;
+
+    @Setup
+    public void setup() {
+        frames = new byte[FRAMES][];
+        lengths = new int[FRAMES];
+        LocalDateTime start = LocalDateTime.of(2024, 3, 1, 0, 0);
+        for (int i = 0; i < FRAMES; i++) {
+            TelemetryReadingDTO reading = new TelemetryReadingDTO();
+            reading.setStationCode("WQ" + (1000 + i % 20));
+            reading.setMonitoringTime(start.plusMinutes(i));
+            reading.setDataQuality(1);
+            reading.setWaterTemperature(BigDecimal.valueOf(18.25));
+            reading.setTurbidity(BigDecimal.valueOf(1.3));
+            reading.setPhValue(BigDecimal.valueOf(7.21));
+            reading.setConductivity(BigDecimal.valueOf(452.5));
+            reading.setDissolvedOxygen(BigDecimal.valueOf(8.1));
+            reading.setAmmoniaNitrogen(BigDecimal.valueOf(0.31));
+            reading.setCodValue(BigDecimal.valueOf(12.4));
+            reading.setResidualChlorine(BigDecimal.valueOf(0.52));
+            frames[i] = new byte[TelemetryFrameCodec.maxFrameLength(MonitoringType.WATER_QUALITY)];
+            lengths[i] = TelemetryFrameCodec.encodeFrame(MonitoringType.WATER_QUALITY, reading, frames[i], 0);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FRAMES)
+    public void decodeFrame(Blackhole blackhole) {
+        for (int i = 0; i < FRAMES; i++) {
+            MonitoringType type = TelemetryFrameCodec.frameType(frames[i], 0, lengths[i]);
+            blackhole.consume(TelemetryFrameCodec.decodeFrame(type, frames[i], 0, lengths[i]));
+        }
+    }
+}
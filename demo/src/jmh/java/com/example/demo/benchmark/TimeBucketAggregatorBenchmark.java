@@ -0,0 +1,71 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.utils.TimeBucketAggregator;
+import com.example.demo.utils.TimeBucketInterval;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 图表分桶统计基准测试：按不同时间间隔对一周的秒级监测样本单次遍历分桶的耗时和内存分配
+ * 运行（结果按单行计，gc.alloc.rate.norm为单行分配字节数）：
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark.args="TimeBucketAggregatorBenchmark -prof gc"
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TimeBucketAggregatorBenchmark {
+
+    private static final int ROWS = 7 * 86400;
+
+    @Param({"5min", "6hour", "week"})
+    private String interval;
+
+    private TimeBucketInterval bucketInterval;
+
+    private long[] epochSeconds;
+
+    private double[] values;
+
+    @Setup
+    public void setup() {
+        bucketInterval = TimeBucketInterval.parse(interval);
+        epochSeconds = new long[ROWS];
+        values = new double[ROWS];
+        long start = LocalDateTime.of(2024, 3, 4, 0, 0).toEpochSecond(ZoneOffset.UTC);
+        for (int i = 0; i < ROWS; i++) {
+            epochSeconds[i] = start + i;
+            values[i] = 12.5 + Math.sin(i / 600.0);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void aggregate(Blackhole blackhole) {
+        TimeBucketAggregator aggregator = new TimeBucketAggregator(bucketInterval, 1,
+                bucket -> blackhole.consume(bucket.getAvg(0)));
+        for (int i = 0; i < ROWS; i++) {
+            aggregator.add(epochSeconds[i], values[i]);
+        }
+        aggregator.finish();
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.demo.common;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 游标分页响应DTO
+ * 用于键集（seek）分页，客户端通过nextCursor获取下一页，翻页深度不影响查询耗时
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageResult<T> {
+
+    /**
+     * 数据列表
+     * 当前页的数据项集合
+     */
+    private List<T> items;
+
+    /**
+     * 每页大小
+     */
+    private int size;
+
+    /**
+     * 下一页游标
+     * 不透明字符串，没有下一页时为null
+     */
+    private String nextCursor;
+
+    /**
+     * 是否有下一页
+     */
+    private boolean hasNext;
+
+    /**
+     * 总记录数
+     * 仅在请求参数withCount为true时统计，否则为null
+     */
+    private Long total;
+}
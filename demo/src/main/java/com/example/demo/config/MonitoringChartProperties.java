@@ -0,0 +1,73 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 监测图表查询配置属性类
+ * 统一管理图表返回点数和图表结果缓存等参数
+ */
+@Component
+@ConfigurationProperties(prefix = "demo.monitoring.chart")
+@Data
+public class MonitoringChartProperties {
+
+    /**
+     * 未指定maxPoints时图表返回的最大点数
+     */
+    private Integer defaultMaxPoints = 2000;
+
+    /**
+     * 允许请求的最大点数上限
+     */
+    private Integer maxPointsLimit = 20000;
+
+    /**
+     * 是否启用图表结果缓存
+     */
+    private Boolean cacheEnabled = true;
+
+    /**
+     * 图表结果缓存容量上限(MB)，按各条结果的估算内存占用计算，超出时淘汰最久未访问的结果
+     */
+    private Integer cacheMaxSizeMb = 64;
+
+    /**
+     * 缓存结果的最长保留时间（秒），站点增删等不产生数据变更通知的变化在此时间后生效
+     */
+    private Long cacheTtlSeconds = 600L;
+
+    /**
+     * 多站点图表单次请求允许的最大站点数
+     */
+    private Integer batchMaxStations = 100;
+
+    /**
+     * 多站点图表每次查询的站点数，站点数超过时分组并行查询
+     */
+    private Integer batchChunkSize = 10;
+
+    /**
+     * 多站点图表并行查询的线程数
+     */
+    private Integer batchThreads = 4;
+
+    /**
+     * 对比图表单次请求允许统计的最大桶数（多站点为各站点合计，多指标为桶数×指标数），超过时应改用更大的时间间隔
+     */
+    private Integer batchMaxBuckets = 2000000;
+
+    /**
+     * 根据请求参数确定本次图表查询的最大点数
+     *
+     * @param maxPoints 请求的最大点数，为空时使用默认值，超过上限时按上限处理
+     * @return 最大点数
+     */
+    public int resolveMaxPoints(Integer maxPoints) {
+        if (maxPoints == null || maxPoints <= 0) {
+            return defaultMaxPoints;
+        }
+        return Math.min(maxPoints, maxPointsLimit);
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 监测数据投递目录配置属性类
+ * 统一管理上游系统投递CSV文件的监听目录、各目录对应的监测类型和导入模式，以及文件写入完成的判定时间
+ */
+@Component
+@ConfigurationProperties(prefix = "demo.monitoring.drop-folder")
+@Data
+public class MonitoringDropFolderProperties {
+
+    /**
+     * 是否启用目录监听导入
+     */
+    private Boolean enabled = false;
+
+    /**
+     * 文件大小和修改时间保持不变超过该时长（毫秒）后视为写入完成
+     */
+    private Long settleMillis = 5000L;
+
+    /**
+     * 监听轮询间隔（毫秒）
+     */
+    private Long pollIntervalMillis = 1000L;
+
+    /**
+     * 监听目录列表
+     */
+    private List<Directory> directories = new ArrayList<>();
+
+    /**
+     * 监听目录
+     */
+    @Data
+    public static class Directory {
+
+        /**
+         * 目录路径，处理完成的文件移入其下的done/failed子目录
+         */
+        private String path;
+
+        /**
+         * 监测类型：flow、water-level、water-quality、rainfall
+         */
+        private String type;
+
+        /**
+         * 监测站点ID，仅雨情目录需要
+         */
+        private Long stationId;
+
+        /**
+         * 导入模式：skip、overwrite、error
+         */
+        private String mode = "skip";
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 监测数据流式导出配置属性类
+ * 统一管理流式导出所使用的异步请求超时和线程池参数
+ */
+@Component
+@ConfigurationProperties(prefix = "demo.monitoring.export")
+@Data
+public class MonitoringExportProperties {
+
+    /**
+     * 异步请求超时时间（毫秒），大数据量导出耗时较长
+     */
+    private Long asyncTimeout = 1800000L;
+
+    /**
+     * 导出线程池核心线程数
+     */
+    private Integer corePoolSize = 2;
+
+    /**
+     * 导出线程池最大线程数
+     */
+    private Integer maxPoolSize = 8;
+
+    /**
+     * 导出线程池等待队列容量
+     */
+    private Integer queueCapacity = 20;
+}
@@ -0,0 +1,189 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 设备协议接入网关配置属性类
+ * 统一管理通过Modbus-TCP轮询和MQTT订阅采集的设备端点、网关聚合批次参数，以及内置设备模拟器
+ */
+@Component
+@ConfigurationProperties(prefix = "demo.monitoring.gateway")
+@Data
+public class MonitoringGatewayProperties {
+
+    /**
+     * 是否启用协议接入网关
+     */
+    private Boolean enabled = false;
+
+    /**
+     * 每种监测类型的网关缓冲队列容量(条)，队列满时暂停读取设备数据
+     */
+    private Integer queueCapacity = 20000;
+
+    /**
+     * 转交接入服务的批量大小，不超过接入服务的单次上报最大条数
+     */
+    private Integer batchSize = 1000;
+
+    /**
+     * 批量聚合等待时间（毫秒）
+     */
+    private Long lingerMs = 200L;
+
+    /**
+     * 连接超时及读取超时（毫秒）
+     */
+    private Integer timeoutMs = 5000;
+
+    /**
+     * 连接断开后的重连间隔（毫秒）
+     */
+    private Long reconnectDelayMs = 5000L;
+
+    /**
+     * 设备端点列表
+     */
+    private List<Device> devices = new ArrayList<>();
+
+    /**
+     * 内置设备模拟器
+     */
+    private Simulator simulator = new Simulator();
+
+    /**
+     * 设备端点
+     */
+    @Data
+    public static class Device {
+
+        /**
+         * 端点名称，写入监测数据的数据来源字段
+         */
+        private String name;
+
+        /**
+         * 接入协议：modbus、mqtt
+         */
+        private String protocol;
+
+        /**
+         * 设备或MQTT代理地址
+         */
+        private String host;
+
+        /**
+         * 端口
+         */
+        private Integer port;
+
+        /**
+         * Modbus从站地址
+         */
+        private Integer unitId = 1;
+
+        /**
+         * Modbus保持寄存器起始地址
+         */
+        private Integer address = 0;
+
+        /**
+         * Modbus轮询间隔（毫秒）
+         */
+        private Long pollIntervalMs = 1000L;
+
+        /**
+         * Modbus设备的监测类型：flow、water-level、water-quality、rainfall、reservoir
+         */
+        private String type;
+
+        /**
+         * Modbus设备对应的监测站码
+         */
+        private String stationCode;
+
+        /**
+         * MQTT订阅主题，支持+和#通配符
+         */
+        private String topic = "telemetry/#";
+
+        /**
+         * MQTT客户端ID，为空时按端点名称生成
+         */
+        private String clientId;
+
+        /**
+         * MQTT心跳间隔（秒）
+         */
+        private Integer keepAliveSeconds = 60;
+    }
+
+    /**
+     * 内置设备模拟器，在本机启动Modbus-TCP从站和MQTT代理，按固定间隔生成各模拟站点的读数
+     */
+    @Data
+    public static class Simulator {
+
+        /**
+         * 是否启动模拟器
+         */
+        private Boolean enabled = false;
+
+        /**
+         * Modbus-TCP从站监听端口，0表示不启动
+         */
+        private Integer modbusPort = 15020;
+
+        /**
+         * MQTT代理监听端口，0表示不启动
+         */
+        private Integer mqttPort = 11883;
+
+        /**
+         * 读数生成及MQTT发布间隔（毫秒）
+         */
+        private Long publishIntervalMs = 1000L;
+
+        /**
+         * 每次生成时模拟时钟前进的秒数，大于发布间隔时按历史时间快速回放
+         */
+        private Long timeStepSeconds = 1L;
+
+        /**
+         * 模拟时钟起始时间（yyyy-MM-dd HH:mm:ss），为空时从当前时间开始
+         */
+        private String startTime;
+
+        /**
+         * 模拟站点列表
+         */
+        private List<Station> stations = new ArrayList<>();
+    }
+
+    /**
+     * 模拟站点
+     */
+    @Data
+    public static class Station {
+
+        /**
+         * 监测站码
+         */
+        private String stationCode;
+
+        /**
+         * 监测类型：flow、water-level、water-quality、rainfall、reservoir
+         */
+        private String type;
+
+        /**
+         * Modbus从站地址，寄存器从0开始
+         */
+        private Integer unitId = 1;
+    }
+}
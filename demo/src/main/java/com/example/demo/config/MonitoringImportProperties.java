@@ -0,0 +1,71 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 监测数据导入流水线配置属性类
+ * 统一管理导入时并行解析校验、按站点去重所使用的线程池和分片参数，异步导入任务的并发和保留参数，
+ * 导入错误报告文件的存放目录和保留时间，以及客户端批次台账的缓存和保留参数
+ */
+@Component
+@ConfigurationProperties(prefix = "demo.monitoring.import")
+@Data
+public class MonitoringImportProperties {
+
+    /**
+     * 并行解析校验和去重的线程数
+     */
+    private Integer parallelism = 4;
+
+    /**
+     * 线程池等待队列容量，队列满时由提交线程自行执行
+     */
+    private Integer queueCapacity = 64;
+
+    /**
+     * 每个解析校验任务处理的行数
+     */
+    private Integer sliceSize = 1000;
+
+    /**
+     * 写入阶段每次批量插入的行数
+     */
+    private Integer writeChunkSize = 5000;
+
+    /**
+     * 异步导入任务的并发执行数
+     */
+    private Integer jobPoolSize = 2;
+
+    /**
+     * 异步导入任务等待队列容量
+     */
+    private Integer jobQueueCapacity = 20;
+
+    /**
+     * 已结束任务的状态保留时间（分钟）
+     */
+    private Long jobRetentionMinutes = 60L;
+
+    /**
+     * 导入错误报告文件存放目录
+     */
+    private String errorReportDir = "data/import-errors";
+
+    /**
+     * 导入错误报告保留时间（分钟），过期后删除文件
+     */
+    private Long errorReportRetentionMinutes = 1440L;
+
+    /**
+     * 批次台账在内存中缓存的最近批次数
+     */
+    private Integer batchCacheSize = 10000;
+
+    /**
+     * 批次台账保留天数，超过后同一批次ID可再次导入
+     */
+    private Integer batchRetentionDays = 30;
+}
@@ -0,0 +1,45 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 遥测数据接入配置属性类
+ * 统一管理写入队列容量、批量提交大小等参数
+ */
+@Component
+@ConfigurationProperties(prefix = "demo.monitoring.ingest")
+@Data
+public class MonitoringIngestProperties {
+
+    /**
+     * 每种监测类型的写入队列容量（条）
+     */
+    private Integer queueCapacity = 50000;
+
+    /**
+     * 单次批量提交的最大条数
+     */
+    private Integer batchSize = 1000;
+
+    /**
+     * 批量聚合等待时间（毫秒），队列中数据不足一批时最多等待该时长再提交
+     */
+    private Long lingerMs = 200L;
+
+    /**
+     * 单次上报请求允许的最大条数
+     */
+    private Integer maxRequestRows = 5000;
+
+    /**
+     * 队列已满时建议客户端的重试间隔（秒）
+     */
+    private Long retryAfterSeconds = 1L;
+
+    /**
+     * 停机时等待队列排空的最长时间（毫秒）
+     */
+    private Long shutdownTimeoutMs = 10000L;
+}
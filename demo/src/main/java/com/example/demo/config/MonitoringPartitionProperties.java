@@ -0,0 +1,40 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 监测数据分区配置属性类
+ * 统一管理按月分区的预建月数、热数据保留月数和分区维护周期等参数
+ */
+@Component
+@ConfigurationProperties(prefix = "demo.monitoring.partition")
+@Data
+public class MonitoringPartitionProperties {
+
+    /**
+     * 是否启用分区维护和冷热查询路由，关闭后全部查询只读热表
+     */
+    private Boolean enabled = true;
+
+    /**
+     * 热表保留的整月数（不含当月），更早的分区迁入归档表
+     */
+    private Integer hotMonths = 12;
+
+    /**
+     * 提前创建的未来月份分区数
+     */
+    private Integer precreateMonths = 3;
+
+    /**
+     * 启动后首次维护的延迟（秒）
+     */
+    private Long initialDelaySeconds = 30L;
+
+    /**
+     * 分区维护间隔（分钟）
+     */
+    private Long maintenanceIntervalMinutes = 360L;
+}
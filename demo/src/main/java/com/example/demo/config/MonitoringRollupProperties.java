@@ -0,0 +1,30 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 监测数据预聚合配置属性类
+ * 统一管理预聚合开关、增量刷新间隔和启动时自动重建等参数
+ */
+@Component
+@ConfigurationProperties(prefix = "demo.monitoring.rollup")
+@Data
+public class MonitoringRollupProperties {
+
+    /**
+     * 是否启用预聚合，关闭后图表查询全部走原始数据
+     */
+    private Boolean enabled = true;
+
+    /**
+     * 增量刷新间隔（毫秒），数据写入后最多延迟该时长反映到预聚合表
+     */
+    private Long flushIntervalMs = 5000L;
+
+    /**
+     * 启动时预聚合表为空而原始数据存在时，是否自动全量重建
+     */
+    private Boolean autoRebuild = true;
+}
@@ -0,0 +1,25 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 监测序列归档文件配置属性类
+ * 统一管理列式压缩归档文件的存放目录和打开文件数量
+ */
+@Component
+@ConfigurationProperties(prefix = "demo.monitoring.series-archive")
+@Data
+public class MonitoringSeriesArchiveProperties {
+
+    /**
+     * 归档文件根目录，文件按 类型/站点ID/yyyyMM.mcs 存放
+     */
+    private String baseDir = "data/series-archive";
+
+    /**
+     * 同时保持打开的归档文件数量上限，超出时关闭最久未访问的文件
+     */
+    private Integer maxOpenFiles = 256;
+}
@@ -0,0 +1,45 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 监测数据分位数概要配置属性类
+ * 统一管理日分位数概要的开关、增量刷新间隔、压缩参数和分布统计的直方图分组数
+ */
+@Component
+@ConfigurationProperties(prefix = "demo.monitoring.sketch")
+@Data
+public class MonitoringSketchProperties {
+
+    /**
+     * 是否启用日分位数概要，关闭后分布统计全部读取原始数据
+     */
+    private Boolean enabled = true;
+
+    /**
+     * 增量刷新间隔（毫秒），数据写入后最多延迟该时长反映到概要表
+     */
+    private Long flushIntervalMs = 5000L;
+
+    /**
+     * 启动时概要表为空而原始数据存在时，是否自动全量重建
+     */
+    private Boolean autoRebuild = true;
+
+    /**
+     * t-digest压缩参数，越大分位数越精确、概要越大；默认100时每个日概要约0.5~1KB
+     */
+    private Integer compression = 100;
+
+    /**
+     * 直方图默认分组数
+     */
+    private Integer defaultBins = 20;
+
+    /**
+     * 直方图允许的最大分组数
+     */
+    private Integer maxBins = 200;
+}
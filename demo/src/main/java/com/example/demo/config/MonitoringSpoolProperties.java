@@ -0,0 +1,45 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 遥测数据本地暂存配置属性类
+ * 统一管理数据库不可用时遥测数据暂存日志的目录、分段大小、磁盘配额、刷盘间隔和恢复检测间隔
+ */
+@Component
+@ConfigurationProperties(prefix = "demo.monitoring.spool")
+@Data
+public class MonitoringSpoolProperties {
+
+    /**
+     * 是否启用本地暂存
+     */
+    private Boolean enabled = true;
+
+    /**
+     * 暂存日志目录
+     */
+    private String dir = "data/telemetry-spool";
+
+    /**
+     * 单个日志分段的大小上限（字节），写满后切换到新分段，回放完的分段整体删除
+     */
+    private Long segmentBytes = 64L * 1024 * 1024;
+
+    /**
+     * 暂存日志占用磁盘的上限（字节），达到上限后写入线程等待回放释放空间，写入队列随之积压并向设备返回429
+     */
+    private Long maxBytes = 2L * 1024 * 1024 * 1024;
+
+    /**
+     * 刷盘间隔（毫秒），期间追加的数据合并为一次fsync
+     */
+    private Long fsyncIntervalMs = 200L;
+
+    /**
+     * 数据库恢复检测及回放间隔（毫秒）
+     */
+    private Long recoveryCheckIntervalMs = 5000L;
+}
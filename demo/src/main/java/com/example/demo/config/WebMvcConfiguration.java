@@ -6,6 +6,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.lang.NonNull;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
@@ -18,6 +20,7 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurationSupp
  * 1. 静态资源映射配置
  * 2. CORS跨域配置
  * 3. JWT拦截器配置
+ * 4. 异步请求（流式导出）配置
  */
 @Configuration
 @Slf4j
@@ -26,6 +29,9 @@ public class WebMvcConfiguration extends WebMvcConfigurationSupport {
     @Autowired
     private JwtTokenInterceptor jwtTokenInterceptor;
 
+    @Autowired
+    private MonitoringExportProperties monitoringExportProperties;
+
     /**
      * 注册自定义拦截器
      *
@@ -58,6 +64,30 @@ public class WebMvcConfiguration extends WebMvcConfigurationSupport {
     }
 
 
+    /**
+     * 异步请求配置
+     * StreamingResponseBody在独立线程中写出响应，需要较长的超时时间和专用线程池
+     */
+    @Override
+    protected void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        log.info("配置异步请求支持，超时时间: {}ms", monitoringExportProperties.getAsyncTimeout());
+        configurer.setDefaultTimeout(monitoringExportProperties.getAsyncTimeout());
+        configurer.setTaskExecutor(exportTaskExecutor());
+    }
+
+    /**
+     * 流式导出线程池
+     */
+    @Bean
+    public ThreadPoolTaskExecutor exportTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(monitoringExportProperties.getCorePoolSize());
+        executor.setMaxPoolSize(monitoringExportProperties.getMaxPoolSize());
+        executor.setQueueCapacity(monitoringExportProperties.getQueueCapacity());
+        executor.setThreadNamePrefix("export-");
+        executor.initialize();
+        return executor;
+    }
 
     /**
      * 设置静态资源映射
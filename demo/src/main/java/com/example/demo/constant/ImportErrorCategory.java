@@ -0,0 +1,48 @@
+package com.example.demo.constant;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 监测数据导入错误类别
+ * 导入结果按类别统计错误行数，错误报告文件中每行记录所属类别
+ */
+@Getter
+@RequiredArgsConstructor
+public enum ImportErrorCategory {
+
+    /**
+     * 站码为空或站点不存在
+     */
+    INVALID_STATION("invalid-station", "无效站码"),
+
+    /**
+     * 监测时间为空或格式错误
+     */
+    INVALID_TIME("invalid-time", "监测时间错误"),
+
+    /**
+     * 监测数值格式错误或未通过校验
+     */
+    INVALID_VALUE("invalid-value", "数据校验失败"),
+
+    /**
+     * 文件内同站点同时间的重复行（保留先出现的行）
+     */
+    DUPLICATE_IN_FILE("duplicate-in-file", "文件内重复"),
+
+    /**
+     * 其他处理异常
+     */
+    PROCESSING("processing", "处理异常");
+
+    /**
+     * 导入结果中使用的编码
+     */
+    private final String code;
+
+    /**
+     * 中文名称
+     */
+    private final String label;
+}
@@ -0,0 +1,39 @@
+package com.example.demo.constant;
+
+/**
+ * 监测数据导入任务状态
+ */
+public enum ImportJobStatus {
+
+    /**
+     * 等待执行
+     */
+    PENDING,
+
+    /**
+     * 正在导入
+     */
+    RUNNING,
+
+    /**
+     * 导入完成（可能含有被拒绝的行）
+     */
+    COMPLETED,
+
+    /**
+     * 导入失败，失败前已提交的块保留在数据库中
+     */
+    FAILED,
+
+    /**
+     * 已取消，取消前已提交的块保留在数据库中
+     */
+    CANCELLED;
+
+    /**
+     * 是否为结束状态
+     */
+    public boolean isFinished() {
+        return this == COMPLETED || this == FAILED || this == CANCELLED;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.demo.constant;
+
+/**
+ * 监测数据变更类型
+ */
+public enum MonitoringChangeType {
+
+    /**
+     * 新增
+     */
+    INSERTED,
+
+    /**
+     * 修改（覆盖已有记录）
+     */
+    UPDATED,
+
+    /**
+     * 删除（含软删除）
+     */
+    DELETED
+}
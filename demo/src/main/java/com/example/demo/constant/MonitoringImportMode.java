@@ -0,0 +1,59 @@
+package com.example.demo.constant;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 监测数据导入模式
+ * 决定导入记录与数据库中已有记录（同站点同监测时间，由唯一键uk_station_time约束）冲突时的处理方式；
+ * 已软删除的记录同样占用唯一键
+ */
+@Getter
+@RequiredArgsConstructor
+public enum MonitoringImportMode {
+
+    /**
+     * 跳过已存在的记录（ON DUPLICATE KEY UPDATE不修改未删除的记录），跳过行数计入重复行数；
+     * 已软删除的记录按导入数据恢复，计入写入行数
+     */
+    SKIP("skip", "跳过"),
+
+    /**
+     * 覆盖已存在的记录（ON DUPLICATE KEY UPDATE），覆盖行数计入重复行数；已软删除的记录被恢复
+     */
+    OVERWRITE("overwrite", "覆盖"),
+
+    /**
+     * 存在冲突记录时终止导入，当前块回滚；分块导入时已提交的块保留在数据库中
+     */
+    ERROR("error", "报错");
+
+    /**
+     * 请求参数中使用的编码
+     */
+    private final String code;
+
+    /**
+     * 中文名称
+     */
+    private final String label;
+
+    /**
+     * 根据编码获取导入模式
+     *
+     * @param code 编码，如skip，为空时返回默认的跳过模式
+     * @return 导入模式
+     * @throws IllegalArgumentException 不支持的编码
+     */
+    public static MonitoringImportMode fromCode(String code) {
+        if (code == null || code.trim().isEmpty()) {
+            return SKIP;
+        }
+        for (MonitoringImportMode mode : values()) {
+            if (mode.code.equalsIgnoreCase(code.trim())) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("不支持的导入模式: " + code);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.demo.constant;
+
+import java.time.LocalDateTime;
+
+/**
+ * 监测数据查询路由
+ * 按查询时间范围与归档边界的关系决定读取热表、归档表或两者；合并读取时携带路由时的归档边界，
+ * 热表只取边界及之后的数据、归档表只取边界之前的数据，归档过程中两表同时存在的数据不会重复返回
+ * 实例不可变，线程安全
+ */
+public final class MonitoringTableRoute {
+
+    /**
+     * 只读热表（分区表）
+     */
+    public static final MonitoringTableRoute HOT = new MonitoringTableRoute("HOT", null);
+
+    /**
+     * 只读归档表
+     */
+    public static final MonitoringTableRoute COLD = new MonitoringTableRoute("COLD", null);
+
+    private final String name;
+
+    private final LocalDateTime boundary;
+
+    private MonitoringTableRoute(String name, LocalDateTime boundary) {
+        this.name = name;
+        this.boundary = boundary;
+    }
+
+    /**
+     * 热表与归档表以归档边界为界合并读取
+     *
+     * @param boundary 归档边界，热表取不早于该时间的数据，归档表取早于该时间的数据
+     */
+    public static MonitoringTableRoute both(LocalDateTime boundary) {
+        if (boundary == null) {
+            throw new IllegalArgumentException("合并读取必须提供归档边界");
+        }
+        return new MonitoringTableRoute("BOTH", boundary);
+    }
+
+    /**
+     * 路由名称：HOT、COLD或BOTH，供Mapper XML判断
+     */
+    public String name() {
+        return name;
+    }
+
+    /**
+     * 合并读取的归档边界，其他路由为null
+     */
+    public LocalDateTime getBoundary() {
+        return boundary;
+    }
+
+    @Override
+    public String toString() {
+        return boundary == null ? name : name + "(" + boundary + ")";
+    }
+}
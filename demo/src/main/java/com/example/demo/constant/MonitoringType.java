@@ -0,0 +1,98 @@
+package com.example.demo.constant;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 监测数据类型
+ * 统一描述各类监测数据对应的接口路径标识、数据表和站点监测项目编码
+ */
+@Getter
+public enum MonitoringType {
+
+    FLOW("flow", "flow_monitoring_data", "Q", "流量",
+            "instant_flow", "cumulative_flow"),
+
+    WATER_LEVEL("water-level", "water_level_monitoring_data", "H", "水位",
+            "water_level"),
+
+    WATER_QUALITY("water-quality", "water_quality_monitoring_data", "WQ", "水质",
+            "water_temperature", "turbidity", "ph_value", "conductivity",
+            "dissolved_oxygen", "ammonia_nitrogen", "cod_value", "residual_chlorine"),
+
+    RAINFALL("rainfall", "rainfall_monitoring_data", "R", "雨情",
+            "rainfall", "rainfall_intensity", "cumulative_rainfall"),
+
+    RESERVOIR("reservoir", "reservoir_monitoring_data", null, "水库",
+            "water_level", "storage_capacity", "flood_limit_diff", "inflow", "outflow");
+
+    /**
+     * 接口路径标识
+     */
+    private final String path;
+
+    /**
+     * 数据表名
+     */
+    private final String tableName;
+
+    /**
+     * 监测站点的监测项目编码（水库数据无对应编码）
+     */
+    private final String itemCode;
+
+    /**
+     * 类型名称
+     */
+    private final String label;
+
+    /**
+     * 数值型监测指标的列名
+     */
+    private final List<String> metricColumns;
+
+    MonitoringType(String path, String tableName, String itemCode, String label, String... metricColumns) {
+        this.path = path;
+        this.tableName = tableName;
+        this.itemCode = itemCode;
+        this.label = label;
+        this.metricColumns = Collections.unmodifiableList(Arrays.asList(metricColumns));
+    }
+
+    /**
+     * 根据接口路径标识获取监测类型
+     *
+     * @param path 路径标识，如flow、water-level
+     * @return 监测类型
+     * @throws IllegalArgumentException 不支持的类型
+     */
+    public static MonitoringType fromPath(String path) {
+        for (MonitoringType type : values()) {
+            if (type.path.equalsIgnoreCase(path)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("不支持的监测数据类型: " + path);
+    }
+
+    /**
+     * 根据站点监测项目编码获取监测类型
+     *
+     * @param itemCode 监测项目编码，如Q、H
+     * @return 监测类型，没有对应类型时返回null
+     */
+    public static MonitoringType fromItemCode(String itemCode) {
+        if (itemCode == null) {
+            return null;
+        }
+        for (MonitoringType type : values()) {
+            if (itemCode.equals(type.itemCode)) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
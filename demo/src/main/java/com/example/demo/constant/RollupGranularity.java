@@ -0,0 +1,78 @@
+package com.example.demo.constant;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * 监测数据预聚合粒度
+ * 小时粒度由原始数据聚合，日粒度由小时粒度聚合，月粒度由日粒度聚合
+ */
+@Getter
+public enum RollupGranularity {
+
+    HOUR("%Y-%m-%d %H:00:00"),
+
+    DAY("%Y-%m-%d 00:00:00"),
+
+    MONTH("%Y-%m-01 00:00:00");
+
+    /**
+     * 将时间截断到桶起点的MySQL DATE_FORMAT格式
+     */
+    private final String bucketFormat;
+
+    RollupGranularity(String bucketFormat) {
+        this.bucketFormat = bucketFormat;
+    }
+
+    /**
+     * 截断到所在桶的起始时间
+     */
+    public LocalDateTime truncate(LocalDateTime time) {
+        switch (this) {
+            case HOUR:
+                return time.truncatedTo(ChronoUnit.HOURS);
+            case DAY:
+                return time.truncatedTo(ChronoUnit.DAYS);
+            default:
+                return time.truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1);
+        }
+    }
+
+    /**
+     * 获取下一个桶的起始时间
+     */
+    public LocalDateTime next(LocalDateTime bucketStart) {
+        switch (this) {
+            case HOUR:
+                return bucketStart.plusHours(1);
+            case DAY:
+                return bucketStart.plusDays(1);
+            default:
+                return bucketStart.plusMonths(1);
+        }
+    }
+
+    /**
+     * 判断时间是否恰好位于桶边界
+     */
+    public boolean isAligned(LocalDateTime time) {
+        return truncate(time).equals(time);
+    }
+
+    /**
+     * 上一级（更细）粒度，小时粒度返回null
+     */
+    public RollupGranularity finer() {
+        switch (this) {
+            case MONTH:
+                return DAY;
+            case DAY:
+                return HOUR;
+            default:
+                return null;
+        }
+    }
+}
@@ -1,9 +1,15 @@
 package com.example.demo.controller;
 
 import com.example.demo.common.ApiResponse;
+import com.example.demo.common.CursorPageResult;
 import com.example.demo.common.PageResult;
+import com.example.demo.constant.MonitoringImportMode;
+import com.example.demo.constant.MonitoringType;
+import com.example.demo.exception.monitoring.ImportDuplicateRecordException;
 import com.example.demo.pojo.DTO.monitoring.*;
 import com.example.demo.service.FlowMonitoringDataService;
+import com.example.demo.service.monitoring.MonitoringFileImportService;
+import com.example.demo.service.monitoring.MonitoringImportBatchLedger;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.Operation;
 import lombok.extern.slf4j.Slf4j;
@@ -13,8 +19,11 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -34,6 +43,18 @@ public class FlowMonitoringDataController {
     @Autowired
     private FlowMonitoringDataService flowMonitoringDataService;
 
+    /**
+     * 监测数据文件导入服务
+     */
+    @Autowired
+    private MonitoringFileImportService monitoringFileImportService;
+
+    /**
+     * 监测数据导入批次台账
+     */
+    @Autowired
+    private MonitoringImportBatchLedger monitoringImportBatchLedger;
+
     /**
      * 分页查询流量监测数据列表
      *
@@ -83,6 +104,27 @@ public class FlowMonitoringDataController {
         }
     }
 
+
+    /**
+     * 游标分页查询流量监测数据
+     * 通过上一页返回的nextCursor续查，翻页深度不影响查询耗时，默认不统计总数
+     *
+     * @param queryDTO 查询条件，支持cursor、size、withCount及与分页查询相同的筛选条件
+     * @return 游标分页结果
+     */
+    @GetMapping("/flow-data/cursor")
+    @Operation(summary = "游标分页查询流量监测数据", description = "按(监测时间, ID)键集分页，仅支持按监测时间排序，withCount=true时返回总数")
+    public ResponseEntity<ApiResponse<CursorPageResult<FlowMonitoringDataResponseDTO>>> getFlowMonitoringDataCursorPage(
+            FlowMonitoringDataQueryDTO queryDTO) {
+        try {
+            CursorPageResult<FlowMonitoringDataResponseDTO> result = flowMonitoringDataService.getFlowMonitoringDataCursorPage(queryDTO);
+            return ResponseEntity.ok(ApiResponse.success("查询成功", result));
+        } catch (Exception e) {
+            log.error("游标分页查询流量监测数据失败", e);
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(400, "查询失败: " + e.getMessage()));
+        }
+    }
     /**
      * 获取流量监测图表数据
      * 获取指定站点和时间范围的流量图表数据
@@ -91,8 +133,9 @@ public class FlowMonitoringDataController {
      * @param stationId 监测站点ID（必须提供）
      * @param startTime 开始时间（可选）
      * @param endTime   结束时间（可选）
-     * @param interval  时间间隔(hour:小时,day:天,month:月，默认为hour
+     * @param interval  时间间隔(raw:逐点,[N]min/hour/day/week/month:按N分钟/小时/天/周/月统计，如15min、6hour)，默认为raw
      * @param dataType  数据类型(flowRate:瞬时流量,cumulativeFlow:累计流量)，默认为flowRate
+     * @param maxPoints  最大返回点数（可选），数据点超过时服务端降采样
      * @return 流量图表数据
      */
     @GetMapping("/flow-chart-data")
@@ -102,8 +145,9 @@ public class FlowMonitoringDataController {
             @RequestParam(required = false) Long stationId,
             @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime startTime,
             @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime endTime,
-            @RequestParam(defaultValue = "hour") String interval,
-            @RequestParam(defaultValue = "flowRate") String dataType) {
+            @RequestParam(defaultValue = "raw") String interval,
+            @RequestParam(defaultValue = "flowRate") String dataType,
+            @RequestParam(required = false) Integer maxPoints) {
         try {
             // 站点ID参数验证
             if (stationId == null) {
@@ -113,7 +157,38 @@ public class FlowMonitoringDataController {
 
             // 调用服务层获取图表数据            
             FlowChartDataResponseDTO result = flowMonitoringDataService.getFlowChartData(
-                    stationId, startTime, endTime, interval, dataType);
+                    stationId, startTime, endTime, interval, dataType, maxPoints);
+            return ResponseEntity.ok(ApiResponse.success("查询成功", result));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(400, "查询失败: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * 获取多个站点的流量对比图表数据
+     * 各站点序列共用一组时间标签，站点在某一时间没有数据时对应值为null
+     *
+     * @param stationIds 监测站点ID列表（必须提供）
+     * @param startTime 开始时间（可选）
+     * @param endTime 结束时间（可选）
+     * @param interval 时间间隔(raw/[N]min/hour/day/week/month)，默认为hour
+     * @param dataType 数据类型(flowRate:瞬时流量,cumulativeFlow:累计流量)，默认为flowRate
+     * @param maxPoints 最大返回点数（可选），超过时相邻时间段合并
+     * @return 多站点流量对比图表数据
+     */
+    @GetMapping("/flow-chart-data/batch")
+    @Operation(summary = "获取多站点流量对比图表数据", description = "一次查询多个站点的流量图表，各站点共用一组时间标签")
+    public ResponseEntity<ApiResponse<MonitoringBatchChartResponseDTO>> getFlowBatchChartData(
+            @RequestParam List<Long> stationIds,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime startTime,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime endTime,
+            @RequestParam(defaultValue = "hour") String interval,
+            @RequestParam(defaultValue = "flowRate") String dataType,
+            @RequestParam(required = false) Integer maxPoints) {
+        try {
+            MonitoringBatchChartResponseDTO result = flowMonitoringDataService.getFlowBatchChartData(
+                    stationIds, startTime, endTime, interval, dataType, maxPoints);
             return ResponseEntity.ok(ApiResponse.success("查询成功", result));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -164,17 +239,46 @@ public class FlowMonitoringDataController {
         }
     }
 
+    /**
+     * 流式导出流量监测数据
+     * 通过数据库游标逐行读取并直接写入响应输出流，不限制导出行数，内存占用恒定
+     *
+     * @param queryDTO 查询参数DTO，分页参数将被忽略
+     * @return CSV文件流
+     */
+    @PostMapping("/flow-data/export/stream")
+    @Operation(summary = "流式导出流量监测数据", description = "根据查询条件逐行流式导出全部流量监测数据为CSV文件")
+    public ResponseEntity<StreamingResponseBody> exportFlowDataStream(
+            @RequestBody FlowMonitoringDataQueryDTO queryDTO) {
+        log.info("流式导出流量监测数据 - 站点ID: {}", queryDTO.getStationId());
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(new MediaType("text", "csv", StandardCharsets.UTF_8));
+        headers.setContentDispositionFormData("attachment",
+            "flow_monitoring_data_" + System.currentTimeMillis() + ".csv");
+
+        StreamingResponseBody body = outputStream -> flowMonitoringDataService.exportToCsv(queryDTO, outputStream);
+        return ResponseEntity.ok()
+                .headers(headers)
+                .body(body);
+    }
+
     /**
      * 导入流量监测数据
      * 批量导入Excel解析后的流量监测数据
      *
-     * @param dataList 导入的数据列表     * @return 导入结果，包含成功和失败的数据统计
+     * @param dataList 导入的数据列表
+     * @param mode 导入模式：skip跳过已存在记录（默认）、overwrite覆盖已存在记录、error存在重复记录时终止导入
+     * @param batchId 客户端批次ID（可选），重复提交同一批次时直接返回首次导入的结果
+     * @return 导入结果，包含成功和失败的数据统计
      */
     @PostMapping("/flow-data/import")
 
     @Operation(summary = "导入流量监测数据", description = "批量导入Excel解析后的流量监测数据")
     public ResponseEntity<ApiResponse<ImportResultDTO>> importFlowData(
-            @RequestBody @Valid List<FlowDataImportDTO> dataList) {
+            @RequestBody @Valid List<FlowDataImportDTO> dataList,
+            @RequestParam(required = false) String mode,
+            @RequestParam(required = false) String batchId) {
 
         try {
             log.info("开始导入流量监测数据，数据数量: {}", dataList.size());
@@ -186,7 +290,8 @@ public class FlowMonitoringDataController {
             }
 
             // 调用服务层处理导入
-            ImportResultDTO result = flowMonitoringDataService.importFlowData(dataList);
+            ImportResultDTO result = monitoringImportBatchLedger.execute(batchId, MonitoringType.FLOW,
+                    () -> flowMonitoringDataService.importFlowData(dataList, MonitoringImportMode.fromCode(mode)));
 
             log.info("流量监测数据导入完成，总数: {}, 成功: {}, 失败: {}",
                     result.getTotalRows(), result.getSuccessRows(), result.getErrorRows());
@@ -210,6 +315,10 @@ public class FlowMonitoringDataController {
                 return ResponseEntity.ok(ApiResponse.success("数据导入成功", result));
             }
 
+        } catch (ImportDuplicateRecordException e) {
+            log.warn("导入流量监测数据存在重复记录: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage()));
         } catch (IllegalArgumentException e) {
             log.warn("导入流量监测数据参数错误: {}", e.getMessage());
             return ResponseEntity.badRequest()
@@ -220,4 +329,47 @@ public class FlowMonitoringDataController {
                     .body(ApiResponse.error("导入失败: " + e.getMessage()));
         }
     }
+
+    /**
+     * 上传文件导入流量监测数据
+     * 服务端逐行解析CSV/XLSX文件并分块入库，适用于大文件导入
+     *
+     * @param file 导入文件（.csv或.xlsx，首行为标题行）
+     * @param mode 导入模式：skip跳过已存在记录（默认）、overwrite覆盖已存在记录、error存在重复记录时终止导入
+     * @param batchId 客户端批次ID（可选），重复提交同一批次时直接返回首次导入的结果
+     * @return 导入结果，包含成功和失败的数据统计
+     */
+    @PostMapping(value = "/flow-data/import/file", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "上传文件导入流量监测数据", description = "上传CSV/XLSX文件，服务端逐行解析并分块导入，每块独立提交")
+    public ResponseEntity<ApiResponse<ImportResultDTO>> importFlowDataFile(
+            @RequestPart("file") MultipartFile file,
+            @RequestParam(required = false) String mode,
+            @RequestParam(required = false) String batchId) {
+        try {
+            ImportResultDTO result = monitoringImportBatchLedger.executeChunked(batchId, MonitoringType.FLOW,
+                    () -> monitoringFileImportService.importFlowFile(file, MonitoringImportMode.fromCode(mode)));
+
+            if (result.getSuccessRows() == 0 && result.getErrorRows() > 0) {
+                return ResponseEntity.badRequest()
+                        .body(ApiResponse.error("数据导入失败，请检查数据格式", result));
+            } else if (result.getErrorRows() > 0) {
+                return ResponseEntity.ok(ApiResponse.success(
+                        String.format("数据导入完成，成功: %d条，失败: %d条", result.getSuccessRows(), result.getErrorRows()),
+                        result));
+            }
+            return ResponseEntity.ok(ApiResponse.success("数据导入成功", result));
+        } catch (ImportDuplicateRecordException e) {
+            log.warn("上传文件导入流量监测数据存在重复记录: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            log.warn("上传文件导入流量监测数据参数错误: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("参数错误: " + e.getMessage()));
+        } catch (Exception e) {
+            log.error("上传文件导入流量监测数据失败", e);
+            return ResponseEntity.internalServerError()
+                    .body(ApiResponse.error("导入失败: " + e.getMessage()));
+        }
+    }
 }
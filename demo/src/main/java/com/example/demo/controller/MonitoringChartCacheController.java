@@ -0,0 +1,50 @@
+package com.example.demo.controller;
+
+import com.example.demo.common.ApiResponse;
+import com.example.demo.service.monitoring.MonitoringChartCache;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * 监测图表结果缓存控制器
+ * 提供缓存命中情况查询和手动清空
+ */
+@RestController
+@RequestMapping("/api/monitoring/chart-cache")
+@Tag(name = "监测图表缓存", description = "监测图表结果缓存管理接口")
+public class MonitoringChartCacheController {
+
+    /**
+     * 监测图表结果缓存
+     */
+    @Autowired
+    private MonitoringChartCache monitoringChartCache;
+
+    /**
+     * 查询缓存运行状态
+     *
+     * @return 缓存条数、估算内存占用及命中、未命中、淘汰、过期和失效次数
+     */
+    @GetMapping("/stats")
+    @Operation(summary = "查询图表缓存状态", description = "返回缓存条数、估算内存占用及命中、未命中、淘汰、过期和失效次数")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getStats() {
+        return ResponseEntity.ok(ApiResponse.success("查询成功", monitoringChartCache.getStats()));
+    }
+
+    /**
+     * 清空缓存
+     *
+     * @return 操作结果
+     */
+    @DeleteMapping
+    @Operation(summary = "清空图表缓存", description = "清空全部图表结果缓存，如直接修改数据库后使用")
+    public ResponseEntity<ApiResponse<Void>> clear() {
+        monitoringChartCache.clear();
+        return ResponseEntity.ok(ApiResponse.success("缓存已清空", null));
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.demo.controller;
+
+import com.example.demo.common.ApiResponse;
+import com.example.demo.constant.MonitoringType;
+import com.example.demo.pojo.DTO.monitoring.MonitoringDistributionResponseDTO;
+import com.example.demo.service.monitoring.MonitoringSketchService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * 监测数据分布统计控制器
+ * 提供按站点、指标的分位数和直方图统计，以及日分位数概要的重建和运行状态查询
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/monitoring/distribution")
+@Tag(name = "监测数据分布统计", description = "监测数据分位数、直方图统计及日分位数概要管理接口")
+public class MonitoringDistributionController {
+
+    /**
+     * 监测数据分位数概要服务
+     */
+    @Autowired
+    private MonitoringSketchService monitoringSketchService;
+
+    /**
+     * 统计站点指标的分位数和直方图
+     *
+     * @param type 监测类型：flow、water-level、water-quality、rainfall
+     * @param stationId 监测站点ID（必填）
+     * @param metric 指标列名（可选），如instant_flow、water_level、ph_value，默认为该类型的第一个指标
+     * @param startTime 开始时间（可选）
+     * @param endTime 结束时间（可选）
+     * @param bins 直方图分组数（可选）
+     * @return 条数、最小值、最大值、平均值、P5/P50/P95/P99及等宽直方图
+     */
+    @GetMapping
+    @Operation(summary = "统计监测数据分布", description = "合并范围内的日分位数概要，返回P5/P50/P95/P99和直方图，首尾不足一天的部分读取原始数据")
+    public ResponseEntity<ApiResponse<MonitoringDistributionResponseDTO>> getDistribution(
+            @RequestParam String type,
+            @RequestParam Long stationId,
+            @RequestParam(required = false) String metric,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime startTime,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime endTime,
+            @RequestParam(required = false) Integer bins) {
+        try {
+            MonitoringDistributionResponseDTO result = monitoringSketchService.getDistribution(
+                    MonitoringType.fromPath(type.trim()), stationId, metric, startTime, endTime, bins);
+            return ResponseEntity.ok(ApiResponse.success("查询成功", result));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(400, e.getMessage()));
+        } catch (Exception e) {
+            log.error("统计监测数据分布失败", e);
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(400, "查询失败: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * 重建日分位数概要
+     *
+     * @param type 监测类型：flow、water-level、water-quality、rainfall，为空时重建全部类型
+     * @param stationId 站点ID，为空时重建全部站点
+     * @param startTime 开始时间，为空时不限
+     * @param endTime 结束时间，为空时不限
+     * @return 提交结果，重建在后台执行
+     */
+    @PostMapping("/sketch/rebuild")
+    @Operation(summary = "重建日分位数概要", description = "按原始数据重新计算日分位数概要，范围按整日对齐，重建期间分布统计使用原始数据")
+    public ResponseEntity<ApiResponse<Void>> rebuild(
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) Long stationId,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime startTime,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime endTime) {
+        try {
+            MonitoringType monitoringType = type == null || type.trim().isEmpty() ? null : MonitoringType.fromPath(type.trim());
+            monitoringSketchService.submitRebuild(monitoringType, stationId, startTime, endTime);
+            return ResponseEntity.ok(ApiResponse.success("重建任务已提交", null));
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(400, e.getMessage()));
+        } catch (Exception e) {
+            log.error("提交分位数概要重建任务失败", e);
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(400, "提交失败: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * 查询日分位数概要运行状态
+     *
+     * @return 可用类型、待刷新日期数量、刷新和重建情况
+     */
+    @GetMapping("/sketch/stats")
+    @Operation(summary = "查询分位数概要运行状态", description = "返回概要可用的监测类型、待刷新日期数量及最近刷新和重建时间")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getStats() {
+        return ResponseEntity.ok(ApiResponse.success("查询成功", monitoringSketchService.getStats()));
+    }
+}
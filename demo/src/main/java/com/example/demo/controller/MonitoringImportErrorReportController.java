@@ -0,0 +1,72 @@
+package com.example.demo.controller;
+
+import com.example.demo.service.monitoring.ImportErrorReport;
+import com.example.demo.service.monitoring.ImportErrorReportStore;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * 监测数据导入错误报告控制器
+ * 导入结果只返回前100条错误样例，全部错误行通过错误报告ID下载
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/monitoring/import-error-reports")
+@Tag(name = "监测数据导入错误报告", description = "下载监测数据导入的完整错误报告")
+public class MonitoringImportErrorReportController {
+
+    /**
+     * 导入错误报告存储
+     */
+    @Autowired
+    private ImportErrorReportStore importErrorReportStore;
+
+    /**
+     * 下载导入错误报告
+     *
+     * @param reportId 错误报告ID，由导入结果的errorReportId返回
+     * @return CSV文件流，包含行号、站码、错误类别和错误信息
+     */
+    @GetMapping("/{reportId}")
+    @Operation(summary = "下载导入错误报告", description = "以CSV文件下载一次导入的全部错误行，报告超过保留时间后失效")
+    public ResponseEntity<StreamingResponseBody> download(@PathVariable String reportId) {
+        try {
+            ImportErrorReport report = importErrorReportStore.get(reportId);
+
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(new MediaType("text", "csv", StandardCharsets.UTF_8));
+            headers.setContentDispositionFormData("attachment",
+                    report.getType().getPath() + "_import_errors_" + report.getId() + ".csv");
+            headers.setContentLength(Files.size(report.getFile()));
+
+            StreamingResponseBody body = outputStream -> Files.copy(report.getFile(), outputStream);
+            return ResponseEntity.ok()
+                    .headers(headers)
+                    .body(body);
+        } catch (Exception e) {
+            if (!(e instanceof IllegalArgumentException)) {
+                log.error("下载导入错误报告失败", e);
+            }
+            // 对于文件下载接口，返回错误时需要特殊处理
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            String errorJson = "{\"success\":false,\"message\":\"下载失败: " + e.getMessage() + "\"}";
+            return ResponseEntity.badRequest()
+                    .headers(headers)
+                    .body(outputStream -> outputStream.write(errorJson.getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.demo.controller;
+
+import com.example.demo.common.ApiResponse;
+import com.example.demo.constant.MonitoringType;
+import com.example.demo.constant.MonitoringImportMode;
+import com.example.demo.pojo.DTO.monitoring.ImportJobStatusDTO;
+import com.example.demo.service.monitoring.MonitoringImportJobService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * 监测数据导入任务控制器
+ * 上传文件后立即返回任务ID，导入在后台分块执行，可查询进度或取消
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/monitoring/import-jobs")
+@Tag(name = "监测数据导入任务", description = "监测数据文件异步导入、进度查询和取消接口")
+public class MonitoringImportJobController {
+
+    /**
+     * 监测数据异步导入任务服务
+     */
+    @Autowired
+    private MonitoringImportJobService monitoringImportJobService;
+
+    /**
+     * 提交导入任务
+     *
+     * @param type 监测类型路径标识（flow、water-level、water-quality、rainfall）
+     * @param file 导入文件（.csv或.xlsx，首行为标题行）
+     * @param stationId 监测站点ID，仅雨情导入需要
+     * @param mode 导入模式：skip跳过已存在记录（默认）、overwrite覆盖已存在记录、error存在重复记录时终止导入
+     * @param batchId 客户端批次ID（可选），重复提交同一批次时返回执行中的任务或首次导入的结果
+     * @return 任务状态，包含任务ID
+     */
+    @PostMapping(value = "/{type}", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "提交导入任务", description = "上传CSV/XLSX文件并立即返回任务ID，导入在后台分块执行，每块独立提交")
+    public ResponseEntity<ApiResponse<ImportJobStatusDTO>> submit(
+            @PathVariable String type,
+            @RequestPart("file") MultipartFile file,
+            @RequestParam(required = false) Long stationId,
+            @RequestParam(required = false) String mode,
+            @RequestParam(required = false) String batchId) {
+        try {
+            ImportJobStatusDTO status = monitoringImportJobService.submit(MonitoringType.fromPath(type), file, stationId,
+                    MonitoringImportMode.fromCode(mode), batchId);
+            return ResponseEntity.ok(ApiResponse.success("导入任务已提交", status));
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(400, e.getMessage()));
+        } catch (Exception e) {
+            log.error("提交导入任务失败", e);
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(400, "提交失败: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * 查询导入任务状态
+     *
+     * @param jobId 任务ID
+     * @return 已解析、已写入、被拒绝行数，进度及预计剩余时间，任务结束后包含导入结果
+     */
+    @GetMapping("/{jobId}")
+    @Operation(summary = "查询导入任务状态", description = "返回已解析、已写入、被拒绝行数，进度及预计剩余时间")
+    public ResponseEntity<ApiResponse<ImportJobStatusDTO>> getStatus(@PathVariable String jobId) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success("查询成功", monitoringImportJobService.getStatus(jobId)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(400, e.getMessage()));
+        } catch (Exception e) {
+            log.error("查询导入任务状态失败", e);
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(400, "查询失败: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * 取消导入任务
+     *
+     * @param jobId 任务ID
+     * @return 任务状态，执行中的任务在当前块提交后停止
+     */
+    @PostMapping("/{jobId}/cancel")
+    @Operation(summary = "取消导入任务", description = "等待中的任务直接取消，执行中的任务在当前块提交后停止，已提交的数据保留")
+    public ResponseEntity<ApiResponse<ImportJobStatusDTO>> cancel(@PathVariable String jobId) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success("已请求取消", monitoringImportJobService.cancel(jobId)));
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(400, e.getMessage()));
+        } catch (Exception e) {
+            log.error("取消导入任务失败", e);
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(400, "取消失败: " + e.getMessage()));
+        }
+    }
+}
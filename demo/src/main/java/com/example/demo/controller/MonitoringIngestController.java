@@ -0,0 +1,96 @@
+package com.example.demo.controller;
+
+import com.example.demo.common.ApiResponse;
+import com.example.demo.constant.MonitoringType;
+import com.example.demo.exception.monitoring.IngestQueueFullException;
+import com.example.demo.pojo.DTO.monitoring.TelemetryIngestResultDTO;
+import com.example.demo.pojo.DTO.monitoring.TelemetryReadingDTO;
+import com.example.demo.service.monitoring.TelemetryIngestService;
+import com.example.demo.service.monitoring.gateway.TelemetryGateway;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 遥测数据接入控制器
+ * 接收RTU等采集设备高频上报的小批量监测数据，数据进入写入队列后立即返回
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/monitoring")
+@Tag(name = "遥测数据接入", description = "采集设备监测数据上报接口")
+public class MonitoringIngestController {
+
+    /**
+     * 遥测数据接入服务
+     */
+    @Autowired
+    private TelemetryIngestService telemetryIngestService;
+
+    /**
+     * 设备协议接入网关
+     */
+    @Autowired
+    private TelemetryGateway telemetryGateway;
+
+    /**
+     * 上报监测数据
+     *
+     * @param type 监测类型：flow、water-level、water-quality、rainfall、reservoir
+     * @param readings 监测数据列表
+     * @param batchId 客户端批次ID（可选），网关重试同一批次时直接返回首次接收的结果，不会重复入库
+     * @return 接收结果；写入队列已满时返回429并通过Retry-After提示重试间隔
+     */
+    @PostMapping("/ingest/{type}")
+    @Operation(summary = "上报监测数据", description = "按监测类型批量上报监测数据，数据异步批量入库，队列已满时返回429")
+    public ResponseEntity<ApiResponse<TelemetryIngestResultDTO>> ingest(
+            @PathVariable String type,
+            @RequestBody List<TelemetryReadingDTO> readings,
+            @RequestParam(required = false) String batchId) {
+        try {
+            TelemetryIngestResultDTO result = telemetryIngestService.ingest(MonitoringType.fromPath(type), readings, batchId);
+            return ResponseEntity.ok(ApiResponse.success("接收成功", result));
+        } catch (IngestQueueFullException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(ApiResponse.error(HttpStatus.TOO_MANY_REQUESTS.value(), e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(400, e.getMessage()));
+        } catch (Exception e) {
+            log.error("接收监测数据失败", e);
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(400, "接收失败: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * 查询写入队列统计
+     *
+     * @return 各监测类型的队列长度及接收、写入、失败、拒绝条数
+     */
+    @GetMapping("/ingest/stats")
+    @Operation(summary = "查询遥测写入队列统计", description = "返回各监测类型写入队列的积压和吞吐统计")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getIngestStats() {
+        return ResponseEntity.ok(ApiResponse.success("查询成功", telemetryIngestService.getStats()));
+    }
+
+    /**
+     * 查询协议接入网关统计
+     *
+     * @return 各监测类型的网关队列及转发统计、各设备端点的连接状态和消息数
+     */
+    @GetMapping("/ingest/gateway/stats")
+    @Operation(summary = "查询协议接入网关统计", description = "返回Modbus/MQTT设备端点的连接状态及网关转发统计")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getGatewayStats() {
+        return ResponseEntity.ok(ApiResponse.success("查询成功", telemetryGateway.getStats()));
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.demo.controller;
+
+import com.example.demo.common.ApiResponse;
+import com.example.demo.service.monitoring.MonitoringPartitionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * 监测数据分区控制器
+ * 提供分区维护的手动触发和运行状态查询
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/monitoring/partition")
+@Tag(name = "监测数据分区", description = "监测数据按月分区及冷热归档管理接口")
+public class MonitoringPartitionController {
+
+    /**
+     * 监测数据分区维护服务
+     */
+    @Autowired
+    private MonitoringPartitionService monitoringPartitionService;
+
+    /**
+     * 立即执行一次分区维护
+     *
+     * @return 提交结果，维护在后台执行
+     */
+    @PostMapping("/maintain")
+    @Operation(summary = "执行分区维护", description = "预建未来月份分区，并将超出热数据保留期的分区迁入归档表")
+    public ResponseEntity<ApiResponse<Void>> maintain() {
+        try {
+            monitoringPartitionService.submitMaintenance();
+            return ResponseEntity.ok(ApiResponse.success("维护任务已提交", null));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(400, e.getMessage()));
+        } catch (Exception e) {
+            log.error("提交分区维护任务失败", e);
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(400, "提交失败: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * 查询分区运行状态
+     *
+     * @return 各监测数据表的分区列表、归档边界及最近维护结果
+     */
+    @GetMapping("/stats")
+    @Operation(summary = "查询分区运行状态", description = "返回各监测数据表的分区列表、归档边界及最近维护结果")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getStats() {
+        try {
+            return ResponseEntity.ok(ApiResponse.success("查询成功", monitoringPartitionService.getStats()));
+        } catch (Exception e) {
+            log.error("查询分区运行状态失败", e);
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(400, "查询失败: " + e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.demo.controller;
+
+import com.example.demo.common.ApiResponse;
+import com.example.demo.constant.MonitoringType;
+import com.example.demo.service.monitoring.MonitoringRollupService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * 监测数据预聚合控制器
+ * 提供预聚合数据重建和运行状态查询
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/monitoring/rollup")
+@Tag(name = "监测数据预聚合", description = "监测数据小时/日/月预聚合管理接口")
+public class MonitoringRollupController {
+
+    /**
+     * 监测数据预聚合服务
+     */
+    @Autowired
+    private MonitoringRollupService monitoringRollupService;
+
+    /**
+     * 重建预聚合数据
+     *
+     * @param type 监测类型：flow、water-level、water-quality、rainfall，为空时重建全部类型
+     * @param stationId 站点ID，为空时重建全部站点
+     * @param startTime 开始时间，为空时不限
+     * @param endTime 结束时间，为空时不限
+     * @return 提交结果，重建在后台执行
+     */
+    @PostMapping("/rebuild")
+    @Operation(summary = "重建预聚合数据", description = "按原始数据重新计算预聚合数据，范围按整月对齐，重建期间图表查询使用原始数据")
+    public ResponseEntity<ApiResponse<Void>> rebuild(
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) Long stationId,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime startTime,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime endTime) {
+        try {
+            MonitoringType monitoringType = type == null || type.trim().isEmpty() ? null : MonitoringType.fromPath(type.trim());
+            monitoringRollupService.submitRebuild(monitoringType, stationId, startTime, endTime);
+            return ResponseEntity.ok(ApiResponse.success("重建任务已提交", null));
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(400, e.getMessage()));
+        } catch (Exception e) {
+            log.error("提交预聚合重建任务失败", e);
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(400, "提交失败: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * 查询预聚合运行状态
+     *
+     * @return 可用类型、待刷新桶数量、刷新和重建情况
+     */
+    @GetMapping("/stats")
+    @Operation(summary = "查询预聚合运行状态", description = "返回预聚合可用的监测类型、待刷新桶数量及最近刷新和重建时间")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getStats() {
+        return ResponseEntity.ok(ApiResponse.success("查询成功", monitoringRollupService.getStats()));
+    }
+}
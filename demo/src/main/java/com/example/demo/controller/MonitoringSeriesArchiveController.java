@@ -0,0 +1,119 @@
+package com.example.demo.controller;
+
+import com.example.demo.common.ApiResponse;
+import com.example.demo.constant.MonitoringType;
+import com.example.demo.service.monitoring.MonitoringSeriesArchiveService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 监测序列归档文件控制器
+ * 提供历史监测数据导出为列式压缩文件、基于归档文件的图表查询和归档状态查询
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/monitoring/series-archive")
+@Tag(name = "监测序列归档文件", description = "历史监测数据列式压缩归档及查询接口")
+public class MonitoringSeriesArchiveController {
+
+    /**
+     * 监测序列归档文件服务
+     */
+    @Autowired
+    private MonitoringSeriesArchiveService monitoringSeriesArchiveService;
+
+    /**
+     * 导出归档文件
+     *
+     * @param type 监测类型路径标识，如flow、water-level
+     * @param stationId 站点ID，为空时导出全部站点
+     * @param startMonth 开始月份（yyyy-MM）
+     * @param endMonth 结束月份（yyyy-MM）
+     * @return 提交结果，导出在后台执行
+     */
+    @PostMapping("/export")
+    @Operation(summary = "导出归档文件", description = "将已结束月份的监测数据按站点导出为列式压缩文件，已存在的文件会被覆盖")
+    public ResponseEntity<ApiResponse<Void>> export(
+            @RequestParam String type,
+            @RequestParam(required = false) Long stationId,
+            @RequestParam String startMonth,
+            @RequestParam String endMonth) {
+        try {
+            monitoringSeriesArchiveService.submitExport(MonitoringType.fromPath(type), stationId,
+                    YearMonth.parse(startMonth), YearMonth.parse(endMonth));
+            return ResponseEntity.ok(ApiResponse.success("导出任务已提交", null));
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(400, "月份格式错误，应为yyyy-MM"));
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(400, e.getMessage()));
+        } catch (Exception e) {
+            log.error("提交归档导出任务失败", e);
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(400, "提交失败: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * 查询归档文件中的图表数据
+     *
+     * @param type 监测类型路径标识
+     * @param stationId 站点ID，为空时统计全部已归档站点
+     * @param startTime 开始时间
+     * @param endTime 结束时间
+     * @param interval 时间间隔（raw或[N]min/hour/day/week/month，如15min、6hour、week）
+     * @param dataQuality 数据质量，为空时不过滤
+     * @return 按时间排序的统计数据
+     */
+    @GetMapping("/chart")
+    @Operation(summary = "查询归档图表数据", description = "从列式归档文件按任意分钟/小时/日/周/月间隔统计各指标的平均值、最大值、最小值和合计")
+    public ResponseEntity<ApiResponse<List<Map<String, Object>>>> getChartData(
+            @RequestParam String type,
+            @RequestParam(required = false) Long stationId,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime startTime,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime endTime,
+            @RequestParam(defaultValue = "day") String interval,
+            @RequestParam(required = false) Integer dataQuality) {
+        try {
+            List<Map<String, Object>> data = monitoringSeriesArchiveService.queryChartData(
+                    MonitoringType.fromPath(type), stationId, startTime, endTime, interval, dataQuality);
+            return ResponseEntity.ok(ApiResponse.success("查询成功", data));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(400, e.getMessage()));
+        } catch (Exception e) {
+            log.error("查询归档图表数据失败", e);
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(400, "查询失败: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * 查询归档文件状态
+     *
+     * @return 各监测类型的归档站点数、文件数、文件总字节数及最近导出结果
+     */
+    @GetMapping("/stats")
+    @Operation(summary = "查询归档文件状态", description = "返回各监测类型的归档站点数、文件数、文件总字节数及最近导出结果")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getStats() {
+        try {
+            return ResponseEntity.ok(ApiResponse.success("查询成功", monitoringSeriesArchiveService.getStats()));
+        } catch (Exception e) {
+            log.error("查询归档文件状态失败", e);
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(400, "查询失败: " + e.getMessage()));
+        }
+    }
+}
@@ -1,12 +1,20 @@
 package com.example.demo.controller;
 
 import com.example.demo.common.ApiResponse;
+import com.example.demo.common.CursorPageResult;
 import com.example.demo.common.PageResult;
+import com.example.demo.constant.MonitoringImportMode;
+import com.example.demo.constant.MonitoringType;
+import com.example.demo.exception.monitoring.ImportDuplicateRecordException;
 import com.example.demo.pojo.DTO.monitoring.RainfallChartDataResponseDTO;
+import com.example.demo.pojo.DTO.monitoring.ImportResultDTO;
 import com.example.demo.pojo.DTO.monitoring.RainfallDataImportDTO;
 import com.example.demo.pojo.DTO.monitoring.RainfallMonitoringDataQueryDTO;
 import com.example.demo.pojo.DTO.monitoring.RainfallMonitoringDataResponseDTO;
+import com.example.demo.pojo.entity.monitoring.MonitoringImportBatch;
 import com.example.demo.service.RainfallMonitoringDataService;
+import com.example.demo.service.monitoring.MonitoringFileImportService;
+import com.example.demo.service.monitoring.MonitoringImportBatchLedger;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,9 +23,14 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -46,6 +59,18 @@ public class RainfallMonitoringDataController {
     @Autowired
     private RainfallMonitoringDataService rainfallMonitoringDataService;
 
+    /**
+     * 监测数据文件导入服务
+     */
+    @Autowired
+    private MonitoringFileImportService monitoringFileImportService;
+
+    /**
+     * 监测数据导入批次台账
+     */
+    @Autowired
+    private MonitoringImportBatchLedger monitoringImportBatchLedger;
+
     /**
      * 分页查询雨情监测数据列表
      * 
@@ -96,6 +121,27 @@ public class RainfallMonitoringDataController {
         return ResponseEntity.ok(ApiResponse.success("查询成功", result));
     }
 
+
+    /**
+     * 游标分页查询雨情监测数据
+     * 通过上一页返回的nextCursor续查，翻页深度不影响查询耗时，默认不统计总数
+     *
+     * @param queryDTO 查询条件，支持cursor、size、withCount及与分页查询相同的筛选条件
+     * @return 游标分页结果
+     */
+    @GetMapping("/rainfall-data/cursor")
+    @Operation(summary = "游标分页查询雨情监测数据", description = "按(监测时间, ID)键集分页，仅支持按监测时间排序，withCount=true时返回总数")
+    public ResponseEntity<ApiResponse<CursorPageResult<RainfallMonitoringDataResponseDTO>>> getRainfallMonitoringDataCursorPage(
+            RainfallMonitoringDataQueryDTO queryDTO) {
+        try {
+            CursorPageResult<RainfallMonitoringDataResponseDTO> result = rainfallMonitoringDataService.getRainfallMonitoringDataCursorPage(queryDTO);
+            return ResponseEntity.ok(ApiResponse.success("查询成功", result));
+        } catch (Exception e) {
+            log.error("游标分页查询雨情监测数据失败", e);
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(400, "查询失败: " + e.getMessage()));
+        }
+    }
     /**
      * 获取用于图表展示的雨情监测数据
      * 支持数据类型区分（时段雨量,累计雨量）
@@ -103,8 +149,9 @@ public class RainfallMonitoringDataController {
      * @param stationId 监测站点ID（可选）
      * @param startTime 开始时间（可选）
      * @param endTime 结束时间（可选）
-     * @param interval 时间间隔，例如：hour, day, week, month（默认为hour）
+     * @param interval 时间间隔，例如：raw, 5min, 15min, hour, 6hour, day, week, month（默认为raw，按监测时刻逐点）
      * @param dataType 数据类型(rainfall:时段雨量,cumulativeRainfall:累计雨量)，默认为rainfall
+     * @param maxPoints 最大返回点数（可选），数据点超过时服务端降采样
      * @return 图表所需的雨情监测数据
      */
     @GetMapping("/rainfall-chart-data")
@@ -114,8 +161,9 @@ public class RainfallMonitoringDataController {
             @RequestParam(required = false) Long stationId,
             @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime startTime,
             @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime endTime,
-            @RequestParam(defaultValue = "hour") String interval,
-            @RequestParam(defaultValue = "rainfall") String dataType) {
+            @RequestParam(defaultValue = "raw") String interval,
+            @RequestParam(defaultValue = "rainfall") String dataType,
+            @RequestParam(required = false) Integer maxPoints) {
 
         log.info("获取雨情监测图表数据 - 站点ID: {}, 开始时�? {}, 结束时间: {}, 间隔: {}, 数据类型: {}",
                 stationId, startTime, endTime, interval, dataType);
@@ -123,7 +171,7 @@ public class RainfallMonitoringDataController {
         try {
             // 获取图表数据
             RainfallChartDataResponseDTO chartData =
-                    rainfallMonitoringDataService.getRainfallChartData(stationId, startTime, endTime, interval, dataType);
+                    rainfallMonitoringDataService.getRainfallChartData(stationId, startTime, endTime, interval, dataType, maxPoints);
 
             return ResponseEntity.ok(ApiResponse.success("查询成功", chartData));
         } catch (Exception e) {
@@ -178,11 +226,37 @@ public class RainfallMonitoringDataController {
         }
     }
 
+    /**
+     * 流式导出雨情监测数据
+     * 通过数据库游标逐行读取并直接写入响应输出流，不限制导出行数，内存占用恒定
+     *
+     * @param queryDTO 查询参数DTO，分页参数将被忽略
+     * @return CSV文件流
+     */
+    @PostMapping("/rainfall/export/stream")
+    @Operation(summary = "流式导出雨情监测数据", description = "根据查询条件逐行流式导出全部雨情监测数据为CSV文件")
+    public ResponseEntity<StreamingResponseBody> exportRainfallDataStream(
+            @RequestBody RainfallMonitoringDataQueryDTO queryDTO) {
+        log.info("流式导出雨情监测数据 - 站点ID: {}", queryDTO.getStationId());
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(new MediaType("text", "csv", StandardCharsets.UTF_8));
+        headers.setContentDispositionFormData("attachment",
+            "rainfall_monitoring_data_" + System.currentTimeMillis() + ".csv");
+
+        StreamingResponseBody body = outputStream -> rainfallMonitoringDataService.exportToCsv(queryDTO, outputStream);
+        return ResponseEntity.ok()
+                .headers(headers)
+                .body(body);
+    }
+
     /**
      * 批量导入雨情监测数据
      *
      * @param stationId 监测站点ID
      * @param dataList 要导入的数据列表
+     * @param mode 导入模式：skip跳过已存在记录（默认）、overwrite覆盖已存在记录、error存在重复记录时终止导入
+     * @param batchId 客户端批次ID（可选），重复提交同一批次时直接返回首次导入的结果
      * @return 导入结果，包含成功和失败数量
      */
     @PostMapping("/rainfall-data/import")
@@ -190,12 +264,16 @@ public class RainfallMonitoringDataController {
         @Operation(summary = "导入雨情监测数据", description = "批量导入Excel解析后的雨情监测数据")
     public ResponseEntity<ApiResponse<Map<String, Object>>> importRainfallData(
             @RequestParam Long stationId,
-            @Valid @RequestBody List<RainfallDataImportDTO> dataList) {
+            @Valid @RequestBody List<RainfallDataImportDTO> dataList,
+            @RequestParam(required = false) String mode,
+            @RequestParam(required = false) String batchId) {
 
         log.info("导入雨情监测数据 - 站点ID: {}, 数据量: {}", stationId, dataList.size());
 
         // 执行数据导入
-        Map<String, Object> result = rainfallMonitoringDataService.importRainfallData(dataList, stationId);
+        Map<String, Object> result = monitoringImportBatchLedger.execute(batchId, MonitoringType.RAINFALL,
+                () -> rainfallMonitoringDataService.importRainfallData(dataList, stationId, MonitoringImportMode.fromCode(mode)),
+                RainfallMonitoringDataController::toImportBatch, RainfallMonitoringDataController::toImportReplay);
 
         int successCount = (int) result.get("successCount");
         int failCount = (int) result.get("failCount");
@@ -221,4 +299,78 @@ public class RainfallMonitoringDataController {
         }
     }
 
-} 
+    /**
+     * 上传文件导入雨情监测数据
+     * 服务端逐行解析CSV/XLSX文件并分块入库，适用于大文件导入
+     *
+     * @param stationId 监测站点ID
+     * @param file 导入文件（.csv或.xlsx，首行为标题行）
+     * @param mode 导入模式：skip跳过已存在记录（默认）、overwrite覆盖已存在记录、error存在重复记录时终止导入
+     * @param batchId 客户端批次ID（可选），重复提交同一批次时直接返回首次导入的结果
+     * @return 导入结果，包含成功和失败的数据统计
+     */
+    @PostMapping(value = "/rainfall-data/import/file", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "上传文件导入雨情监测数据", description = "上传CSV/XLSX文件，服务端逐行解析并分块导入，每块独立提交")
+    public ResponseEntity<ApiResponse<ImportResultDTO>> importRainfallDataFile(
+            @RequestParam Long stationId,
+            @RequestPart("file") MultipartFile file,
+            @RequestParam(required = false) String mode,
+            @RequestParam(required = false) String batchId) {
+        try {
+            ImportResultDTO result = monitoringImportBatchLedger.executeChunked(batchId, MonitoringType.RAINFALL,
+                    () -> monitoringFileImportService.importRainfallFile(file, stationId, MonitoringImportMode.fromCode(mode)));
+
+            if (result.getSuccessRows() == 0 && result.getErrorRows() > 0) {
+                return ResponseEntity.badRequest()
+                        .body(ApiResponse.error("数据导入失败，请检查数据格式", result));
+            } else if (result.getErrorRows() > 0) {
+                return ResponseEntity.ok(ApiResponse.success(
+                        String.format("数据导入完成，成功: %d条，失败: %d条", result.getSuccessRows(), result.getErrorRows()),
+                        result));
+            }
+            return ResponseEntity.ok(ApiResponse.success("数据导入成功", result));
+        } catch (ImportDuplicateRecordException e) {
+            log.warn("上传文件导入雨情监测数据存在重复记录: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            log.warn("上传文件导入雨情监测数据参数错误: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("参数错误: " + e.getMessage()));
+        } catch (Exception e) {
+            log.error("上传文件导入雨情监测数据失败", e);
+            return ResponseEntity.internalServerError()
+                    .body(ApiResponse.error("导入失败: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * 由雨情导入结果生成批次台账记录
+     */
+    private static MonitoringImportBatch toImportBatch(Map<String, Object> result) {
+        int successCount = (int) result.get("successCount");
+        int failCount = (int) result.get("failCount");
+        MonitoringImportBatch batch = new MonitoringImportBatch();
+        batch.setTotalRows(successCount + failCount);
+        batch.setSuccessRows(successCount);
+        batch.setErrorRows(failCount);
+        batch.setDuplicateRows((int) result.get("duplicateCount"));
+        batch.setErrorReportId((String) result.get("errorReportId"));
+        return batch;
+    }
+
+    /**
+     * 由批次台账记录生成重复提交时返回的雨情导入结果，不含错误明细
+     */
+    private static Map<String, Object> toImportReplay(MonitoringImportBatch batch) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("successCount", batch.getSuccessRows());
+        result.put("failCount", batch.getErrorRows());
+        result.put("duplicateCount", batch.getDuplicateRows());
+        result.put("errorMessages", Collections.emptyList());
+        result.put("errorReportId", batch.getErrorReportId());
+        result.put("batchId", batch.getBatchId());
+        result.put("replayed", true);
+        return result;
+    }
+}
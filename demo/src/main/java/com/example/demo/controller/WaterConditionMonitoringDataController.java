@@ -1,6 +1,7 @@
 package com.example.demo.controller;
 
 import com.example.demo.common.ApiResponse;
+import com.example.demo.common.CursorPageResult;
 import com.example.demo.common.PageResult;
 import com.example.demo.pojo.DTO.monitoring.WaterConditionMonitoringDataQueryDTO;
 import com.example.demo.pojo.DTO.monitoring.WaterConditionMonitoringDataResponseDTO;
@@ -51,4 +52,20 @@ public class WaterConditionMonitoringDataController {
         PageResult<WaterConditionMonitoringDataResponseDTO> page = waterConditionMonitoringDataService.pageWaterConditionMonitoringData(queryDTO);
         return ApiResponse.success("查询成功", page);
     }
+
+    /**
+     * 游标分页查询水情监测数据
+     * <p>
+     * 通过上一页返回的nextCursor续查，翻页深度不影响查询耗时，默认不统计总数
+     * </p>
+     *
+     * @param queryDTO 查询参数对象，支持cursor、size、withCount及与分页查询相同的过滤条件
+     * @return 包含游标分页数据的API统一响应
+     */
+    @GetMapping("/cursor")
+    @Operation(summary = "游标分页查询水情监测数据", description = "按(监测时间, ID)键集分页，withCount=true时返回总数")
+    public ApiResponse<CursorPageResult<WaterConditionMonitoringDataResponseDTO>> cursorPageWaterConditionMonitoringData(WaterConditionMonitoringDataQueryDTO queryDTO) {
+        CursorPageResult<WaterConditionMonitoringDataResponseDTO> page = waterConditionMonitoringDataService.cursorPageWaterConditionMonitoringData(queryDTO);
+        return ApiResponse.success("查询成功", page);
+    }
 }
@@ -1,9 +1,15 @@
 package com.example.demo.controller;
 
 import com.example.demo.common.ApiResponse;
+import com.example.demo.common.CursorPageResult;
 import com.example.demo.common.PageResult;
+import com.example.demo.constant.MonitoringImportMode;
+import com.example.demo.constant.MonitoringType;
+import com.example.demo.exception.monitoring.ImportDuplicateRecordException;
 import com.example.demo.pojo.DTO.monitoring.*;
 import com.example.demo.service.WaterLevelMonitoringDataService;
+import com.example.demo.service.monitoring.MonitoringFileImportService;
+import com.example.demo.service.monitoring.MonitoringImportBatchLedger;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,9 +18,12 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.Operation;
 import javax.validation.Valid;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -40,6 +49,18 @@ public class WaterLevelMonitoringDataController {
     @Autowired
     private WaterLevelMonitoringDataService waterLevelMonitoringDataService;
 
+    /**
+     * 监测数据文件导入服务
+     */
+    @Autowired
+    private MonitoringFileImportService monitoringFileImportService;
+
+    /**
+     * 监测数据导入批次台账
+     */
+    @Autowired
+    private MonitoringImportBatchLedger monitoringImportBatchLedger;
+
     /**
      * 分页查询水位监测数据列表
      * 
@@ -90,13 +111,35 @@ public class WaterLevelMonitoringDataController {
         return ResponseEntity.ok(ApiResponse.success("查询成功", result));
     }
 
+
+    /**
+     * 游标分页查询水位监测数据
+     * 通过上一页返回的nextCursor续查，翻页深度不影响查询耗时，默认不统计总数
+     *
+     * @param queryDTO 查询条件，支持cursor、size、withCount及与分页查询相同的筛选条件
+     * @return 游标分页结果
+     */
+    @GetMapping("/water-level-data/cursor")
+    @Operation(summary = "游标分页查询水位监测数据", description = "按(监测时间, ID)键集分页，仅支持按监测时间排序，withCount=true时返回总数")
+    public ResponseEntity<ApiResponse<CursorPageResult<WaterLevelMonitoringDataResponseDTO>>> getWaterLevelMonitoringDataCursorPage(
+            WaterLevelMonitoringDataQueryDTO queryDTO) {
+        try {
+            CursorPageResult<WaterLevelMonitoringDataResponseDTO> result = waterLevelMonitoringDataService.getWaterLevelMonitoringDataCursorPage(queryDTO);
+            return ResponseEntity.ok(ApiResponse.success("查询成功", result));
+        } catch (Exception e) {
+            log.error("游标分页查询水位监测数据失败", e);
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(400, "查询失败: " + e.getMessage()));
+        }
+    }
     /**
      * 获取水位监测图表数据
      * 
      * @param stationId 监测站点ID，可为空
      * @param startTime 开始时间，可为空
      * @param endTime 结束时间，可为空
-     * @param interval 时间间隔，例如："hour"、"day"、"week"
+     * @param interval 时间间隔，例如："raw"、"15min"、"hour"、"6hour"、"day"、"week"，默认为raw
+     * @param maxPoints 最大返回点数（可选），数据点超过时服务端降采样
      * @return 用于图表展示的水位监测数据
      */
     @GetMapping("/water-level-chart-data")
@@ -106,14 +149,15 @@ public class WaterLevelMonitoringDataController {
             @RequestParam(required = false) Long stationId,
             @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime startTime,
             @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime endTime,
-            @RequestParam(defaultValue = "hour") String interval) {
+            @RequestParam(defaultValue = "raw") String interval,
+            @RequestParam(required = false) Integer maxPoints) {
         
         log.info("获取水位监测图表数据 - 站点ID: {}, 开始时间: {}, 结束时间: {}, 间隔: {}", 
                 stationId, startTime, endTime, interval);
         
         // 调用服务获取图表数据
         WaterLevelChartDataResponseDTO chartData = 
-                waterLevelMonitoringDataService.getWaterLevelChartData(stationId, startTime, endTime, interval);
+                waterLevelMonitoringDataService.getWaterLevelChartData(stationId, startTime, endTime, interval, maxPoints);
         
         return ResponseEntity.ok(ApiResponse.success("查询成功", chartData));
     }
@@ -145,22 +189,51 @@ public class WaterLevelMonitoringDataController {
                 .body(fileContent);
     }
 
+    /**
+     * 流式导出水位监测数据
+     * 通过数据库游标逐行读取并直接写入响应输出流，不限制导出行数，内存占用恒定
+     *
+     * @param queryDTO 查询参数DTO，分页参数将被忽略
+     * @return CSV文件流
+     */
+    @PostMapping("/water-level-data/export/stream")
+    @Operation(summary = "流式导出水位监测数据", description = "根据查询条件逐行流式导出全部水位监测数据为CSV文件")
+    public ResponseEntity<StreamingResponseBody> exportWaterLevelDataStream(
+            @RequestBody WaterLevelMonitoringDataQueryDTO queryDTO) {
+        log.info("流式导出水位监测数据 - 站点ID: {}", queryDTO.getStationId());
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(new MediaType("text", "csv", StandardCharsets.UTF_8));
+        headers.setContentDispositionFormData("attachment",
+            "water_level_data_" + System.currentTimeMillis() + ".csv");
+
+        StreamingResponseBody body = outputStream -> waterLevelMonitoringDataService.exportToCsv(queryDTO, outputStream);
+        return ResponseEntity.ok()
+                .headers(headers)
+                .body(body);
+    }
+
     /**
      * 导入水位监测数据
      * 
      * @param dataList 要导入的水位监测数据列表
+     * @param mode 导入模式：skip跳过已存在记录（默认）、overwrite覆盖已存在记录、error存在重复记录时终止导入
+     * @param batchId 客户端批次ID（可选），重复提交同一批次时直接返回首次导入的结果
      * @return 导入结果，包含成功和失败的记录数
      */
     @PostMapping("/water-level-data/import")
     
         @Operation(summary = "导入水位监测数据", description = "批量导入Excel解析后的水位监测数据")
         public ResponseEntity<ApiResponse<ImportResultDTO>> importWaterLevelData(
-            @Valid @RequestBody List<WaterLevelDataImportDTO> dataList) {
+            @Valid @RequestBody List<WaterLevelDataImportDTO> dataList,
+            @RequestParam(required = false) String mode,
+            @RequestParam(required = false) String batchId) {
 
         log.info("导入水位监测数据 - 数据量: {}", dataList.size());
 
         // 调用服务导入数据
-        ImportResultDTO result = waterLevelMonitoringDataService.importWaterLevelData(dataList);
+        ImportResultDTO result = monitoringImportBatchLedger.execute(batchId, MonitoringType.WATER_LEVEL,
+                () -> waterLevelMonitoringDataService.importWaterLevelData(dataList, MonitoringImportMode.fromCode(mode)));
 
         // 根据导入结果返回不同响应
         if (result.getSuccessRows() == 0 && result.getErrorRows() > 0) {
@@ -181,4 +254,47 @@ public class WaterLevelMonitoringDataController {
             return ResponseEntity.ok(ApiResponse.success("数据导入成功", result));
         }
     }
+
+    /**
+     * 上传文件导入水位监测数据
+     * 服务端逐行解析CSV/XLSX文件并分块入库，适用于大文件导入
+     *
+     * @param file 导入文件（.csv或.xlsx，首行为标题行）
+     * @param mode 导入模式：skip跳过已存在记录（默认）、overwrite覆盖已存在记录、error存在重复记录时终止导入
+     * @param batchId 客户端批次ID（可选），重复提交同一批次时直接返回首次导入的结果
+     * @return 导入结果，包含成功和失败的数据统计
+     */
+    @PostMapping(value = "/water-level-data/import/file", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "上传文件导入水位监测数据", description = "上传CSV/XLSX文件，服务端逐行解析并分块导入，每块独立提交")
+    public ResponseEntity<ApiResponse<ImportResultDTO>> importWaterLevelDataFile(
+            @RequestPart("file") MultipartFile file,
+            @RequestParam(required = false) String mode,
+            @RequestParam(required = false) String batchId) {
+        try {
+            ImportResultDTO result = monitoringImportBatchLedger.executeChunked(batchId, MonitoringType.WATER_LEVEL,
+                    () -> monitoringFileImportService.importWaterLevelFile(file, MonitoringImportMode.fromCode(mode)));
+
+            if (result.getSuccessRows() == 0 && result.getErrorRows() > 0) {
+                return ResponseEntity.badRequest()
+                        .body(ApiResponse.error("数据导入失败，请检查数据格式", result));
+            } else if (result.getErrorRows() > 0) {
+                return ResponseEntity.ok(ApiResponse.success(
+                        String.format("数据导入完成，成功: %d条，失败: %d条", result.getSuccessRows(), result.getErrorRows()),
+                        result));
+            }
+            return ResponseEntity.ok(ApiResponse.success("数据导入成功", result));
+        } catch (ImportDuplicateRecordException e) {
+            log.warn("上传文件导入水位监测数据存在重复记录: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            log.warn("上传文件导入水位监测数据参数错误: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("参数错误: " + e.getMessage()));
+        } catch (Exception e) {
+            log.error("上传文件导入水位监测数据失败", e);
+            return ResponseEntity.internalServerError()
+                    .body(ApiResponse.error("导入失败: " + e.getMessage()));
+        }
+    }
 }
@@ -1,9 +1,15 @@
 package com.example.demo.controller;
 
 import com.example.demo.common.ApiResponse;
+import com.example.demo.common.CursorPageResult;
 import com.example.demo.common.PageResult;
+import com.example.demo.constant.MonitoringImportMode;
+import com.example.demo.constant.MonitoringType;
+import com.example.demo.exception.monitoring.ImportDuplicateRecordException;
 import com.example.demo.pojo.DTO.monitoring.*;
 import com.example.demo.service.WaterQualityMonitoringDataService;
+import com.example.demo.service.monitoring.MonitoringFileImportService;
+import com.example.demo.service.monitoring.MonitoringImportBatchLedger;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,6 +18,7 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.Operation;
 import javax.validation.Valid;
@@ -42,6 +49,18 @@ public class WaterQualityMonitoringDataController {
     @Autowired
     private WaterQualityMonitoringDataService waterQualityMonitoringDataService;
 
+    /**
+     * 监测数据文件导入服务
+     */
+    @Autowired
+    private MonitoringFileImportService monitoringFileImportService;
+
+    /**
+     * 监测数据导入批次台账
+     */
+    @Autowired
+    private MonitoringImportBatchLedger monitoringImportBatchLedger;
+
     /**
      * 分页查询水质监测数据列表
      * 
@@ -102,6 +121,27 @@ public class WaterQualityMonitoringDataController {
         }
     }
 
+
+    /**
+     * 游标分页查询水质监测数据
+     * 通过上一页返回的nextCursor续查，翻页深度不影响查询耗时，默认不统计总数
+     *
+     * @param queryDTO 查询条件，支持cursor、size、withCount及与分页查询相同的筛选条件
+     * @return 游标分页结果
+     */
+    @GetMapping("/water-quality-data/cursor")
+    @Operation(summary = "游标分页查询水质监测数据", description = "按(监测时间, ID)键集分页，仅支持按监测时间排序，withCount=true时返回总数")
+    public ResponseEntity<ApiResponse<CursorPageResult<WaterQualityMonitoringDataResponseDTO>>> getWaterQualityMonitoringDataCursorPage(
+            WaterQualityMonitoringDataQueryDTO queryDTO) {
+        try {
+            CursorPageResult<WaterQualityMonitoringDataResponseDTO> result = waterQualityMonitoringDataService.getWaterQualityMonitoringDataCursorPage(queryDTO);
+            return ResponseEntity.ok(ApiResponse.success("查询成功", result));
+        } catch (Exception e) {
+            log.error("游标分页查询水质监测数据失败", e);
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(400, "查询失败: " + e.getMessage()));
+        }
+    }
     /**
      * 获取水质监测图表数据
      * 
@@ -112,7 +152,8 @@ public class WaterQualityMonitoringDataController {
      * @param monitoringItemCode 监测项目代码(WT/TU/PH/EC/DO/AN/COD/RC)（必填）
      * @param startTime 开始时间（可选）
      * @param endTime 结束时间（可选）
-     * @param interval 时间间隔(hour:小时,day:天,month:月,默认为hour
+     * @param interval 时间间隔(raw:逐点,[N]min/hour/day/week/month:按N分钟/小时/天/周/月统计,默认为raw)
+     * @param maxPoints 最大返回点数（可选），数据点超过时服务端降采样
      * @return 适用于图表展示的水质监测数据
      */
     @GetMapping("/water-quality-chart-data")
@@ -123,10 +164,11 @@ public class WaterQualityMonitoringDataController {
             @RequestParam String monitoringItemCode,
             @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime startTime,
             @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime endTime,
-            @RequestParam(defaultValue = "hour") String interval) {
+            @RequestParam(defaultValue = "raw") String interval,
+            @RequestParam(required = false) Integer maxPoints) {
         try {
             WaterQualityChartDataResponseDTO result = waterQualityMonitoringDataService.getWaterQualityChartData(
-                    stationId, monitoringItemCode, startTime, endTime, interval);
+                    stationId, monitoringItemCode, startTime, endTime, interval, maxPoints);
             return ResponseEntity.ok(ApiResponse.success("查询成功", result));
         } catch (Exception e) {
             log.error("查询水质图表数据失败", e);
@@ -135,6 +177,70 @@ public class WaterQualityMonitoringDataController {
         }
     }
 
+    /**
+     * 获取多个站点的水质对比图表数据
+     * 各站点序列共用一组时间标签，站点在某一时间没有数据时对应值为null
+     *
+     * @param stationIds 监测站点ID列表（必填）
+     * @param monitoringItemCode 监测项目代码(WT/TU/PH/EC/DO/AN/COD/RC)（必填）
+     * @param startTime 开始时间（可选）
+     * @param endTime 结束时间（可选）
+     * @param interval 时间间隔(raw/[N]min/hour/day/week/month)，默认为hour
+     * @param maxPoints 最大返回点数（可选），超过时相邻时间段合并
+     * @return 多站点水质对比图表数据
+     */
+    @GetMapping("/water-quality-chart-data/batch")
+    @Operation(summary = "获取多站点水质对比图表数据", description = "一次查询多个站点同一监测项目的水质图表，各站点共用一组时间标签")
+    public ResponseEntity<ApiResponse<MonitoringBatchChartResponseDTO>> getWaterQualityBatchChartData(
+            @RequestParam List<Long> stationIds,
+            @RequestParam String monitoringItemCode,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime startTime,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime endTime,
+            @RequestParam(defaultValue = "hour") String interval,
+            @RequestParam(required = false) Integer maxPoints) {
+        try {
+            MonitoringBatchChartResponseDTO result = waterQualityMonitoringDataService.getWaterQualityBatchChartData(
+                    stationIds, monitoringItemCode, startTime, endTime, interval, maxPoints);
+            return ResponseEntity.ok(ApiResponse.success("查询成功", result));
+        } catch (Exception e) {
+            log.error("查询多站点水质图表数据失败", e);
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(400, "查询失败: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * 获取单个站点多个监测项目的水质图表数据
+     * 一次扫描同时统计全部监测项目，各项目序列共用一组时间标签，项目在某一时间没有数据时对应值为null
+     *
+     * @param stationId 监测站点ID（必填）
+     * @param monitoringItemCodes 监测项目代码列表(WT/TU/PH/EC/DO/AN/COD/RC)（可选，默认全部项目）
+     * @param startTime 开始时间（可选）
+     * @param endTime 结束时间（可选）
+     * @param interval 时间间隔(raw/[N]min/hour/day/week/month)，默认为raw
+     * @param maxPoints 最大返回点数（可选），超过时相邻时间段合并
+     * @return 多项目水质图表数据
+     */
+    @GetMapping("/water-quality-chart-data/multi")
+    @Operation(summary = "获取水质多项目图表数据", description = "一次查询单个站点多个监测项目的水质图表，各项目共用一组时间标签")
+    public ResponseEntity<ApiResponse<MonitoringMultiMetricChartResponseDTO>> getWaterQualityMultiChartData(
+            @RequestParam Long stationId,
+            @RequestParam(required = false) List<String> monitoringItemCodes,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime startTime,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime endTime,
+            @RequestParam(defaultValue = "raw") String interval,
+            @RequestParam(required = false) Integer maxPoints) {
+        try {
+            MonitoringMultiMetricChartResponseDTO result = waterQualityMonitoringDataService.getWaterQualityMultiChartData(
+                    stationId, monitoringItemCodes, startTime, endTime, interval, maxPoints);
+            return ResponseEntity.ok(ApiResponse.success("查询成功", result));
+        } catch (Exception e) {
+            log.error("查询水质多项目图表数据失败", e);
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(400, "查询失败: " + e.getMessage()));
+        }
+    }
+
     /**
      * 导出水质监测数据
      * 
@@ -211,13 +317,17 @@ public class WaterQualityMonitoringDataController {
      * 支持导入验证，返回成功和失败的数据条数及错误信息
      * 
      * @param dataList 待导入的水质数据列表
+     * @param mode 导入模式：skip跳过已存在记录（默认）、overwrite覆盖已存在记录、error存在重复记录时终止导入
+     * @param batchId 客户端批次ID（可选），重复提交同一批次时直接返回首次导入的结果
      * @return 导入结果，包含总条数、成功条数、失败条数及错误信息
      */
     @PostMapping("/water-quality/import")
     
         @Operation(summary = "导入水质监测数据", description = "批量导入Excel解析后的水质监测数据")
     public ResponseEntity<ApiResponse<ImportResultDTO>> importWaterQualityData(
-            @RequestBody @Valid List<WaterQualityDataImportDTO> dataList) {
+            @RequestBody @Valid List<WaterQualityDataImportDTO> dataList,
+            @RequestParam(required = false) String mode,
+            @RequestParam(required = false) String batchId) {
 
         try {
             log.info("开始导入水质监测数据，数据量: {}", dataList.size());
@@ -229,7 +339,8 @@ public class WaterQualityMonitoringDataController {
             }
 
             // 调用服务层处理导入
-            ImportResultDTO result = waterQualityMonitoringDataService.importWaterQualityData(dataList);
+            ImportResultDTO result = monitoringImportBatchLedger.execute(batchId, MonitoringType.WATER_QUALITY,
+                    () -> waterQualityMonitoringDataService.importWaterQualityData(dataList, MonitoringImportMode.fromCode(mode)));
 
             log.info("水质监测数据导入完成，总数: {}, 成功: {}, 失败: {}",
                     result.getTotalRows(), result.getSuccessRows(), result.getErrorRows());
@@ -253,6 +364,10 @@ public class WaterQualityMonitoringDataController {
                 return ResponseEntity.ok(ApiResponse.success("数据导入成功", result));
             }
 
+        } catch (ImportDuplicateRecordException e) {
+            log.warn("导入水质监测数据存在重复记录: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage()));
         } catch (IllegalArgumentException e) {
             log.warn("导入水质监测数据参数错误: {}", e.getMessage());
             return ResponseEntity.badRequest()
@@ -263,4 +378,47 @@ public class WaterQualityMonitoringDataController {
                     .body(ApiResponse.error("导入失败: " + e.getMessage()));
         }
     }
+
+    /**
+     * 上传文件导入水质监测数据
+     * 服务端逐行解析CSV/XLSX文件并分块入库，适用于大文件导入
+     *
+     * @param file 导入文件（.csv或.xlsx，首行为标题行）
+     * @param mode 导入模式：skip跳过已存在记录（默认）、overwrite覆盖已存在记录、error存在重复记录时终止导入
+     * @param batchId 客户端批次ID（可选），重复提交同一批次时直接返回首次导入的结果
+     * @return 导入结果，包含成功和失败的数据统计
+     */
+    @PostMapping(value = "/water-quality/import/file", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "上传文件导入水质监测数据", description = "上传CSV/XLSX文件，服务端逐行解析并分块导入，每块独立提交")
+    public ResponseEntity<ApiResponse<ImportResultDTO>> importWaterQualityDataFile(
+            @RequestPart("file") MultipartFile file,
+            @RequestParam(required = false) String mode,
+            @RequestParam(required = false) String batchId) {
+        try {
+            ImportResultDTO result = monitoringImportBatchLedger.executeChunked(batchId, MonitoringType.WATER_QUALITY,
+                    () -> monitoringFileImportService.importWaterQualityFile(file, MonitoringImportMode.fromCode(mode)));
+
+            if (result.getSuccessRows() == 0 && result.getErrorRows() > 0) {
+                return ResponseEntity.badRequest()
+                        .body(ApiResponse.error("数据导入失败，请检查数据格式", result));
+            } else if (result.getErrorRows() > 0) {
+                return ResponseEntity.ok(ApiResponse.success(
+                        String.format("数据导入完成，成功: %d条，失败: %d条", result.getSuccessRows(), result.getErrorRows()),
+                        result));
+            }
+            return ResponseEntity.ok(ApiResponse.success("数据导入成功", result));
+        } catch (ImportDuplicateRecordException e) {
+            log.warn("上传文件导入水质监测数据存在重复记录: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            log.warn("上传文件导入水质监测数据参数错误: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("参数错误: " + e.getMessage()));
+        } catch (Exception e) {
+            log.error("上传文件导入水质监测数据失败", e);
+            return ResponseEntity.internalServerError()
+                    .body(ApiResponse.error("导入失败: " + e.getMessage()));
+        }
+    }
 }
@@ -0,0 +1,14 @@
+package com.example.demo.exception.monitoring;
+
+import com.example.demo.exception.BaseException;
+
+/**
+ * 导入数据与数据库已有记录冲突异常
+ * 报错模式下导入的记录与已有记录同站点同监测时间时抛出，所在块的事务随之回滚
+ */
+public class ImportDuplicateRecordException extends BaseException {
+
+    public ImportDuplicateRecordException(String msg) {
+        super(msg);
+    }
+}
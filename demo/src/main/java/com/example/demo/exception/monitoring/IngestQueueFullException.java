@@ -0,0 +1,22 @@
+package com.example.demo.exception.monitoring;
+
+import com.example.demo.exception.BaseException;
+import lombok.Getter;
+
+/**
+ * 遥测写入队列已满异常
+ * 调用方应在retryAfterSeconds秒后重试
+ */
+@Getter
+public class IngestQueueFullException extends BaseException {
+
+    /**
+     * 建议重试间隔（秒）
+     */
+    private final long retryAfterSeconds;
+
+    public IngestQueueFullException(String msg, long retryAfterSeconds) {
+        super(msg);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
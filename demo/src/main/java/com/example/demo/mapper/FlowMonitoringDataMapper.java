@@ -1,13 +1,20 @@
 package com.example.demo.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.example.demo.constant.MonitoringImportMode;
+import com.example.demo.constant.MonitoringTableRoute;
 import com.example.demo.pojo.DTO.monitoring.FlowMonitoringDataResponseDTO;
 import com.example.demo.pojo.entity.monitoring.FlowMonitoringData;
+import com.example.demo.pojo.entity.monitoring.MonitoringChartSample;
+import com.example.demo.pojo.entity.monitoring.MonitoringRecord;
+import com.example.demo.pojo.entity.monitoring.StationTimeKey;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
-import org.apache.ibatis.annotations.MapKey;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.ResultHandler;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -25,30 +32,89 @@ public interface FlowMonitoringDataMapper extends BaseMapper<FlowMonitoringData>
             @Param("stationId") Long stationId,
             @Param("startTime") LocalDateTime startTime,
             @Param("endTime") LocalDateTime endTime,
+            @Param("tableRoute") MonitoringTableRoute tableRoute,
             @Param("dataQuality") Integer dataQuality,
             @Param("collectionMethod") String collectionMethod,
             @Param("dataSource") String dataSource,
             @Param("sort") String sort);
 
     /**
-     * 查询流量图表数据
+     * 游标分页查询流量监测数据
+     * 按(monitoring_time, id)键集定位下一页，游标为空时从首条记录开始
+     *
+     * @param cursorTime 上一页最后一条记录的监测时间
+     * @param cursorId 上一页最后一条记录的ID
+     * @param ascending 是否按时间升序
+     * @param limit 查询条数
      */
-    @MapKey("time_label")
-    List<Map<String, Object>> selectFlowChartData(
+    List<FlowMonitoringDataResponseDTO> selectFlowMonitoringDataSeek(
             @Param("stationId") Long stationId,
             @Param("startTime") LocalDateTime startTime,
             @Param("endTime") LocalDateTime endTime,
-            @Param("interval") String interval,
-            @Param("dataType") String dataType);
+            @Param("tableRoute") MonitoringTableRoute tableRoute,
+            @Param("dataQuality") Integer dataQuality,
+            @Param("collectionMethod") String collectionMethod,
+            @Param("dataSource") String dataSource,
+            @Param("cursorTime") LocalDateTime cursorTime,
+            @Param("cursorId") Long cursorId,
+            @Param("ascending") boolean ascending,
+            @Param("limit") int limit);
+
+    /**
+     * 统计流量监测数据总数
+     */
+    Long countFlowMonitoringData(
+            @Param("stationId") Long stationId,
+            @Param("startTime") LocalDateTime startTime,
+            @Param("endTime") LocalDateTime endTime,
+            @Param("tableRoute") MonitoringTableRoute tableRoute,
+            @Param("dataQuality") Integer dataQuality,
+            @Param("collectionMethod") String collectionMethod,
+            @Param("dataSource") String dataSource);
+
+    /**
+     * 流式查询流量监测数据（用于导出）
+     * 使用MySQL逐行流式读取，调用方需在事务内遍历并关闭游标
+     */
+    Cursor<FlowMonitoringDataResponseDTO> selectFlowMonitoringDataForExport(
+            @Param("stationId") Long stationId,
+            @Param("startTime") LocalDateTime startTime,
+            @Param("endTime") LocalDateTime endTime,
+            @Param("tableRoute") MonitoringTableRoute tableRoute,
+            @Param("dataQuality") Integer dataQuality,
+            @Param("collectionMethod") String collectionMethod,
+            @Param("dataSource") String dataSource,
+            @Param("sort") String sort);
+
+    /**
+     * 查询流量图表样本
+     * 以MySQL逐行流式读取按监测时间升序排列的样本，由服务端按时间间隔分桶统计
+     */
+    void selectFlowChartSamples(
+            @Param("stationId") Long stationId,
+            @Param("startTime") LocalDateTime startTime,
+            @Param("endTime") LocalDateTime endTime,
+            @Param("tableRoute") MonitoringTableRoute tableRoute,
+            @Param("dataType") String dataType,
+            ResultHandler<MonitoringChartSample> handler);
+
+    /**
+     * 批量查询已存在的(站点ID, 监测时间)组合
+     *
+     * @param keys 待检查的记录，单次建议不超过1000条
+     * @return 数据库中已存在的键
+     */
+    List<StationTimeKey> selectExistingStationTimes(@Param("keys") Collection<? extends MonitoringRecord> keys);
 
     /**
-     * 批量检查指定站点下多个时间点是否已存在记录
-     * 返回所有匹配的记录，供调用方进一步处理
-     * 
-     * @param stationId 站点ID
-     * @param times 时间点列表
-     * @return 已存在的记录列表（含monitoring_time字段）
+     * 批量插入流量监测数据
+     *
+     * 跳过和覆盖模式使用ON DUPLICATE KEY UPDATE：跳过模式不修改未删除的记录、恢复已软删除的记录，覆盖模式更新并恢复全部重复记录；
+     * 报错模式遇到重复键时抛出DuplicateKeyException。数据本身的错误在各模式下都会抛出异常
+     *
+     * @param dataList 数据列表
+     * @param mode 导入模式
+     * @return 影响行数（新插入的记录计为1，被覆盖或恢复的记录计为2，未修改的记录计为0）
      */
-    @MapKey("monitoring_time")
-    List<Map<String, Object>> batchCountByStationIdAndTimes(@Param("stationId") Long stationId, @Param("times") List<LocalDateTime> times);
+    int insertBatch(@Param("dataList") List<FlowMonitoringData> dataList, @Param("mode") MonitoringImportMode mode);
 }
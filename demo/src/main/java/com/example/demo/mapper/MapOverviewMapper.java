@@ -36,6 +36,13 @@ public interface MapOverviewMapper {
      */
     List<MonitoringStationDTO> selectMonitoringStationsWithLatestData();
 
+    /**
+     * 获取所有监测站点（不含最新数据）
+     * 
+     * @return 监测站点信息列表
+     */
+    List<MonitoringStationDTO> selectMonitoringStations();
+
     /**
      * 获取基础数据统计信息
      * 
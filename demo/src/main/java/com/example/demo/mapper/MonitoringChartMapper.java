@@ -0,0 +1,64 @@
+package com.example.demo.mapper;
+
+import com.example.demo.constant.MonitoringTableRoute;
+import com.example.demo.pojo.entity.monitoring.MonitoringChartRow;
+import com.example.demo.pojo.entity.monitoring.MonitoringChartSample;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 监测图表通用查询Mapper
+ * 按监测类型的原始数据表和指标列查询，表名和列名只能取自MonitoringType定义
+ */
+@Mapper
+public interface MonitoringChartMapper {
+
+    /**
+     * 流式读取多个站点单个指标的图表样本
+     * 按(station_id, monitoring_time)排序，走uk_station_time索引逐站点范围扫描，不需要额外排序
+     *
+     * @param tableName 原始数据表名
+     * @param metric 指标列名
+     * @param stationIds 站点ID
+     * @param qualityOnly 是否只统计数据质量正常的记录（水质数据）
+     * @param startTime 开始时间（可选）
+     * @param endTime 结束时间（可选）
+     * @param tableRoute 热表/归档表查询路由
+     * @param handler 结果处理器，按站点、监测时间升序逐行接收样本
+     */
+    void selectStationChartSamples(@Param("tableName") String tableName,
+                                   @Param("metric") String metric,
+                                   @Param("stationIds") Collection<Long> stationIds,
+                                   @Param("qualityOnly") boolean qualityOnly,
+                                   @Param("startTime") LocalDateTime startTime,
+                                   @Param("endTime") LocalDateTime endTime,
+                                   @Param("tableRoute") MonitoringTableRoute tableRoute,
+                                   ResultHandler<MonitoringChartSample> handler);
+
+    /**
+     * 流式读取单个站点多个指标的图表样本，一次扫描宽行取出全部指标
+     * 按监测时间升序排列，走uk_station_time索引范围扫描；任一指标有值的行都会返回
+     *
+     * @param tableName 原始数据表名
+     * @param metrics 指标列名，最多{@link MonitoringChartRow#MAX_METRICS}个，依次映射到value0~value7
+     * @param stationId 站点ID
+     * @param qualityOnly 是否只统计数据质量正常的记录（水质数据）
+     * @param startTime 开始时间（可选）
+     * @param endTime 结束时间（可选）
+     * @param tableRoute 热表/归档表查询路由
+     * @param handler 结果处理器，按监测时间升序逐行接收样本
+     */
+    void selectChartRows(@Param("tableName") String tableName,
+                         @Param("metrics") List<String> metrics,
+                         @Param("stationId") Long stationId,
+                         @Param("qualityOnly") boolean qualityOnly,
+                         @Param("startTime") LocalDateTime startTime,
+                         @Param("endTime") LocalDateTime endTime,
+                         @Param("tableRoute") MonitoringTableRoute tableRoute,
+                         ResultHandler<MonitoringChartRow> handler);
+}
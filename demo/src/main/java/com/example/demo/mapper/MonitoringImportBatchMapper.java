@@ -0,0 +1,24 @@
+package com.example.demo.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.example.demo.pojo.entity.monitoring.MonitoringImportBatch;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDateTime;
+
+/**
+ * 监测数据导入批次台账Mapper
+ * 按批次ID（主键）查询和写入使用BaseMapper的selectById、insert、deleteById
+ */
+@Mapper
+public interface MonitoringImportBatchMapper extends BaseMapper<MonitoringImportBatch> {
+
+    /**
+     * 删除指定时间之前接收的批次
+     *
+     * @param before 截止时间（不含）
+     * @return 删除的批次数
+     */
+    int deleteCreatedBefore(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,28 @@
+package com.example.demo.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 监测站点最新读数Mapper
+ * 供最新读数缓存预热和重新加载使用
+ */
+@Mapper
+public interface MonitoringLatestReadingMapper {
+
+    /**
+     * 查询各站点最新一条监测数据
+     *
+     * @param tableName 监测数据表名
+     * @param metrics 需要返回的指标列名
+     * @param stationIds 站点ID，为空时查询全部站点
+     * @return 每个站点的最新数据，包含station_id、monitoring_time、data_quality及指标列
+     */
+    List<Map<String, Object>> selectLatestReadings(@Param("tableName") String tableName,
+                                                   @Param("metrics") List<String> metrics,
+                                                   @Param("stationIds") Collection<Long> stationIds);
+}
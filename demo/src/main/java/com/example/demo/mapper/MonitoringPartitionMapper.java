@@ -0,0 +1,109 @@
+package com.example.demo.mapper;
+
+import com.example.demo.pojo.entity.monitoring.MonitoringPartition;
+import com.example.demo.pojo.entity.monitoring.StationTimeKey;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 监测数据分区维护Mapper
+ * 分区DDL不支持绑定参数，表名、分区名和分区上界均由服务端按固定格式生成后拼接
+ */
+@Mapper
+public interface MonitoringPartitionMapper {
+
+    /**
+     * 查询表的分区信息，按分区顺序排列；未分区的表返回一条分区名为空的记录，表不存在时返回空列表
+     *
+     * @param tableName 表名
+     * @return 分区信息
+     */
+    List<MonitoringPartition> selectPartitions(@Param("tableName") String tableName);
+
+    /**
+     * 判断表是否存在
+     */
+    int countTable(@Param("tableName") String tableName);
+
+    /**
+     * 查询表中最早的监测时间
+     */
+    LocalDateTime selectMinMonitoringTime(@Param("tableName") String tableName);
+
+    /**
+     * 将兜底分区p_future拆分为若干按月分区和新的p_future
+     *
+     * @param tableName 表名
+     * @param partitions 新建的按月分区，按时间先后排列
+     */
+    void splitFuturePartition(@Param("tableName") String tableName,
+                              @Param("partitions") List<MonitoringPartition> partitions);
+
+    /**
+     * 以热表为模板创建归档表（CREATE TABLE ... LIKE会连同分区定义一起复制）
+     */
+    void createTableLike(@Param("tableName") String tableName, @Param("templateTable") String templateTable);
+
+    /**
+     * 去除表的分区定义
+     */
+    void removePartitioning(@Param("tableName") String tableName);
+
+    /**
+     * 删除表
+     */
+    void dropTable(@Param("tableName") String tableName);
+
+    /**
+     * 将热表一个分区的数据复制到归档表，站点和监测时间已存在的行以热表数据覆盖
+     *
+     * @return 影响行数，每覆盖一行计2
+     */
+    int copyPartition(@Param("tableName") String tableName,
+                      @Param("partitionName") String partitionName,
+                      @Param("archiveTable") String archiveTable);
+
+    /**
+     * 将整张表的数据复制到归档表，站点和监测时间已存在的行以该表数据覆盖
+     *
+     * @return 影响行数，每覆盖一行计2
+     */
+    int copyTable(@Param("sourceTable") String sourceTable, @Param("archiveTable") String archiveTable);
+
+    /**
+     * 将热表分区与同结构的非分区表交换数据
+     */
+    void exchangePartition(@Param("tableName") String tableName,
+                           @Param("partitionName") String partitionName,
+                           @Param("exchangeTable") String exchangeTable);
+
+    /**
+     * 删除热表分区
+     */
+    void dropPartition(@Param("tableName") String tableName, @Param("partitionName") String partitionName);
+
+    /**
+     * 查询热表中早于归档边界的数据的站点和监测时间
+     */
+    List<StationTimeKey> selectRowKeysBefore(@Param("tableName") String tableName,
+                                             @Param("boundary") LocalDateTime boundary);
+
+    /**
+     * 将热表中早于归档边界的数据复制到归档表，站点和监测时间已存在的行以热表数据覆盖
+     *
+     * @return 影响行数，每覆盖一行计2
+     */
+    int copyRowsBefore(@Param("tableName") String tableName,
+                       @Param("archiveTable") String archiveTable,
+                       @Param("boundary") LocalDateTime boundary);
+
+    /**
+     * 删除热表中早于归档边界的数据
+     *
+     * @return 删除行数
+     */
+    int deleteRowsBefore(@Param("tableName") String tableName, @Param("boundary") LocalDateTime boundary);
+}
@@ -0,0 +1,115 @@
+package com.example.demo.mapper;
+
+import com.example.demo.constant.MonitoringTableRoute;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 监测数据预聚合表Mapper
+ * 预聚合数据全部以集合语句（INSERT ... SELECT）在数据库内重算，不在应用内逐行计算
+ */
+@Mapper
+public interface MonitoringRollupMapper {
+
+    /**
+     * 删除指定范围内的预聚合桶
+     *
+     * @param dataType 监测类型路径标识
+     * @param granularity 聚合粒度
+     * @param stationId 站点ID，为空时不限站点
+     * @param from 桶起始时间下限（含），为空时不限
+     * @param to 桶起始时间上限（不含），为空时不限
+     * @return 删除行数
+     */
+    int deleteBuckets(@Param("dataType") String dataType,
+                      @Param("granularity") String granularity,
+                      @Param("stationId") Long stationId,
+                      @Param("from") LocalDateTime from,
+                      @Param("to") LocalDateTime to);
+
+    /**
+     * 由原始数据生成小时预聚合桶，一次扫描同时汇总所有指标
+     *
+     * @param dataType 监测类型路径标识
+     * @param tableName 原始数据表名
+     * @param metrics 指标列名
+     * @param qualityOnly 是否只统计数据质量正常的记录（水质数据）
+     * @param stationId 站点ID，为空时不限站点
+     * @param from 监测时间下限（含），为空时不限
+     * @param to 监测时间上限（不含），为空时不限
+     * @param tableRoute 原始数据读取的热表/归档表路由
+     * @return 插入行数
+     */
+    int insertHourBucketsFromRaw(@Param("dataType") String dataType,
+                                 @Param("tableName") String tableName,
+                                 @Param("metrics") List<String> metrics,
+                                 @Param("qualityOnly") boolean qualityOnly,
+                                 @Param("stationId") Long stationId,
+                                 @Param("from") LocalDateTime from,
+                                 @Param("to") LocalDateTime to,
+                                 @Param("tableRoute") MonitoringTableRoute tableRoute);
+
+    /**
+     * 由较细粒度的预聚合桶生成较粗粒度的预聚合桶
+     *
+     * @param dataType 监测类型路径标识
+     * @param sourceGranularity 来源粒度
+     * @param targetGranularity 目标粒度
+     * @param bucketFormat 目标粒度截断桶起点的DATE_FORMAT格式
+     * @param stationId 站点ID，为空时不限站点
+     * @param from 桶起始时间下限（含），为空时不限
+     * @param to 桶起始时间上限（不含），为空时不限
+     * @return 插入行数
+     */
+    int insertBucketsFromFiner(@Param("dataType") String dataType,
+                               @Param("sourceGranularity") String sourceGranularity,
+                               @Param("targetGranularity") String targetGranularity,
+                               @Param("bucketFormat") String bucketFormat,
+                               @Param("stationId") Long stationId,
+                               @Param("from") LocalDateTime from,
+                               @Param("to") LocalDateTime to);
+
+    /**
+     * 按时间标签和指标汇总预聚合数据，供图表查询使用
+     *
+     * @param dataType 监测类型路径标识
+     * @param granularity 读取的预聚合粒度
+     * @param labelFormat 时间标签的DATE_FORMAT格式
+     * @param stationId 站点ID，为空时汇总指定监测项目的全部站点
+     * @param itemCode 站点监测项目编码，仅在站点ID为空时生效
+     * @param startTime 开始时间（含）
+     * @param endTime 结束时间（含）
+     * @return 每个时间标签、每个指标一行
+     */
+    List<Map<String, Object>> selectChartData(@Param("dataType") String dataType,
+                                              @Param("granularity") String granularity,
+                                              @Param("labelFormat") String labelFormat,
+                                              @Param("stationId") Long stationId,
+                                              @Param("itemCode") String itemCode,
+                                              @Param("startTime") LocalDateTime startTime,
+                                              @Param("endTime") LocalDateTime endTime);
+
+    /**
+     * 判断监测类型是否已有预聚合数据
+     */
+    int countRollupSample(@Param("dataType") String dataType);
+
+    /**
+     * 判断原始数据表是否有未删除数据
+     */
+    int countRawSample(@Param("tableName") String tableName);
+
+    /**
+     * 查询原始数据表中出现过的站点ID
+     */
+    List<Long> selectRawStationIds(@Param("tableName") String tableName);
+
+    /**
+     * 查询预聚合表中指定监测类型出现过的站点ID
+     */
+    List<Long> selectRollupStationIds(@Param("dataType") String dataType);
+}
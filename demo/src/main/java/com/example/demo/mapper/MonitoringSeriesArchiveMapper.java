@@ -0,0 +1,51 @@
+package com.example.demo.mapper;
+
+import com.example.demo.constant.MonitoringTableRoute;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 监测序列归档Mapper
+ * 供列式归档文件导出读取监测数据，按查询路由读取热表、归档表或两者
+ */
+@Mapper
+public interface MonitoringSeriesArchiveMapper {
+
+    /**
+     * 查询时间范围内有数据的站点
+     *
+     * @param tableName 监测数据表名
+     * @param startTime 开始时间（含）
+     * @param endTime 结束时间（不含）
+     * @param tableRoute 查询路由
+     * @return 站点ID列表
+     */
+    List<Long> selectStationIds(@Param("tableName") String tableName,
+                                @Param("startTime") LocalDateTime startTime,
+                                @Param("endTime") LocalDateTime endTime,
+                                @Param("tableRoute") MonitoringTableRoute tableRoute);
+
+    /**
+     * 按监测时间顺序流式读取站点的监测数据
+     *
+     * @param tableName 监测数据表名
+     * @param metrics 指标列名
+     * @param stationId 站点ID
+     * @param startTime 开始时间（含）
+     * @param endTime 结束时间（不含）
+     * @param tableRoute 查询路由
+     * @param handler 结果处理器，每行包含monitoring_time、data_quality及指标列
+     */
+    void selectSeriesRows(@Param("tableName") String tableName,
+                          @Param("metrics") List<String> metrics,
+                          @Param("stationId") Long stationId,
+                          @Param("startTime") LocalDateTime startTime,
+                          @Param("endTime") LocalDateTime endTime,
+                          @Param("tableRoute") MonitoringTableRoute tableRoute,
+                          ResultHandler<Map<String, Object>> handler);
+}
@@ -0,0 +1,66 @@
+package com.example.demo.mapper;
+
+import com.example.demo.pojo.entity.monitoring.MonitoringDataSketch;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 监测数据分位数概要表Mapper
+ * 概要在应用内由原始数据计算，按站点、指标、日整行写入
+ */
+@Mapper
+public interface MonitoringSketchMapper {
+
+    /**
+     * 删除指定站点、日期范围内的概要
+     *
+     * @param dataType 监测类型路径标识
+     * @param stationId 站点ID
+     * @param from 日期下限（含），为空时不限
+     * @param to 日期上限（不含），为空时不限
+     * @return 删除行数
+     */
+    int deleteSketches(@Param("dataType") String dataType,
+                       @Param("stationId") Long stationId,
+                       @Param("from") LocalDate from,
+                       @Param("to") LocalDate to);
+
+    /**
+     * 批量写入概要
+     *
+     * @param sketches 概要列表，不能为空
+     * @return 插入行数
+     */
+    int insertSketches(@Param("sketches") List<MonitoringDataSketch> sketches);
+
+    /**
+     * 流式读取站点指定指标在日期范围内的概要
+     *
+     * @param dataType 监测类型路径标识
+     * @param stationId 站点ID
+     * @param metric 指标列名
+     * @param from 日期下限（含），为空时不限
+     * @param to 日期上限（不含），为空时不限
+     * @param handler 结果处理器，逐日接收概要（只填写bucketDate、valueCount和sketch）
+     */
+    void selectSketches(@Param("dataType") String dataType,
+                        @Param("stationId") Long stationId,
+                        @Param("metric") String metric,
+                        @Param("from") LocalDate from,
+                        @Param("to") LocalDate to,
+                        ResultHandler<MonitoringDataSketch> handler);
+
+    /**
+     * 判断监测类型是否已有概要数据
+     */
+    int countSketchSample(@Param("dataType") String dataType);
+
+    /**
+     * 查询概要表中指定监测类型出现过的站点ID
+     */
+    List<Long> selectSketchStationIds(@Param("dataType") String dataType);
+}
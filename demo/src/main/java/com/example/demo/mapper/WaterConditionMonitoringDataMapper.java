@@ -1,11 +1,17 @@
 package com.example.demo.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.example.demo.constant.MonitoringImportMode;
+import com.example.demo.constant.MonitoringTableRoute;
 import com.example.demo.pojo.DTO.monitoring.WaterConditionMonitoringDataResponseDTO;
 import com.example.demo.pojo.entity.monitoring.ReservoirMonitoringData;
+import com.example.demo.pojo.entity.monitoring.MonitoringRecord;
+import com.example.demo.pojo.entity.monitoring.StationTimeKey;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -21,6 +27,7 @@ public interface WaterConditionMonitoringDataMapper extends BaseMapper<Reservoir
      * @param stationName 监测站点名称
      * @param startTime 开始时间
      * @param endTime 结束时间
+     * @param tableRoute 热表/归档表查询路由
      * @param dataQuality 数据质量
      * @return 结果列表
      */
@@ -29,5 +36,58 @@ public interface WaterConditionMonitoringDataMapper extends BaseMapper<Reservoir
             @Param("stationName") String stationName,
             @Param("startTime") String startTime,
             @Param("endTime") String endTime,
+            @Param("tableRoute") MonitoringTableRoute tableRoute,
             @Param("dataQuality") Integer dataQuality);
+
+    /**
+     * 游标分页查询水情监测数据
+     * 按(monitoring_time, id)键集定位下一页，游标为空时从首条记录开始
+     *
+     * @param cursorTime 上一页最后一条记录的监测时间
+     * @param cursorId 上一页最后一条记录的ID
+     * @param ascending 是否按时间升序
+     * @param limit 查询条数
+     */
+    List<WaterConditionMonitoringDataResponseDTO> seekWaterConditionMonitoringData(
+            @Param("stationId") Long stationId,
+            @Param("stationName") String stationName,
+            @Param("startTime") String startTime,
+            @Param("endTime") String endTime,
+            @Param("tableRoute") MonitoringTableRoute tableRoute,
+            @Param("dataQuality") Integer dataQuality,
+            @Param("cursorTime") LocalDateTime cursorTime,
+            @Param("cursorId") Long cursorId,
+            @Param("ascending") boolean ascending,
+            @Param("limit") int limit);
+
+    /**
+     * 统计水情监测数据总数
+     */
+    Long countWaterConditionMonitoringData(
+            @Param("stationId") Long stationId,
+            @Param("stationName") String stationName,
+            @Param("startTime") String startTime,
+            @Param("endTime") String endTime,
+            @Param("tableRoute") MonitoringTableRoute tableRoute,
+            @Param("dataQuality") Integer dataQuality);
+
+    /**
+     * 批量查询已存在的(站点ID, 监测时间)组合
+     *
+     * @param keys 待检查的记录，单次建议不超过1000条
+     * @return 数据库中已存在的键
+     */
+    List<StationTimeKey> selectExistingStationTimes(@Param("keys") Collection<? extends MonitoringRecord> keys);
+
+    /**
+     * 批量插入水库监测数据
+     *
+     * 跳过和覆盖模式使用ON DUPLICATE KEY UPDATE：跳过模式不修改未删除的记录、恢复已软删除的记录，覆盖模式更新并恢复全部重复记录；
+     * 报错模式遇到重复键时抛出DuplicateKeyException。数据本身的错误在各模式下都会抛出异常
+     *
+     * @param dataList 数据列表
+     * @param mode 导入模式
+     * @return 影响行数（新插入的记录计为1，被覆盖或恢复的记录计为2，未修改的记录计为0）
+     */
+    int insertBatch(@Param("dataList") List<ReservoirMonitoringData> dataList, @Param("mode") MonitoringImportMode mode);
 }
@@ -1,12 +1,20 @@
 package com.example.demo.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.example.demo.constant.MonitoringImportMode;
+import com.example.demo.constant.MonitoringTableRoute;
 import com.example.demo.pojo.DTO.monitoring.WaterLevelMonitoringDataResponseDTO;
 import com.example.demo.pojo.entity.monitoring.WaterLevelMonitoringData;
+import com.example.demo.pojo.entity.monitoring.MonitoringChartSample;
+import com.example.demo.pojo.entity.monitoring.MonitoringRecord;
+import com.example.demo.pojo.entity.monitoring.StationTimeKey;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.ResultHandler;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -29,6 +37,7 @@ public interface WaterLevelMonitoringDataMapper extends BaseMapper<WaterLevelMon
      * @param stationId 监测站点ID（可选）
      * @param startTime 开始时间（可选）
      * @param endTime 结束时间（可选）
+     * @param tableRoute 热表/归档表查询路由
      * @param dataQuality 数据质量（可选）
      * @param collectionMethod 采集方式（可选）
      * @param dataSource 数据来源设备（可选）
@@ -39,6 +48,55 @@ public interface WaterLevelMonitoringDataMapper extends BaseMapper<WaterLevelMon
             @Param("stationId") Long stationId,
             @Param("startTime") LocalDateTime startTime,
             @Param("endTime") LocalDateTime endTime,
+            @Param("tableRoute") MonitoringTableRoute tableRoute,
+            @Param("dataQuality") Integer dataQuality,
+            @Param("collectionMethod") String collectionMethod,
+            @Param("dataSource") String dataSource,
+            @Param("sort") String sort);
+
+    /**
+     * 游标分页查询水位监测数据
+     * 按(monitoring_time, id)键集定位下一页，游标为空时从首条记录开始
+     *
+     * @param cursorTime 上一页最后一条记录的监测时间
+     * @param cursorId 上一页最后一条记录的ID
+     * @param ascending 是否按时间升序
+     * @param limit 查询条数
+     */
+    List<WaterLevelMonitoringDataResponseDTO> selectWaterLevelMonitoringDataSeek(
+            @Param("stationId") Long stationId,
+            @Param("startTime") LocalDateTime startTime,
+            @Param("endTime") LocalDateTime endTime,
+            @Param("tableRoute") MonitoringTableRoute tableRoute,
+            @Param("dataQuality") Integer dataQuality,
+            @Param("collectionMethod") String collectionMethod,
+            @Param("dataSource") String dataSource,
+            @Param("cursorTime") LocalDateTime cursorTime,
+            @Param("cursorId") Long cursorId,
+            @Param("ascending") boolean ascending,
+            @Param("limit") int limit);
+
+    /**
+     * 统计水位监测数据总数
+     */
+    Long countWaterLevelMonitoringData(
+            @Param("stationId") Long stationId,
+            @Param("startTime") LocalDateTime startTime,
+            @Param("endTime") LocalDateTime endTime,
+            @Param("tableRoute") MonitoringTableRoute tableRoute,
+            @Param("dataQuality") Integer dataQuality,
+            @Param("collectionMethod") String collectionMethod,
+            @Param("dataSource") String dataSource);
+
+    /**
+     * 流式查询水位监测数据（用于导出）
+     * 使用MySQL逐行流式读取，调用方需在事务内遍历并关闭游标
+     */
+    Cursor<WaterLevelMonitoringDataResponseDTO> selectWaterLevelMonitoringDataForExport(
+            @Param("stationId") Long stationId,
+            @Param("startTime") LocalDateTime startTime,
+            @Param("endTime") LocalDateTime endTime,
+            @Param("tableRoute") MonitoringTableRoute tableRoute,
             @Param("dataQuality") Integer dataQuality,
             @Param("collectionMethod") String collectionMethod,
             @Param("dataSource") String dataSource,
@@ -56,32 +114,34 @@ public interface WaterLevelMonitoringDataMapper extends BaseMapper<WaterLevelMon
             @Param("timeRange") String timeRange);
 
     /**
-     * 查询水位图表数据
+     * 查询水位图表样本
      * 
      * @param stationId 监测站点ID
      * @param startTime 开始时间（可选）
      * @param endTime 结束时间（可选）
-     * @param interval 时间间隔（hour/day/month）
-     * @return 图表数据列表
+     * @param tableRoute 热表/归档表查询路由
+     * @param handler 结果处理器，按监测时间升序逐行接收样本
      */
-    List<Map<String, Object>> selectWaterLevelChartData(
+    void selectWaterLevelChartSamples(
             @Param("stationId") Long stationId,
             @Param("startTime") LocalDateTime startTime,
             @Param("endTime") LocalDateTime endTime,
-            @Param("interval") String interval);
+            @Param("tableRoute") MonitoringTableRoute tableRoute,
+            ResultHandler<MonitoringChartSample> handler);
 
     /**
-     * 查询所有站点的水位图表数据（汇总）
+     * 查询所有站点的水位图表样本（汇总）
      * 
      * @param startTime 开始时间（可选）
      * @param endTime 结束时间（可选）
-     * @param interval 时间间隔（hour/day/month）
-     * @return 汇总图表数据列表
+     * @param tableRoute 热表/归档表查询路由
+     * @param handler 结果处理器，按监测时间升序逐行接收样本
      */
-    List<Map<String, Object>> selectAllStationsWaterLevelChartData(
+    void selectAllStationsWaterLevelChartSamples(
             @Param("startTime") LocalDateTime startTime,
             @Param("endTime") LocalDateTime endTime,
-            @Param("interval") String interval);
+            @Param("tableRoute") MonitoringTableRoute tableRoute,
+            ResultHandler<MonitoringChartSample> handler);
 
     /**
      * 查询监测概览统计数据
@@ -106,17 +166,6 @@ public interface WaterLevelMonitoringDataMapper extends BaseMapper<WaterLevelMon
      */
     List<Map<String, Object>> selectDataQualityTrend(@Param("timeRange") String timeRange);
 
-    /**
-     * 统计指定站点和时间的数据条数（用于重复性检查）
-     * 
-     * @param stationId 监测站点ID
-     * @param monitoringTime 监测时间
-     * @return 数据条数
-     */
-    int countByStationIdAndTime(
-            @Param("stationId") Long stationId, 
-            @Param("monitoringTime") LocalDateTime monitoringTime);
-
     /**
      * 根据站点ID和时间范围查询水位数据（用于关联查询）
      * 
@@ -129,4 +178,24 @@ public interface WaterLevelMonitoringDataMapper extends BaseMapper<WaterLevelMon
             @Param("stationId") Long stationId,
             @Param("startTime") LocalDateTime startTime,
             @Param("endTime") LocalDateTime endTime);
+
+    /**
+     * 批量查询已存在的(站点ID, 监测时间)组合
+     *
+     * @param keys 待检查的记录，单次建议不超过1000条
+     * @return 数据库中已存在的键
+     */
+    List<StationTimeKey> selectExistingStationTimes(@Param("keys") Collection<? extends MonitoringRecord> keys);
+
+    /**
+     * 批量插入水位监测数据
+     *
+     * 跳过和覆盖模式使用ON DUPLICATE KEY UPDATE：跳过模式不修改未删除的记录、恢复已软删除的记录，覆盖模式更新并恢复全部重复记录；
+     * 报错模式遇到重复键时抛出DuplicateKeyException。数据本身的错误在各模式下都会抛出异常
+     *
+     * @param dataList 数据列表
+     * @param mode 导入模式
+     * @return 影响行数（新插入的记录计为1，被覆盖或恢复的记录计为2，未修改的记录计为0）
+     */
+    int insertBatch(@Param("dataList") List<WaterLevelMonitoringData> dataList, @Param("mode") MonitoringImportMode mode);
 }
@@ -1,12 +1,19 @@
 package com.example.demo.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.example.demo.constant.MonitoringImportMode;
+import com.example.demo.constant.MonitoringTableRoute;
 import com.example.demo.pojo.entity.monitoring.WaterQualityMonitoringData;
+import com.example.demo.pojo.entity.monitoring.MonitoringChartSample;
+import com.example.demo.pojo.entity.monitoring.MonitoringRecord;
+import com.example.demo.pojo.entity.monitoring.StationTimeKey;
 import com.example.demo.pojo.DTO.monitoring.WaterQualityMonitoringDataResponseDTO;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -24,26 +31,63 @@ public interface WaterQualityMonitoringDataMapper extends BaseMapper<WaterQualit
             @Param("stationId") Long stationId,
             @Param("startTime") LocalDateTime startTime,
             @Param("endTime") LocalDateTime endTime,
+            @Param("tableRoute") MonitoringTableRoute tableRoute,
             @Param("monitoringItemCode") String monitoringItemCode,
             @Param("dataQuality") Integer dataQuality,
             @Param("collectionMethod") String collectionMethod,
             @Param("dataSource") String dataSource,
             @Param("sort") String sort);
 
+    /**
+     * 游标分页查询水质监测数据
+     * 按(monitoring_time, id)键集定位下一页，游标为空时从首条记录开始
+     *
+     * @param cursorTime 上一页最后一条记录的监测时间
+     * @param cursorId 上一页最后一条记录的ID
+     * @param ascending 是否按时间升序
+     * @param limit 查询条数
+     */
+    List<WaterQualityMonitoringDataResponseDTO> selectWaterQualityMonitoringDataSeek(
+            @Param("stationId") Long stationId,
+            @Param("startTime") LocalDateTime startTime,
+            @Param("endTime") LocalDateTime endTime,
+            @Param("tableRoute") MonitoringTableRoute tableRoute,
+            @Param("dataQuality") Integer dataQuality,
+            @Param("collectionMethod") String collectionMethod,
+            @Param("dataSource") String dataSource,
+            @Param("cursorTime") LocalDateTime cursorTime,
+            @Param("cursorId") Long cursorId,
+            @Param("ascending") boolean ascending,
+            @Param("limit") int limit);
+
+    /**
+     * 统计水质监测数据总数
+     */
+    Long countWaterQualityMonitoringData(
+            @Param("stationId") Long stationId,
+            @Param("startTime") LocalDateTime startTime,
+            @Param("endTime") LocalDateTime endTime,
+            @Param("tableRoute") MonitoringTableRoute tableRoute,
+            @Param("dataQuality") Integer dataQuality,
+            @Param("collectionMethod") String collectionMethod,
+            @Param("dataSource") String dataSource);
+
     /**
      * 查询水质统计数据
      */
     Map<String, Object> selectWaterQualityStatistics(@Param("stationId") Long stationId, @Param("timeRange") String timeRange);
 
     /**
-     * 查询水质图表数据（按监测项目分组）
+     * 查询水质图表样本（按监测项目分组）
+     * 以MySQL逐行流式读取按监测时间升序排列的样本，由服务端按时间间隔分桶统计
      */
-    List<Map<String, Object>> selectWaterQualityChartData(
+    void selectWaterQualityChartSamples(
             @Param("stationId") Long stationId,
             @Param("monitoringItemCode") String monitoringItemCode,
             @Param("startTime") LocalDateTime startTime,
             @Param("endTime") LocalDateTime endTime,
-            @Param("interval") String interval);
+            @Param("tableRoute") MonitoringTableRoute tableRoute,
+            ResultHandler<MonitoringChartSample> handler);
 
     /**
      * 查询所有站点的水质图表数据（汇总）
@@ -80,16 +124,23 @@ public interface WaterQualityMonitoringDataMapper extends BaseMapper<WaterQualit
     List<Map<String, Object>> selectLatestWaterQualityData(@Param("stationId") Long stationId);
 
     /**
-     * 根据站点ID和时间查询数据是否存在（用于导入去重）
+     * 批量查询已存在的(站点ID, 监测时间)组合
+     *
+     * @param keys 待检查的记录，单次建议不超过1000条
+     * @return 数据库中已存在的键
      */
-    int countByStationIdAndTime(
-            @Param("stationId") Long stationId,
-            @Param("monitoringTime") LocalDateTime monitoringTime);
+    List<StationTimeKey> selectExistingStationTimes(@Param("keys") Collection<? extends MonitoringRecord> keys);
 
     /**
      * 批量插入水质监测数据
+     * 跳过和覆盖模式使用ON DUPLICATE KEY UPDATE：跳过模式不修改未删除的记录、恢复已软删除的记录，覆盖模式更新并恢复全部重复记录；
+     * 报错模式遇到重复键时抛出DuplicateKeyException。数据本身的错误在各模式下都会抛出异常
+     *
+     * @param dataList 数据列表
+     * @param mode 导入模式
+     * @return 影响行数（新插入的记录计为1，被覆盖或恢复的记录计为2，未修改的记录计为0）
      */
-    int insertBatch(@Param("dataList") List<WaterQualityMonitoringData> dataList);
+    int insertBatch(@Param("dataList") List<WaterQualityMonitoringData> dataList, @Param("mode") MonitoringImportMode mode);
 
     /**
      * 查询异常数据统计
@@ -15,7 +15,7 @@ import java.math.BigDecimal;
  * 每一条记录对应Excel表格中的一行数据
  */
 @Data
-public class FlowDataImportDTO {
+public class FlowDataImportDTO implements MonitoringImportRow {
 
     /**
      * Excel行号
@@ -63,4 +63,14 @@ public class FlowMonitoringDataQueryDTO {
      * 排序字段（例如：monitoring_time,desc）
      */
     private String sort = "monitoring_time,desc";
+
+    /**
+     * 游标分页令牌（游标分页模式下使用，首页不传）
+     */
+    private String cursor;
+
+    /**
+     * 游标分页模式下是否统计总记录数，默认不统计
+     */
+    private Boolean withCount = false;
 }
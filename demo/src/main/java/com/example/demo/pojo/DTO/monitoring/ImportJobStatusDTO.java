@@ -0,0 +1,106 @@
+package com.example.demo.pojo.DTO.monitoring;
+
+import com.example.demo.constant.ImportJobStatus;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 导入任务状态DTO
+ * 用于返回异步导入任务的进度和结果
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportJobStatusDTO {
+
+    /**
+     * 任务ID
+     */
+    private String jobId;
+
+    /**
+     * 监测类型路径标识
+     * 例如: flow
+     */
+    private String type;
+
+    /**
+     * 导入文件名
+     */
+    private String fileName;
+
+    /**
+     * 导入模式编码
+     * 例如: skip
+     */
+    private String mode;
+
+    /**
+     * 客户端批次ID，提交时未指定则为空
+     */
+    private String batchId;
+
+    /**
+     * 任务状态
+     */
+    private ImportJobStatus status;
+
+    /**
+     * 已解析行数（不含标题行和空行）
+     */
+    private Integer parsedRows;
+
+    /**
+     * 已写入行数
+     */
+    private Integer insertedRows;
+
+    /**
+     * 被拒绝行数（格式错误、重复等）
+     */
+    private Integer rejectedRows;
+
+    /**
+     * 导入进度百分比(0-100)，无法估算时为空
+     */
+    private Integer progress;
+
+    /**
+     * 预计剩余时间（秒），无法估算时为空
+     */
+    private Long etaSeconds;
+
+    /**
+     * 提交时间
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime submittedAt;
+
+    /**
+     * 开始执行时间
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime startedAt;
+
+    /**
+     * 结束时间
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime finishedAt;
+
+    /**
+     * 状态说明（失败原因等）
+     */
+    private String message;
+
+    /**
+     * 导入结果，任务结束后返回
+     */
+    private ImportResultDTO result;
+}
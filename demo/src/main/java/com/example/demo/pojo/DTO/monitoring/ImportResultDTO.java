@@ -6,6 +6,7 @@ import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * 导入结果DTO
@@ -37,16 +38,38 @@ public class ImportResultDTO {
 
     /**
      * 重复数据行数
+     * 包含文件内重复的行，以及与数据库已有记录重复而被跳过（跳过模式）或覆盖（覆盖模式）的行
      * 例如: 20
      */
     private Integer duplicateRows;
 
     /**
-     * 错误详情列表
-     * 包含所有导入过程中发生错误的详细信息
+     * 错误详情样例
+     * 按行序返回前100条错误，全部错误通过错误报告下载
      */
     private List<ImportErrorDTO> errors;
 
+    /**
+     * 按错误类别统计的错误行数，键为类别编码（invalid-station、invalid-time、invalid-value、duplicate-in-file、processing）
+     * 例如: {"invalid-time": 12, "duplicate-in-file": 18}
+     */
+    private Map<String, Integer> errorCategories;
+
+    /**
+     * 错误报告ID，存在错误时返回，通过/api/monitoring/import-error-reports/{reportId}下载全部错误
+     */
+    private String errorReportId;
+
+    /**
+     * 客户端批次ID，请求携带批次ID时原样返回
+     */
+    private String batchId;
+
+    /**
+     * 是否为重复提交：为true时该批次此前已导入，本次未处理任何数据，结果取自导入批次台账且不含错误样例
+     */
+    private Boolean replayed;
+
     /**
      * 导入错误详情DTO
      * 用于记录导入过程中的具体错误信息
@@ -69,6 +92,12 @@ public class ImportResultDTO {
          */
         private String stationCode;
 
+        /**
+         * 错误类别编码
+         * 例如: invalid-time
+         */
+        private String category;
+
         /**
          * 错误信息
          * 例如: 站码不存在
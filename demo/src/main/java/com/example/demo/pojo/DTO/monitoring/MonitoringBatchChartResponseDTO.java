@@ -0,0 +1,67 @@
+package com.example.demo.pojo.DTO.monitoring;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 多站点对比图表响应DTO
+ * 各站点序列共用一组时间标签，values与labels按下标一一对应，站点在该时间没有数据时为null；
+ * 桶数量超过最大点数时相邻桶合并，标签为合并后首个桶的标签
+ */
+@Data
+public class MonitoringBatchChartResponseDTO {
+
+    /**
+     * 共用的时间标签列表
+     */
+    private List<String> labels;
+
+    /**
+     * 各站点的数据序列，顺序与请求的站点ID一致
+     */
+    private List<Series> series;
+
+    /**
+     * 数据集名称
+     */
+    private String datasetName;
+
+    /**
+     * 指标列名
+     */
+    private String metric;
+
+    /**
+     * 时间间隔
+     */
+    private String interval;
+
+    /**
+     * 数据单位
+     */
+    private String unit;
+
+    /**
+     * 单个站点的数据序列
+     */
+    @Data
+    public static class Series {
+
+        /**
+         * 站点ID
+         */
+        private Long stationId;
+
+        /**
+         * 各时间标签的平均值
+         */
+        private List<BigDecimal> values;
+
+        /**
+         * 参与统计的原始数据条数
+         */
+        private Long dataCount;
+    }
+}
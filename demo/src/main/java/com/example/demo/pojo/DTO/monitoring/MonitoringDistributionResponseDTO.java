@@ -0,0 +1,85 @@
+package com.example.demo.pojo.DTO.monitoring;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 监测数据分布统计响应DTO
+ * 单个站点单个指标在时间范围内的分位数和直方图，没有数据时各统计值为null、直方图为空
+ */
+@Data
+public class MonitoringDistributionResponseDTO {
+
+    /**
+     * 监测站点ID
+     */
+    private Long stationId;
+
+    /**
+     * 监测类型路径标识
+     */
+    private String dataType;
+
+    /**
+     * 指标列名
+     */
+    private String metric;
+
+    /**
+     * 参与统计的数值条数
+     */
+    private Long count;
+
+    private BigDecimal min;
+
+    private BigDecimal max;
+
+    private BigDecimal mean;
+
+    private BigDecimal p5;
+
+    private BigDecimal p50;
+
+    private BigDecimal p95;
+
+    private BigDecimal p99;
+
+    /**
+     * 等宽直方图，覆盖[min, max]，最后一组包含最大值
+     */
+    private List<Bin> histogram;
+
+    /**
+     * 合并的日概要数量
+     */
+    private Integer sketchDays;
+
+    /**
+     * 从原始数据读取的数值条数（范围首尾不足一天的部分，或概要不可用时的全部数据）
+     */
+    private Long rawCount;
+
+    /**
+     * 直方图分组
+     */
+    @Data
+    public static class Bin {
+
+        /**
+         * 下界（含）
+         */
+        private BigDecimal lower;
+
+        /**
+         * 上界（不含，最后一组含）
+         */
+        private BigDecimal upper;
+
+        /**
+         * 数值条数（由概要估算）
+         */
+        private Long count;
+    }
+}
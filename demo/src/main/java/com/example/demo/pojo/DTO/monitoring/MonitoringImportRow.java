@@ -0,0 +1,23 @@
+package com.example.demo.pojo.DTO.monitoring;
+
+/**
+ * 监测数据导入行
+ * 各类监测数据导入DTO的公共视图，供导入流水线按行号、站码和监测时间统一处理
+ */
+public interface MonitoringImportRow {
+
+    /**
+     * 获取Excel行号
+     */
+    Integer getRowNumber();
+
+    /**
+     * 获取监测站码
+     */
+    String getStationCode();
+
+    /**
+     * 获取监测时间（yyyy-MM-dd HH:mm:ss）
+     */
+    String getMonitoringTime();
+}
@@ -0,0 +1,77 @@
+package com.example.demo.pojo.DTO.monitoring;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 单站点多指标图表响应DTO
+ * 按列返回：各指标共用一组时间标签，values与labels按下标一一对应，指标在该时间没有数据时为null；
+ * 桶数量超过最大点数时相邻桶合并，标签为合并后首个桶的标签
+ */
+@Data
+public class MonitoringMultiMetricChartResponseDTO {
+
+    /**
+     * 共用的时间标签列表
+     */
+    private List<String> labels;
+
+    /**
+     * 各指标的数据序列，顺序与请求的指标一致
+     */
+    private List<Series> series;
+
+    /**
+     * 监测站点ID
+     */
+    private Long stationId;
+
+    /**
+     * 数据集名称
+     */
+    private String datasetName;
+
+    /**
+     * 时间间隔
+     */
+    private String interval;
+
+    /**
+     * 单个指标的数据序列
+     */
+    @Data
+    public static class Series {
+
+        /**
+         * 指标列名
+         */
+        private String metric;
+
+        /**
+         * 监测项目代码
+         */
+        private String monitoringItemCode;
+
+        /**
+         * 监测项目名称
+         */
+        private String monitoringItemName;
+
+        /**
+         * 数据单位
+         */
+        private String unit;
+
+        /**
+         * 各时间标签的平均值
+         */
+        private List<BigDecimal> values;
+
+        /**
+         * 参与统计的原始数据条数
+         */
+        private Long dataCount;
+    }
+}
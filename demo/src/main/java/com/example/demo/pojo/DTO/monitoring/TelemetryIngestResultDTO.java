@@ -0,0 +1,49 @@
+package com.example.demo.pojo.DTO.monitoring;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 遥测数据上报结果DTO
+ * 数据进入写入队列即视为接收成功，由后台写入线程批量提交入库
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TelemetryIngestResultDTO {
+
+    /**
+     * 上报总条数
+     */
+    private Integer totalRows;
+
+    /**
+     * 已接收（进入写入队列）条数
+     */
+    private Integer acceptedRows;
+
+    /**
+     * 校验失败条数
+     */
+    private Integer rejectedRows;
+
+    /**
+     * 校验失败详情，rowNumber为数据在请求数组中的序号（从1开始）
+     */
+    private List<ImportResultDTO.ImportErrorDTO> errors;
+
+    /**
+     * 客户端批次ID，请求携带批次ID时原样返回
+     */
+    private String batchId;
+
+    /**
+     * 是否为重复提交：为true时该批次此前已接收，本次未处理任何数据，结果取自导入批次台账且不含错误详情
+     */
+    private Boolean replayed;
+}
@@ -0,0 +1,141 @@
+package com.example.demo.pojo.DTO.monitoring;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 遥测数据上报DTO
+ * RTU等采集设备按监测类型上报的单条读数，仅需填写与监测类型对应的数值字段
+ */
+@Data
+public class TelemetryReadingDTO {
+
+    /**
+     * 监测站点ID（与站码二选一）
+     */
+    private Long stationId;
+
+    /**
+     * 监测站码（与站点ID二选一）
+     */
+    private String stationCode;
+
+    /**
+     * 监测时间
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime monitoringTime;
+
+    /**
+     * 瞬时流量(m³/s)，流量数据
+     */
+    private BigDecimal instantFlow;
+
+    /**
+     * 累计流量(m³)，流量数据
+     */
+    private BigDecimal cumulativeFlow;
+
+    /**
+     * 水位(m)，水位及水库数据
+     */
+    private BigDecimal waterLevel;
+
+    /**
+     * 水温(℃)，水质数据
+     */
+    private BigDecimal waterTemperature;
+
+    /**
+     * 浊度(NTU)，水质数据
+     */
+    private BigDecimal turbidity;
+
+    /**
+     * pH值，水质数据
+     */
+    private BigDecimal phValue;
+
+    /**
+     * 电导率(μS/cm)，水质数据
+     */
+    private BigDecimal conductivity;
+
+    /**
+     * 溶解氧(mg/L)，水质数据
+     */
+    private BigDecimal dissolvedOxygen;
+
+    /**
+     * 氨氮(mg/L)，水质数据
+     */
+    private BigDecimal ammoniaNitrogen;
+
+    /**
+     * 化学需氧量(mg/L)，水质数据
+     */
+    private BigDecimal codValue;
+
+    /**
+     * 余氯(mg/L)，水质数据
+     */
+    private BigDecimal residualChlorine;
+
+    /**
+     * 时段雨量(mm)，雨情数据
+     */
+    private BigDecimal rainfall;
+
+    /**
+     * 降雨强度(mm/h)，雨情数据
+     */
+    private BigDecimal rainfallIntensity;
+
+    /**
+     * 累计雨量(mm)，雨情数据
+     */
+    private BigDecimal cumulativeRainfall;
+
+    /**
+     * 蓄水量(10⁴m³)，水库数据
+     */
+    private BigDecimal storageCapacity;
+
+    /**
+     * 超汛限(m)，水库数据
+     */
+    private BigDecimal floodLimitDiff;
+
+    /**
+     * 入库流量(m³/s)，水库数据
+     */
+    private BigDecimal inflow;
+
+    /**
+     * 出库流量(m³/s)，水库数据
+     */
+    private BigDecimal outflow;
+
+    /**
+     * 数据质量(1:正常,2:异常,3:缺失)，默认为1
+     */
+    private Integer dataQuality;
+
+    /**
+     * 采集方式(AUTO:自动,MANUAL:手动)，默认为AUTO
+     */
+    private String collectionMethod;
+
+    /**
+     * 数据来源设备
+     */
+    private String dataSource;
+
+    /**
+     * 备注
+     */
+    private String remark;
+}
@@ -14,7 +14,7 @@ import java.math.BigDecimal;
  */
 @Data
 @EqualsAndHashCode(callSuper = false)
-public class WaterLevelDataImportDTO {
+public class WaterLevelDataImportDTO implements MonitoringImportRow {
 
     /**
      * 行号（用于错误定位）
@@ -13,7 +13,7 @@ import java.math.BigDecimal;
  */
 @Data
 @EqualsAndHashCode(callSuper = false)
-public class WaterQualityDataImportDTO {
+public class WaterQualityDataImportDTO implements MonitoringImportRow {
 
     /**
      * Excel行号（用于错误定位）
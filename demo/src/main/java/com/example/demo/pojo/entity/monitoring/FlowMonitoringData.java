@@ -14,7 +14,7 @@ import java.time.LocalDateTime;
 @Data
 @EqualsAndHashCode(callSuper = false)
 @TableName("flow_monitoring_data")
-public class FlowMonitoringData {
+public class FlowMonitoringData implements MonitoringRecord {
 
     /**
      * 数据ID
@@ -0,0 +1,54 @@
+package com.example.demo.pojo.entity.monitoring;
+
+import lombok.Data;
+
+/**
+ * 多指标图表样本
+ * 流式读取原始监测数据时每行取监测时间和最多8个指标值，指标值按查询时的指标顺序依次存放在value0~value7中
+ */
+@Data
+public class MonitoringChartRow {
+
+    /**
+     * 单行最多指标数量，与指标最多的水质数据一致
+     */
+    public static final int MAX_METRICS = 8;
+
+    /**
+     * 监测时间的纪元秒（按本地时间换算）
+     */
+    private long epochSecond;
+
+    private Double value0;
+
+    private Double value1;
+
+    private Double value2;
+
+    private Double value3;
+
+    private Double value4;
+
+    private Double value5;
+
+    private Double value6;
+
+    private Double value7;
+
+    /**
+     * 按指标下标取值，值为空时返回null
+     */
+    public Double getValue(int index) {
+        switch (index) {
+            case 0: return value0;
+            case 1: return value1;
+            case 2: return value2;
+            case 3: return value3;
+            case 4: return value4;
+            case 5: return value5;
+            case 6: return value6;
+            case 7: return value7;
+            default: throw new IndexOutOfBoundsException("指标下标超出范围: " + index);
+        }
+    }
+}
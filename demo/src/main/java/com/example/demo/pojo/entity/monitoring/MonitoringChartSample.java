@@ -0,0 +1,26 @@
+package com.example.demo.pojo.entity.monitoring;
+
+import lombok.Data;
+
+/**
+ * 图表统计样本
+ * 流式读取原始监测数据时每行只取监测时间和一个指标值，以基本类型承载，不创建时间和BigDecimal对象
+ */
+@Data
+public class MonitoringChartSample {
+
+    /**
+     * 站点ID，只有多站点查询返回
+     */
+    private long stationId;
+
+    /**
+     * 监测时间的纪元秒（按本地时间换算）
+     */
+    private long epochSecond;
+
+    /**
+     * 指标值
+     */
+    private double value;
+}
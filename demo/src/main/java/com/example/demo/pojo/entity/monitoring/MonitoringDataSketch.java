@@ -0,0 +1,44 @@
+package com.example.demo.pojo.entity.monitoring;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * 监测数据日分位数概要
+ * 一个站点一个指标一天的数值分布，由{@link com.example.demo.utils.QuantileSketch}序列化保存
+ * 对应数据库表: monitoring_data_sketch
+ */
+@Data
+public class MonitoringDataSketch {
+
+    /**
+     * 监测类型路径标识(flow/water-level/water-quality/rainfall)
+     */
+    private String dataType;
+
+    /**
+     * 监测指标列名
+     */
+    private String metric;
+
+    /**
+     * 监测站点ID
+     */
+    private Long stationId;
+
+    /**
+     * 统计日期
+     */
+    private LocalDate bucketDate;
+
+    /**
+     * 非空数值条数
+     */
+    private Long valueCount;
+
+    /**
+     * 分位数概要序列化数据
+     */
+    private byte[] sketch;
+}
@@ -0,0 +1,67 @@
+package com.example.demo.pojo.entity.monitoring;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 监测数据导入批次台账实体类
+ * 记录客户端批次ID对应的导入结果统计，重复提交同一批次时直接返回台账中的结果
+ * 对应数据库表: monitoring_import_batch
+ */
+@Data
+@TableName("monitoring_import_batch")
+public class MonitoringImportBatch {
+
+    /**
+     * 客户端批次ID
+     */
+    @TableId(value = "batch_id", type = IdType.INPUT)
+    private String batchId;
+
+    /**
+     * 监测类型路径标识(flow/water-level/water-quality/rainfall/reservoir)
+     */
+    @TableField("data_type")
+    private String dataType;
+
+    /**
+     * 总行数
+     */
+    @TableField("total_rows")
+    private Integer totalRows;
+
+    /**
+     * 成功（写入或进入写入队列）行数
+     */
+    @TableField("success_rows")
+    private Integer successRows;
+
+    /**
+     * 失败行数
+     */
+    @TableField("error_rows")
+    private Integer errorRows;
+
+    /**
+     * 重复行数
+     */
+    @TableField("duplicate_rows")
+    private Integer duplicateRows;
+
+    /**
+     * 错误报告ID，错误报告过期后不可下载
+     */
+    @TableField("error_report_id")
+    private String errorReportId;
+
+    /**
+     * 接收时间
+     */
+    @TableField("created_at")
+    private LocalDateTime createdAt;
+}
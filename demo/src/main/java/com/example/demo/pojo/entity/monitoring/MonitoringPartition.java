@@ -0,0 +1,30 @@
+package com.example.demo.pojo.entity.monitoring;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 监测数据表分区信息
+ * 对应information_schema.PARTITIONS中的一个范围分区，也用于描述待创建的按月分区
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MonitoringPartition {
+
+    /**
+     * 分区名，按月分区为p+年月（如p202501），兜底分区为p_future
+     */
+    private String partitionName;
+
+    /**
+     * 分区上界表达式，如'2025-02-01 00:00:00'或MAXVALUE
+     */
+    private String description;
+
+    /**
+     * 分区行数（InnoDB估算值）
+     */
+    private Long tableRows;
+}
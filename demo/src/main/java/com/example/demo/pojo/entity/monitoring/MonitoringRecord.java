@@ -0,0 +1,20 @@
+package com.example.demo.pojo.entity.monitoring;
+
+import java.time.LocalDateTime;
+
+/**
+ * 监测数据记录
+ * 各类监测数据实体的公共视图，用于批量写入等按站点和监测时间处理数据的通用逻辑
+ */
+public interface MonitoringRecord {
+
+    /**
+     * 获取监测站点ID
+     */
+    Long getStationId();
+
+    /**
+     * 获取监测时间
+     */
+    LocalDateTime getMonitoringTime();
+}
@@ -13,7 +13,7 @@ import java.time.LocalDateTime;
 @Data
 @EqualsAndHashCode(callSuper = false)
 @TableName("rainfall_monitoring_data")
-public class RainfallMonitoringData {
+public class RainfallMonitoringData implements MonitoringRecord {
     
     /**
      * 数据ID
@@ -13,7 +13,7 @@ import java.time.LocalDateTime;
 @Data
 @EqualsAndHashCode(callSuper = false)
 @TableName("reservoir_monitoring_data")
-public class ReservoirMonitoringData {
+public class ReservoirMonitoringData implements MonitoringRecord {
 
     /**
      * 数据ID
@@ -0,0 +1,34 @@
+package com.example.demo.pojo.entity.monitoring;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 监测数据唯一键（站点ID + 监测时间）
+ * 用于批量存在性检查的查询结果及导入去重
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StationTimeKey implements MonitoringRecord {
+
+    /**
+     * 监测站点ID
+     */
+    private Long stationId;
+
+    /**
+     * 监测时间
+     */
+    private LocalDateTime monitoringTime;
+
+    /**
+     * 由监测数据记录构建唯一键
+     */
+    public static StationTimeKey of(MonitoringRecord record) {
+        return new StationTimeKey(record.getStationId(), record.getMonitoringTime());
+    }
+}
@@ -22,7 +22,7 @@ import java.time.LocalDateTime;
 @Data
 @EqualsAndHashCode(callSuper = false)
 @TableName("water_level_monitoring_data")
-public class WaterLevelMonitoringData {
+public class WaterLevelMonitoringData implements MonitoringRecord {
 
     /**
      * 数据ID
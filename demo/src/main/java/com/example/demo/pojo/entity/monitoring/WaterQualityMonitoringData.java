@@ -23,7 +23,7 @@ import java.time.LocalDateTime;
 @Data
 @EqualsAndHashCode(callSuper = false)
 @TableName("water_quality_monitoring_data")
-public class WaterQualityMonitoringData {
+public class WaterQualityMonitoringData implements MonitoringRecord {
 
     /**
      * 数据ID
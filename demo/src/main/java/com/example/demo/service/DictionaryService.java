@@ -210,7 +210,8 @@ public class DictionaryService {
         dictType.setUpdatedAt(LocalDateTime.now());
 
         int rows = dictionaryMapper.updateDictType(dictType);
-        if (rows <= 0) {
+        // 连接开启useAffectedRows，内容未变化时影响行数为0，此时以记录是否仍存在判断
+        if (rows <= 0 && dictionaryMapper.selectDictTypeById(dictType.getId()) == null) {
             throw new DictTypeUpdateException(MessageConstant.DICT_TYPE_UPDATE_FAILED);
         }
 
@@ -406,7 +407,7 @@ public class DictionaryService {
         dictionaryMapper.insertDictData(dictData);
 
         // 检查是否为更新操作（如果id为0，说明没有实际插入新记录，而是更新了现有记录）
-        if (dictData.getId() == 0) {
+        if (dictData.getId() == null || dictData.getId() == 0) {
             // 查询更新后的记录ID
             DictData existingData = dictionaryMapper.selectDictDataByTypeIdAndValue(
                     createDTO.getTypeId(), createDTO.getDataValue());
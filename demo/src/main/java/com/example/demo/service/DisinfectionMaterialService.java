@@ -105,7 +105,8 @@ public class DisinfectionMaterialService implements FacilityService<Disinfection
 
         // 更新数据库
         int result = disinfectionMaterialMapper.updateById(disinfectionMaterial);
-        if (result <= 0) {
+        // 连接开启useAffectedRows，内容未变化时影响行数为0，此时以记录是否仍存在判断
+        if (result <= 0 && disinfectionMaterialMapper.selectById(updateDTO.getId()) == null) {
             throw new RuntimeException("更新消毒药材失败");
         }
 
@@ -4,6 +4,7 @@ import com.example.demo.pojo.DTO.map.*;
 import com.example.demo.pojo.DTO.warning.WarningRecordResponseDTO;
 import com.example.demo.mapper.MapOverviewMapper;
 import com.example.demo.mapper.WarningRecordMapper;
+import com.example.demo.service.monitoring.LatestReadingStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -21,6 +22,7 @@ public class MapOverviewService {
 
     private final MapOverviewMapper mapOverviewMapper;
     private final WarningRecordMapper warningRecordMapper;
+    private final LatestReadingStore latestReadingStore;
 
     /**
      * 获取"一张图"模块的所有数据（概览接口）
@@ -105,6 +107,8 @@ public class MapOverviewService {
 
     /**
      * 获取所有监测站点及其最新数据
+     * 最新数据取自内存中的最新读数缓存，覆盖流量、水位、水质、雨情和水库各类监测数据；
+     * 缓存预热完成前回退到数据库查询（仅含水质数据）
      * 
      * @return 监测站点信息列表
      */
@@ -112,7 +116,22 @@ public class MapOverviewService {
         log.debug("获取所有监测站点及其最新数据");
         
         try {
-            List<MonitoringStationDTO> monitoringStations = mapOverviewMapper.selectMonitoringStationsWithLatestData();
+            if (!latestReadingStore.isReady()) {
+                List<MonitoringStationDTO> monitoringStations = mapOverviewMapper.selectMonitoringStationsWithLatestData();
+                log.debug("最新读数缓存未就绪，从数据库获取到 {} 个监测站点", monitoringStations.size());
+                return monitoringStations;
+            }
+
+            List<MonitoringStationDTO> monitoringStations = mapOverviewMapper.selectMonitoringStations();
+            for (MonitoringStationDTO station : monitoringStations) {
+                LatestReadingStore.LatestReading reading =
+                        latestReadingStore.getLatestForStation(station.getStationId(), station.getMonitoringItem());
+                Integer dataQuality = reading != null && reading.getDataQuality() != null ? reading.getDataQuality() : 1;
+                station.setLatestData(reading != null ? reading.getValues() : null);
+                station.setLastMonitoringTime(reading != null ? reading.getMonitoringTime() : null);
+                station.setDataQuality(dataQuality);
+                station.setDataQualityText(getDataQualityText(dataQuality));
+            }
             log.debug("获取到 {} 个监测站点", monitoringStations.size());
             return monitoringStations;
             
@@ -161,4 +180,17 @@ public class MapOverviewService {
             throw new RuntimeException("获取统计信息失败: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 获取数据质量文本
+     */
+    private String getDataQualityText(Integer dataQuality) {
+        if (dataQuality == null) return "正常";
+
+        switch (dataQuality) {
+            case 2: return "异常";
+            case 3: return "缺失";
+            default: return "正常";
+        }
+    }
+}
@@ -11,11 +11,13 @@ import com.example.demo.common.PageResult;
 import com.example.demo.pojo.entity.facility.MonitoringStation;
 import com.example.demo.mapper.MonitoringStationMapper;
 import com.example.demo.service.base.FacilityService;
+import com.example.demo.service.monitoring.MonitoringStationRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.BeanUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -27,6 +29,7 @@ import java.util.stream.Collectors;
 public class MonitoringStationService implements FacilityService<MonitoringStation, MonitoringStationResponseDTO, MonitoringStationQueryDTO, MonitoringStationCreateDTO, MonitoringStationUpdateDTO, MonitoringStationVO> {
 
     private final MonitoringStationMapper monitoringStationMapper;
+    private final MonitoringStationRegistry monitoringStationRegistry;
 
     /**
      * 分页查询监测站点列表
@@ -86,6 +89,7 @@ public class MonitoringStationService implements FacilityService<MonitoringStati
         BeanUtils.copyProperties(createDTO, monitoringStation);
         
         monitoringStationMapper.insert(monitoringStation);
+        monitoringStationRegistry.onStationSaved(monitoringStation.getId(), monitoringStation.getStationCode());
         return queryById(monitoringStation.getId());
     }
 
@@ -113,6 +117,7 @@ public class MonitoringStationService implements FacilityService<MonitoringStati
 
         BeanUtils.copyProperties(updateDTO, existingStation, "id");
         monitoringStationMapper.updateById(existingStation);
+        monitoringStationRegistry.onStationSaved(id, existingStation.getStationCode());
         return queryById(id);
     }
 
@@ -128,6 +133,7 @@ public class MonitoringStationService implements FacilityService<MonitoringStati
             throw new RuntimeException("监测站点不存在");
         }
         monitoringStationMapper.deleteById(id);
+        monitoringStationRegistry.onStationsDeleted(Collections.singletonList(id));
     }
 
     /**
@@ -139,6 +145,7 @@ public class MonitoringStationService implements FacilityService<MonitoringStati
             throw new RuntimeException("删除ID列表不能为空");
         }
         monitoringStationMapper.deleteBatchIds(ids);
+        monitoringStationRegistry.onStationsDeleted(ids);
     }
 
     /**
@@ -3,28 +3,58 @@ package com.example.demo.service;
 import com.github.pagehelper.PageHelper;
 import com.github.pagehelper.PageInfo;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.example.demo.common.CursorPageResult;
 import com.example.demo.common.PageResult;
+import com.example.demo.config.MonitoringChartProperties;
+import com.example.demo.pojo.DTO.monitoring.ImportResultDTO;
 import com.example.demo.pojo.DTO.monitoring.RainfallChartDataResponseDTO;
 import com.example.demo.pojo.DTO.monitoring.RainfallDataImportDTO;
 import com.example.demo.pojo.DTO.monitoring.RainfallMonitoringDataQueryDTO;
 import com.example.demo.pojo.DTO.monitoring.RainfallMonitoringDataResponseDTO;
+import com.example.demo.constant.MonitoringTableRoute;
+import com.example.demo.constant.ImportErrorCategory;
+import com.example.demo.constant.MonitoringImportMode;
+import com.example.demo.constant.MonitoringType;
+import com.example.demo.exception.monitoring.ImportDuplicateRecordException;
+import com.example.demo.pojo.entity.monitoring.MonitoringChartSample;
 import com.example.demo.pojo.entity.monitoring.RainfallMonitoringData;
+import com.example.demo.pojo.entity.monitoring.StationTimeKey;
 import com.example.demo.mapper.RainfallMonitoringDataMapper;
+import com.example.demo.service.monitoring.ImportErrorReport;
+import com.example.demo.service.monitoring.ImportErrorReportStore;
+import com.example.demo.service.monitoring.MonitoringBulkWriter;
+import com.example.demo.service.monitoring.MonitoringChartCache;
+import com.example.demo.service.monitoring.MonitoringPartitionService;
+import com.example.demo.service.monitoring.MonitoringRollupService;
+import com.example.demo.utils.ChartDownsampler;
+import com.example.demo.utils.CursorTokenUtil;
+import com.example.demo.utils.FastTimestampParser;
+import com.example.demo.utils.LongPairHashSet;
+import com.example.demo.utils.TimeBucketAggregator;
+import com.example.demo.utils.TimeBucketInterval;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * 雨情监测数据服务类
@@ -34,9 +64,29 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class RainfallMonitoringDataService extends ServiceImpl<RainfallMonitoringDataMapper, RainfallMonitoringData> {
 
+    /**
+     * 游标分页单页最大记录数
+     */
+    private static final int MAX_CURSOR_PAGE_SIZE = 1000;
+
+    /**
+     * CSV导出标题行
+     */
+    private static final String[] EXPORT_HEADERS = {"序号", "监测站点", "站点编码", "监测时间", "时段雨量(mm)",
+            "累计雨量(mm)", "数据质量", "采集方式", "数据来源", "备注"};
+
+    /**
+     * 流式导出写缓冲区大小
+     */
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+
     private final RainfallMonitoringDataMapper rainfallMonitoringDataMapper;
-    
-    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private final MonitoringBulkWriter monitoringBulkWriter;
+    private final ImportErrorReportStore importErrorReportStore;
+    private final MonitoringRollupService monitoringRollupService;
+    private final MonitoringPartitionService monitoringPartitionService;
+    private final MonitoringChartProperties chartProperties;
+    private final MonitoringChartCache monitoringChartCache;
 
     /**
      * 分页查询雨情监测数据列表
@@ -53,10 +103,13 @@ public class RainfallMonitoringDataService extends ServiceImpl<RainfallMonitorin
         PageHelper.startPage(page, size);
         
         // 查询数据，不需要传入分页参数
+        MonitoringTableRoute tableRoute = monitoringPartitionService.route(
+                MonitoringType.RAINFALL, queryDTO.getStartTime(), queryDTO.getEndTime());
         List<RainfallMonitoringDataResponseDTO> dataList = rainfallMonitoringDataMapper.selectRainfallMonitoringDataPage(
             queryDTO.getStationId(),
             queryDTO.getStartTime(),
             queryDTO.getEndTime(),
+            tableRoute,
             queryDTO.getDataQuality(),
             queryDTO.getCollectionMethod(),
             queryDTO.getDataSource(),
@@ -75,29 +128,91 @@ public class RainfallMonitoringDataService extends ServiceImpl<RainfallMonitorin
         );
     }
 
+
+    /**
+     * 游标分页查询雨情监测数据
+     * 按(monitoring_time, id)键集直接定位下一页，不执行OFFSET扫描，仅在withCount为true时统计总数
+     *
+     * @param queryDTO 查询条件DTO，cursor为空时返回首页
+     * @return 游标分页结果
+     */
+    public CursorPageResult<RainfallMonitoringDataResponseDTO> getRainfallMonitoringDataCursorPage(RainfallMonitoringDataQueryDTO queryDTO) {
+        int size = queryDTO.getSize() == null || queryDTO.getSize() < 1 ? 10 : Math.min(queryDTO.getSize(), MAX_CURSOR_PAGE_SIZE);
+        CursorTokenUtil.CursorPosition position = CursorTokenUtil.decode(queryDTO.getCursor());
+        boolean ascending = CursorTokenUtil.isTimeAscending(queryDTO.getSort());
+        MonitoringTableRoute tableRoute = monitoringPartitionService.route(
+                MonitoringType.RAINFALL, queryDTO.getStartTime(), queryDTO.getEndTime());
+
+        // 多取一条用于判断是否存在下一页
+        List<RainfallMonitoringDataResponseDTO> list = rainfallMonitoringDataMapper.selectRainfallMonitoringDataSeek(
+                queryDTO.getStationId(),
+                queryDTO.getStartTime(),
+                queryDTO.getEndTime(),
+                tableRoute,
+                queryDTO.getDataQuality(),
+                queryDTO.getCollectionMethod(),
+                queryDTO.getDataSource(),
+                position != null ? position.getMonitoringTime() : null,
+                position != null ? position.getId() : null,
+                ascending,
+                size + 1
+        );
+
+        boolean hasNext = list.size() > size;
+        String nextCursor = null;
+        if (hasNext) {
+            list = new ArrayList<>(list.subList(0, size));
+            RainfallMonitoringDataResponseDTO last = list.get(size - 1);
+            nextCursor = CursorTokenUtil.encode(last.getMonitoringTime(), last.getId());
+        }
+
+        Long total = Boolean.TRUE.equals(queryDTO.getWithCount())
+                ? rainfallMonitoringDataMapper.countRainfallMonitoringData(
+                        queryDTO.getStationId(),
+                        queryDTO.getStartTime(),
+                        queryDTO.getEndTime(),
+                        tableRoute,
+                        queryDTO.getDataQuality(),
+                        queryDTO.getCollectionMethod(),
+                        queryDTO.getDataSource())
+                : null;
+
+        return new CursorPageResult<>(list, size, nextCursor, hasNext, total);
+    }
     /**
      * 获取雨情图表数据
-     * 支持数据类型区分（时段雨量/累计雨量）
+     * 支持数据类型区分（时段雨量/累计雨量），数据点超过maxPoints时在服务端降采样
      *
      * @param stationId 监测站点ID
      * @param startTime 开始时间
      * @param endTime 结束时间
-     * @param interval 时间间隔（hour/day/month）
+     * @param interval 时间间隔（raw/[N]min/[N]hour/[N]day/[N]week/[N]month）
      * @param dataType 数据类型(rainfall:时段雨量,cumulativeRainfall:累计雨量)
+     * @param maxPoints 最大返回点数，为空时使用默认值
      * @return 图表数据
      */
-    public RainfallChartDataResponseDTO getRainfallChartData(Long stationId, LocalDateTime startTime, LocalDateTime endTime, String interval, String dataType) {
-        List<Map<String, Object>> chartData = rainfallMonitoringDataMapper.selectRainfallChartData(stationId, startTime, endTime, interval);
+    public RainfallChartDataResponseDTO getRainfallChartData(Long stationId, LocalDateTime startTime, LocalDateTime endTime,
+                                                             String interval, String dataType, Integer maxPoints) {
+        TimeBucketInterval bucketInterval = TimeBucketInterval.parse(interval);
+        int resolvedMaxPoints = chartProperties.resolveMaxPoints(maxPoints);
+        MonitoringChartCache.Key key = new MonitoringChartCache.Key(MonitoringType.RAINFALL, stationId, dataType,
+                startTime, endTime, bucketInterval.getCode(), resolvedMaxPoints);
+        return monitoringChartCache.get(key,
+                () -> loadRainfallChartData(stationId, startTime, endTime, bucketInterval, dataType, resolvedMaxPoints),
+                result -> result.getLabels().size());
+    }
 
+    private RainfallChartDataResponseDTO loadRainfallChartData(Long stationId, LocalDateTime startTime, LocalDateTime endTime,
+                                                               TimeBucketInterval bucketInterval, String dataType,
+                                                               int maxPoints) {
         RainfallChartDataResponseDTO responseDTO = new RainfallChartDataResponseDTO();
-        List<String> labels = new ArrayList<>();
-        List<BigDecimal> values = new ArrayList<>();
 
         String datasetName;
         String dataFieldName;
+        boolean cumulative = "cumulativeRainfall".equals(dataType);
 
         // 根据数据类型确定查询字段和数据集名称
-        if ("cumulativeRainfall".equals(dataType)) {
+        if (cumulative) {
             dataFieldName = "max_cumulative_rainfall";
             datasetName = "累计雨量数据";
         } else {
@@ -106,38 +221,39 @@ public class RainfallMonitoringDataService extends ServiceImpl<RainfallMonitorin
             datasetName = "时段雨量数据";
         }
 
-        DateTimeFormatter formatter;
-        if ("hour".equals(interval)) {
-            formatter = DateTimeFormatter.ofPattern("MM-dd HH:mm");
-        } else if ("day".equals(interval)) {
-            formatter = DateTimeFormatter.ofPattern("MM-dd");
-        } else {
-            formatter = DateTimeFormatter.ofPattern("yyyy-MM");
-        }
+        ChartDownsampler sampler = new ChartDownsampler(maxPoints);
 
-        for (Map<String, Object> data : chartData) {
-            // 处理时间标签
-            Object timeObj = data.get("time_label");
-            String timeLabel;
-            if (timeObj instanceof String) {
-                timeLabel = (String) timeObj;
-            } else if (timeObj instanceof LocalDateTime) {
-                timeLabel = formatter.format((LocalDateTime) timeObj);
-            } else {
-                continue; // 跳过无效数据
+        // 优先使用预聚合数据，不满足条件时流式查询原始数据并分桶统计（原始查询只统计指定站点）
+        List<Map<String, Object>> rollupData = stationId == null ? null
+                : monitoringRollupService.queryChartData(MonitoringType.RAINFALL, stationId, startTime, endTime, bucketInterval);
+        if (rollupData != null) {
+            for (Map<String, Object> data : rollupData) {
+                BigDecimal value = (BigDecimal) data.get(dataFieldName);
+                sampler.add((String) data.get("time_label"), value != null ? value : BigDecimal.ZERO);
             }
+        } else {
+            MonitoringTableRoute tableRoute = monitoringPartitionService.route(MonitoringType.RAINFALL, startTime, endTime);
+            // 累计雨量取桶内最大值，时段雨量取桶内平均值
+            TimeBucketAggregator aggregator = new TimeBucketAggregator(bucketInterval, 1,
+                    bucket -> sampler.add(bucket.getLabel(), cumulative ? bucket.getMax(0) : bucket.getAvg(0)));
+            rainfallMonitoringDataMapper.selectRainfallChartSamples(stationId, startTime, endTime, tableRoute, context -> {
+                MonitoringChartSample sample = context.getResultObject();
+                aggregator.add(sample.getEpochSecond(), sample.getValue());
+            });
+            aggregator.finish();
+        }
 
-            labels.add(timeLabel);
-
-            // 根据数据类型获取对应的值
-            BigDecimal value = (BigDecimal) data.get(dataFieldName);
-            values.add(value != null ? value : BigDecimal.ZERO);
+        List<String> labels = new ArrayList<>();
+        List<BigDecimal> values = new ArrayList<>();
+        for (ChartDownsampler.Point point : sampler.getPoints()) {
+            labels.add(point.getLabel());
+            values.add(point.getValue());
         }
 
         responseDTO.setLabels(labels);
         responseDTO.setValues(values);
         responseDTO.setDatasetName(datasetName);
-        responseDTO.setInterval(interval);
+        responseDTO.setInterval(bucketInterval.getCode());
         
         // 获取站点名称 - 这里需要在Mapper中添加方法
         if (stationId != null) {
@@ -177,29 +293,14 @@ public class RainfallMonitoringDataService extends ServiceImpl<RainfallMonitorin
             csvContent.append("\uFEFF");
 
             // 创建标题行
-            String[] headers = {"序号", "监测站点", "站点编码", "监测时间", "时段雨量(mm)",
-                              "累计雨量(mm)", "数据质量", "采集方式", "数据来源", "备注"};
-            csvContent.append(String.join(",", headers)).append("\n");
+            csvContent.append(String.join(",", EXPORT_HEADERS)).append("\n");
 
             // 处理数据行
             DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
             int rowNumber = 1;
 
             for (RainfallMonitoringDataResponseDTO data : dataList) {
-                String[] row = {
-                    String.valueOf(rowNumber++),
-                    escapeCsvValue(data.getStationName()),
-                    escapeCsvValue(data.getStationCode()),
-                    data.getMonitoringTime() != null ? data.getMonitoringTime().format(dateFormatter) : "",
-                    data.getRainfall() != null ? data.getRainfall().toString() : "0",
-                    data.getCumulativeRainfall() != null ? data.getCumulativeRainfall().toString() : "0",
-                    escapeCsvValue(data.getDataQualityText()),
-                    escapeCsvValue(data.getCollectionMethod()),
-                    escapeCsvValue(data.getDataSource()),
-                    escapeCsvValue(data.getRemark())
-                };
-
-                csvContent.append(String.join(",", row)).append("\n");
+                csvContent.append(toCsvRow(data, rowNumber++, dateFormatter)).append("\n");
             }
 
             log.info("CSV导出完成，总记录数: {}", dataList.size());
@@ -212,6 +313,70 @@ public class RainfallMonitoringDataService extends ServiceImpl<RainfallMonitorin
         }
     }
 
+    /**
+     * 流式导出雨情监测数据
+     * 通过MyBatis游标逐行读取并直接写入输出流，不做分页和COUNT，内存占用与导出行数无关
+     *
+     * @param queryDTO 查询参数DTO（分页参数将被忽略）
+     * @param outputStream 响应输出流
+     * @return 导出记录数
+     */
+    @Transactional(readOnly = true)
+    public long exportToCsv(RainfallMonitoringDataQueryDTO queryDTO, OutputStream outputStream) {
+        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+        long rowNumber = 0;
+
+        MonitoringTableRoute tableRoute = monitoringPartitionService.route(
+                MonitoringType.RAINFALL, queryDTO.getStartTime(), queryDTO.getEndTime());
+        try (Cursor<RainfallMonitoringDataResponseDTO> cursor = rainfallMonitoringDataMapper.selectRainfallMonitoringDataForExport(
+                queryDTO.getStationId(),
+                queryDTO.getStartTime(),
+                queryDTO.getEndTime(),
+                tableRoute,
+                queryDTO.getDataQuality(),
+                queryDTO.getCollectionMethod(),
+                queryDTO.getDataSource(),
+                queryDTO.getSort())) {
+
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), EXPORT_BUFFER_SIZE);
+            // 添加BOM以支持中文显示
+            writer.write('\uFEFF');
+            writer.write(String.join(",", EXPORT_HEADERS));
+            writer.write('\n');
+
+            for (RainfallMonitoringDataResponseDTO data : cursor) {
+                writer.write(toCsvRow(data, ++rowNumber, dateFormatter));
+                writer.write('\n');
+            }
+            writer.flush();
+
+            log.info("流式导出CSV完成，总记录数: {}", rowNumber);
+            return rowNumber;
+        } catch (IOException e) {
+            log.warn("流式导出CSV中断，已写出{}条记录: {}", rowNumber, e.getMessage());
+            throw new RuntimeException("导出数据失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 构建单行CSV数据
+     */
+    private String toCsvRow(RainfallMonitoringDataResponseDTO data, long rowNumber, DateTimeFormatter dateFormatter) {
+        String[] row = {
+            String.valueOf(rowNumber),
+            escapeCsvValue(data.getStationName()),
+            escapeCsvValue(data.getStationCode()),
+            data.getMonitoringTime() != null ? data.getMonitoringTime().format(dateFormatter) : "",
+            data.getRainfall() != null ? data.getRainfall().toString() : "0",
+            data.getCumulativeRainfall() != null ? data.getCumulativeRainfall().toString() : "0",
+            escapeCsvValue(data.getDataQualityText()),
+            escapeCsvValue(data.getCollectionMethod()),
+            escapeCsvValue(data.getDataSource()),
+            escapeCsvValue(data.getRemark())
+        };
+        return String.join(",", row);
+    }
+
     /**
      * CSV值转义处理
      *
@@ -232,32 +397,78 @@ public class RainfallMonitoringDataService extends ServiceImpl<RainfallMonitorin
     }
 
     /**
-     * 导入雨情监测数据
+     * 导入雨情监测数据，本次导入单独生成错误报告
+     *
+     * @param dataList 导入数据列表
+     * @param stationId 监测站点ID
+     * @param mode 导入模式，决定与已有记录冲突时跳过、覆盖或报错
+     * @return 导入结果，duplicateCount为文件内重复及与数据库已有记录重复（跳过或覆盖）的行数，
+     *         errorMessages为前100条错误，存在错误时errorReportId为错误报告ID
+     * @throws ImportDuplicateRecordException 报错模式下存在与数据库已有记录重复的行
+     */
+    @Transactional
+    public Map<String, Object> importRainfallData(List<RainfallDataImportDTO> dataList, Long stationId,
+                                                  MonitoringImportMode mode) {
+        ImportErrorReport errorReport = importErrorReportStore.create(MonitoringType.RAINFALL);
+        try {
+            Map<String, Object> result = importRainfallData(dataList, stationId, mode, errorReport);
+            ImportResultDTO summary = importErrorReportStore.finish(errorReport, new ImportResultDTO());
+            result.put("errorMessages", summary.getErrors().stream()
+                    .map(error -> "第" + error.getRowNumber() + "行：" + error.getError())
+                    .collect(Collectors.toList()));
+            result.put("errorCategories", summary.getErrorCategories());
+            result.put("errorReportId", summary.getErrorReportId());
+            return result;
+        } catch (RuntimeException e) {
+            importErrorReportStore.discard(errorReport);
+            throw e;
+        }
+    }
+
+    /**
+     * 导入雨情监测数据，错误写入调用方提供的错误报告
      *
      * @param dataList 导入数据列表
      * @param stationId 监测站点ID
-     * @return 导入结果
+     * @param mode 导入模式，决定与已有记录冲突时跳过、覆盖或报错
+     * @param errorReport 错误报告，分块导入时多块共用
+     * @return 导入结果，包含successCount、failCount和duplicateCount
+     * @throws ImportDuplicateRecordException 报错模式下存在与数据库已有记录重复的行
      */
     @Transactional
-    public Map<String, Object> importRainfallData(List<RainfallDataImportDTO> dataList, Long stationId) {
+    public Map<String, Object> importRainfallData(List<RainfallDataImportDTO> dataList, Long stationId,
+                                                  MonitoringImportMode mode, ImportErrorReport errorReport) {
         Map<String, Object> result = new HashMap<>();
-        int successCount = 0;
         int failCount = 0;
-        List<String> errorMessages = new ArrayList<>();
+        int duplicateInFileCount = 0;
+        List<RainfallMonitoringData> candidateList = new ArrayList<>();
+        List<RainfallDataImportDTO> candidateRows = new ArrayList<>();
+        FastTimestampParser timestampParser = new FastTimestampParser();
+        LongPairHashSet importedTimes = new LongPairHashSet(dataList.size());
         
         for (RainfallDataImportDTO dto : dataList) {
             try {
-                RainfallMonitoringData data = new RainfallMonitoringData();
-                data.setStationId(stationId);
-                
-                // 将字符串时间转换为LocalDateTime
+                // 将字符串时间转换为纪元秒
+                long epochSecond;
                 try {
-                    LocalDateTime monitoringTime = LocalDateTime.parse(dto.getMonitoringTime(), DATE_TIME_FORMATTER);
-                    data.setMonitoringTime(monitoringTime);
-                } catch (DateTimeParseException e) {
-                    throw new RuntimeException("监测时间格式错误: " + dto.getMonitoringTime());
+                    epochSecond = timestampParser.parseEpochSecond(dto.getMonitoringTime());
+                } catch (RuntimeException e) {
+                    failCount++;
+                    errorReport.add(dto.getRowNumber(), dto.getStationCode(), ImportErrorCategory.INVALID_TIME,
+                            "监测时间格式错误: " + dto.getMonitoringTime());
+                    continue;
                 }
-                
+                if (!importedTimes.add(stationId, epochSecond)) {
+                    failCount++;
+                    duplicateInFileCount++;
+                    errorReport.add(dto.getRowNumber(), dto.getStationCode(), ImportErrorCategory.DUPLICATE_IN_FILE,
+                            "数据重复（同站点同时间）");
+                    continue;
+                }
+
+                RainfallMonitoringData data = new RainfallMonitoringData();
+                data.setStationId(stationId);
+                data.setMonitoringTime(FastTimestampParser.toLocalDateTime(epochSecond));
                 data.setRainfall(dto.getRainfall());
                 data.setRainfallIntensity(dto.getRainfallIntensity());
                 data.setCumulativeRainfall(dto.getCumulativeRainfall());
@@ -266,22 +477,34 @@ public class RainfallMonitoringDataService extends ServiceImpl<RainfallMonitorin
                 data.setDataSource("IMPORT");
                 data.setRemark("批量导入");
                 
-                int insertResult = rainfallMonitoringDataMapper.insert(data);
-                if (insertResult > 0) {
-                    successCount++;
-                } else {
-                    failCount++;
-                    errorMessages.add("第" + dto.getRowNumber() + "行：插入失败");
-                }
+                candidateList.add(data);
+                candidateRows.add(dto);
             } catch (Exception e) {
                 failCount++;
-                errorMessages.add("第" + dto.getRowNumber() + "行：" + e.getMessage());
+                errorReport.add(dto.getRowNumber(), dto.getStationCode(), ImportErrorCategory.PROCESSING, e.getMessage());
             }
         }
         
-        result.put("successCount", successCount);
+        // 分块批量写入，与数据库已有记录的冲突由唯一键按导入模式处理
+        MonitoringBulkWriter.WriteResult written;
+        try {
+            written = monitoringBulkWriter.write(MonitoringType.RAINFALL, candidateList, mode);
+        } catch (DuplicateKeyException e) {
+            Set<StationTimeKey> existingKeys = monitoringBulkWriter.findExisting(MonitoringType.RAINFALL, candidateList);
+            List<String> conflictRows = new ArrayList<>();
+            for (int i = 0; i < candidateList.size() && conflictRows.size() < 5; i++) {
+                if (existingKeys.contains(StationTimeKey.of(candidateList.get(i)))) {
+                    conflictRows.add("第" + candidateRows.get(i).getRowNumber() + "行");
+                }
+            }
+            throw new ImportDuplicateRecordException("数据库中已存在相同记录，导入已终止，冲突行: "
+                    + String.join("、", conflictRows) + (existingKeys.size() > conflictRows.size()
+                    ? "等" + existingKeys.size() + "条" : ""));
+        }
+
+        result.put("successCount", written.getWrittenRows());
         result.put("failCount", failCount);
-        result.put("errorMessages", errorMessages);
+        result.put("duplicateCount", written.getDuplicateRows() + duplicateInFileCount);
         
         return result;
     }
@@ -3,14 +3,21 @@ package com.example.demo.service;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.example.demo.pojo.DTO.monitoring.WaterConditionMonitoringDataQueryDTO;
 import com.example.demo.pojo.DTO.monitoring.WaterConditionMonitoringDataResponseDTO;
+import com.example.demo.common.CursorPageResult;
 import com.example.demo.common.PageResult;
+import com.example.demo.constant.MonitoringTableRoute;
+import com.example.demo.constant.MonitoringType;
 import com.example.demo.pojo.entity.monitoring.ReservoirMonitoringData;
 import com.example.demo.mapper.WaterConditionMonitoringDataMapper;
+import com.example.demo.service.monitoring.MonitoringPartitionService;
 import com.github.pagehelper.PageHelper;
 import com.github.pagehelper.PageInfo;
+import com.example.demo.utils.CursorTokenUtil;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -21,6 +28,14 @@ public class WaterConditionMonitoringDataService extends ServiceImpl<WaterCondit
 
     private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
+    /**
+     * 游标分页单页最大记录数
+     */
+    private static final int MAX_CURSOR_PAGE_SIZE = 1000;
+
+    @Autowired
+    private MonitoringPartitionService monitoringPartitionService;
+
     /**
      * 分页查询水情监测数据
      *
@@ -38,6 +53,8 @@ public class WaterConditionMonitoringDataService extends ServiceImpl<WaterCondit
         
         String startTime = queryDTO.getStartTime() != null ? queryDTO.getStartTime().format(DATE_TIME_FORMATTER) : null;
         String endTime = queryDTO.getEndTime() != null ? queryDTO.getEndTime().format(DATE_TIME_FORMATTER) : null;
+        MonitoringTableRoute tableRoute = monitoringPartitionService.route(
+                MonitoringType.RESERVOIR, queryDTO.getStartTime(), queryDTO.getEndTime());
 
         // 使用PageHelper设置分页
         PageHelper.startPage(queryDTO.getPage(), queryDTO.getSize());
@@ -48,6 +65,7 @@ public class WaterConditionMonitoringDataService extends ServiceImpl<WaterCondit
                 queryDTO.getStationName(),
                 startTime,
                 endTime,
+                tableRoute,
                 queryDTO.getDataQuality()
         );
         
@@ -62,4 +80,56 @@ public class WaterConditionMonitoringDataService extends ServiceImpl<WaterCondit
                 queryDTO.getSize()
         );
     }
+
+    /**
+     * 游标分页查询水情监测数据
+     * 按(monitoring_time, id)键集直接定位下一页，不执行OFFSET扫描，仅在withCount为true时统计总数
+     *
+     * @param queryDTO 查询条件DTO，cursor为空时返回首页
+     * @return 游标分页结果
+     */
+    public CursorPageResult<WaterConditionMonitoringDataResponseDTO> cursorPageWaterConditionMonitoringData(WaterConditionMonitoringDataQueryDTO queryDTO) {
+        int size = queryDTO.getSize() == null || queryDTO.getSize() < 1 ? 10 : Math.min(queryDTO.getSize(), MAX_CURSOR_PAGE_SIZE);
+        CursorTokenUtil.CursorPosition position = CursorTokenUtil.decode(queryDTO.getCursor());
+        boolean ascending = CursorTokenUtil.isTimeAscending(queryDTO.getSort());
+
+        String startTime = queryDTO.getStartTime() != null ? queryDTO.getStartTime().format(DATE_TIME_FORMATTER) : null;
+        String endTime = queryDTO.getEndTime() != null ? queryDTO.getEndTime().format(DATE_TIME_FORMATTER) : null;
+        MonitoringTableRoute tableRoute = monitoringPartitionService.route(
+                MonitoringType.RESERVOIR, queryDTO.getStartTime(), queryDTO.getEndTime());
+
+        // 多取一条用于判断是否存在下一页
+        List<WaterConditionMonitoringDataResponseDTO> list = baseMapper.seekWaterConditionMonitoringData(
+                queryDTO.getStationId(),
+                queryDTO.getStationName(),
+                startTime,
+                endTime,
+                tableRoute,
+                queryDTO.getDataQuality(),
+                position != null ? position.getMonitoringTime() : null,
+                position != null ? position.getId() : null,
+                ascending,
+                size + 1
+        );
+
+        boolean hasNext = list.size() > size;
+        String nextCursor = null;
+        if (hasNext) {
+            list = new ArrayList<>(list.subList(0, size));
+            WaterConditionMonitoringDataResponseDTO last = list.get(size - 1);
+            nextCursor = CursorTokenUtil.encode(last.getMonitoringTime(), last.getId());
+        }
+
+        Long total = Boolean.TRUE.equals(queryDTO.getWithCount())
+                ? baseMapper.countWaterConditionMonitoringData(
+                        queryDTO.getStationId(),
+                        queryDTO.getStationName(),
+                        startTime,
+                        endTime,
+                        tableRoute,
+                        queryDTO.getDataQuality())
+                : null;
+
+        return new CursorPageResult<>(list, size, nextCursor, hasNext, total);
+    }
 }
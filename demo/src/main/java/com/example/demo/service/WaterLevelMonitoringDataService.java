@@ -1,18 +1,40 @@
 package com.example.demo.service;
 
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.example.demo.common.CursorPageResult;
 import com.example.demo.common.PageResult;
+import com.example.demo.config.MonitoringChartProperties;
 import com.example.demo.pojo.DTO.monitoring.*;
-import com.example.demo.pojo.entity.facility.MonitoringStation;
+import com.example.demo.constant.MonitoringTableRoute;
+import com.example.demo.constant.MonitoringImportMode;
+import com.example.demo.constant.MonitoringType;
+import com.example.demo.pojo.entity.monitoring.MonitoringChartSample;
 import com.example.demo.pojo.entity.monitoring.WaterLevelMonitoringData;
 import com.example.demo.mapper.WaterLevelMonitoringDataMapper;
-import com.example.demo.mapper.MonitoringStationMapper;
+import com.example.demo.service.monitoring.ImportErrorReport;
+import com.example.demo.service.monitoring.MonitoringChartCache;
+import com.example.demo.service.monitoring.MonitoringImportPipeline;
+import com.example.demo.service.monitoring.MonitoringPartitionService;
+import com.example.demo.service.monitoring.MonitoringRollupService;
+import com.example.demo.service.monitoring.MonitoringStationRegistry;
+import com.example.demo.utils.ChartDownsampler;
+import com.example.demo.utils.CursorTokenUtil;
+import com.example.demo.utils.TimeBucketAggregator;
+import com.example.demo.utils.TimeBucketInterval;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.ResultHandler;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -36,8 +58,29 @@ import com.github.pagehelper.PageInfo;
 @RequiredArgsConstructor
 public class WaterLevelMonitoringDataService extends ServiceImpl<WaterLevelMonitoringDataMapper, WaterLevelMonitoringData> {
 
+    /**
+     * 游标分页单页最大记录数
+     */
+    private static final int MAX_CURSOR_PAGE_SIZE = 1000;
+
+    /**
+     * CSV导出标题行
+     */
+    private static final String[] EXPORT_HEADERS = {"序号", "监测站点", "站点编码", "监测时间", "水位高度(m)",
+            "数据质量", "采集方式", "数据来源", "备注"};
+
+    /**
+     * 流式导出写缓冲区大小
+     */
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+
     private final WaterLevelMonitoringDataMapper waterLevelMonitoringDataMapper;
-    private final MonitoringStationMapper monitoringStationMapper;
+    private final MonitoringStationRegistry monitoringStationRegistry;
+    private final MonitoringImportPipeline monitoringImportPipeline;
+    private final MonitoringRollupService monitoringRollupService;
+    private final MonitoringPartitionService monitoringPartitionService;
+    private final MonitoringChartProperties chartProperties;
+    private final MonitoringChartCache monitoringChartCache;
 
     /**
      * 分页查询水位监测数据列表
@@ -68,10 +111,13 @@ public class WaterLevelMonitoringDataService extends ServiceImpl<WaterLevelMonit
         PageHelper.startPage(queryDTO.getPage(), queryDTO.getSize());
 
         // 执行查询
+        MonitoringTableRoute tableRoute = monitoringPartitionService.route(
+                MonitoringType.WATER_LEVEL, queryDTO.getStartTime(), queryDTO.getEndTime());
         List<WaterLevelMonitoringDataResponseDTO> list = waterLevelMonitoringDataMapper.selectWaterLevelMonitoringDataPage(
                 queryDTO.getStationId(),
                 queryDTO.getStartTime(),
                 queryDTO.getEndTime(),
+                tableRoute,
                 queryDTO.getDataQuality(),
                 queryDTO.getCollectionMethod(),
                 queryDTO.getDataSource(),
@@ -90,49 +136,128 @@ public class WaterLevelMonitoringDataService extends ServiceImpl<WaterLevelMonit
         );
     }
 
+
+    /**
+     * 游标分页查询水位监测数据
+     * 按(monitoring_time, id)键集直接定位下一页，不执行OFFSET扫描，仅在withCount为true时统计总数
+     *
+     * @param queryDTO 查询条件DTO，cursor为空时返回首页
+     * @return 游标分页结果
+     */
+    public CursorPageResult<WaterLevelMonitoringDataResponseDTO> getWaterLevelMonitoringDataCursorPage(WaterLevelMonitoringDataQueryDTO queryDTO) {
+        int size = queryDTO.getSize() == null || queryDTO.getSize() < 1 ? 10 : Math.min(queryDTO.getSize(), MAX_CURSOR_PAGE_SIZE);
+        CursorTokenUtil.CursorPosition position = CursorTokenUtil.decode(queryDTO.getCursor());
+        boolean ascending = CursorTokenUtil.isTimeAscending(queryDTO.getSort());
+        MonitoringTableRoute tableRoute = monitoringPartitionService.route(
+                MonitoringType.WATER_LEVEL, queryDTO.getStartTime(), queryDTO.getEndTime());
+
+        // 多取一条用于判断是否存在下一页
+        List<WaterLevelMonitoringDataResponseDTO> list = waterLevelMonitoringDataMapper.selectWaterLevelMonitoringDataSeek(
+                queryDTO.getStationId(),
+                queryDTO.getStartTime(),
+                queryDTO.getEndTime(),
+                tableRoute,
+                queryDTO.getDataQuality(),
+                queryDTO.getCollectionMethod(),
+                queryDTO.getDataSource(),
+                position != null ? position.getMonitoringTime() : null,
+                position != null ? position.getId() : null,
+                ascending,
+                size + 1
+        );
+
+        boolean hasNext = list.size() > size;
+        String nextCursor = null;
+        if (hasNext) {
+            list = new ArrayList<>(list.subList(0, size));
+            WaterLevelMonitoringDataResponseDTO last = list.get(size - 1);
+            nextCursor = CursorTokenUtil.encode(last.getMonitoringTime(), last.getId());
+        }
+
+        Long total = Boolean.TRUE.equals(queryDTO.getWithCount())
+                ? waterLevelMonitoringDataMapper.countWaterLevelMonitoringData(
+                        queryDTO.getStationId(),
+                        queryDTO.getStartTime(),
+                        queryDTO.getEndTime(),
+                        tableRoute,
+                        queryDTO.getDataQuality(),
+                        queryDTO.getCollectionMethod(),
+                        queryDTO.getDataSource())
+                : null;
+
+        return new CursorPageResult<>(list, size, nextCursor, hasNext, total);
+    }
     /**
      * 获取水位图表数据
+     * 数据点超过maxPoints时在服务端降采样，统计值按降采样前的全部数据点计算
      * 
      * @param stationId 监测站点ID
      * @param startTime 开始时间
      * @param endTime 结束时间
      * @param interval 时间间隔
+     * @param maxPoints 最大返回点数，为空时使用默认值
      * @return 图表数据响应DTO
      */
     public WaterLevelChartDataResponseDTO getWaterLevelChartData(Long stationId, LocalDateTime startTime,
-                                                                 LocalDateTime endTime, String interval) {
-        List<Map<String, Object>> chartData;
-        String datasetName;
-
-        if (stationId == null) {
-            // 当没有指定站点ID时，返回所有站点的汇总数据
-            chartData = waterLevelMonitoringDataMapper.selectAllStationsWaterLevelChartData(startTime, endTime, interval);
-            datasetName = "所有站点水位数据";
+                                                                 LocalDateTime endTime, String interval,
+                                                                 Integer maxPoints) {
+        TimeBucketInterval bucketInterval = TimeBucketInterval.parse(interval);
+        int resolvedMaxPoints = chartProperties.resolveMaxPoints(maxPoints);
+        MonitoringChartCache.Key key = new MonitoringChartCache.Key(MonitoringType.WATER_LEVEL, stationId, null,
+                startTime, endTime, bucketInterval.getCode(), resolvedMaxPoints);
+        return monitoringChartCache.get(key,
+                () -> loadWaterLevelChartData(stationId, startTime, endTime, bucketInterval, resolvedMaxPoints),
+                result -> result.getLabels().size());
+    }
+
+    private WaterLevelChartDataResponseDTO loadWaterLevelChartData(Long stationId, LocalDateTime startTime,
+                                                                   LocalDateTime endTime, TimeBucketInterval bucketInterval,
+                                                                   int maxPoints) {
+        String datasetName = stationId == null ? "所有站点水位数据" : "水位数据";
+        ChartDownsampler sampler = new ChartDownsampler(maxPoints);
+
+        // 优先使用预聚合数据，不满足条件时流式查询原始数据并分桶统计
+        List<Map<String, Object>> rollupData = monitoringRollupService.queryChartData(
+                MonitoringType.WATER_LEVEL, stationId, startTime, endTime, bucketInterval);
+        if (rollupData != null) {
+            for (Map<String, Object> data : rollupData) {
+                sampler.add((String) data.get("time_label"), getBigDecimalValue(data, "avg_water_level"));
+            }
         } else {
-            // 返回指定站点的数据
-            chartData = waterLevelMonitoringDataMapper.selectWaterLevelChartData(stationId, startTime, endTime, interval);
-            datasetName = "水位数据";
+            MonitoringTableRoute tableRoute = monitoringPartitionService.route(MonitoringType.WATER_LEVEL, startTime, endTime);
+            TimeBucketAggregator aggregator = new TimeBucketAggregator(bucketInterval, 1,
+                    bucket -> sampler.add(bucket.getLabel(), bucket.getAvg(0)));
+            ResultHandler<MonitoringChartSample> handler = context -> {
+                MonitoringChartSample sample = context.getResultObject();
+                aggregator.add(sample.getEpochSecond(), sample.getValue());
+            };
+            if (stationId == null) {
+                // 当没有指定站点ID时，返回所有站点的汇总数据
+                waterLevelMonitoringDataMapper.selectAllStationsWaterLevelChartSamples(startTime, endTime, tableRoute, handler);
+            } else {
+                // 返回指定站点的数据
+                waterLevelMonitoringDataMapper.selectWaterLevelChartSamples(stationId, startTime, endTime, tableRoute, handler);
+            }
+            aggregator.finish();
         }
 
+        List<ChartDownsampler.Point> points = sampler.getPoints();
         WaterLevelChartDataResponseDTO result = new WaterLevelChartDataResponseDTO();
-        result.setLabels(chartData.stream()
-                .map(data -> (String) data.get("time_label"))
+        result.setLabels(points.stream()
+                .map(ChartDownsampler.Point::getLabel)
                 .collect(Collectors.toList()));
-        result.setValues(chartData.stream()
-                .map(data -> getBigDecimalValue(data, "avg_water_level"))
+        result.setValues(points.stream()
+                .map(ChartDownsampler.Point::getValue)
                 .collect(Collectors.toList()));
-        result.setInterval(interval != null ? interval : "hour");
+        result.setInterval(bucketInterval.getCode());
         result.setDatasetName(datasetName);
 
         // 计算统计信息
-        List<BigDecimal> values = result.getValues();
-        if (!values.isEmpty()) {
-            result.setTotalCount(values.size());
-            result.setMaxValue(values.stream().max(BigDecimal::compareTo).orElse(BigDecimal.ZERO));
-            result.setMinValue(values.stream().min(BigDecimal::compareTo).orElse(BigDecimal.ZERO));
-            
-            BigDecimal sum = values.stream().reduce(BigDecimal.ZERO, BigDecimal::add);
-            result.setAvgValue(sum.divide(new BigDecimal(values.size()), 3, BigDecimal.ROUND_HALF_UP));
+        if (sampler.getCount() > 0) {
+            result.setTotalCount((int) sampler.getCount());
+            result.setMaxValue(sampler.getMaxValue());
+            result.setMinValue(sampler.getMinValue());
+            result.setAvgValue(sampler.getSum().divide(BigDecimal.valueOf(sampler.getCount()), 3, RoundingMode.HALF_UP));
         }
 
         return result;
@@ -163,28 +288,12 @@ public class WaterLevelMonitoringDataService extends ServiceImpl<WaterLevelMonit
             csvContent.append("\uFEFF");
 
             // 创建标题行
-            String[] headers = {"序号", "监测站点", "站点编码", "监测时间", "水位高度(m)",
-                              "数据质量", "采集方式", "数据来源", "备注"};
-            csvContent.append(String.join(",", headers)).append("\n");
+            csvContent.append(String.join(",", EXPORT_HEADERS)).append("\n");
 
             // 创建数据行
             DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
             for (int i = 0; i < dataList.size(); i++) {
-                WaterLevelMonitoringDataResponseDTO data = dataList.get(i);
-
-                String[] row = {
-                    String.valueOf(i + 1),
-                    escapeCsvValue(data.getStationName()),
-                    escapeCsvValue(data.getStationCode()),
-                    data.getMonitoringTime() != null ? data.getMonitoringTime().format(dateFormatter) : "",
-                    data.getWaterLevel() != null ? data.getWaterLevel().toString() : "0",
-                    escapeCsvValue(data.getDataQualityText()),
-                    escapeCsvValue(data.getCollectionMethod()),
-                    escapeCsvValue(data.getDataSource()),
-                    escapeCsvValue(data.getRemark())
-                };
-
-                csvContent.append(String.join(",", row)).append("\n");
+                csvContent.append(toCsvRow(dataList.get(i), i + 1, dateFormatter)).append("\n");
             }
 
             return csvContent.toString().getBytes(StandardCharsets.UTF_8);
@@ -195,6 +304,69 @@ public class WaterLevelMonitoringDataService extends ServiceImpl<WaterLevelMonit
         }
     }
 
+    /**
+     * 流式导出水位监测数据
+     * 通过MyBatis游标逐行读取并直接写入输出流，不做分页和COUNT，内存占用与导出行数无关
+     *
+     * @param queryDTO 查询参数DTO（分页参数将被忽略）
+     * @param outputStream 响应输出流
+     * @return 导出记录数
+     */
+    @Transactional(readOnly = true)
+    public long exportToCsv(WaterLevelMonitoringDataQueryDTO queryDTO, OutputStream outputStream) {
+        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+        long rowNumber = 0;
+
+        MonitoringTableRoute tableRoute = monitoringPartitionService.route(
+                MonitoringType.WATER_LEVEL, queryDTO.getStartTime(), queryDTO.getEndTime());
+        try (Cursor<WaterLevelMonitoringDataResponseDTO> cursor = waterLevelMonitoringDataMapper.selectWaterLevelMonitoringDataForExport(
+                queryDTO.getStationId(),
+                queryDTO.getStartTime(),
+                queryDTO.getEndTime(),
+                tableRoute,
+                queryDTO.getDataQuality(),
+                queryDTO.getCollectionMethod(),
+                queryDTO.getDataSource(),
+                queryDTO.getSort())) {
+
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), EXPORT_BUFFER_SIZE);
+            // 添加BOM以支持中文显示
+            writer.write('\uFEFF');
+            writer.write(String.join(",", EXPORT_HEADERS));
+            writer.write('\n');
+
+            for (WaterLevelMonitoringDataResponseDTO data : cursor) {
+                writer.write(toCsvRow(data, ++rowNumber, dateFormatter));
+                writer.write('\n');
+            }
+            writer.flush();
+
+            log.info("流式导出CSV完成，总记录数: {}", rowNumber);
+            return rowNumber;
+        } catch (IOException e) {
+            log.warn("流式导出CSV中断，已写出{}条记录: {}", rowNumber, e.getMessage());
+            throw new RuntimeException("导出数据失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 构建单行CSV数据
+     */
+    private String toCsvRow(WaterLevelMonitoringDataResponseDTO data, long rowNumber, DateTimeFormatter dateFormatter) {
+        String[] row = {
+            String.valueOf(rowNumber),
+            escapeCsvValue(data.getStationName()),
+            escapeCsvValue(data.getStationCode()),
+            data.getMonitoringTime() != null ? data.getMonitoringTime().format(dateFormatter) : "",
+            data.getWaterLevel() != null ? data.getWaterLevel().toString() : "0",
+            escapeCsvValue(data.getDataQualityText()),
+            escapeCsvValue(data.getCollectionMethod()),
+            escapeCsvValue(data.getDataSource()),
+            escapeCsvValue(data.getRemark())
+        };
+        return String.join(",", row);
+    }
+
     /**
      * 转义CSV值，处理包含逗号、引号、换行符的情况
      *
@@ -214,204 +386,55 @@ public class WaterLevelMonitoringDataService extends ServiceImpl<WaterLevelMonit
         return value;
     }
 
+    /**
+     * 导入水位监测数据，本次导入单独生成错误报告
+     *
+     * @param dataList 导入数据列表
+     * @param mode 导入模式，决定与已有记录冲突时跳过、覆盖或报错
+     * @return 导入结果，存在错误时包含错误报告ID
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public ImportResultDTO importWaterLevelData(List<WaterLevelDataImportDTO> dataList, MonitoringImportMode mode) {
+        return importWaterLevelData(dataList, mode, null);
+    }
+
     /**
      * 导入水位监测数据
      *
      * @param dataList 导入数据列表
+     * @param mode 导入模式，决定与已有记录冲突时跳过、覆盖或报错
+     * @param errorReport 错误报告，分块导入时多块共用；为null时本次导入单独生成错误报告
      * @return 导入结果DTO
      */
     @Transactional(rollbackFor = Exception.class)
-    public ImportResultDTO importWaterLevelData(List<WaterLevelDataImportDTO> dataList) {
+    public ImportResultDTO importWaterLevelData(List<WaterLevelDataImportDTO> dataList, MonitoringImportMode mode,
+                                                ImportErrorReport errorReport) {
         log.info("开始导入水位监测数据，数据量: {}", dataList.size());
 
         if (dataList.isEmpty()) {
             throw new IllegalArgumentException("导入数据不能为空");
         }
 
-        List<ImportResultDTO.ImportErrorDTO> errors = new ArrayList<>();
-        List<WaterLevelMonitoringData> validDataList = new ArrayList<>();
-        Set<String> duplicateKeys = new HashSet<>();
-
-        // 收集并清洗站码集合（去空格、过滤空）
-        Set<String> rawStationCodes = dataList.stream()
-                .map(WaterLevelDataImportDTO::getStationCode)
-                .filter(Objects::nonNull)
-                .map(String::trim)
-                .filter(code -> !code.isEmpty())
-                .collect(Collectors.toSet());
-
-        // 构建 站码 -> 站点ID 的完整映射；缺失则自动建站（名称优先用导入的stationName，否则用站码）
-        Map<String, Long> stationCodeToIdMap = ensureStationCodeToIdMap(dataList, rawStationCodes);
-
-        // 验证和转换数据
-        for (WaterLevelDataImportDTO dto : dataList) {
-            try {
-                // 获取站点ID（按清洗后的站码取）
-                String trimmedCode = dto.getStationCode() == null ? null : dto.getStationCode().trim();
-                Long stationId = trimmedCode == null ? null : stationCodeToIdMap.get(trimmedCode);
-
-                if (stationId == null) {
-                    // 正常情况下不会发生（ensure已创建），如发生说明站码为空或全空白
-                    errors.add(ImportResultDTO.ImportErrorDTO.builder()
-                            .rowNumber(dto.getRowNumber())
-                            .stationCode(dto.getStationCode())
-                            .error("无效站码")
-                            .build());
-                    continue;
-                }
-
-                // 解析监测时间
-                LocalDateTime monitoringTime;
-                try {
-                    monitoringTime = LocalDateTime.parse(dto.getMonitoringTime(),
-                            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
-                } catch (Exception e) {
-                    errors.add(ImportResultDTO.ImportErrorDTO.builder()
-                            .rowNumber(dto.getRowNumber())
-                            .stationCode(dto.getStationCode())
-                            .error("监测时间格式错误")
-                            .build());
-                    continue;
-                }
-
-                // 检查重复性（同站点同时间）
-                String duplicateKey = stationId + "_" + dto.getMonitoringTime();
-                if (duplicateKeys.contains(duplicateKey)) {
-                    errors.add(ImportResultDTO.ImportErrorDTO.builder()
-                            .rowNumber(dto.getRowNumber())
-                            .stationCode(dto.getStationCode())
-                            .error("数据重复（同站点同时间）")
-                            .build());
-                    continue;
-                }
-
-                // 检查数据库中是否已存在
-                if (isDataExists(stationId, monitoringTime)) {
-                    errors.add(ImportResultDTO.ImportErrorDTO.builder()
-                            .rowNumber(dto.getRowNumber())
-                            .stationCode(dto.getStationCode())
-                            .error("数据库中已存在相同记录")
-                            .build());
-                    continue;
-                }
-
-                duplicateKeys.add(duplicateKey);
-
-                // 创建实体对象
-                WaterLevelMonitoringData entity = new WaterLevelMonitoringData();
-                entity.setStationId(stationId);
-                entity.setMonitoringTime(monitoringTime);
-                entity.setWaterLevel(dto.getWaterLevel());
-                entity.setDataQuality(dto.getDataQuality() != null ? dto.getDataQuality() : 1); // 默认正常
-                entity.setCollectionMethod(dto.getCollectionMethod() != null ? dto.getCollectionMethod() : "MANUAL"); // 手动导入
-                entity.setDataSource(dto.getDataSource() != null ? dto.getDataSource() : "EXCEL_IMPORT"); // Excel导入
-                entity.setRemark(dto.getRemark() != null ? dto.getRemark() : "Excel批量导入");
-                entity.setCreatedAt(LocalDateTime.now());
-                entity.setUpdatedAt(LocalDateTime.now());
-
-                validDataList.add(entity);
-
-            } catch (Exception e) {
-                log.error("处理导入数据时发生错误，行号: {}, 错误: {}", dto.getRowNumber(), e.getMessage());
-                errors.add(ImportResultDTO.ImportErrorDTO.builder()
-                        .rowNumber(dto.getRowNumber())
-                        .stationCode(dto.getStationCode())
-                        .error("数据处理异常: " + e.getMessage())
-                        .build());
-            }
-        }
-
-        // 批量插入有效数据
-        int successCount = 0;
-        if (!validDataList.isEmpty()) {
-            try {
-                boolean result = saveBatch(validDataList);
-                if (result) {
-                    successCount = validDataList.size();
-                    log.info("成功导入水位监测数据 {} 条", successCount);
-                } else {
-                    log.error("批量插入数据失败");
-                    throw new RuntimeException("批量插入数据失败");
-                }
-            } catch (Exception e) {
-                log.error("批量插入数据时发生异常", e);
-                throw new RuntimeException("批量插入数据失败: " + e.getMessage());
-            }
-        }
-
-        // 构建返回结果
-        ImportResultDTO result = ImportResultDTO.builder()
-                .totalRows(dataList.size())
-                .successRows(successCount)
-                .errorRows(errors.size())
-                .duplicateRows((int) errors.stream()
-                        .filter(error -> error.getError().contains("重复") || error.getError().contains("已存在"))
-                        .count())
-                .errors(errors.size() > 100 ? errors.subList(0, 100) : errors) // 最多返回100个错误
-                .build();
-
-        log.info("水位监测数据导入完成，总数: {}, 成功: {}, 失败: {}",
-                result.getTotalRows(), result.getSuccessRows(), result.getErrorRows());
-
-        return result;
-    }
-
-    /**
-     * 基于导入数据与站码集合，确保返回完整的 站码->站点ID 映射。缺失时自动按照WL创建站点。
-     * 名称优先使用导入的 stationName；为空时使用站码作为名称。
-     */
-    private Map<String, Long> ensureStationCodeToIdMap(List<WaterLevelDataImportDTO> dataList, Set<String> stationCodes) {
-        Map<String, Long> map = new HashMap<>();
-        if (stationCodes.isEmpty()) {
-            return map;
-        }
-        // 先查已有
-        List<Map<String, Object>> stations = monitoringStationMapper.selectByStationCodes(new ArrayList<>(stationCodes));
-        for (Map<String, Object> s : stations) {
-            String code = (String) s.get("station_code");
-            Long id = ((Number) s.get("id")).longValue();
-            map.put(code, id);
-        }
-        // 找缺失
-        Set<String> missing = new HashSet<>(stationCodes);
-        missing.removeAll(map.keySet());
-        if (missing.isEmpty()) {
-            return map;
-        }
-        // 构建 站码 -> 导入名称 的映射（最后一次出现优先即可）
-        Map<String, String> codeToName = new HashMap<>();
-        for (WaterLevelDataImportDTO dto : dataList) {
-            if (dto.getStationCode() == null) continue;
-            String code = dto.getStationCode().trim();
-            if (code.isEmpty()) continue;
-            String name = dto.getStationName();
-            if (name != null) {
-                name = name.trim();
-            }
-            codeToName.put(code, (name != null && !name.isEmpty()) ? name : code);
-        }
-        // 逐个创建缺失站点
-        for (String code : missing) {
-            String name = codeToName.getOrDefault(code, code);
-            MonitoringStation station = new MonitoringStation();
-            station.setStationCode(code);
-            station.setName(name);
-            station.setMonitoringItemCode("H");
-            monitoringStationMapper.insert(station);
-            map.put(code, station.getId());
-        }
-        return map;
-    }
-
-    /**
-     * 检查数据是否已存在
-     *
-     * @param stationId 监测站点ID
-     * @param monitoringTime 监测时间
-     * @return 是否存在
-     */
-    private boolean isDataExists(Long stationId, LocalDateTime monitoringTime) {
-        return waterLevelMonitoringDataMapper.countByStationIdAndTime(stationId, monitoringTime) > 0;
+        // 通过站点注册表解析站码，缺失则自动建站（名称优先用导入的stationName，否则用站码）
+        Map<String, Long> stationCodeToIdMap = monitoringStationRegistry.resolveOrCreate(dataList,
+                WaterLevelDataImportDTO::getStationCode, WaterLevelDataImportDTO::getStationName, "H");
+        LocalDateTime now = LocalDateTime.now();
+
+        // 并行解析校验、按站点去重后按行序批量写入
+        return monitoringImportPipeline.run(MonitoringType.WATER_LEVEL, dataList, stationCodeToIdMap,
+                (dto, stationId, monitoringTime) -> {
+                    WaterLevelMonitoringData entity = new WaterLevelMonitoringData();
+                    entity.setStationId(stationId);
+                    entity.setMonitoringTime(monitoringTime);
+                    entity.setWaterLevel(dto.getWaterLevel());
+                    entity.setDataQuality(dto.getDataQuality() != null ? dto.getDataQuality() : 1); // 默认正常
+                    entity.setCollectionMethod(dto.getCollectionMethod() != null ? dto.getCollectionMethod() : "MANUAL"); // 手动导入
+                    entity.setDataSource(dto.getDataSource() != null ? dto.getDataSource() : "EXCEL_IMPORT"); // Excel导入
+                    entity.setRemark(dto.getRemark() != null ? dto.getRemark() : "Excel批量导入");
+                    entity.setCreatedAt(now);
+                    entity.setUpdatedAt(now);
+                    return entity;
+                }, mode, errorReport);
     }
 
     /**
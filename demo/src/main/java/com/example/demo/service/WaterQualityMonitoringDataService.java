@@ -1,11 +1,26 @@
 package com.example.demo.service;
 
 import com.example.demo.pojo.DTO.monitoring.*;
+import com.example.demo.common.CursorPageResult;
 import com.example.demo.common.PageResult;
-import com.example.demo.pojo.entity.facility.MonitoringStation;
+import com.example.demo.config.MonitoringChartProperties;
+import com.example.demo.constant.MonitoringTableRoute;
+import com.example.demo.constant.MonitoringImportMode;
+import com.example.demo.constant.MonitoringType;
+import com.example.demo.pojo.entity.monitoring.MonitoringChartSample;
 import com.example.demo.pojo.entity.monitoring.WaterQualityMonitoringData;
-import com.example.demo.mapper.MonitoringStationMapper;
+import com.example.demo.service.monitoring.ImportErrorReport;
+import com.example.demo.service.monitoring.MonitoringBatchChartService;
+import com.example.demo.service.monitoring.MonitoringChartCache;
+import com.example.demo.service.monitoring.MonitoringImportPipeline;
+import com.example.demo.service.monitoring.MonitoringPartitionService;
+import com.example.demo.service.monitoring.MonitoringRollupService;
+import com.example.demo.service.monitoring.MonitoringStationRegistry;
 import com.example.demo.mapper.WaterQualityMonitoringDataMapper;
+import com.example.demo.utils.ChartDownsampler;
+import com.example.demo.utils.CursorTokenUtil;
+import com.example.demo.utils.TimeBucketAggregator;
+import com.example.demo.utils.TimeBucketInterval;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -40,8 +55,25 @@ import com.github.pagehelper.PageInfo;
 @RequiredArgsConstructor
 public class WaterQualityMonitoringDataService {
 
+    /**
+     * 全部水质监测项目代码，顺序与水质数据表的指标列一致
+     */
+    private static final List<String> MONITORING_ITEM_CODES =
+            Arrays.asList("WT", "TU", "PH", "EC", "DO", "AN", "COD", "RC");
+
+    /**
+     * 游标分页单页最大记录数
+     */
+    private static final int MAX_CURSOR_PAGE_SIZE = 1000;
+
     private final WaterQualityMonitoringDataMapper waterQualityMonitoringDataMapper;
-    private final MonitoringStationMapper monitoringStationMapper;
+    private final MonitoringStationRegistry monitoringStationRegistry;
+    private final MonitoringImportPipeline monitoringImportPipeline;
+    private final MonitoringRollupService monitoringRollupService;
+    private final MonitoringPartitionService monitoringPartitionService;
+    private final MonitoringChartProperties chartProperties;
+    private final MonitoringChartCache monitoringChartCache;
+    private final MonitoringBatchChartService monitoringBatchChartService;
 
     /**
      * 分页查询水质监测数据
@@ -66,10 +98,13 @@ public class WaterQualityMonitoringDataService {
         PageHelper.startPage(queryDTO.getPage(), queryDTO.getSize());
         
         // 执行查询
+        MonitoringTableRoute tableRoute = monitoringPartitionService.route(
+                MonitoringType.WATER_QUALITY, queryDTO.getStartTime(), queryDTO.getEndTime());
         List<WaterQualityMonitoringDataResponseDTO> list = waterQualityMonitoringDataMapper.selectWaterQualityMonitoringDataPage(
                 queryDTO.getStationId(),
                 queryDTO.getStartTime(),
                 queryDTO.getEndTime(),
+                tableRoute,
                 queryDTO.getMonitoringItemCode(),
                 queryDTO.getDataQuality(),
                 queryDTO.getCollectionMethod(),
@@ -92,6 +127,57 @@ public class WaterQualityMonitoringDataService {
         );
     }
 
+
+    /**
+     * 游标分页查询水质监测数据
+     * 按(monitoring_time, id)键集直接定位下一页，不执行OFFSET扫描，仅在withCount为true时统计总数
+     *
+     * @param queryDTO 查询条件DTO，cursor为空时返回首页
+     * @return 游标分页结果
+     */
+    public CursorPageResult<WaterQualityMonitoringDataResponseDTO> getWaterQualityMonitoringDataCursorPage(WaterQualityMonitoringDataQueryDTO queryDTO) {
+        int size = queryDTO.getSize() == null || queryDTO.getSize() < 1 ? 10 : Math.min(queryDTO.getSize(), MAX_CURSOR_PAGE_SIZE);
+        CursorTokenUtil.CursorPosition position = CursorTokenUtil.decode(queryDTO.getCursor());
+        boolean ascending = CursorTokenUtil.isTimeAscending(queryDTO.getSort());
+        MonitoringTableRoute tableRoute = monitoringPartitionService.route(
+                MonitoringType.WATER_QUALITY, queryDTO.getStartTime(), queryDTO.getEndTime());
+
+        // 多取一条用于判断是否存在下一页
+        List<WaterQualityMonitoringDataResponseDTO> list = waterQualityMonitoringDataMapper.selectWaterQualityMonitoringDataSeek(
+                queryDTO.getStationId(),
+                queryDTO.getStartTime(),
+                queryDTO.getEndTime(),
+                tableRoute,
+                queryDTO.getDataQuality(),
+                queryDTO.getCollectionMethod(),
+                queryDTO.getDataSource(),
+                position != null ? position.getMonitoringTime() : null,
+                position != null ? position.getId() : null,
+                ascending,
+                size + 1
+        );
+
+        boolean hasNext = list.size() > size;
+        String nextCursor = null;
+        if (hasNext) {
+            list = new ArrayList<>(list.subList(0, size));
+            WaterQualityMonitoringDataResponseDTO last = list.get(size - 1);
+            nextCursor = CursorTokenUtil.encode(last.getMonitoringTime(), last.getId());
+        }
+
+        Long total = Boolean.TRUE.equals(queryDTO.getWithCount())
+                ? waterQualityMonitoringDataMapper.countWaterQualityMonitoringData(
+                        queryDTO.getStationId(),
+                        queryDTO.getStartTime(),
+                        queryDTO.getEndTime(),
+                        tableRoute,
+                        queryDTO.getDataQuality(),
+                        queryDTO.getCollectionMethod(),
+                        queryDTO.getDataSource())
+                : null;
+
+        return new CursorPageResult<>(list, size, nextCursor, hasNext, total);
+    }
     /**
      * 获取水质图表数据
      * 支持8种水质监测项目的图表数据查询
@@ -100,12 +186,13 @@ public class WaterQualityMonitoringDataService {
      * @param monitoringItemCode 监测项目代码
      * @param startTime 开始时间
      * @param endTime 结束时间
-     * @param interval 时间间隔(hour:小时,day:天,month:月)
+     * @param interval 时间间隔(raw:逐点,[N]min/hour/day/week/month:按N分钟/小时/天/周/月统计)
+     * @param maxPoints 最大返回点数，为空时使用默认值，超过时在服务端降采样
      * @return 图表数据响应
      */
     public WaterQualityChartDataResponseDTO getWaterQualityChartData(Long stationId, String monitoringItemCode,
                                                                      LocalDateTime startTime, LocalDateTime endTime,
-                                                                     String interval) {
+                                                                     String interval, Integer maxPoints) {
         log.info("开始查询水质图表数据，站点ID: {}, 监测项目: {}, 时间范围: {} - {}",
                 stationId, monitoringItemCode, startTime, endTime);
 
@@ -123,34 +210,63 @@ public class WaterQualityMonitoringDataService {
         }
 
         try {
-            List<Map<String, Object>> chartData;
-            String datasetName;
-
-            // 返回指定站点的数据
-            chartData = waterQualityMonitoringDataMapper.selectWaterQualityChartData(
-                    stationId, monitoringItemCode, startTime, endTime, interval);
-            datasetName = getMonitoringItemName(monitoringItemCode) + "数据";
-
-            WaterQualityChartDataResponseDTO result = new WaterQualityChartDataResponseDTO();
-            result.setLabels(chartData.stream()
-                    .map(item -> (String) item.get("time_label"))
-                    .collect(Collectors.toList()));
-            result.setValues(chartData.stream()
-                    .map(item -> getBigDecimalValue(item, "avg_value"))
-                    .collect(Collectors.toList()));
-            result.setDatasetName(datasetName);
-            result.setMonitoringItemCode(monitoringItemCode);
-            result.setMonitoringItemName(getMonitoringItemName(monitoringItemCode));
-            result.setUnit(getMonitoringItemUnit(monitoringItemCode));
-
-            log.info("水质图表数据查询完成，数据点数量: {}", result.getLabels().size());
-            return result;
+            TimeBucketInterval bucketInterval = TimeBucketInterval.parse(interval);
+            int resolvedMaxPoints = chartProperties.resolveMaxPoints(maxPoints);
+            MonitoringChartCache.Key key = new MonitoringChartCache.Key(MonitoringType.WATER_QUALITY, stationId,
+                    monitoringItemCode, startTime, endTime, bucketInterval.getCode(), resolvedMaxPoints);
+            return monitoringChartCache.get(key,
+                    () -> loadWaterQualityChartData(stationId, monitoringItemCode, startTime, endTime,
+                            bucketInterval, resolvedMaxPoints),
+                    result -> result.getLabels().size());
         } catch (Exception e) {
             log.error("查询水质图表数据失败", e);
             throw new RuntimeException("查询水质图表数据失败: " + e.getMessage());
         }
     }
 
+    private WaterQualityChartDataResponseDTO loadWaterQualityChartData(Long stationId, String monitoringItemCode,
+                                                                       LocalDateTime startTime, LocalDateTime endTime,
+                                                                       TimeBucketInterval bucketInterval, int maxPoints) {
+        String datasetName = getMonitoringItemName(monitoringItemCode) + "数据";
+        ChartDownsampler sampler = new ChartDownsampler(maxPoints);
+
+        // 优先使用预聚合数据，不满足条件时流式查询原始数据并分桶统计
+        List<Map<String, Object>> rollupData = monitoringRollupService.queryChartData(
+                MonitoringType.WATER_QUALITY, stationId, startTime, endTime, bucketInterval);
+        if (rollupData != null) {
+            String avgKey = "avg_" + getMonitoringItemColumn(monitoringItemCode);
+            for (Map<String, Object> item : rollupData) {
+                sampler.add((String) item.get("time_label"), getBigDecimalValue(item, avgKey));
+            }
+        } else {
+            MonitoringTableRoute tableRoute = monitoringPartitionService.route(MonitoringType.WATER_QUALITY, startTime, endTime);
+            TimeBucketAggregator aggregator = new TimeBucketAggregator(bucketInterval, 1,
+                    bucket -> sampler.add(bucket.getLabel(), bucket.getAvg(0)));
+            waterQualityMonitoringDataMapper.selectWaterQualityChartSamples(
+                    stationId, monitoringItemCode, startTime, endTime, tableRoute, context -> {
+                        MonitoringChartSample sample = context.getResultObject();
+                        aggregator.add(sample.getEpochSecond(), sample.getValue());
+                    });
+            aggregator.finish();
+        }
+
+        List<ChartDownsampler.Point> points = sampler.getPoints();
+        WaterQualityChartDataResponseDTO result = new WaterQualityChartDataResponseDTO();
+        result.setLabels(points.stream()
+                .map(ChartDownsampler.Point::getLabel)
+                .collect(Collectors.toList()));
+        result.setValues(points.stream()
+                .map(ChartDownsampler.Point::getValue)
+                .collect(Collectors.toList()));
+        result.setDatasetName(datasetName);
+        result.setMonitoringItemCode(monitoringItemCode);
+        result.setMonitoringItemName(getMonitoringItemName(monitoringItemCode));
+        result.setUnit(getMonitoringItemUnit(monitoringItemCode));
+
+        log.info("水质图表数据查询完成，原始数据点数量: {}，返回数据点数量: {}", sampler.getCount(), result.getLabels().size());
+        return result;
+    }
+
     /**
      * 导出水质监测数据
      *
@@ -176,144 +292,116 @@ public class WaterQualityMonitoringDataService {
         }
     }
 
+    /**
+     * 导入水质监测数据，本次导入单独生成错误报告
+     *
+     * @param dataList 导入数据列表
+     * @param mode 导入模式，决定与已有记录冲突时跳过、覆盖或报错
+     * @return 导入结果，存在错误时包含错误报告ID
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public ImportResultDTO importWaterQualityData(List<WaterQualityDataImportDTO> dataList, MonitoringImportMode mode) {
+        return importWaterQualityData(dataList, mode, null);
+    }
+
     /**
      * 导入水质监测数据
      * 支持批量导入和数据验证
      *
      * @param dataList 导入数据列表
+     * @param mode 导入模式，决定与已有记录冲突时跳过、覆盖或报错
+     * @param errorReport 错误报告，分块导入时多块共用；为null时本次导入单独生成错误报告
      * @return 导入结果
      */
     @Transactional(rollbackFor = Exception.class)
-    public ImportResultDTO importWaterQualityData(List<WaterQualityDataImportDTO> dataList) {
+    public ImportResultDTO importWaterQualityData(List<WaterQualityDataImportDTO> dataList, MonitoringImportMode mode,
+                                                  ImportErrorReport errorReport) {
         log.info("开始导入水质监测数据，数据量: {}", dataList.size());
 
         if (dataList.isEmpty()) {
             throw new IllegalArgumentException("导入数据不能为空");
         }
 
-        List<ImportResultDTO.ImportErrorDTO> errors = new ArrayList<>();
-        List<WaterQualityMonitoringData> validDataList = new ArrayList<>();
-        Set<String> duplicateKeys = new HashSet<>();
-
-        // 收集并清洗站码集合（去空格、过滤空）
-        Set<String> rawStationCodes = dataList.stream()
-                .map(WaterQualityDataImportDTO::getStationCode)
-                .filter(Objects::nonNull)
-                .map(String::trim)
-                .filter(code -> !code.isEmpty())
-                .collect(Collectors.toSet());
-
-        // 构建 站码 -> 站点ID 的完整映射；缺失则自动建站（名称优先用导入的stationName，否则用站码）
-        Map<String, Long> stationCodeToIdMap = ensureStationCodeToIdMap(dataList, rawStationCodes);
-
-        // 数据验证和转换
-        for (int i = 0; i < dataList.size(); i++) {
-            WaterQualityDataImportDTO importDTO = dataList.get(i);
-            int rowNumber = i + 1;
-
-            try {
-                // 验证必填字段
-                List<String> validationErrors = validateImportData(importDTO);
-                if (!validationErrors.isEmpty()) {
-                    errors.add(ImportResultDTO.ImportErrorDTO.builder()
-                            .rowNumber(rowNumber)
-                            .stationCode(importDTO.getStationCode())
-                            .error(String.join("; ", validationErrors))
-                            .build());
-                    continue;
-                }
-
-                // 获取站点ID（按清洗后的站码取）
-                String trimmedCode = importDTO.getStationCode() == null ? null : importDTO.getStationCode().trim();
-                Long stationId = trimmedCode == null ? null : stationCodeToIdMap.get(trimmedCode);
-
-                if (stationId == null) {
-                    // 正常情况下不会发生（ensure已创建），如发生说明站码为空或全空白
-                    errors.add(ImportResultDTO.ImportErrorDTO.builder()
-                            .rowNumber(rowNumber)
-                            .stationCode(importDTO.getStationCode())
-                            .error("无效站码")
-                            .build());
-                    continue;
-                }
-
-                // 解析监测时间
-                LocalDateTime monitoringTime;
-                try {
-                    monitoringTime = LocalDateTime.parse(importDTO.getMonitoringTime(),
-                            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
-                } catch (Exception e) {
-                    errors.add(ImportResultDTO.ImportErrorDTO.builder()
-                            .rowNumber(rowNumber)
-                            .stationCode(importDTO.getStationCode())
-                            .error("监测时间格式错误：" + e.getMessage())
-                            .build());
-                    continue;
-                }
-
-                // 检查重复数据（水平存储模式下按站点和时间检查）
-                String duplicateKey = stationId + "_" + monitoringTime;
-                if (duplicateKeys.contains(duplicateKey)) {
-                    errors.add(ImportResultDTO.ImportErrorDTO.builder()
-                            .rowNumber(rowNumber)
-                            .stationCode(importDTO.getStationCode())
-                            .error("数据重复：相同站点和时间的数据已存在")
-                            .build());
-                    continue;
-                }
-
-                // 检查数据库中是否已存在
-                if (isDataExists(stationId, monitoringTime)) {
-                    errors.add(ImportResultDTO.ImportErrorDTO.builder()
-                            .rowNumber(rowNumber)
-                            .stationCode(importDTO.getStationCode())
-                            .error("数据已存在：数据库中已有相同站点和时间的数据")
-                            .build());
-                    continue;
-                }
-
-                duplicateKeys.add(duplicateKey);
-
-                // 转换为实体对象
-                WaterQualityMonitoringData entity = convertImportDTOToEntity(importDTO, stationId, monitoringTime);
-                validDataList.add(entity);
-
-            } catch (Exception e) {
-                log.error("处理第{}行数据时发生异常", rowNumber, e);
-                errors.add(ImportResultDTO.ImportErrorDTO.builder()
-                        .rowNumber(rowNumber)
-                        .stationCode(importDTO.getStationCode())
-                        .error("数据处理异常: " + e.getMessage())
-                        .build());
-            }
-        }
+        // 通过站点注册表解析站码，缺失则自动建站（名称优先用导入的stationName，否则用站码）
+        Map<String, Long> stationCodeToIdMap = monitoringStationRegistry.resolveOrCreate(dataList,
+                WaterQualityDataImportDTO::getStationCode, WaterQualityDataImportDTO::getStationName, "WQ");
+
+        // 并行校验转换、按站点去重后按行序批量写入
+        return monitoringImportPipeline.run(MonitoringType.WATER_QUALITY, dataList, stationCodeToIdMap,
+                (importDTO, stationId, monitoringTime) -> {
+                    List<String> validationErrors = validateImportData(importDTO);
+                    if (!validationErrors.isEmpty()) {
+                        throw new IllegalArgumentException(String.join("; ", validationErrors));
+                    }
+                    return convertImportDTOToEntity(importDTO, stationId, monitoringTime);
+                }, mode, errorReport);
+    }
+
+    /**
+     * 获取多个站点同一监测项目的水质对比图表数据，各站点共用一组时间标签（只使用正常数据）
+     *
+     * @param stationIds 监测站点ID列表
+     * @param monitoringItemCode 监测项目代码
+     * @param startTime 开始时间
+     * @param endTime 结束时间
+     * @param interval 时间间隔
+     * @param maxPoints 最大返回点数，为空时使用默认值，超过时相邻时间段合并
+     * @return 对比图表数据
+     */
+    public MonitoringBatchChartResponseDTO getWaterQualityBatchChartData(List<Long> stationIds, String monitoringItemCode,
+                                                                         LocalDateTime startTime, LocalDateTime endTime,
+                                                                         String interval, Integer maxPoints) {
+        MonitoringBatchChartResponseDTO result = monitoringBatchChartService.getBatchChartData(MonitoringType.WATER_QUALITY,
+                getMonitoringItemColumn(monitoringItemCode), stationIds, startTime, endTime, interval, maxPoints);
+        result.setDatasetName(getMonitoringItemName(monitoringItemCode) + "数据");
+        result.setUnit(getMonitoringItemUnit(monitoringItemCode));
+        return result;
+    }
 
-        // 批量插入有效数据
-        int successCount = 0;
-        if (!validDataList.isEmpty()) {
-            try {
-                for (WaterQualityMonitoringData entity : validDataList) {
-                    waterQualityMonitoringDataMapper.insert(entity);
-                }
-                successCount = validDataList.size();
-                log.info("批量插入水质监测数据成功，插入数量: {}", successCount);
-            } catch (Exception e) {
-                log.error("批量插入水质监测数据失败", e);
-                throw new RuntimeException("批量插入数据失败: " + e.getMessage());
+    /**
+     * 获取单个站点多个监测项目的水质图表数据，一次扫描同时统计全部项目，各项目共用一组时间标签（只使用正常数据）
+     *
+     * @param stationId 监测站点ID
+     * @param monitoringItemCodes 监测项目代码列表，为空时返回全部监测项目
+     * @param startTime 开始时间
+     * @param endTime 结束时间
+     * @param interval 时间间隔
+     * @param maxPoints 最大返回点数，为空时使用默认值，超过时相邻时间段合并
+     * @return 多项目图表数据，序列顺序与监测项目代码一致
+     */
+    public MonitoringMultiMetricChartResponseDTO getWaterQualityMultiChartData(Long stationId, List<String> monitoringItemCodes,
+                                                                             LocalDateTime startTime, LocalDateTime endTime,
+                                                                             String interval, Integer maxPoints) {
+        List<String> codes = new ArrayList<>();
+        for (String code : monitoringItemCodes == null || monitoringItemCodes.isEmpty()
+                ? MONITORING_ITEM_CODES : monitoringItemCodes) {
+            String normalized = code == null ? "" : code.trim().toUpperCase();
+            if (!MONITORING_ITEM_CODES.contains(normalized)) {
+                throw new IllegalArgumentException("不支持的监测项目代码: " + code);
+            }
+            if (!codes.contains(normalized)) {
+                codes.add(normalized);
             }
         }
-
-        // 构建导入结果
-        ImportResultDTO result = new ImportResultDTO();
-        result.setTotalRows(dataList.size());
-        result.setSuccessRows(successCount);
-        result.setErrorRows(errors.size());
-        result.setErrors(errors);
-
-        log.info("水质监测数据导入完成，总数: {}, 成功: {}, 失败: {}",
-                result.getTotalRows(), result.getSuccessRows(), result.getErrorRows());
-
-        return result;
+        List<String> columns = codes.stream().map(this::getMonitoringItemColumn).collect(Collectors.toList());
+
+        TimeBucketInterval bucketInterval = TimeBucketInterval.parse(interval);
+        int resolvedMaxPoints = chartProperties.resolveMaxPoints(maxPoints);
+        MonitoringChartCache.Key key = new MonitoringChartCache.Key(MonitoringType.WATER_QUALITY, stationId,
+                String.join(",", codes), startTime, endTime, bucketInterval.getCode(), resolvedMaxPoints);
+        return monitoringChartCache.get(key, () -> {
+            MonitoringMultiMetricChartResponseDTO result = monitoringBatchChartService.getMultiMetricChartData(
+                    MonitoringType.WATER_QUALITY, stationId, columns, startTime, endTime,
+                    bucketInterval.getCode(), resolvedMaxPoints);
+            for (int i = 0; i < codes.size(); i++) {
+                MonitoringMultiMetricChartResponseDTO.Series series = result.getSeries().get(i);
+                series.setMonitoringItemCode(codes.get(i));
+                series.setMonitoringItemName(getMonitoringItemName(codes.get(i)));
+                series.setUnit(getMonitoringItemUnit(codes.get(i)));
+            }
+            result.setDatasetName("水质多项目数据");
+            return result;
+        }, result -> result.getLabels().size() * result.getSeries().size());
     }
 
     // ==================== 私有辅助方法 ====================
@@ -356,6 +444,24 @@ public class WaterQualityMonitoringDataService {
         }
     }
 
+    /**
+     * 获取监测项目对应的数据列名，与图表查询SQL的取值规则一致（未知项目按水温处理）
+     */
+    private String getMonitoringItemColumn(String code) {
+        if (code == null) return "water_temperature";
+
+        switch (code) {
+            case "TU": return "turbidity";
+            case "PH": return "ph_value";
+            case "EC": return "conductivity";
+            case "DO": return "dissolved_oxygen";
+            case "AN": return "ammonia_nitrogen";
+            case "COD": return "cod_value";
+            case "RC": return "residual_chlorine";
+            default: return "water_temperature";
+        }
+    }
+
     /**
      * 验证导入数据
      */
@@ -415,79 +521,6 @@ public class WaterQualityMonitoringDataService {
         return errors;
     }
 
-    /**
-     * 获取站码到station_id的映射
-     */
-    private Map<String, Long> getStationCodeToIdMap(Set<String> stationCodes) {
-        if (stationCodes.isEmpty()) {
-            return new HashMap<>();
-        }
-
-        // 查询监测站点信息
-        List<Map<String, Object>> stations = monitoringStationMapper.selectByStationCodes(new ArrayList<>(stationCodes));
-
-        return stations.stream()
-                .collect(Collectors.toMap(
-                        station -> (String) station.get("station_code"),
-                        station -> ((Number) station.get("id")).longValue(),
-                        (existing, replacement) -> existing
-                ));
-    }
-
-    /**
-     * 基于导入数据与站码集合，确保返回完整的 站码->站点ID 映射。缺失时自动按照WQ创建站点。
-     * 名称优先使用导入的 stationName；为空时使用站码作为名称。
-     */
-    private Map<String, Long> ensureStationCodeToIdMap(List<WaterQualityDataImportDTO> dataList, Set<String> stationCodes) {
-        Map<String, Long> map = new HashMap<>();
-        if (stationCodes.isEmpty()) {
-            return map;
-        }
-        // 先查已有
-        List<Map<String, Object>> stations = monitoringStationMapper.selectByStationCodes(new ArrayList<>(stationCodes));
-        for (Map<String, Object> s : stations) {
-            String code = (String) s.get("station_code");
-            Long id = ((Number) s.get("id")).longValue();
-            map.put(code, id);
-        }
-        // 找缺失
-        Set<String> missing = new HashSet<>(stationCodes);
-        missing.removeAll(map.keySet());
-        if (missing.isEmpty()) {
-            return map;
-        }
-        // 构建 站码 -> 导入名称 的映射（最后一次出现优先即可）
-        Map<String, String> codeToName = new HashMap<>();
-        for (WaterQualityDataImportDTO dto : dataList) {
-            if (dto.getStationCode() == null) continue;
-            String code = dto.getStationCode().trim();
-            if (code.isEmpty()) continue;
-            String name = dto.getStationName();
-            if (name != null) {
-                name = name.trim();
-            }
-            codeToName.put(code, (name != null && !name.isEmpty()) ? name : code);
-        }
-        // 逐个创建缺失站点
-        for (String code : missing) {
-            String name = codeToName.getOrDefault(code, code);
-            MonitoringStation station = new MonitoringStation();
-            station.setStationCode(code);
-            station.setName(name);
-            station.setMonitoringItemCode("WQ");
-            monitoringStationMapper.insert(station);
-            map.put(code, station.getId());
-        }
-        return map;
-    }
-
-    /**
-     * 检查数据是否已存在（水平存储模式下按站点和时间检查）
-     */
-    private boolean isDataExists(Long stationId, LocalDateTime monitoringTime) {
-        return waterQualityMonitoringDataMapper.countByStationIdAndTime(stationId, monitoringTime) > 0;
-    }
-
     /**
      * 转换导入DTO为实体对象（水平存储模式）
      */
@@ -0,0 +1,167 @@
+package com.example.demo.service.monitoring;
+
+import com.example.demo.constant.ImportErrorCategory;
+import com.example.demo.constant.MonitoringType;
+import com.example.demo.pojo.DTO.monitoring.ImportResultDTO;
+import lombok.Getter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 监测数据导入错误报告
+ * 导入过程中每条错误在发生时追加写入CSV文件（行号、站码、错误类别、错误信息），内存中只保留按类别的计数
+ * 和前若干条错误样例，内存占用与错误行数无关；文件在第一条错误出现时创建
+ * 一次导入（包括分块导入的全部块）共用一个报告，由写入线程按行序追加，非线程安全
+ */
+public class ImportErrorReport {
+
+    /**
+     * 导入结果中返回的最大错误样例条数
+     */
+    public static final int MAX_SAMPLE_ERRORS = 100;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String HEADER = "行号,站码,错误类别,错误信息";
+
+    @Getter
+    private final String id;
+
+    @Getter
+    private final MonitoringType type;
+
+    @Getter
+    private final Path file;
+
+    @Getter
+    private final LocalDateTime createdAt = LocalDateTime.now();
+
+    private final Map<ImportErrorCategory, Integer> categoryCounts = new EnumMap<>(ImportErrorCategory.class);
+
+    private final List<ImportResultDTO.ImportErrorDTO> samples = new ArrayList<>();
+
+    @Getter
+    private int errorRows;
+
+    private Writer writer;
+
+    private boolean closed;
+
+    ImportErrorReport(String id, MonitoringType type, Path file) {
+        this.id = id;
+        this.type = type;
+        this.file = file;
+    }
+
+    /**
+     * 记录一条错误
+     *
+     * @param rowNumber 文件行号
+     * @param stationCode 站码
+     * @param category 错误类别
+     * @param message 错误信息
+     * @throws UncheckedIOException 写入报告文件失败
+     */
+    public void add(Integer rowNumber, String stationCode, ImportErrorCategory category, String message) {
+        if (closed) {
+            throw new IllegalStateException("导入错误报告已关闭");
+        }
+        errorRows++;
+        categoryCounts.merge(category, 1, Integer::sum);
+        if (samples.size() < MAX_SAMPLE_ERRORS) {
+            samples.add(ImportResultDTO.ImportErrorDTO.builder()
+                    .rowNumber(rowNumber)
+                    .stationCode(stationCode)
+                    .category(category.getCode())
+                    .error(message)
+                    .build());
+        }
+        try {
+            if (writer == null) {
+                open();
+            }
+            writer.write(rowNumber == null ? "" : rowNumber.toString());
+            writer.write(',');
+            writer.write(escape(stationCode));
+            writer.write(',');
+            writer.write(category.getLabel());
+            writer.write(',');
+            writer.write(escape(message));
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException("写入导入错误报告失败: " + file, e);
+        }
+    }
+
+    /**
+     * 获取某类错误的行数
+     */
+    public int count(ImportErrorCategory category) {
+        return categoryCounts.getOrDefault(category, 0);
+    }
+
+    /**
+     * 按类别编码的错误行数，只包含出现过的类别
+     */
+    public Map<String, Integer> getCategoryCounts() {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        categoryCounts.forEach((category, count) -> counts.put(category.getCode(), count));
+        return counts;
+    }
+
+    /**
+     * 前{@value #MAX_SAMPLE_ERRORS}条错误样例
+     */
+    public List<ImportResultDTO.ImportErrorDTO> getSamples() {
+        return samples;
+    }
+
+    /**
+     * 关闭报告文件，之后不能再记录错误
+     */
+    void close() {
+        closed = true;
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("关闭导入错误报告失败: " + file, e);
+        } finally {
+            writer = null;
+        }
+    }
+
+    private void open() throws IOException {
+        Files.createDirectories(file.getParent());
+        writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file), StandardCharsets.UTF_8), BUFFER_SIZE);
+        // 添加BOM以便Excel正确识别中文
+        writer.write('\uFEFF');
+        writer.write(HEADER);
+        writer.write('\n');
+    }
+
+    private static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.demo.service.monitoring;
+
+import com.example.demo.config.MonitoringImportProperties;
+import com.example.demo.constant.MonitoringType;
+import com.example.demo.pojo.DTO.monitoring.ImportResultDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 监测数据导入错误报告存储
+ * 为每次导入创建错误报告，导入结束后保留存在错误的报告文件供下载，超过保留时间后删除；
+ * 报告索引保存在内存中，应用启动时清理上次运行遗留的报告文件
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ImportErrorReportStore {
+
+    private final MonitoringImportProperties importProperties;
+
+    private final Map<String, ImportErrorReport> reports = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void start() {
+        Path dir = Paths.get(importProperties.getErrorReportDir());
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*.csv")) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            log.warn("清理遗留的导入错误报告失败: {}", dir, e);
+        }
+    }
+
+    /**
+     * 创建错误报告
+     *
+     * @param type 监测类型
+     * @return 错误报告，第一条错误出现时才创建文件
+     */
+    public ImportErrorReport create(MonitoringType type) {
+        purgeExpired();
+        String id = UUID.randomUUID().toString().replace("-", "");
+        return new ImportErrorReport(id, type, Paths.get(importProperties.getErrorReportDir(), id + ".csv"));
+    }
+
+    /**
+     * 结束错误报告：关闭文件，将错误样例、类别统计和报告ID填入导入结果；没有错误时不保留报告
+     *
+     * @param report 错误报告
+     * @param result 导入结果
+     * @return 填充后的导入结果
+     */
+    public ImportResultDTO finish(ImportErrorReport report, ImportResultDTO result) {
+        report.close();
+        result.setErrorRows(report.getErrorRows());
+        result.setErrors(report.getSamples());
+        result.setErrorCategories(report.getCategoryCounts());
+        if (report.getErrorRows() > 0) {
+            reports.put(report.getId(), report);
+            result.setErrorReportId(report.getId());
+        } else {
+            delete(report);
+        }
+        return result;
+    }
+
+    /**
+     * 丢弃错误报告，用于导入失败时
+     */
+    public void discard(ImportErrorReport report) {
+        try {
+            report.close();
+        } catch (RuntimeException e) {
+            log.warn("关闭导入错误报告失败: {}", report.getId(), e);
+        }
+        delete(report);
+    }
+
+    /**
+     * 获取错误报告
+     *
+     * @param reportId 报告ID
+     * @return 错误报告
+     * @throws IllegalArgumentException 报告不存在或已过期
+     */
+    public ImportErrorReport get(String reportId) {
+        purgeExpired();
+        ImportErrorReport report = reportId == null ? null : reports.get(reportId);
+        if (report == null || !Files.exists(report.getFile())) {
+            throw new IllegalArgumentException("错误报告不存在或已过期");
+        }
+        return report;
+    }
+
+    /**
+     * 删除超过保留时间的报告
+     */
+    private void purgeExpired() {
+        LocalDateTime expiry = LocalDateTime.now().minusMinutes(importProperties.getErrorReportRetentionMinutes());
+        reports.values().removeIf(report -> {
+            if (report.getCreatedAt().isBefore(expiry)) {
+                delete(report);
+                return true;
+            }
+            return false;
+        });
+    }
+
+    private static void delete(ImportErrorReport report) {
+        try {
+            Files.deleteIfExists(report.getFile());
+        } catch (IOException e) {
+            log.warn("删除导入错误报告失败: {}", report.getFile(), e);
+        }
+    }
+}
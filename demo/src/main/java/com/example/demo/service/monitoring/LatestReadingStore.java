@@ -0,0 +1,272 @@
+package com.example.demo.service.monitoring;
+
+import com.example.demo.constant.MonitoringChangeType;
+import com.example.demo.constant.MonitoringType;
+import com.example.demo.mapper.MonitoringLatestReadingMapper;
+import com.example.demo.pojo.entity.monitoring.MonitoringRecord;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 监测站点最新读数缓存
+ * 按监测类型和站点保存最新一条监测数据：启动时从数据库预热，之后随数据写入提交后的变更通知更新，
+ * 只有监测时间不早于已缓存读数的数据才会覆盖缓存；预热完成前isReady返回false，调用方应回退到数据库查询
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LatestReadingStore implements MonitoringDataListener {
+
+    private final MonitoringLatestReadingMapper monitoringLatestReadingMapper;
+
+    private final Map<MonitoringType, ConcurrentHashMap<Long, LatestReading>> readings = createReadingMaps();
+
+    /**
+     * 各监测类型指标列名到实体属性名的映射
+     */
+    private final Map<MonitoringType, Map<String, String>> metricProperties = createMetricProperties();
+
+    private volatile boolean ready;
+
+    /**
+     * 在后台线程中预热缓存，不阻塞应用启动
+     */
+    @PostConstruct
+    public void start() {
+        Thread loader = new Thread(this::warmUp, "latest-reading-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * 缓存是否已完成预热
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 获取站点指定类型的最新读数
+     *
+     * @param stationId 站点ID
+     * @param type 监测类型
+     * @return 最新读数，没有数据时返回null
+     */
+    public LatestReading getLatest(Long stationId, MonitoringType type) {
+        return stationId == null ? null : readings.get(type).get(stationId);
+    }
+
+    /**
+     * 获取站点的最新读数
+     * 优先返回与站点监测项目对应类型的读数，没有对应类型时返回各类型中监测时间最新的读数
+     *
+     * @param stationId 站点ID
+     * @param itemCode 站点监测项目编码
+     * @return 最新读数，没有数据时返回null
+     */
+    public LatestReading getLatestForStation(Long stationId, String itemCode) {
+        if (stationId == null) {
+            return null;
+        }
+        MonitoringType preferred = MonitoringType.fromItemCode(itemCode);
+        if (preferred != null) {
+            LatestReading reading = readings.get(preferred).get(stationId);
+            if (reading != null) {
+                return reading;
+            }
+        }
+        LatestReading newest = null;
+        for (ConcurrentHashMap<Long, LatestReading> byStation : readings.values()) {
+            LatestReading reading = byStation.get(stationId);
+            if (reading != null && (newest == null || reading.getMonitoringTime().isAfter(newest.getMonitoringTime()))) {
+                newest = reading;
+            }
+        }
+        return newest;
+    }
+
+    @Override
+    public void onDataChanged(MonitoringType type, MonitoringChangeType changeType, List<? extends MonitoringRecord> records) {
+        if (changeType == MonitoringChangeType.DELETED) {
+            // 删除的可能正是最新读数，受影响站点从数据库重新加载
+            Set<Long> stationIds = new HashSet<>();
+            for (MonitoringRecord record : records) {
+                if (record.getStationId() != null) {
+                    stationIds.add(record.getStationId());
+                }
+            }
+            reload(type, stationIds);
+            return;
+        }
+
+        // 每个站点只取本批中最新的一条再转换，避免逐条反射取值
+        Map<Long, MonitoringRecord> newest = new HashMap<>();
+        for (MonitoringRecord record : records) {
+            if (record.getStationId() == null || record.getMonitoringTime() == null) {
+                continue;
+            }
+            newest.merge(record.getStationId(), record,
+                    (a, b) -> b.getMonitoringTime().isBefore(a.getMonitoringTime()) ? a : b);
+        }
+        for (MonitoringRecord record : newest.values()) {
+            offer(toReading(type, record));
+        }
+    }
+
+    /**
+     * 从数据库加载全部类型的最新读数
+     */
+    private void warmUp() {
+        long start = System.currentTimeMillis();
+        int count = 0;
+        try {
+            for (MonitoringType type : MonitoringType.values()) {
+                count += load(type, null);
+            }
+            ready = true;
+            log.info("最新读数缓存预热完成，读数: {}，耗时: {}ms", count, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("最新读数缓存预热失败，站点最新数据将从数据库查询", e);
+        }
+    }
+
+    private void reload(MonitoringType type, Collection<Long> stationIds) {
+        if (stationIds.isEmpty()) {
+            return;
+        }
+        ConcurrentHashMap<Long, LatestReading> byStation = readings.get(type);
+        stationIds.forEach(byStation::remove);
+        try {
+            load(type, stationIds);
+        } catch (Exception e) {
+            log.error("{}最新读数重新加载失败，站点: {}", type.getLabel(), stationIds, e);
+        }
+    }
+
+    private int load(MonitoringType type, Collection<Long> stationIds) {
+        List<Map<String, Object>> rows = monitoringLatestReadingMapper.selectLatestReadings(
+                type.getTableName(), type.getMetricColumns(), stationIds);
+        for (Map<String, Object> row : rows) {
+            Map<String, Object> values = new LinkedHashMap<>();
+            for (Map.Entry<String, String> metric : metricProperties.get(type).entrySet()) {
+                values.put(metric.getValue(), row.get(metric.getKey()));
+            }
+            Object dataQuality = row.get("data_quality");
+            offer(new LatestReading(type, ((Number) row.get("station_id")).longValue(),
+                    toLocalDateTime(row.get("monitoring_time")),
+                    dataQuality instanceof Number ? ((Number) dataQuality).intValue() : null,
+                    Collections.unmodifiableMap(values)));
+        }
+        return rows.size();
+    }
+
+    /**
+     * 写入缓存，已缓存读数的监测时间更晚时保留原读数
+     */
+    private void offer(LatestReading reading) {
+        readings.get(reading.getType()).merge(reading.getStationId(), reading,
+                (current, offered) -> offered.getMonitoringTime().isBefore(current.getMonitoringTime()) ? current : offered);
+    }
+
+    private LatestReading toReading(MonitoringType type, MonitoringRecord record) {
+        BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(record);
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (String property : metricProperties.get(type).values()) {
+            values.put(property, wrapper.getPropertyValue(property));
+        }
+        Object dataQuality = wrapper.isReadableProperty("dataQuality") ? wrapper.getPropertyValue("dataQuality") : null;
+        return new LatestReading(type, record.getStationId(), record.getMonitoringTime(),
+                dataQuality instanceof Integer ? (Integer) dataQuality : null, Collections.unmodifiableMap(values));
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof Timestamp) {
+            return ((Timestamp) value).toLocalDateTime();
+        }
+        return (LocalDateTime) value;
+    }
+
+    private static Map<MonitoringType, ConcurrentHashMap<Long, LatestReading>> createReadingMaps() {
+        Map<MonitoringType, ConcurrentHashMap<Long, LatestReading>> maps = new EnumMap<>(MonitoringType.class);
+        for (MonitoringType type : MonitoringType.values()) {
+            maps.put(type, new ConcurrentHashMap<>());
+        }
+        return maps;
+    }
+
+    private static Map<MonitoringType, Map<String, String>> createMetricProperties() {
+        Map<MonitoringType, Map<String, String>> properties = new EnumMap<>(MonitoringType.class);
+        for (MonitoringType type : MonitoringType.values()) {
+            Map<String, String> columns = new LinkedHashMap<>();
+            for (String column : type.getMetricColumns()) {
+                columns.put(column, toCamelCase(column));
+            }
+            properties.put(type, columns);
+        }
+        return properties;
+    }
+
+    private static String toCamelCase(String column) {
+        StringBuilder builder = new StringBuilder(column.length());
+        boolean upper = false;
+        for (char ch : column.toCharArray()) {
+            if (ch == '_') {
+                upper = true;
+            } else {
+                builder.append(upper ? Character.toUpperCase(ch) : ch);
+                upper = false;
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 站点最新读数
+     */
+    @Value
+    public static class LatestReading {
+
+        /**
+         * 监测类型
+         */
+        MonitoringType type;
+
+        /**
+         * 站点ID
+         */
+        Long stationId;
+
+        /**
+         * 监测时间
+         */
+        LocalDateTime monitoringTime;
+
+        /**
+         * 数据质量(1:正常,2:异常,3:缺失)
+         */
+        Integer dataQuality;
+
+        /**
+         * 各指标数值，键为驼峰形式的指标名（如instantFlow）
+         */
+        Map<String, Object> values;
+    }
+}
@@ -0,0 +1,442 @@
+package com.example.demo.service.monitoring;
+
+import com.example.demo.config.MonitoringChartProperties;
+import com.example.demo.constant.MonitoringTableRoute;
+import com.example.demo.constant.MonitoringType;
+import com.example.demo.mapper.MonitoringChartMapper;
+import com.example.demo.pojo.DTO.monitoring.MonitoringBatchChartResponseDTO;
+import com.example.demo.pojo.DTO.monitoring.MonitoringMultiMetricChartResponseDTO;
+import com.example.demo.pojo.entity.monitoring.MonitoringChartRow;
+import com.example.demo.pojo.entity.monitoring.MonitoringChartSample;
+import com.example.demo.utils.ColumnarSeriesWriter;
+import com.example.demo.utils.TimeBucketAggregator;
+import com.example.demo.utils.TimeBucketInterval;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 对比图表服务
+ * 多个站点同一指标、或同一站点多个指标的图表一次请求返回：
+ * <ul>
+ *     <li>站点按组查询，每组一条语句以IN列表逐站点范围扫描uk_station_time索引，按(站点, 监测时间)顺序流式返回，
+ *     每个站点单次遍历分桶，站点数超过每组站点数时各组并行查询</li>
+ *     <li>各站点的桶按桶起点合并成共用的时间轴，桶数量超过maxPoints时相邻桶按数据条数加权合并，
+ *     各站点在同一标签下的数值始终对应同一时间段</li>
+ *     <li>同一站点多个指标时只扫描一次宽行，每行的各指标值同时分桶，各指标共用同一组时间标签</li>
+ * </ul>
+ */
+@Service
+@RequiredArgsConstructor
+public class MonitoringBatchChartService {
+
+    private static final String TOO_MANY_BUCKETS = "统计的数据点过多，请缩小时间范围或使用更大的时间间隔";
+
+    private final MonitoringChartMapper monitoringChartMapper;
+    private final MonitoringPartitionService monitoringPartitionService;
+    private final MonitoringChartProperties chartProperties;
+    private final MonitoringRollupService monitoringRollupService;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(chartProperties.getBatchThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "monitoring-batch-chart-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 查询多个站点同一指标的对比图表
+     *
+     * @param type 监测类型
+     * @param metric 指标列名，必须是该监测类型的指标
+     * @param stationIds 站点ID，重复的站点只统计一次
+     * @param startTime 开始时间（可选）
+     * @param endTime 结束时间（可选）
+     * @param interval 时间间隔，格式见{@link TimeBucketInterval}
+     * @param maxPoints 共用时间轴的最大点数，为空时使用默认值
+     * @return 对比图表数据，datasetName和unit由调用方填写
+     * @throws IllegalArgumentException 参数不合法或统计的桶数量超过上限
+     */
+    public MonitoringBatchChartResponseDTO getBatchChartData(MonitoringType type, String metric, List<Long> stationIds,
+                                                             LocalDateTime startTime, LocalDateTime endTime,
+                                                             String interval, Integer maxPoints) {
+        if (!type.getMetricColumns().contains(metric)) {
+            throw new IllegalArgumentException(type.getLabel() + "数据不支持指标: " + metric);
+        }
+        List<Long> ids = stationIds == null ? new ArrayList<>() : new ArrayList<>(new LinkedHashSet<>(stationIds));
+        ids.remove(null);
+        if (ids.isEmpty()) {
+            throw new IllegalArgumentException("必须提供监测站点ID");
+        }
+        if (ids.size() > chartProperties.getBatchMaxStations()) {
+            throw new IllegalArgumentException("单次最多查询" + chartProperties.getBatchMaxStations() + "个站点");
+        }
+        TimeBucketInterval bucketInterval = TimeBucketInterval.parse(interval);
+        MonitoringTableRoute tableRoute = monitoringPartitionService.route(type, startTime, endTime);
+        boolean qualityOnly = type == MonitoringType.WATER_QUALITY;
+        AtomicLong bucketBudget = new AtomicLong(chartProperties.getBatchMaxBuckets());
+
+        int chunkSize = chartProperties.getBatchChunkSize();
+        Map<Long, StationSeries> seriesByStation = new HashMap<>();
+        if (ids.size() <= chunkSize) {
+            seriesByStation.putAll(scan(type, metric, ids, qualityOnly, startTime, endTime, tableRoute,
+                    bucketInterval, bucketBudget));
+        } else {
+            List<Future<Map<Long, StationSeries>>> futures = new ArrayList<>();
+            for (int from = 0; from < ids.size(); from += chunkSize) {
+                List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+                futures.add(executor.submit(() -> scan(type, metric, chunk, qualityOnly, startTime, endTime,
+                        tableRoute, bucketInterval, bucketBudget)));
+            }
+            try {
+                for (Future<Map<Long, StationSeries>> future : futures) {
+                    seriesByStation.putAll(future.get());
+                }
+            } catch (InterruptedException e) {
+                futures.forEach(future -> future.cancel(true));
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("多站点图表查询被中断", e);
+            } catch (ExecutionException e) {
+                futures.forEach(future -> future.cancel(true));
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new IllegalStateException("多站点图表查询失败", e.getCause());
+            }
+        }
+
+        return align(ids, seriesByStation, bucketInterval, chartProperties.resolveMaxPoints(maxPoints), metric);
+    }
+
+    /**
+     * 查询单个站点多个指标的图表，一次扫描同时统计全部指标
+     * 按单个小时、天或月统计且预聚合可用时直接使用预聚合数据
+     *
+     * @param type 监测类型
+     * @param stationId 站点ID
+     * @param metrics 指标列名，必须是该监测类型的指标，重复的指标只统计一次
+     * @param startTime 开始时间（可选）
+     * @param endTime 结束时间（可选）
+     * @param interval 时间间隔，格式见{@link TimeBucketInterval}
+     * @param maxPoints 共用时间轴的最大点数，为空时使用默认值
+     * @return 多指标图表数据，各序列只填写metric、values和dataCount，其余由调用方填写
+     * @throws IllegalArgumentException 参数不合法或统计的桶数量超过上限
+     */
+    public MonitoringMultiMetricChartResponseDTO getMultiMetricChartData(MonitoringType type, Long stationId,
+                                                                         List<String> metrics,
+                                                                         LocalDateTime startTime, LocalDateTime endTime,
+                                                                         String interval, Integer maxPoints) {
+        if (stationId == null) {
+            throw new IllegalArgumentException("必须提供监测站点ID");
+        }
+        List<String> columns = metrics == null ? new ArrayList<>() : new ArrayList<>(new LinkedHashSet<>(metrics));
+        if (columns.isEmpty()) {
+            throw new IllegalArgumentException("必须提供监测指标");
+        }
+        for (String metric : columns) {
+            if (!type.getMetricColumns().contains(metric)) {
+                throw new IllegalArgumentException(type.getLabel() + "数据不支持指标: " + metric);
+            }
+        }
+        TimeBucketInterval bucketInterval = TimeBucketInterval.parse(interval);
+        int metricCount = columns.size();
+        // 按“桶×指标”计入上限，与多站点图表的内存占用相当
+        long maxBuckets = chartProperties.getBatchMaxBuckets() / metricCount;
+        MetricSeries series = new MetricSeries(metricCount);
+
+        List<Map<String, Object>> rollup = monitoringRollupService.queryChartData(type, stationId, startTime, endTime,
+                bucketInterval);
+        if (rollup != null) {
+            for (Map<String, Object> row : rollup) {
+                int position = series.addBucket((String) row.get("time_label"));
+                for (int m = 0; m < metricCount; m++) {
+                    Object sum = row.get("sum_" + columns.get(m));
+                    Object count = row.get("count_" + columns.get(m));
+                    if (sum != null && count != null) {
+                        series.set(position, m, ColumnarSeriesWriter.toScaled((BigDecimal) sum), ((Number) count).longValue());
+                    }
+                }
+            }
+        } else {
+            boolean[] exceeded = new boolean[1];
+            TimeBucketAggregator aggregator = new TimeBucketAggregator(bucketInterval, metricCount, bucket -> {
+                if (series.size >= maxBuckets) {
+                    // 中止流式读取，由外层转换为参数错误
+                    exceeded[0] = true;
+                    throw new IllegalStateException(TOO_MANY_BUCKETS);
+                }
+                int position = series.addBucket(bucket.getLabel());
+                for (int m = 0; m < metricCount; m++) {
+                    if (bucket.getCount(m) > 0) {
+                        series.set(position, m, ColumnarSeriesWriter.toScaled(bucket.getSum(m)), bucket.getCount(m));
+                    }
+                }
+            });
+            try {
+                monitoringChartMapper.selectChartRows(type.getTableName(), columns, stationId,
+                        type == MonitoringType.WATER_QUALITY, startTime, endTime,
+                        monitoringPartitionService.route(type, startTime, endTime), context -> {
+                            MonitoringChartRow row = context.getResultObject();
+                            aggregator.addRow(row.getEpochSecond());
+                            for (int m = 0; m < metricCount; m++) {
+                                Double value = row.getValue(m);
+                                if (value != null) {
+                                    aggregator.addValue(m, value);
+                                }
+                            }
+                        });
+                aggregator.finish();
+            } catch (RuntimeException e) {
+                if (exceeded[0]) {
+                    throw new IllegalArgumentException(TOO_MANY_BUCKETS);
+                }
+                throw e;
+            }
+        }
+
+        MonitoringMultiMetricChartResponseDTO response = series.toResponse(columns,
+                chartProperties.resolveMaxPoints(maxPoints));
+        response.setStationId(stationId);
+        response.setInterval(bucketInterval.getCode());
+        return response;
+    }
+
+    /**
+     * 以一条语句扫描一组站点，每个站点的数据按监测时间升序连续返回，逐站点分桶
+     */
+    private Map<Long, StationSeries> scan(MonitoringType type, String metric, List<Long> stationIds, boolean qualityOnly,
+                                          LocalDateTime startTime, LocalDateTime endTime, MonitoringTableRoute tableRoute,
+                                          TimeBucketInterval bucketInterval, AtomicLong bucketBudget) {
+        Map<Long, StationSeries> result = new HashMap<>();
+        StationSeries[] current = new StationSeries[1];
+        TimeBucketAggregator aggregator = new TimeBucketAggregator(bucketInterval, 1, bucket -> {
+            if (bucketBudget.decrementAndGet() < 0) {
+                // 中止流式读取，由外层转换为参数错误
+                throw new IllegalStateException(TOO_MANY_BUCKETS);
+            }
+            current[0].add(bucket.getStart(), ColumnarSeriesWriter.toScaled(bucket.getSum(0)), bucket.getCount(0));
+        });
+        try {
+            monitoringChartMapper.selectStationChartSamples(type.getTableName(), metric, stationIds, qualityOnly,
+                    startTime, endTime, tableRoute, context -> {
+                        MonitoringChartSample sample = context.getResultObject();
+                        if (current[0] == null || current[0].stationId != sample.getStationId()) {
+                            aggregator.finish();
+                            current[0] = new StationSeries(sample.getStationId());
+                            result.put(sample.getStationId(), current[0]);
+                        }
+                        aggregator.add(sample.getEpochSecond(), sample.getValue());
+                    });
+            aggregator.finish();
+        } catch (RuntimeException e) {
+            if (bucketBudget.get() < 0) {
+                throw new IllegalArgumentException(TOO_MANY_BUCKETS);
+            }
+            throw e;
+        }
+        return result;
+    }
+
+    /**
+     * 合并各站点的桶起点作为共用时间轴，超过最大点数时相邻桶合并
+     */
+    private MonitoringBatchChartResponseDTO align(List<Long> stationIds, Map<Long, StationSeries> seriesByStation,
+                                                  TimeBucketInterval bucketInterval, int maxPoints, String metric) {
+        int total = 0;
+        for (StationSeries series : seriesByStation.values()) {
+            total += series.size;
+        }
+        long[] axis = new long[total];
+        int length = 0;
+        for (StationSeries series : seriesByStation.values()) {
+            System.arraycopy(series.starts, 0, axis, length, series.size);
+            length += series.size;
+        }
+        Arrays.sort(axis);
+        int distinct = 0;
+        for (int i = 0; i < axis.length; i++) {
+            if (distinct == 0 || axis[i] != axis[distinct - 1]) {
+                axis[distinct++] = axis[i];
+            }
+        }
+
+        int groupSize = Math.max(1, (distinct + maxPoints - 1) / maxPoints);
+        int groups = (distinct + groupSize - 1) / groupSize;
+        List<String> labels = new ArrayList<>(groups);
+        for (int g = 0; g < groups; g++) {
+            labels.add(bucketInterval.label(axis[g * groupSize]));
+        }
+
+        List<MonitoringBatchChartResponseDTO.Series> result = new ArrayList<>(stationIds.size());
+        long[] sums = new long[groups];
+        long[] counts = new long[groups];
+        for (Long stationId : stationIds) {
+            Arrays.fill(sums, 0);
+            Arrays.fill(counts, 0);
+            StationSeries series = seriesByStation.get(stationId);
+            long dataCount = 0;
+            if (series != null) {
+                int position = 0;
+                for (int i = 0; i < series.size; i++) {
+                    // 站点的桶起点有序，在时间轴上向前查找即可
+                    while (axis[position] != series.starts[i]) {
+                        position++;
+                    }
+                    int group = position / groupSize;
+                    sums[group] = Math.addExact(sums[group], series.sums[i]);
+                    counts[group] += series.counts[i];
+                    dataCount += series.counts[i];
+                }
+            }
+            List<BigDecimal> values = new ArrayList<>(groups);
+            for (int g = 0; g < groups; g++) {
+                values.add(counts[g] == 0 ? null
+                        : TimeBucketAggregator.average(ColumnarSeriesWriter.fromScaled(sums[g]), counts[g]));
+            }
+            MonitoringBatchChartResponseDTO.Series dto = new MonitoringBatchChartResponseDTO.Series();
+            dto.setStationId(stationId);
+            dto.setValues(values);
+            dto.setDataCount(dataCount);
+            result.add(dto);
+        }
+
+        MonitoringBatchChartResponseDTO response = new MonitoringBatchChartResponseDTO();
+        response.setLabels(labels);
+        response.setSeries(result);
+        response.setMetric(metric);
+        response.setInterval(bucketInterval.getCode());
+        return response;
+    }
+
+    /**
+     * 单个站点多个指标的桶序列，按时间先后追加，各指标的合计（按3位小数放大为长整数）和计数按“桶×指标”连续存放
+     */
+    private static class MetricSeries {
+
+        private final int metricCount;
+
+        private final List<String> labels = new ArrayList<>();
+
+        private long[] sums;
+
+        private long[] counts;
+
+        private int size;
+
+        MetricSeries(int metricCount) {
+            this.metricCount = metricCount;
+            this.sums = new long[64 * metricCount];
+            this.counts = new long[64 * metricCount];
+        }
+
+        int addBucket(String label) {
+            if ((size + 1) * metricCount > sums.length) {
+                sums = Arrays.copyOf(sums, sums.length * 2);
+                counts = Arrays.copyOf(counts, counts.length * 2);
+            }
+            labels.add(label);
+            return size++;
+        }
+
+        void set(int position, int metric, long sum, long count) {
+            sums[position * metricCount + metric] = sum;
+            counts[position * metricCount + metric] = count;
+        }
+
+        /**
+         * 桶数量超过最大点数时相邻桶按数据条数加权合并，标签取合并后首个桶的标签
+         */
+        MonitoringMultiMetricChartResponseDTO toResponse(List<String> metrics, int maxPoints) {
+            int groupSize = Math.max(1, (size + maxPoints - 1) / maxPoints);
+            int groups = (size + groupSize - 1) / groupSize;
+            List<String> groupLabels = new ArrayList<>(groups);
+            for (int g = 0; g < groups; g++) {
+                groupLabels.add(labels.get(g * groupSize));
+            }
+
+            List<MonitoringMultiMetricChartResponseDTO.Series> result = new ArrayList<>(metricCount);
+            for (int m = 0; m < metricCount; m++) {
+                List<BigDecimal> values = new ArrayList<>(groups);
+                long dataCount = 0;
+                for (int g = 0; g < groups; g++) {
+                    long sum = 0;
+                    long count = 0;
+                    for (int i = g * groupSize, end = Math.min(i + groupSize, size); i < end; i++) {
+                        sum = Math.addExact(sum, sums[i * metricCount + m]);
+                        count += counts[i * metricCount + m];
+                    }
+                    values.add(count == 0 ? null : TimeBucketAggregator.average(ColumnarSeriesWriter.fromScaled(sum), count));
+                    dataCount += count;
+                }
+                MonitoringMultiMetricChartResponseDTO.Series dto = new MonitoringMultiMetricChartResponseDTO.Series();
+                dto.setMetric(metrics.get(m));
+                dto.setValues(values);
+                dto.setDataCount(dataCount);
+                result.add(dto);
+            }
+
+            MonitoringMultiMetricChartResponseDTO response = new MonitoringMultiMetricChartResponseDTO();
+            response.setLabels(groupLabels);
+            response.setSeries(result);
+            return response;
+        }
+    }
+
+    /**
+     * 单个站点的桶序列，按桶起点升序追加
+     */
+    private static class StationSeries {
+
+        private final long stationId;
+
+        private long[] starts = new long[64];
+
+        private long[] sums = new long[64];
+
+        private long[] counts = new long[64];
+
+        private int size;
+
+        StationSeries(long stationId) {
+            this.stationId = stationId;
+        }
+
+        void add(long start, long sum, long count) {
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size * 2);
+                sums = Arrays.copyOf(sums, size * 2);
+                counts = Arrays.copyOf(counts, size * 2);
+            }
+            starts[size] = start;
+            sums[size] = sum;
+            counts[size] = count;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.demo.service.monitoring;
+
+import com.example.demo.constant.MonitoringChangeType;
+import com.example.demo.constant.MonitoringImportMode;
+import com.example.demo.constant.MonitoringType;
+import com.example.demo.mapper.FlowMonitoringDataMapper;
+import com.example.demo.mapper.RainfallMonitoringDataMapper;
+import com.example.demo.mapper.WaterConditionMonitoringDataMapper;
+import com.example.demo.mapper.WaterLevelMonitoringDataMapper;
+import com.example.demo.mapper.WaterQualityMonitoringDataMapper;
+import com.example.demo.pojo.entity.monitoring.FlowMonitoringData;
+import com.example.demo.pojo.entity.monitoring.MonitoringRecord;
+import com.example.demo.pojo.entity.monitoring.RainfallMonitoringData;
+import com.example.demo.pojo.entity.monitoring.ReservoirMonitoringData;
+import com.example.demo.pojo.entity.monitoring.StationTimeKey;
+import com.example.demo.pojo.entity.monitoring.WaterLevelMonitoringData;
+import com.example.demo.pojo.entity.monitoring.WaterQualityMonitoringData;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 监测数据批量写入组件
+ * 供各类监测数据导入和遥测接入共用：按块执行多行INSERT，将逐条插入的往返次数从“行数”级降为“行数/块大小”级
+ * 同站点同监测时间的重复记录由唯一键uk_station_time拦截，按{@link MonitoringImportMode}跳过、覆盖或报错；
+ * 跳过和覆盖模式的重复行数由语句自身的影响行数推算（连接开启useAffectedRows），写入前不查询已有记录；
+ * {@link #findExisting}用于报错模式下定位冲突记录
+ * 不单独开启事务，调用方在事务中调用时随调用方事务一起提交或回滚；写入成功后通过
+ * {@link MonitoringDataChangePublisher}通知预聚合等下游组件
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MonitoringBulkWriter {
+
+    /**
+     * 单条INSERT语句包含的最大行数，兼顾语句长度(max_allowed_packet)与往返次数
+     */
+    public static final int INSERT_CHUNK_SIZE = 1000;
+
+    /**
+     * 单次存在性检查的最大键数量
+     */
+    public static final int EXISTS_CHUNK_SIZE = 1000;
+
+    private final FlowMonitoringDataMapper flowMonitoringDataMapper;
+    private final WaterLevelMonitoringDataMapper waterLevelMonitoringDataMapper;
+    private final WaterQualityMonitoringDataMapper waterQualityMonitoringDataMapper;
+    private final RainfallMonitoringDataMapper rainfallMonitoringDataMapper;
+    private final WaterConditionMonitoringDataMapper waterConditionMonitoringDataMapper;
+    private final MonitoringDataChangePublisher changePublisher;
+
+    /**
+     * 按导入模式分块批量写入监测数据
+     * 各模式下每条记录的影响行数：新插入为1；恢复的软删除记录和覆盖为2；跳过的未删除记录为0（连接开启useAffectedRows，
+     * 未修改的记录不计数）。跳过模式写入行数为影响行数与块行数的较小值，同一块中既有恢复的软删除记录又有跳过的记录时，
+     * 每条恢复的记录抵消一条跳过的记录；覆盖模式的重复行数为影响行数超出块行数的部分，同一秒内重复覆盖相同内容的记录计为新插入。
+     * 计数来自INSERT语句自身，并发写入同一键时不会多计或少计
+     *
+     * @param type 监测类型
+     * @param records 待写入记录，元素类型须与监测类型对应的实体一致，同一批内不应含有重复键
+     * @param mode 导入模式
+     * @return 写入结果
+     * @throws org.springframework.dao.DuplicateKeyException 报错模式下存在重复记录
+     */
+    public WriteResult write(MonitoringType type, List<? extends MonitoringRecord> records, MonitoringImportMode mode) {
+        if (records == null || records.isEmpty()) {
+            return new WriteResult(0, 0);
+        }
+        int written = 0;
+        int duplicates = 0;
+        for (int from = 0; from < records.size(); from += INSERT_CHUNK_SIZE) {
+            int to = Math.min(from + INSERT_CHUNK_SIZE, records.size());
+            int rows = to - from;
+            List<? extends MonitoringRecord> chunk = records.subList(from, to);
+            int affected = insertChunk(type, chunk, mode);
+            switch (mode) {
+                case SKIP:
+                    written += Math.min(affected, rows);
+                    duplicates += Math.max(rows - affected, 0);
+                    break;
+                case OVERWRITE:
+                    written += rows;
+                    duplicates += Math.min(Math.max(affected - rows, 0), rows);
+                    break;
+                default:
+                    written += affected;
+                    break;
+            }
+        }
+        log.debug("{}数据批量写入完成，模式: {}，写入: {}，重复: {}", type.getLabel(), mode.getLabel(), written, duplicates);
+        // 跳过模式不区分具体被跳过的记录，有写入时整批通知：预聚合按小时桶从数据库重算，不受影响
+        if (written > 0) {
+            changePublisher.publish(type, mode == MonitoringImportMode.OVERWRITE && duplicates > 0
+                    ? MonitoringChangeType.UPDATED : MonitoringChangeType.INSERTED, records);
+        }
+        return new WriteResult(written, duplicates);
+    }
+
+    /**
+     * 批量检查记录在数据库中是否已存在（按站点ID和监测时间判断，含已软删除数据，与唯一键一致）
+     *
+     * @param type 监测类型
+     * @param records 待检查记录，站点ID或监测时间为空的记录会被忽略
+     * @return 已存在的键集合
+     */
+    public Set<StationTimeKey> findExisting(MonitoringType type, Collection<? extends MonitoringRecord> records) {
+        Set<StationTimeKey> existing = new HashSet<>();
+        if (records == null || records.isEmpty()) {
+            return existing;
+        }
+
+        // 先在内存中去重，避免同一键重复出现在IN列表中
+        Set<StationTimeKey> keys = new LinkedHashSet<>();
+        for (MonitoringRecord record : records) {
+            if (record.getStationId() != null && record.getMonitoringTime() != null) {
+                keys.add(StationTimeKey.of(record));
+            }
+        }
+
+        List<StationTimeKey> keyList = new ArrayList<>(keys);
+        for (int from = 0; from < keyList.size(); from += EXISTS_CHUNK_SIZE) {
+            int to = Math.min(from + EXISTS_CHUNK_SIZE, keyList.size());
+            existing.addAll(selectExisting(type, keyList.subList(from, to)));
+        }
+        return existing;
+    }
+
+    /**
+     * 按监测类型调用对应Mapper的多行插入
+     */
+    @SuppressWarnings("unchecked")
+    private int insertChunk(MonitoringType type, List<? extends MonitoringRecord> records, MonitoringImportMode mode) {
+        List<?> rows = records;
+        switch (type) {
+            case FLOW:
+                return flowMonitoringDataMapper.insertBatch((List<FlowMonitoringData>) rows, mode);
+            case WATER_LEVEL:
+                return waterLevelMonitoringDataMapper.insertBatch((List<WaterLevelMonitoringData>) rows, mode);
+            case WATER_QUALITY:
+                return waterQualityMonitoringDataMapper.insertBatch((List<WaterQualityMonitoringData>) rows, mode);
+            case RAINFALL:
+                return rainfallMonitoringDataMapper.insertBatch((List<RainfallMonitoringData>) rows, mode);
+            case RESERVOIR:
+                return waterConditionMonitoringDataMapper.insertBatch((List<ReservoirMonitoringData>) rows, mode);
+            default:
+                throw new IllegalArgumentException("不支持的监测数据类型: " + type);
+        }
+    }
+
+    /**
+     * 按监测类型调用对应Mapper的存在性查询
+     */
+    private List<StationTimeKey> selectExisting(MonitoringType type, Collection<? extends MonitoringRecord> keys) {
+        switch (type) {
+            case FLOW:
+                return flowMonitoringDataMapper.selectExistingStationTimes(keys);
+            case WATER_LEVEL:
+                return waterLevelMonitoringDataMapper.selectExistingStationTimes(keys);
+            case WATER_QUALITY:
+                return waterQualityMonitoringDataMapper.selectExistingStationTimes(keys);
+            case RAINFALL:
+                return rainfallMonitoringDataMapper.selectExistingStationTimes(keys);
+            case RESERVOIR:
+                return waterConditionMonitoringDataMapper.selectExistingStationTimes(keys);
+            default:
+                throw new IllegalArgumentException("不支持的监测数据类型: " + type);
+        }
+    }
+
+    /**
+     * 批量写入结果
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class WriteResult {
+
+        /**
+         * 写入行数：跳过模式下为新插入与恢复软删除的行数之和，报错模式下为新插入的行数，覆盖模式下为新插入与覆盖的行数之和
+         */
+        private final int writtenRows;
+
+        /**
+         * 与已有记录重复的行数：跳过模式下为跳过的未删除记录行数，覆盖模式下为覆盖的行数
+         */
+        private final int duplicateRows;
+    }
+}
@@ -0,0 +1,327 @@
+package com.example.demo.service.monitoring;
+
+import com.example.demo.config.MonitoringChartProperties;
+import com.example.demo.constant.MonitoringChangeType;
+import com.example.demo.constant.MonitoringType;
+import com.example.demo.pojo.entity.monitoring.MonitoringRecord;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * 监测图表结果缓存
+ * 按监测类型、站点、指标、时间范围、时间间隔和点数缓存图表查询结果，控制室大屏反复刷新同一图表时不再重复统计：
+ * <ul>
+ *     <li>容量按结果的估算内存占用计算，超出上限时淘汰最久未访问的结果</li>
+ *     <li>站点写入数据提交后，只失效该站点（及全部站点汇总）中时间范围覆盖新数据监测时间的结果；
+ *     预聚合刷新或重建后同样按站点和时间范围失效，避免缓存预聚合刷新前的结果</li>
+ *     <li>统计期间发生失效的结果不写入缓存，避免并发写入时缓存旧数据</li>
+ * </ul>
+ */
+@Component
+@RequiredArgsConstructor
+public class MonitoringChartCache implements MonitoringDataListener {
+
+    /**
+     * 每条结果的固定内存估算（字节），包括缓存键、结果对象和索引
+     */
+    private static final long ENTRY_BYTES = 512L;
+
+    /**
+     * 每个数据点的内存估算（字节）：19位时间标签字符串、BigDecimal数值及两个列表引用
+     */
+    private static final long POINT_BYTES = 136L;
+
+    private final MonitoringChartProperties chartProperties;
+
+    /**
+     * 缓存结果，按访问顺序排列，最久未访问的在前；与索引和容量统计一起由当前对象加锁保护
+     */
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+
+    /**
+     * 按监测类型和站点索引缓存键，全部站点汇总的结果以站点ID为null索引
+     */
+    private final Map<Scope, Set<Key>> index = new HashMap<>();
+
+    /**
+     * 各监测类型和站点最近一次失效的序号，站点ID为null时记录该类型任一站点最近一次失效的序号
+     */
+    private final Map<Scope, Long> invalidatedAt = new HashMap<>();
+
+    /**
+     * 各监测类型最近一次整体失效的序号
+     */
+    private final Map<MonitoringType, Long> typeInvalidatedAt = new EnumMap<>(MonitoringType.class);
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private long weightBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong evictions = new AtomicLong();
+
+    private final AtomicLong expirations = new AtomicLong();
+
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final AtomicLong rejectedPuts = new AtomicLong();
+
+    /**
+     * 查询缓存的图表结果，未命中时统计并写入缓存
+     *
+     * @param key 缓存键
+     * @param loader 统计图表结果
+     * @param pointCounter 结果的数据点数量，用于估算内存占用
+     * @return 图表结果
+     */
+    public <T> T get(Key key, Supplier<T> loader, ToIntFunction<T> pointCounter) {
+        if (!Boolean.TRUE.equals(chartProperties.getCacheEnabled())) {
+            return loader.get();
+        }
+        long now = System.nanoTime();
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (now - entry.createdAt <= TimeUnit.SECONDS.toNanos(chartProperties.getCacheTtlSeconds())) {
+                    hits.incrementAndGet();
+                    @SuppressWarnings("unchecked")
+                    T value = (T) entry.value;
+                    return value;
+                }
+                remove(key);
+                expirations.incrementAndGet();
+            }
+        }
+        misses.incrementAndGet();
+
+        long stamp = sequence.get();
+        T value = loader.get();
+        if (value != null) {
+            put(key, value, ENTRY_BYTES + POINT_BYTES * pointCounter.applyAsInt(value), stamp, now);
+        }
+        return value;
+    }
+
+    @Override
+    public void onDataChanged(MonitoringType type, MonitoringChangeType changeType, List<? extends MonitoringRecord> records) {
+        // 每个站点只按本批数据的最早和最晚监测时间失效一次
+        Map<Long, LocalDateTime[]> ranges = new HashMap<>();
+        for (MonitoringRecord record : records) {
+            if (record.getStationId() == null || record.getMonitoringTime() == null) {
+                continue;
+            }
+            LocalDateTime time = record.getMonitoringTime();
+            LocalDateTime[] range = ranges.computeIfAbsent(record.getStationId(), k -> new LocalDateTime[]{time, time});
+            if (time.isBefore(range[0])) {
+                range[0] = time;
+            } else if (time.isAfter(range[1])) {
+                range[1] = time;
+            }
+        }
+        for (Map.Entry<Long, LocalDateTime[]> entry : ranges.entrySet()) {
+            invalidate(type, entry.getKey(), entry.getValue()[0], entry.getValue()[1]);
+        }
+    }
+
+    /**
+     * 失效时间范围与指定时间段重叠的缓存结果
+     *
+     * @param type 监测类型
+     * @param stationId 站点ID，为空时失效该类型全部站点的结果
+     * @param from 开始时间（含），为空时不限
+     * @param to 结束时间（含），为空时不限
+     */
+    public synchronized void invalidate(MonitoringType type, Long stationId, LocalDateTime from, LocalDateTime to) {
+        long seq = sequence.incrementAndGet();
+        invalidatedAt.put(new Scope(type, null), seq);
+        if (stationId == null) {
+            typeInvalidatedAt.put(type, seq);
+        } else {
+            invalidatedAt.put(new Scope(type, stationId), seq);
+        }
+
+        Set<Key> candidates = new HashSet<>();
+        if (stationId == null) {
+            for (Map.Entry<Scope, Set<Key>> entry : index.entrySet()) {
+                if (entry.getKey().getType() == type) {
+                    candidates.addAll(entry.getValue());
+                }
+            }
+        } else {
+            candidates.addAll(index.getOrDefault(new Scope(type, stationId), Collections.emptySet()));
+            candidates.addAll(index.getOrDefault(new Scope(type, null), Collections.emptySet()));
+        }
+        for (Key key : candidates) {
+            if (key.overlaps(from, to)) {
+                remove(key);
+                invalidations.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * 清空缓存
+     */
+    public synchronized void clear() {
+        long seq = sequence.incrementAndGet();
+        for (MonitoringType type : MonitoringType.values()) {
+            invalidatedAt.put(new Scope(type, null), seq);
+            typeInvalidatedAt.put(type, seq);
+        }
+        invalidations.addAndGet(entries.size());
+        entries.clear();
+        index.clear();
+        weightBytes = 0;
+    }
+
+    /**
+     * 获取缓存运行状态
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", Boolean.TRUE.equals(chartProperties.getCacheEnabled()));
+        synchronized (this) {
+            stats.put("entries", entries.size());
+            stats.put("weightBytes", weightBytes);
+        }
+        stats.put("maxBytes", maxBytes());
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount));
+        stats.put("evictions", evictions.get());
+        stats.put("expirations", expirations.get());
+        stats.put("invalidations", invalidations.get());
+        stats.put("rejectedPuts", rejectedPuts.get());
+        return stats;
+    }
+
+    private synchronized void put(Key key, Object value, long weight, long stamp, long createdAt) {
+        // 统计期间站点数据已变更，结果可能不包含新数据
+        if (invalidatedAt.getOrDefault(new Scope(key.getType(), key.getStationId()), 0L) > stamp
+                || typeInvalidatedAt.getOrDefault(key.getType(), 0L) > stamp) {
+            rejectedPuts.incrementAndGet();
+            return;
+        }
+        long max = maxBytes();
+        if (weight > max) {
+            return;
+        }
+        remove(key);
+        entries.put(key, new Entry(value, weight, createdAt));
+        index.computeIfAbsent(new Scope(key.getType(), key.getStationId()), k -> new HashSet<>()).add(key);
+        weightBytes += weight;
+
+        Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+        while (weightBytes > max && iterator.hasNext()) {
+            Map.Entry<Key, Entry> eldest = iterator.next();
+            iterator.remove();
+            unindex(eldest.getKey());
+            weightBytes -= eldest.getValue().weight;
+            evictions.incrementAndGet();
+        }
+    }
+
+    private void remove(Key key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            unindex(key);
+            weightBytes -= entry.weight;
+        }
+    }
+
+    private void unindex(Key key) {
+        Scope scope = new Scope(key.getType(), key.getStationId());
+        Set<Key> keys = index.get(scope);
+        if (keys != null) {
+            keys.remove(key);
+            if (keys.isEmpty()) {
+                index.remove(scope);
+            }
+        }
+    }
+
+    private long maxBytes() {
+        return chartProperties.getCacheMaxSizeMb() * 1024L * 1024L;
+    }
+
+    /**
+     * 缓存键
+     */
+    @Value
+    public static class Key {
+
+        /**
+         * 监测类型
+         */
+        MonitoringType type;
+
+        /**
+         * 站点ID，为空表示全部站点汇总
+         */
+        Long stationId;
+
+        /**
+         * 指标或数据类型，如监测项目代码、cumulativeFlow
+         */
+        String item;
+
+        /**
+         * 开始时间（含），为空时不限
+         */
+        LocalDateTime startTime;
+
+        /**
+         * 结束时间（含），为空时不限
+         */
+        LocalDateTime endTime;
+
+        /**
+         * 规范化后的时间间隔代码
+         */
+        String interval;
+
+        /**
+         * 最大返回点数
+         */
+        int maxPoints;
+
+        boolean overlaps(LocalDateTime from, LocalDateTime to) {
+            return (startTime == null || to == null || !startTime.isAfter(to))
+                    && (endTime == null || from == null || !endTime.isBefore(from));
+        }
+    }
+
+    @Value
+    private static class Scope {
+        MonitoringType type;
+        Long stationId;
+    }
+
+    @RequiredArgsConstructor
+    private static class Entry {
+        private final Object value;
+        private final long weight;
+        private final long createdAt;
+    }
+}
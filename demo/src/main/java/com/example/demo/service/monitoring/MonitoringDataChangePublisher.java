@@ -0,0 +1,61 @@
+package com.example.demo.service.monitoring;
+
+import com.example.demo.constant.MonitoringChangeType;
+import com.example.demo.constant.MonitoringType;
+import com.example.demo.pojo.entity.monitoring.MonitoringRecord;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 监测数据变更通知发布组件
+ * 处于事务中时延迟到事务提交后通知，回滚则不通知；监听器异常只记录日志，不影响数据写入
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MonitoringDataChangePublisher {
+
+    private final ObjectProvider<MonitoringDataListener> listeners;
+
+    /**
+     * 发布监测数据变更
+     *
+     * @param type 监测类型
+     * @param changeType 变更类型
+     * @param records 变更的记录
+     */
+    public void publish(MonitoringType type, MonitoringChangeType changeType, List<? extends MonitoringRecord> records) {
+        if (records == null || records.isEmpty()) {
+            return;
+        }
+        // 调用方可能复用或清空列表，通知前先复制
+        List<MonitoringRecord> snapshot = new ArrayList<>(records);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(type, changeType, snapshot);
+                }
+            });
+        } else {
+            dispatch(type, changeType, snapshot);
+        }
+    }
+
+    private void dispatch(MonitoringType type, MonitoringChangeType changeType, List<MonitoringRecord> records) {
+        listeners.orderedStream().forEach(listener -> {
+            try {
+                listener.onDataChanged(type, changeType, records);
+            } catch (Exception e) {
+                log.error("监测数据变更通知处理失败，监听器: {}，类型: {}", listener.getClass().getSimpleName(), type.getLabel(), e);
+            }
+        });
+    }
+}
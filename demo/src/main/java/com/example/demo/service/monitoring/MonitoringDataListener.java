@@ -0,0 +1,23 @@
+package com.example.demo.service.monitoring;
+
+import com.example.demo.constant.MonitoringChangeType;
+import com.example.demo.constant.MonitoringType;
+import com.example.demo.pojo.entity.monitoring.MonitoringRecord;
+
+import java.util.List;
+
+/**
+ * 监测数据变更监听器
+ * 实现类注册为Spring Bean即可接收通知；通知在写入事务提交后发出，无事务时在写入后立即发出
+ */
+public interface MonitoringDataListener {
+
+    /**
+     * 监测数据发生变更
+     *
+     * @param type 监测类型
+     * @param changeType 变更类型
+     * @param records 变更的记录，删除时可能只包含站点ID和监测时间
+     */
+    void onDataChanged(MonitoringType type, MonitoringChangeType changeType, List<? extends MonitoringRecord> records);
+}
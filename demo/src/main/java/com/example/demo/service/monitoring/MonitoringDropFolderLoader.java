@@ -0,0 +1,266 @@
+package com.example.demo.service.monitoring;
+
+import com.example.demo.config.MonitoringDropFolderProperties;
+import com.example.demo.constant.MonitoringImportMode;
+import com.example.demo.constant.MonitoringType;
+import com.example.demo.pojo.DTO.monitoring.ImportResultDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 监测数据投递目录导入
+ * 上游系统定时将CSV文件投递到共享目录，本组件通过WatchService监听配置的目录，文件大小和修改时间
+ * 稳定一段时间后视为写入完成，通过内存映射读取并按目录对应的监测类型分块导入（每块独立提交）；
+ * 处理后的文件移入done（有数据导入成功）或failed（读取失败或全部行失败）子目录，
+ * 同时写入导入摘要（.summary.json），存在错误行时一并复制错误报告（.errors.csv）
+ * 启动时先处理目录中已有的文件；所有文件由同一后台线程依次导入
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MonitoringDropFolderLoader {
+
+    private static final String DONE_DIR = "done";
+
+    private static final String FAILED_DIR = "failed";
+
+    private static final DateTimeFormatter PREFIX_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final MonitoringDropFolderProperties dropFolderProperties;
+    private final MonitoringFileImportService monitoringFileImportService;
+    private final ImportErrorReportStore importErrorReportStore;
+    private final ObjectMapper objectMapper;
+
+    private final Map<WatchKey, DropFolder> folders = new HashMap<>();
+
+    /**
+     * 等待写入完成的文件，仅由监听线程访问
+     */
+    private final Map<Path, PendingFile> pending = new LinkedHashMap<>();
+
+    private WatchService watchService;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!Boolean.TRUE.equals(dropFolderProperties.getEnabled()) || dropFolderProperties.getDirectories().isEmpty()) {
+            return;
+        }
+        watchService = FileSystems.getDefault().newWatchService();
+        for (MonitoringDropFolderProperties.Directory directory : dropFolderProperties.getDirectories()) {
+            DropFolder folder = new DropFolder(directory);
+            Files.createDirectories(folder.dir.resolve(DONE_DIR));
+            Files.createDirectories(folder.dir.resolve(FAILED_DIR));
+            WatchKey key = folder.dir.register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            folders.put(key, folder);
+            scan(folder);
+            log.info("监听{}监测数据投递目录: {}", folder.type.getLabel(), folder.dir);
+        }
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "monitoring-drop-folder");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.execute(this::watch);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdownNow();
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            log.warn("关闭投递目录监听失败", e);
+        }
+    }
+
+    private void watch() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = watchService.poll(dropFolderProperties.getPollIntervalMillis(), TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    DropFolder folder = folders.get(key);
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            scan(folder);
+                        } else {
+                            offer(folder, folder.dir.resolve((Path) event.context()));
+                        }
+                    }
+                    key.reset();
+                }
+                processSettled();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.error("投递目录监听异常终止", e);
+        }
+    }
+
+    /**
+     * 将目录中已有的CSV文件加入待处理列表
+     */
+    private void scan(DropFolder folder) {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(folder.dir)) {
+            for (Path file : files) {
+                offer(folder, file);
+            }
+        } catch (IOException e) {
+            log.warn("扫描投递目录失败: {}", folder.dir, e);
+        }
+    }
+
+    private void offer(DropFolder folder, Path file) {
+        String name = file.getFileName().toString();
+        if (name.startsWith(".") || !name.toLowerCase(Locale.ROOT).endsWith(".csv") || !Files.isRegularFile(file)) {
+            return;
+        }
+        pending.computeIfAbsent(file, key -> new PendingFile(folder));
+    }
+
+    /**
+     * 导入大小和修改时间已稳定的文件
+     */
+    private void processSettled() {
+        long now = System.currentTimeMillis();
+        Iterator<Map.Entry<Path, PendingFile>> iterator = pending.entrySet().iterator();
+        while (iterator.hasNext() && !Thread.currentThread().isInterrupted()) {
+            Map.Entry<Path, PendingFile> entry = iterator.next();
+            Path file = entry.getKey();
+            PendingFile state = entry.getValue();
+            long size;
+            long modified;
+            try {
+                size = Files.size(file);
+                modified = Files.getLastModifiedTime(file).toMillis();
+            } catch (IOException e) {
+                // 文件已被移走
+                iterator.remove();
+                continue;
+            }
+            if (size != state.size || modified != state.modified) {
+                state.size = size;
+                state.modified = modified;
+                state.observedAt = now;
+            } else if (now - state.observedAt >= dropFolderProperties.getSettleMillis()) {
+                iterator.remove();
+                load(state.folder, file);
+            }
+        }
+    }
+
+    /**
+     * 导入一个文件并移入done/failed子目录，写入导入摘要
+     */
+    private void load(DropFolder folder, Path file) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("fileName", file.getFileName().toString());
+        summary.put("type", folder.type.getPath());
+        summary.put("mode", folder.mode.getCode());
+        summary.put("startedAt", LocalDateTime.now().format(TIME_FORMATTER));
+
+        String targetDir;
+        ImportResultDTO result = null;
+        try {
+            result = monitoringFileImportService.importLocalCsv(folder.type, file, folder.stationId, folder.mode);
+            boolean failed = result.getSuccessRows() == 0 && result.getErrorRows() > 0;
+            targetDir = failed ? FAILED_DIR : DONE_DIR;
+            summary.put("status", targetDir);
+            summary.put("message", failed ? "数据导入失败，请检查数据格式"
+                    : String.format("数据导入完成，成功: %d条，失败: %d条", result.getSuccessRows(), result.getErrorRows()));
+        } catch (Exception e) {
+            log.error("{}监测数据投递文件导入失败: {}", folder.type.getLabel(), file, e);
+            targetDir = FAILED_DIR;
+            summary.put("status", targetDir);
+            summary.put("message", "导入失败: " + e.getMessage());
+        }
+        summary.put("finishedAt", LocalDateTime.now().format(TIME_FORMATTER));
+        summary.put("result", result);
+
+        try {
+            String movedName = LocalDateTime.now().format(PREFIX_FORMATTER) + "_" + file.getFileName();
+            Path target = folder.dir.resolve(targetDir).resolve(movedName);
+            Files.move(file, target);
+            if (result != null && result.getErrorReportId() != null) {
+                Path report = importErrorReportStore.get(result.getErrorReportId()).getFile();
+                Files.copy(report, target.resolveSibling(movedName + ".errors.csv"));
+            }
+            objectMapper.writerWithDefaultPrettyPrinter()
+                    .writeValue(target.resolveSibling(movedName + ".summary.json").toFile(), summary);
+            log.info("{}监测数据投递文件处理完成: {} -> {}", folder.type.getLabel(), file, target);
+        } catch (IOException | RuntimeException e) {
+            log.error("移动投递文件或写入导入摘要失败: {}", file, e);
+        }
+    }
+
+    /**
+     * 监听目录及其导入参数
+     */
+    private class DropFolder {
+
+        private final Path dir;
+        private final MonitoringType type;
+        private final Long stationId;
+        private final MonitoringImportMode mode;
+
+        /**
+         * @throws IllegalArgumentException 目录未配置、监测类型不支持文件导入或缺少站点ID
+         */
+        private DropFolder(MonitoringDropFolderProperties.Directory directory) {
+            if (directory.getPath() == null || directory.getPath().trim().isEmpty()) {
+                throw new IllegalArgumentException("投递目录路径不能为空");
+            }
+            this.dir = Paths.get(directory.getPath()).toAbsolutePath().normalize();
+            this.type = MonitoringType.fromPath(directory.getType());
+            this.stationId = directory.getStationId();
+            this.mode = MonitoringImportMode.fromCode(directory.getMode());
+            monitoringFileImportService.checkImportable(type, stationId);
+        }
+    }
+
+    /**
+     * 待处理文件最近一次观察到的大小和修改时间
+     */
+    @RequiredArgsConstructor
+    private static class PendingFile {
+
+        private final DropFolder folder;
+        private long size = -1;
+        private long modified = -1;
+        private long observedAt;
+    }
+}
@@ -0,0 +1,470 @@
+package com.example.demo.service.monitoring;
+
+import com.example.demo.constant.ImportErrorCategory;
+import com.example.demo.constant.MonitoringImportMode;
+import com.example.demo.constant.MonitoringType;
+import com.example.demo.pojo.DTO.monitoring.FlowDataImportDTO;
+import com.example.demo.pojo.DTO.monitoring.ImportResultDTO;
+import com.example.demo.pojo.DTO.monitoring.RainfallDataImportDTO;
+import com.example.demo.pojo.DTO.monitoring.WaterLevelDataImportDTO;
+import com.example.demo.pojo.DTO.monitoring.WaterQualityDataImportDTO;
+import com.example.demo.service.FlowMonitoringDataService;
+import com.example.demo.service.RainfallMonitoringDataService;
+import com.example.demo.service.WaterLevelMonitoringDataService;
+import com.example.demo.service.WaterQualityMonitoringDataService;
+import com.example.demo.utils.MappedCsvRowReader;
+import com.example.demo.utils.TabularRowReader;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+/**
+ * 监测数据文件导入服务
+ * 服务端逐行解析上传的CSV/XLSX文件，每凑满一块即交给各监测数据服务已有的导入逻辑处理，
+ * 错误逐条写入错误报告文件，内存占用只与块大小相关，与文件大小和错误行数无关
+ * 大文件可通过MonitoringImportJobService作为异步任务执行，每块提交后更新任务进度；
+ * 上游系统投递到监听目录的CSV文件由MonitoringDropFolderLoader通过内存映射读取后导入
+ * 列布局与前端Excel导入模板一致：
+ * <ul>
+ *     <li>流量：序号、监测时间、站码、瞬时流量、累计流量</li>
+ *     <li>水位：序号、监测时间、监测点、站码、水位</li>
+ *     <li>水质：序号、监测时间、监测点、站码、水温、浊度、PH值、电导率、溶解氧、氨氮、化学需氧量、余氯</li>
+ *     <li>雨情：序号、监测时间、站码、降雨量、降雨强度、累计降雨量</li>
+ * </ul>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MonitoringFileImportService {
+
+    /**
+     * 每块交给导入逻辑处理的行数，每块在独立事务中提交
+     */
+    public static final int CHUNK_SIZE = 5000;
+
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    /**
+     * Excel日期序列号的起点（1900日期系统，已计入1900年2月29日的历史偏差）
+     */
+    private static final LocalDateTime EXCEL_EPOCH = LocalDateTime.of(1899, 12, 30, 0, 0);
+
+    private static final Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+
+    private final FlowMonitoringDataService flowMonitoringDataService;
+    private final WaterLevelMonitoringDataService waterLevelMonitoringDataService;
+    private final WaterQualityMonitoringDataService waterQualityMonitoringDataService;
+    private final RainfallMonitoringDataService rainfallMonitoringDataService;
+    private final ImportErrorReportStore importErrorReportStore;
+
+    /**
+     * 导入流量监测数据文件
+     */
+    public ImportResultDTO importFlowFile(MultipartFile file, MonitoringImportMode mode) {
+        return importFile(file, spec(MonitoringType.FLOW, null, mode));
+    }
+
+    /**
+     * 导入水位监测数据文件
+     */
+    public ImportResultDTO importWaterLevelFile(MultipartFile file, MonitoringImportMode mode) {
+        return importFile(file, spec(MonitoringType.WATER_LEVEL, null, mode));
+    }
+
+    /**
+     * 导入水质监测数据文件
+     */
+    public ImportResultDTO importWaterQualityFile(MultipartFile file, MonitoringImportMode mode) {
+        return importFile(file, spec(MonitoringType.WATER_QUALITY, null, mode));
+    }
+
+    /**
+     * 导入雨情监测数据文件
+     *
+     * @param file 上传文件
+     * @param stationId 监测站点ID
+     * @param mode 导入模式
+     */
+    public ImportResultDTO importRainfallFile(MultipartFile file, Long stationId, MonitoringImportMode mode) {
+        return importFile(file, spec(MonitoringType.RAINFALL, stationId, mode));
+    }
+
+    /**
+     * 执行异步导入任务，每块提交后更新任务进度，任务请求取消时在当前块提交后停止
+     *
+     * @param job 导入任务
+     * @return 汇总后的导入结果（取消时为取消前的结果）
+     */
+    public ImportResultDTO importJob(MonitoringImportJob job) {
+        ImportSpec<?> spec = spec(job.getType(), job.getStationId(), job.getMode());
+        log.info("开始执行{}监测数据导入任务: {}，文件: {}", spec.label, job.getId(), job.getFileName());
+        try (TabularRowReader reader = TabularRowReader.open(job.getFile(), job.getFileName())) {
+            return importRows(reader, spec, job);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("文件读取失败: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 导入本地CSV文件，文件通过内存映射读取，用于目录监听导入
+     *
+     * @param type 监测类型
+     * @param file 本地CSV文件
+     * @param stationId 监测站点ID，仅雨情导入需要
+     * @param mode 导入模式
+     * @return 汇总后的导入结果
+     * @throws IllegalArgumentException 文件读取失败、格式错误或类型不支持
+     */
+    public ImportResultDTO importLocalCsv(MonitoringType type, Path file, Long stationId, MonitoringImportMode mode) {
+        ImportSpec<?> spec = spec(type, stationId, mode);
+        log.info("开始导入{}监测数据本地文件: {}", spec.label, file);
+        try (TabularRowReader reader = new MappedCsvRowReader(file)) {
+            return importRows(reader, spec, null);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("文件读取失败: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 校验监测类型是否支持文件导入
+     *
+     * @throws IllegalArgumentException 不支持的类型或缺少参数
+     */
+    public void checkImportable(MonitoringType type, Long stationId) {
+        spec(type, stationId, MonitoringImportMode.SKIP);
+    }
+
+    /**
+     * 各监测类型的文件列布局和分块导入逻辑
+     */
+    private ImportSpec<?> spec(MonitoringType type, Long stationId, MonitoringImportMode mode) {
+        switch (type) {
+            case FLOW:
+                return new ImportSpec<FlowDataImportDTO>(MonitoringType.FLOW, 5, 2, "流量", (cells, rowNumber) -> {
+                    FlowDataImportDTO dto = new FlowDataImportDTO();
+                    dto.setRowNumber(rowNumber);
+                    dto.setMonitoringTime(normalizeTime(cell(cells, 1)));
+                    dto.setStationCode(trim(cell(cells, 2)));
+                    dto.setStationName(dto.getStationCode());
+                    dto.setInstantFlow(decimal(cells, 3, "瞬时流量"));
+                    dto.setCumulativeFlow(decimal(cells, 4, "累计流量"));
+                    return dto;
+                }, (chunk, errorReport) -> flowMonitoringDataService.importFlowData(chunk, mode, errorReport));
+            case WATER_LEVEL:
+                return new ImportSpec<WaterLevelDataImportDTO>(MonitoringType.WATER_LEVEL, 5, 3, "水位", (cells, rowNumber) -> {
+                    WaterLevelDataImportDTO dto = new WaterLevelDataImportDTO();
+                    dto.setRowNumber(rowNumber);
+                    dto.setMonitoringTime(normalizeTime(cell(cells, 1)));
+                    dto.setStationCode(trim(cell(cells, 3)));
+                    String stationName = trim(cell(cells, 2));
+                    dto.setStationName(stationName != null ? stationName : dto.getStationCode());
+                    dto.setWaterLevel(decimal(cells, 4, "水位"));
+                    dto.setDataSource("EXCEL_IMPORT");
+                    dto.setRemark("Excel批量导入");
+                    return dto;
+                }, (chunk, errorReport) -> waterLevelMonitoringDataService.importWaterLevelData(chunk, mode, errorReport));
+            case WATER_QUALITY:
+                return new ImportSpec<WaterQualityDataImportDTO>(MonitoringType.WATER_QUALITY, 12, 3, "水质", (cells, rowNumber) -> {
+                    WaterQualityDataImportDTO dto = new WaterQualityDataImportDTO();
+                    dto.setRowNumber(rowNumber);
+                    dto.setMonitoringTime(normalizeTime(cell(cells, 1)));
+                    dto.setStationName(trim(cell(cells, 2)));
+                    dto.setStationCode(trim(cell(cells, 3)));
+                    dto.setWaterTemperature(decimal(cells, 4, "水温"));
+                    dto.setTurbidity(decimal(cells, 5, "浊度"));
+                    dto.setPhValue(decimal(cells, 6, "PH值"));
+                    dto.setConductivity(decimal(cells, 7, "电导率"));
+                    dto.setDissolvedOxygen(decimal(cells, 8, "溶解氧"));
+                    dto.setAmmoniaNitrogen(decimal(cells, 9, "氨氮"));
+                    dto.setCodValue(decimal(cells, 10, "化学需氧量"));
+                    dto.setResidualChlorine(decimal(cells, 11, "余氯"));
+                    dto.setCollectionMethod("MANUAL");
+                    dto.setDataSource("EXCEL_IMPORT");
+                    dto.setRemark("Excel批量导入");
+                    return dto;
+                }, (chunk, errorReport) -> waterQualityMonitoringDataService.importWaterQualityData(chunk, mode, errorReport));
+            case RAINFALL:
+                if (stationId == null) {
+                    throw new IllegalArgumentException("雨情数据导入需要指定监测站点");
+                }
+                return new ImportSpec<RainfallDataImportDTO>(MonitoringType.RAINFALL, 6, 2, "雨情", (cells, rowNumber) -> {
+                    RainfallDataImportDTO dto = new RainfallDataImportDTO();
+                    dto.setRowNumber(rowNumber);
+                    dto.setMonitoringTime(normalizeTime(cell(cells, 1)));
+                    dto.setStationCode(trim(cell(cells, 2)));
+                    dto.setRainfall(decimal(cells, 3, "降雨量"));
+                    dto.setRainfallIntensity(decimal(cells, 4, "降雨强度"));
+                    dto.setCumulativeRainfall(decimal(cells, 5, "累计降雨量"));
+                    return dto;
+                }, (chunk, errorReport) -> toImportResult(chunk.size(),
+                        rainfallMonitoringDataService.importRainfallData(chunk, stationId, mode, errorReport)));
+            default:
+                throw new IllegalArgumentException("不支持文件导入的监测数据类型: " + type.getLabel());
+        }
+    }
+
+    /**
+     * 读取上传文件并分块导入
+     *
+     * @param file 上传文件
+     * @param spec 列布局和分块导入逻辑
+     * @return 汇总后的导入结果
+     */
+    private ImportResultDTO importFile(MultipartFile file, ImportSpec<?> spec) {
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("导入文件不能为空");
+        }
+        log.info("开始导入{}监测数据文件: {}，大小: {} 字节", spec.label, file.getOriginalFilename(), file.getSize());
+
+        try (TabularRowReader reader = TabularRowReader.open(file)) {
+            return importRows(reader, spec, null);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("文件读取失败: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 逐行读取并分块导入，每块在独立事务中提交；全部错误写入本次导入的错误报告
+     *
+     * @param reader 行读取器
+     * @param spec 列布局和分块导入逻辑
+     * @param job 异步导入任务，同步导入时为null
+     * @return 汇总后的导入结果
+     */
+    private <T> ImportResultDTO importRows(TabularRowReader reader, ImportSpec<T> spec, MonitoringImportJob job)
+            throws IOException {
+        ImportErrorReport errorReport = importErrorReportStore.create(spec.type);
+        try {
+            return importRows(reader, spec, job, new ImportSummary(errorReport));
+        } catch (IOException | RuntimeException e) {
+            importErrorReportStore.discard(errorReport);
+            throw e;
+        }
+    }
+
+    private <T> ImportResultDTO importRows(TabularRowReader reader, ImportSpec<T> spec, MonitoringImportJob job,
+                                           ImportSummary summary) throws IOException {
+        String[] header = reader.next();
+        if (header == null) {
+            throw new IllegalArgumentException("导入文件中没有数据");
+        }
+        if (header.length < spec.expectedColumns) {
+            throw new IllegalArgumentException("文件列数不正确，应该包含" + spec.expectedColumns + "列");
+        }
+
+        List<T> chunk = new ArrayList<>(CHUNK_SIZE);
+        String[] cells;
+        while ((cells = reader.next()) != null) {
+            if (isBlank(cells)) {
+                continue;
+            }
+            int rowNumber = reader.getRowNumber();
+            summary.totalRows++;
+            try {
+                T dto = spec.rowMapper.map(cells, rowNumber);
+                String violation = validate(dto);
+                if (violation != null) {
+                    summary.addError(rowNumber, cell(cells, spec.stationCodeColumn), violation);
+                    continue;
+                }
+                chunk.add(dto);
+            } catch (IllegalArgumentException e) {
+                summary.addError(rowNumber, cell(cells, spec.stationCodeColumn), e.getMessage());
+                continue;
+            }
+            if (chunk.size() >= CHUNK_SIZE) {
+                summary.merge(spec.chunkImporter.apply(chunk, summary.errorReport));
+                chunk = new ArrayList<>(CHUNK_SIZE);
+                log.info("{}监测数据文件导入进度: 已处理{}行", spec.label, summary.totalRows);
+                if (job != null) {
+                    job.updateProgress(summary.totalRows, summary.successRows, summary.errorReport.getErrorRows(),
+                            reader.getProgress());
+                    if (job.isCancelRequested()) {
+                        log.info("{}监测数据导入任务已取消: {}，已处理{}行", spec.label, job.getId(), summary.totalRows);
+                        return importErrorReportStore.finish(summary.errorReport, summary.toResult());
+                    }
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            summary.merge(spec.chunkImporter.apply(chunk, summary.errorReport));
+        }
+
+        if (summary.totalRows == 0) {
+            throw new IllegalArgumentException("导入文件中没有数据");
+        }
+        ImportResultDTO result = importErrorReportStore.finish(summary.errorReport, summary.toResult());
+        log.info("{}监测数据文件导入完成，总数: {}, 成功: {}, 失败: {}，错误报告: {}",
+                spec.label, result.getTotalRows(), result.getSuccessRows(), result.getErrorRows(),
+                result.getErrorReportId());
+        return result;
+    }
+
+    /**
+     * 按DTO上的校验注解校验，返回合并后的错误信息，通过返回null
+     */
+    private static String validate(Object dto) {
+        Set<ConstraintViolation<Object>> violations = VALIDATOR.validate(dto);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining("; "));
+    }
+
+    /**
+     * 将雨情导入返回的统计Map转换为统一的导入结果，错误已写入错误报告
+     */
+    private static ImportResultDTO toImportResult(int totalRows, Map<String, Object> result) {
+        return ImportResultDTO.builder()
+                .totalRows(totalRows)
+                .successRows((Integer) result.get("successCount"))
+                .errorRows((Integer) result.get("failCount"))
+                .duplicateRows((Integer) result.get("duplicateCount"))
+                .build();
+    }
+
+    private static String cell(String[] cells, int index) {
+        return index < cells.length ? cells[index] : null;
+    }
+
+    private static String trim(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    private static boolean isBlank(String[] cells) {
+        for (String value : cells) {
+            if (value != null && !value.trim().isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 解析数值列，空单元格返回null
+     *
+     * @throws IllegalArgumentException 数值格式错误
+     */
+    private static BigDecimal decimal(String[] cells, int index, String name) {
+        String value = trim(cell(cells, index));
+        if (value == null) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + "格式错误: " + value);
+        }
+    }
+
+    /**
+     * 规范化监测时间：XLSX中以日期格式存储的单元格读出为Excel日期序列号，转换为yyyy-MM-dd HH:mm:ss
+     */
+    private static String normalizeTime(String value) {
+        String trimmed = trim(value);
+        if (trimmed == null || !Character.isDigit(trimmed.charAt(0)) || trimmed.indexOf('-') >= 0) {
+            return trimmed;
+        }
+        try {
+            double serial = Double.parseDouble(trimmed);
+            long seconds = Math.round(serial * 86400);
+            return EXCEL_EPOCH.plusSeconds(seconds).format(TIME_FORMATTER);
+        } catch (NumberFormatException e) {
+            return trimmed;
+        }
+    }
+
+    /**
+     * 行转换器
+     */
+    @FunctionalInterface
+    private interface RowMapper<T> {
+
+        /**
+         * 将一行单元格转换为导入DTO
+         *
+         * @throws IllegalArgumentException 单元格格式错误
+         */
+        T map(String[] cells, int rowNumber);
+    }
+
+    /**
+     * 文件导入规格
+     */
+    @RequiredArgsConstructor
+    private static class ImportSpec<T> {
+
+        private final MonitoringType type;
+
+        /**
+         * 最少列数
+         */
+        private final int expectedColumns;
+
+        /**
+         * 站码所在列，用于错误信息
+         */
+        private final int stationCodeColumn;
+
+        /**
+         * 数据类型名称，用于日志
+         */
+        private final String label;
+
+        private final RowMapper<T> rowMapper;
+
+        /**
+         * 分块导入逻辑，块内错误写入传入的错误报告
+         */
+        private final BiFunction<List<T>, ImportErrorReport, ImportResultDTO> chunkImporter;
+    }
+
+    /**
+     * 分块导入结果汇总，错误行数和错误明细由错误报告统计
+     */
+    @RequiredArgsConstructor
+    private static class ImportSummary {
+
+        private final ImportErrorReport errorReport;
+        private int totalRows;
+        private int successRows;
+        private int duplicateRows;
+
+        private void addError(int rowNumber, String stationCode, String message) {
+            errorReport.add(rowNumber, stationCode, ImportErrorCategory.INVALID_VALUE, message);
+        }
+
+        private void merge(ImportResultDTO chunkResult) {
+            successRows += chunkResult.getSuccessRows() == null ? 0 : chunkResult.getSuccessRows();
+            duplicateRows += chunkResult.getDuplicateRows() == null ? 0 : chunkResult.getDuplicateRows();
+        }
+
+        private ImportResultDTO toResult() {
+            return ImportResultDTO.builder()
+                    .totalRows(totalRows)
+                    .successRows(successRows)
+                    .duplicateRows(duplicateRows)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.example.demo.service.monitoring;
+
+import com.example.demo.config.MonitoringImportProperties;
+import com.example.demo.constant.MonitoringType;
+import com.example.demo.mapper.MonitoringImportBatchMapper;
+import com.example.demo.pojo.DTO.monitoring.ImportResultDTO;
+import com.example.demo.pojo.entity.monitoring.MonitoringImportBatch;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 监测数据导入批次台账
+ * 客户端（如现场网关）为每次上传指定批次ID，网络异常重试时重复提交同一批次：
+ * <ul>
+ *     <li>台账按批次ID（主键）只记录结果统计，不记录数据行；重复提交时先查内存缓存、未命中再按主键查询一次，
+ *     直接返回台账中的结果，不再解析校验任何数据行</li>
+ *     <li>单事务导入时台账记录与数据在同一事务中提交；并发提交同一批次时后提交者插入台账违反主键，
+ *     其数据随事务回滚，改为返回先提交者的结果</li>
+ *     <li>分块导入（每块独立提交）在全部块完成后记录台账；中途失败的批次重试时，已提交的行按唯一键跳过或覆盖</li>
+ *     <li>遥测接入异步写入，批次数据全部写入数据库或本地暂存日志后才记录台账；写入完成前或写入失败后的重试会再次接收，
+ *     已写入的行按唯一键跳过</li>
+ *     <li>超过保留天数的批次由后台线程每天清理</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MonitoringImportBatchLedger {
+
+    /**
+     * 批次ID最大长度
+     */
+    public static final int MAX_BATCH_ID_LENGTH = 64;
+
+    private final MonitoringImportBatchMapper monitoringImportBatchMapper;
+    private final MonitoringImportProperties importProperties;
+    private final PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * 最近批次缓存，按访问顺序淘汰
+     */
+    private Map<String, MonitoringImportBatch> cache;
+
+    private ScheduledExecutorService executor;
+
+    @PostConstruct
+    public void start() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        int cacheSize = importProperties.getBatchCacheSize();
+        cache = Collections.synchronizedMap(new LinkedHashMap<String, MonitoringImportBatch>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, MonitoringImportBatch> eldest) {
+                return size() > cacheSize;
+            }
+        });
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "monitoring-import-batch-purge");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::purgeExpired, 1, 24, TimeUnit.HOURS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 在单个事务中执行导入并记录批次；批次已存在时直接返回台账中的结果
+     *
+     * @param batchId 客户端批次ID，为空时不做幂等处理
+     * @param type 监测类型
+     * @param importer 导入逻辑
+     * @return 导入结果，重复提交时replayed为true
+     * @throws IllegalArgumentException 批次ID过长或已用于其他监测类型
+     */
+    public ImportResultDTO execute(String batchId, MonitoringType type, Supplier<ImportResultDTO> importer) {
+        ImportResultDTO result = execute(batchId, type, importer,
+                MonitoringImportBatchLedger::toBatch, MonitoringImportBatchLedger::toImportResult);
+        if (result.getBatchId() == null) {
+            result.setBatchId(normalize(batchId));
+        }
+        return result;
+    }
+
+    /**
+     * 在单个事务中执行导入并记录批次；批次已存在时直接返回台账中的结果
+     *
+     * @param batchId 客户端批次ID，为空时不做幂等处理
+     * @param type 监测类型
+     * @param importer 导入逻辑
+     * @param toBatch 由导入结果生成台账记录（只需填写统计字段）
+     * @param toReplay 由台账记录生成重复提交时返回的结果
+     * @return 导入结果
+     * @throws IllegalArgumentException 批次ID过长或已用于其他监测类型
+     */
+    public <R> R execute(String batchId, MonitoringType type, Supplier<R> importer,
+                         Function<R, MonitoringImportBatch> toBatch, Function<MonitoringImportBatch, R> toReplay) {
+        String id = normalize(batchId);
+        if (id == null) {
+            return importer.get();
+        }
+        MonitoringImportBatch existing = find(id, type);
+        if (existing != null) {
+            return toReplay.apply(existing);
+        }
+        try {
+            MonitoringImportBatch[] recorded = new MonitoringImportBatch[1];
+            R result = transactionTemplate.execute(status -> {
+                R imported = importer.get();
+                recorded[0] = insert(id, type, toBatch.apply(imported));
+                return imported;
+            });
+            cache.put(id, recorded[0]);
+            return result;
+        } catch (DuplicateKeyException e) {
+            return replayConcurrent(id, type, toReplay, e);
+        }
+    }
+
+    /**
+     * 执行分块导入（每块独立提交），全部完成后记录批次；批次已存在时直接返回台账中的结果
+     *
+     * @param batchId 客户端批次ID，为空时不做幂等处理
+     * @param type 监测类型
+     * @param importer 导入逻辑
+     * @return 导入结果，重复提交时replayed为true
+     * @throws IllegalArgumentException 批次ID过长或已用于其他监测类型
+     */
+    public ImportResultDTO executeChunked(String batchId, MonitoringType type, Supplier<ImportResultDTO> importer) {
+        String id = normalize(batchId);
+        if (id == null) {
+            return importer.get();
+        }
+        MonitoringImportBatch existing = find(id, type);
+        if (existing != null) {
+            return toImportResult(existing);
+        }
+        ImportResultDTO result = importer.get();
+        result.setBatchId(id);
+        record(id, type, toBatch(result));
+        return result;
+    }
+
+    /**
+     * 查询批次
+     *
+     * @param batchId 客户端批次ID
+     * @param type 监测类型
+     * @return 台账记录，批次ID为空或不存在时返回null
+     * @throws IllegalArgumentException 批次ID过长或已用于其他监测类型
+     */
+    public MonitoringImportBatch find(String batchId, MonitoringType type) {
+        String id = normalize(batchId);
+        if (id == null) {
+            return null;
+        }
+        MonitoringImportBatch batch = cache.get(id);
+        if (batch == null) {
+            batch = monitoringImportBatchMapper.selectById(id);
+            if (batch == null) {
+                return null;
+            }
+            cache.put(id, batch);
+        }
+        if (!type.getPath().equals(batch.getDataType())) {
+            throw new IllegalArgumentException("批次ID已用于" + MonitoringType.fromPath(batch.getDataType()).getLabel() + "数据");
+        }
+        return batch;
+    }
+
+    /**
+     * 记录批次，处于事务中时随事务提交
+     *
+     * @param batchId 客户端批次ID
+     * @param type 监测类型
+     * @param batch 台账记录（只需填写统计字段）
+     * @return 批次原先不存在时返回true，并发提交同一批次时后到者返回false
+     */
+    public boolean record(String batchId, MonitoringType type, MonitoringImportBatch batch) {
+        String id = normalize(batchId);
+        try {
+            cache.put(id, insert(id, type, batch));
+            return true;
+        } catch (DuplicateKeyException e) {
+            log.info("{}监测数据批次已由其他请求记录: {}", type.getLabel(), id);
+            return false;
+        }
+    }
+
+    /**
+     * 由导入结果生成台账记录
+     */
+    public static MonitoringImportBatch toBatch(ImportResultDTO result) {
+        MonitoringImportBatch batch = new MonitoringImportBatch();
+        batch.setTotalRows(result.getTotalRows());
+        batch.setSuccessRows(result.getSuccessRows());
+        batch.setErrorRows(result.getErrorRows());
+        batch.setDuplicateRows(result.getDuplicateRows());
+        batch.setErrorReportId(result.getErrorReportId());
+        return batch;
+    }
+
+    /**
+     * 由台账记录生成重复提交时返回的导入结果，不含错误明细
+     */
+    public static ImportResultDTO toImportResult(MonitoringImportBatch batch) {
+        return ImportResultDTO.builder()
+                .totalRows(batch.getTotalRows())
+                .successRows(batch.getSuccessRows())
+                .errorRows(batch.getErrorRows())
+                .duplicateRows(batch.getDuplicateRows())
+                .errors(Collections.emptyList())
+                .errorReportId(batch.getErrorReportId())
+                .batchId(batch.getBatchId())
+                .replayed(true)
+                .build();
+    }
+
+    private MonitoringImportBatch insert(String id, MonitoringType type, MonitoringImportBatch batch) {
+        batch.setBatchId(id);
+        batch.setDataType(type.getPath());
+        batch.setCreatedAt(LocalDateTime.now());
+        monitoringImportBatchMapper.insert(batch);
+        return batch;
+    }
+
+    private <R> R replayConcurrent(String id, MonitoringType type, Function<MonitoringImportBatch, R> toReplay,
+                                   DuplicateKeyException e) {
+        MonitoringImportBatch existing = find(id, type);
+        if (existing == null) {
+            throw e;
+        }
+        log.info("{}监测数据批次并发重复提交，返回已记录的结果: {}", type.getLabel(), id);
+        return toReplay.apply(existing);
+    }
+
+    private void purgeExpired() {
+        try {
+            LocalDateTime before = LocalDateTime.now().minusDays(importProperties.getBatchRetentionDays());
+            int deleted = monitoringImportBatchMapper.deleteCreatedBefore(before);
+            if (deleted > 0) {
+                log.info("清理过期导入批次: {}条", deleted);
+            }
+        } catch (Exception e) {
+            log.error("清理过期导入批次失败", e);
+        }
+    }
+
+    /**
+     * 规范化批次ID，为空时返回null
+     *
+     * @throws IllegalArgumentException 批次ID过长
+     */
+    private static String normalize(String batchId) {
+        if (batchId == null || batchId.trim().isEmpty()) {
+            return null;
+        }
+        String id = batchId.trim();
+        if (id.length() > MAX_BATCH_ID_LENGTH) {
+            throw new IllegalArgumentException("批次ID不能超过" + MAX_BATCH_ID_LENGTH + "个字符");
+        }
+        return id;
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.demo.service.monitoring;
+
+import com.example.demo.constant.ImportJobStatus;
+import com.example.demo.constant.MonitoringImportMode;
+import com.example.demo.constant.MonitoringType;
+import com.example.demo.pojo.DTO.monitoring.ImportResultDTO;
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+/**
+ * 监测数据导入任务
+ * 保存异步导入任务的文件、进度和结果；进度由导入线程在每块提交后更新，状态变更加锁以与取消操作互斥
+ */
+@Getter
+public class MonitoringImportJob {
+
+    private final String id;
+
+    private final MonitoringType type;
+
+    private final String fileName;
+
+    /**
+     * 上传文件的本地副本，任务结束后删除
+     */
+    private final Path file;
+
+    /**
+     * 站点ID，仅雨情导入使用
+     */
+    private final Long stationId;
+
+    private final MonitoringImportMode mode;
+
+    /**
+     * 客户端批次ID，任务完成后记入导入批次台账
+     */
+    private final String batchId;
+
+    private final LocalDateTime submittedAt = LocalDateTime.now();
+
+    private volatile ImportJobStatus status = ImportJobStatus.PENDING;
+
+    private volatile LocalDateTime startedAt;
+
+    private volatile LocalDateTime finishedAt;
+
+    private volatile int parsedRows;
+
+    private volatile int insertedRows;
+
+    private volatile int rejectedRows;
+
+    /**
+     * 0~1之间的读取进度，无法估算时为-1
+     */
+    private volatile double progress = -1;
+
+    private volatile boolean cancelRequested;
+
+    private volatile String message;
+
+    private volatile ImportResultDTO result;
+
+    public MonitoringImportJob(String id, MonitoringType type, String fileName, Path file, Long stationId,
+                               MonitoringImportMode mode, String batchId) {
+        this.id = id;
+        this.type = type;
+        this.fileName = fileName;
+        this.file = file;
+        this.stationId = stationId;
+        this.mode = mode;
+        this.batchId = batchId;
+    }
+
+    /**
+     * 开始执行，任务已被取消时返回false
+     */
+    synchronized boolean start() {
+        if (status != ImportJobStatus.PENDING) {
+            return false;
+        }
+        status = ImportJobStatus.RUNNING;
+        startedAt = LocalDateTime.now();
+        return true;
+    }
+
+    /**
+     * 请求取消：等待中的任务直接取消，执行中的任务在当前块提交后停止
+     *
+     * @return 任务未结束时返回true
+     */
+    synchronized boolean cancel() {
+        if (status.isFinished()) {
+            return false;
+        }
+        cancelRequested = true;
+        if (status == ImportJobStatus.PENDING) {
+            finish(ImportJobStatus.CANCELLED, "任务已取消", null);
+        }
+        return true;
+    }
+
+    /**
+     * 更新导入进度
+     */
+    void updateProgress(int parsedRows, int insertedRows, int rejectedRows, double progress) {
+        this.parsedRows = parsedRows;
+        this.insertedRows = insertedRows;
+        this.rejectedRows = rejectedRows;
+        this.progress = progress;
+    }
+
+    synchronized void finish(ImportJobStatus status, String message, ImportResultDTO result) {
+        this.status = status;
+        this.message = message;
+        this.result = result;
+        if (result != null) {
+            updateProgress(result.getTotalRows(), result.getSuccessRows(), result.getErrorRows(),
+                    status == ImportJobStatus.COMPLETED ? 1.0 : progress);
+        }
+        this.finishedAt = LocalDateTime.now();
+    }
+}
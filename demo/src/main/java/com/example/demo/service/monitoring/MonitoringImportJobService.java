@@ -0,0 +1,279 @@
+package com.example.demo.service.monitoring;
+
+import com.example.demo.config.MonitoringImportProperties;
+import com.example.demo.constant.ImportJobStatus;
+import com.example.demo.constant.MonitoringImportMode;
+import com.example.demo.constant.MonitoringType;
+import com.example.demo.pojo.DTO.monitoring.ImportJobStatusDTO;
+import com.example.demo.pojo.DTO.monitoring.ImportResultDTO;
+import com.example.demo.pojo.entity.monitoring.MonitoringImportBatch;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 监测数据异步导入任务服务
+ * 上传文件先保存为本地临时文件并立即返回任务ID，导入在后台线程中按块执行、每块独立提交；
+ * 任务状态保存在内存中，结束后保留一段时间供查询，应用重启后任务状态不保留；
+ * 携带批次ID的任务完成后记入导入批次台账，重复提交时返回执行中的同批次任务或台账中的结果
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MonitoringImportJobService {
+
+    private final MonitoringImportProperties importProperties;
+    private final MonitoringFileImportService monitoringFileImportService;
+    private final MonitoringImportBatchLedger monitoringImportBatchLedger;
+
+    private final Map<String, MonitoringImportJob> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * 未结束任务的批次ID到任务ID的映射
+     */
+    private final Map<String, String> activeBatches = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        int poolSize = importProperties.getJobPoolSize();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(importProperties.getJobQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "monitoring-import-job-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 提交导入任务
+     *
+     * @param type 监测类型
+     * @param file 上传文件（.csv或.xlsx，首行为标题行）
+     * @param stationId 监测站点ID，仅雨情导入需要
+     * @param mode 导入模式
+     * @param batchId 客户端批次ID，为空时不做幂等处理
+     * @return 任务状态；同一批次的任务执行中时返回该任务，已完成时返回台账中的结果
+     * @throws IllegalArgumentException 文件为空、类型不支持或批次ID无效
+     * @throws IllegalStateException 任务队列已满
+     */
+    public ImportJobStatusDTO submit(MonitoringType type, MultipartFile file, Long stationId, MonitoringImportMode mode,
+                                     String batchId) throws IOException {
+        String id = batchId == null || batchId.trim().isEmpty() ? null : batchId.trim();
+        if (id != null) {
+            ImportJobStatusDTO existing = findBatch(type, id);
+            if (existing != null) {
+                return existing;
+            }
+        }
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("导入文件不能为空");
+        }
+        String fileName = file.getOriginalFilename();
+        String lowerName = fileName == null ? "" : fileName.toLowerCase();
+        if (!lowerName.endsWith(".csv") && !lowerName.endsWith(".xlsx")) {
+            throw new IllegalArgumentException("不支持的文件类型，仅支持.csv和.xlsx文件");
+        }
+        monitoringFileImportService.checkImportable(type, stationId);
+        purgeExpired();
+
+        // 请求结束后上传文件会被清理，先复制为任务自己的临时文件
+        Path temp = Files.createTempFile("monitoring-import-job-", lowerName.endsWith(".csv") ? ".csv" : ".xlsx");
+        try (InputStream in = file.getInputStream()) {
+            Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        MonitoringImportJob job = new MonitoringImportJob(UUID.randomUUID().toString().replace("-", ""),
+                type, fileName, temp, stationId, mode, id);
+        if (id != null) {
+            String activeJobId = activeBatches.putIfAbsent(id, job.getId());
+            if (activeJobId != null) {
+                // 并发提交的同批次任务已先登记
+                Files.deleteIfExists(temp);
+                return toStatus(getJob(activeJobId));
+            }
+        }
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            releaseBatch(job);
+            Files.deleteIfExists(temp);
+            throw new IllegalStateException("导入任务过多，请稍后再试");
+        }
+        log.info("{}监测数据导入任务已提交: {}，文件: {}，大小: {} 字节", type.getLabel(), job.getId(), fileName, file.getSize());
+        return toStatus(job);
+    }
+
+    /**
+     * 查询任务状态
+     *
+     * @param jobId 任务ID
+     * @return 任务状态
+     * @throws IllegalArgumentException 任务不存在或已过期
+     */
+    public ImportJobStatusDTO getStatus(String jobId) {
+        purgeExpired();
+        return toStatus(getJob(jobId));
+    }
+
+    /**
+     * 取消任务，已提交的块保留在数据库中
+     *
+     * @param jobId 任务ID
+     * @return 任务状态
+     * @throws IllegalArgumentException 任务不存在或已过期
+     * @throws IllegalStateException 任务已结束
+     */
+    public ImportJobStatusDTO cancel(String jobId) {
+        MonitoringImportJob job = getJob(jobId);
+        if (!job.cancel()) {
+            throw new IllegalStateException("任务已结束，无法取消");
+        }
+        log.info("{}监测数据导入任务请求取消: {}", job.getType().getLabel(), jobId);
+        return toStatus(job);
+    }
+
+    private void run(MonitoringImportJob job) {
+        try {
+            if (!job.start()) {
+                return;
+            }
+            ImportResultDTO result = monitoringFileImportService.importJob(job);
+            if (job.isCancelRequested()) {
+                job.finish(ImportJobStatus.CANCELLED, "任务已取消，已提交的数据已保留", result);
+            } else {
+                if (job.getBatchId() != null) {
+                    result.setBatchId(job.getBatchId());
+                    monitoringImportBatchLedger.record(job.getBatchId(), job.getType(), MonitoringImportBatchLedger.toBatch(result));
+                }
+                job.finish(ImportJobStatus.COMPLETED, null, result);
+            }
+        } catch (Exception e) {
+            log.error("{}监测数据导入任务失败: {}", job.getType().getLabel(), job.getId(), e);
+            job.finish(ImportJobStatus.FAILED, "导入失败: " + e.getMessage(), null);
+        } finally {
+            releaseBatch(job);
+            try {
+                Files.deleteIfExists(job.getFile());
+            } catch (IOException e) {
+                log.warn("删除导入临时文件失败: {}", job.getFile(), e);
+            }
+        }
+    }
+
+    /**
+     * 查找同一批次的任务：执行中的任务返回其状态，台账中已有的批次返回一个已完成的任务
+     *
+     * @return 任务状态，批次未提交过时返回null
+     */
+    private ImportJobStatusDTO findBatch(MonitoringType type, String batchId) {
+        String activeJobId = activeBatches.get(batchId);
+        MonitoringImportJob active = activeJobId == null ? null : jobs.get(activeJobId);
+        if (active != null && !active.getStatus().isFinished()) {
+            if (active.getType() != type) {
+                throw new IllegalArgumentException("批次ID已用于" + active.getType().getLabel() + "数据");
+            }
+            return toStatus(active);
+        }
+        MonitoringImportBatch batch = monitoringImportBatchLedger.find(batchId, type);
+        if (batch == null) {
+            return null;
+        }
+        MonitoringImportJob job = new MonitoringImportJob(UUID.randomUUID().toString().replace("-", ""),
+                type, null, null, null, MonitoringImportMode.SKIP, batchId);
+        job.finish(ImportJobStatus.COMPLETED, "该批次已导入，返回首次导入的结果",
+                MonitoringImportBatchLedger.toImportResult(batch));
+        jobs.put(job.getId(), job);
+        return toStatus(job);
+    }
+
+    private void releaseBatch(MonitoringImportJob job) {
+        if (job.getBatchId() != null) {
+            activeBatches.remove(job.getBatchId(), job.getId());
+        }
+    }
+
+    private MonitoringImportJob getJob(String jobId) {
+        MonitoringImportJob job = jobId == null ? null : jobs.get(jobId);
+        if (job == null) {
+            throw new IllegalArgumentException("导入任务不存在或已过期");
+        }
+        return job;
+    }
+
+    /**
+     * 移除超过保留时间的已结束任务
+     */
+    private void purgeExpired() {
+        LocalDateTime expiry = LocalDateTime.now().minusMinutes(importProperties.getJobRetentionMinutes());
+        jobs.values().removeIf(job -> job.getStatus().isFinished()
+                && job.getFinishedAt() != null && job.getFinishedAt().isBefore(expiry));
+    }
+
+    private static ImportJobStatusDTO toStatus(MonitoringImportJob job) {
+        ImportJobStatus status = job.getStatus();
+        double progress = job.getProgress();
+        Integer percent = null;
+        Long etaSeconds = null;
+        if (status == ImportJobStatus.COMPLETED) {
+            percent = 100;
+            etaSeconds = 0L;
+        } else if (progress >= 0) {
+            percent = (int) Math.floor(progress * 100);
+            if (status == ImportJobStatus.RUNNING && progress > 0 && job.getStartedAt() != null) {
+                long elapsed = Duration.between(job.getStartedAt(), LocalDateTime.now()).getSeconds();
+                etaSeconds = Math.round(elapsed * (1 - progress) / progress);
+            }
+        }
+        return ImportJobStatusDTO.builder()
+                .jobId(job.getId())
+                .type(job.getType().getPath())
+                .fileName(job.getFileName())
+                .mode(job.getMode().getCode())
+                .batchId(job.getBatchId())
+                .status(status)
+                .parsedRows(job.getParsedRows())
+                .insertedRows(job.getInsertedRows())
+                .rejectedRows(job.getRejectedRows())
+                .progress(percent)
+                .etaSeconds(etaSeconds)
+                .submittedAt(job.getSubmittedAt())
+                .startedAt(job.getStartedAt())
+                .finishedAt(job.getFinishedAt())
+                .message(job.getMessage())
+                .result(job.getResult())
+                .build();
+    }
+}
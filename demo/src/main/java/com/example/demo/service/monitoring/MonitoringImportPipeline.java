@@ -0,0 +1,324 @@
+package com.example.demo.service.monitoring;
+
+import com.example.demo.config.MonitoringImportProperties;
+import com.example.demo.constant.ImportErrorCategory;
+import com.example.demo.constant.MonitoringImportMode;
+import com.example.demo.constant.MonitoringType;
+import com.example.demo.exception.monitoring.ImportDuplicateRecordException;
+import com.example.demo.pojo.DTO.monitoring.ImportResultDTO;
+import com.example.demo.pojo.DTO.monitoring.MonitoringImportRow;
+import com.example.demo.pojo.entity.monitoring.MonitoringRecord;
+import com.example.demo.pojo.entity.monitoring.StationTimeKey;
+import com.example.demo.utils.FastTimestampParser;
+import com.example.demo.utils.LongPairHashSet;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 监测数据导入流水线
+ * 导入按三个阶段处理：
+ * <ol>
+ *     <li>解析校验：按行分片在有界线程池中并行解析监测时间、查找站点ID并转换为实体；监测时间由每个分片
+ *     各自的{@link FastTimestampParser}直接解析为纪元秒</li>
+ *     <li>去重：按行序以（站点ID, 纪元秒）基本类型键检查文件内重复（保留先出现的行）</li>
+ *     <li>写入：由调用线程按原始行序分块批量写入，写入处于调用方的事务中；与数据库已有记录的冲突由唯一键
+ *     uk_station_time在写入时按{@link MonitoringImportMode}处理，不再事先查询</li>
+ * </ol>
+ * 各阶段的结果按行下标保存，错误按原始行号和行序写入{@link ImportErrorReport}
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MonitoringImportPipeline {
+
+    private static final String DUPLICATE_IN_FILE = "数据重复（同站点同时间）";
+
+    /**
+     * 报错模式下错误信息中列出的最大冲突行数
+     */
+    private static final int MAX_DESCRIBED_CONFLICTS = 5;
+
+    private final MonitoringImportProperties importProperties;
+    private final MonitoringBulkWriter monitoringBulkWriter;
+    private final ImportErrorReportStore importErrorReportStore;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        int parallelism = importProperties.getParallelism();
+        executor = new ThreadPoolExecutor(parallelism, parallelism, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(importProperties.getQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "monitoring-import-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                // 队列已满时由提交线程执行，自然限制同时在途的分片数量
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 执行导入
+     *
+     * @param type 监测类型
+     * @param rows 导入行
+     * @param stationCodeToIdMap 站码（已去除首尾空格）到站点ID的映射
+     * @param converter 行转换器，在线程池中并行调用，须线程安全；校验失败时抛出IllegalArgumentException
+     * @param mode 导入模式
+     * @param errorReport 错误报告，分块导入时由调用方创建并在全部块完成后结束；为null时本次导入单独生成错误报告，
+     *                    错误样例、类别统计和报告ID填入返回结果
+     * @return 导入结果
+     * @throws ImportDuplicateRecordException 报错模式下存在与数据库已有记录重复的行
+     */
+    public <D extends MonitoringImportRow, E extends MonitoringRecord> ImportResultDTO run(
+            MonitoringType type, List<D> rows, Map<String, Long> stationCodeToIdMap, RowConverter<D, E> converter,
+            MonitoringImportMode mode, ImportErrorReport errorReport) {
+        if (errorReport != null) {
+            return execute(type, rows, stationCodeToIdMap, converter, mode, errorReport);
+        }
+        ImportErrorReport ownReport = importErrorReportStore.create(type);
+        try {
+            return importErrorReportStore.finish(ownReport,
+                    execute(type, rows, stationCodeToIdMap, converter, mode, ownReport));
+        } catch (RuntimeException e) {
+            importErrorReportStore.discard(ownReport);
+            throw e;
+        }
+    }
+
+    private <D extends MonitoringImportRow, E extends MonitoringRecord> ImportResultDTO execute(
+            MonitoringType type, List<D> rows, Map<String, Long> stationCodeToIdMap, RowConverter<D, E> converter,
+            MonitoringImportMode mode, ImportErrorReport errorReport) {
+        int size = rows.size();
+        Object[] entities = new Object[size];
+        ImportErrorCategory[] errorCategories = new ImportErrorCategory[size];
+        String[] errors = new String[size];
+        long[] stationIds = new long[size];
+        long[] epochSeconds = new long[size];
+
+        long start = System.currentTimeMillis();
+        parse(rows, stationCodeToIdMap, converter, entities, errorCategories, errors, stationIds, epochSeconds);
+        long parsed = System.currentTimeMillis();
+        deduplicate(entities, errorCategories, errors, stationIds, epochSeconds);
+        long deduplicated = System.currentTimeMillis();
+
+        // 写入阶段：单线程按行序分块写入，错误按行序写入错误报告
+        List<MonitoringRecord> chunk = new ArrayList<>(Math.min(size, importProperties.getWriteChunkSize()));
+        List<Integer> chunkIndexes = new ArrayList<>(Math.min(size, importProperties.getWriteChunkSize()));
+        int successCount = 0;
+        int errorCount = 0;
+        int duplicateCount = 0;
+        for (int i = 0; i < size; i++) {
+            if (errorCategories[i] != null) {
+                D row = rows.get(i);
+                errorReport.add(row.getRowNumber() != null ? row.getRowNumber() : i + 1, row.getStationCode(),
+                        errorCategories[i], errors[i]);
+                errorCount++;
+                if (errorCategories[i] == ImportErrorCategory.DUPLICATE_IN_FILE) {
+                    duplicateCount++;
+                }
+                continue;
+            }
+            chunk.add((MonitoringRecord) entities[i]);
+            chunkIndexes.add(i);
+            if (chunk.size() >= importProperties.getWriteChunkSize()) {
+                MonitoringBulkWriter.WriteResult written = write(type, rows, chunk, chunkIndexes, mode);
+                successCount += written.getWrittenRows();
+                duplicateCount += written.getDuplicateRows();
+                chunk.clear();
+                chunkIndexes.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            MonitoringBulkWriter.WriteResult written = write(type, rows, chunk, chunkIndexes, mode);
+            successCount += written.getWrittenRows();
+            duplicateCount += written.getDuplicateRows();
+        }
+
+        log.info("{}监测数据导入完成，模式: {}，总数: {}, 成功: {}, 失败: {}，重复: {}，解析: {}ms，去重: {}ms，写入: {}ms",
+                type.getLabel(), mode.getLabel(), size, successCount, errorCount, duplicateCount,
+                parsed - start, deduplicated - parsed, System.currentTimeMillis() - deduplicated);
+
+        return ImportResultDTO.builder()
+                .totalRows(size)
+                .successRows(successCount)
+                .errorRows(errorCount)
+                .duplicateRows(duplicateCount)
+                .build();
+    }
+
+    /**
+     * 解析校验阶段：按固定行数分片并行处理，每个分片复用一个时间解析器
+     */
+    private <D extends MonitoringImportRow, E extends MonitoringRecord> void parse(
+            List<D> rows, Map<String, Long> stationCodeToIdMap, RowConverter<D, E> converter,
+            Object[] entities, ImportErrorCategory[] errorCategories, String[] errors,
+            long[] stationIds, long[] epochSeconds) {
+        int sliceSize = importProperties.getSliceSize();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int from = 0; from < rows.size(); from += sliceSize) {
+            int sliceFrom = from;
+            int sliceTo = Math.min(from + sliceSize, rows.size());
+            futures.add(executor.submit(() -> {
+                FastTimestampParser timestampParser = new FastTimestampParser();
+                for (int i = sliceFrom; i < sliceTo; i++) {
+                    parseRow(rows.get(i), i, stationCodeToIdMap, converter, timestampParser,
+                            entities, errorCategories, errors, stationIds, epochSeconds);
+                }
+            }));
+        }
+        await(futures);
+    }
+
+    private <D extends MonitoringImportRow, E extends MonitoringRecord> void parseRow(
+            D row, int index, Map<String, Long> stationCodeToIdMap, RowConverter<D, E> converter,
+            FastTimestampParser timestampParser, Object[] entities, ImportErrorCategory[] errorCategories,
+            String[] errors, long[] stationIds, long[] epochSeconds) {
+        try {
+            String trimmedCode = row.getStationCode() == null ? null : row.getStationCode().trim();
+            Long stationId = trimmedCode == null ? null : stationCodeToIdMap.get(trimmedCode);
+            if (stationId == null) {
+                errorCategories[index] = ImportErrorCategory.INVALID_STATION;
+                errors[index] = "无效站码";
+                return;
+            }
+            long epochSecond;
+            try {
+                epochSecond = timestampParser.parseEpochSecond(row.getMonitoringTime());
+            } catch (Exception e) {
+                errorCategories[index] = ImportErrorCategory.INVALID_TIME;
+                errors[index] = "监测时间格式错误";
+                return;
+            }
+            entities[index] = converter.convert(row, stationId, FastTimestampParser.toLocalDateTime(epochSecond));
+            stationIds[index] = stationId;
+            epochSeconds[index] = epochSecond;
+        } catch (IllegalArgumentException e) {
+            errorCategories[index] = ImportErrorCategory.INVALID_VALUE;
+            errors[index] = e.getMessage();
+        } catch (Exception e) {
+            log.error("预处理导入数据时发生错误，行号: {}, 错误: {}", row.getRowNumber(), e.getMessage());
+            errorCategories[index] = ImportErrorCategory.PROCESSING;
+            errors[index] = "数据处理异常: " + e.getMessage();
+        }
+    }
+
+    /**
+     * 去重阶段：按行序检查文件内重复，同站点同时间的后出现行记为重复
+     */
+    private void deduplicate(Object[] entities, ImportErrorCategory[] errorCategories, String[] errors,
+                             long[] stationIds, long[] epochSeconds) {
+        LongPairHashSet keys = new LongPairHashSet(entities.length);
+        for (int i = 0; i < entities.length; i++) {
+            if (entities[i] != null && !keys.add(stationIds[i], epochSeconds[i])) {
+                entities[i] = null;
+                errorCategories[i] = ImportErrorCategory.DUPLICATE_IN_FILE;
+                errors[i] = DUPLICATE_IN_FILE;
+            }
+        }
+    }
+
+    /**
+     * 按导入模式写入一块数据；报错模式下遇到重复键时定位冲突行并终止导入
+     */
+    private <D extends MonitoringImportRow> MonitoringBulkWriter.WriteResult write(
+            MonitoringType type, List<D> rows, List<MonitoringRecord> chunk, List<Integer> chunkIndexes,
+            MonitoringImportMode mode) {
+        try {
+            return monitoringBulkWriter.write(type, chunk, mode);
+        } catch (DuplicateKeyException e) {
+            throw new ImportDuplicateRecordException(describeConflict(type, rows, chunk, chunkIndexes));
+        } catch (Exception e) {
+            log.error("批量插入数据时发生异常", e);
+            throw new RuntimeException("批量插入数据失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 查询冲突记录，生成包含行号和站码的错误信息
+     */
+    private <D extends MonitoringImportRow> String describeConflict(
+            MonitoringType type, List<D> rows, List<MonitoringRecord> chunk, List<Integer> chunkIndexes) {
+        Set<StationTimeKey> existingKeys = monitoringBulkWriter.findExisting(type, chunk);
+        StringBuilder message = new StringBuilder("数据库中已存在相同记录，导入已终止");
+        int described = 0;
+        for (int i = 0; i < chunk.size() && described < MAX_DESCRIBED_CONFLICTS; i++) {
+            if (existingKeys.contains(StationTimeKey.of(chunk.get(i)))) {
+                int index = chunkIndexes.get(i);
+                D row = rows.get(index);
+                message.append(described == 0 ? "，冲突行: " : "、")
+                        .append("第").append(row.getRowNumber() != null ? row.getRowNumber() : index + 1)
+                        .append("行(").append(row.getStationCode()).append(' ').append(row.getMonitoringTime()).append(')');
+                described++;
+            }
+        }
+        if (existingKeys.size() > described) {
+            message.append("等").append(existingKeys.size()).append("条");
+        }
+        return message.toString();
+    }
+
+    /**
+     * 等待全部任务完成，任一任务失败时取消其余任务并抛出异常
+     */
+    private static void await(List<Future<?>> futures) {
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("导入已中断");
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException("导入数据处理失败: " + cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * 导入行转换器
+     */
+    @FunctionalInterface
+    public interface RowConverter<D, E> {
+
+        /**
+         * 将导入行转换为实体
+         *
+         * @param row 导入行
+         * @param stationId 站点ID
+         * @param monitoringTime 已解析的监测时间
+         * @return 实体
+         * @throws IllegalArgumentException 数据校验失败，异常信息作为该行的错误信息
+         */
+        E convert(D row, Long stationId, LocalDateTime monitoringTime);
+    }
+}
@@ -0,0 +1,408 @@
+package com.example.demo.service.monitoring;
+
+import com.example.demo.config.MonitoringPartitionProperties;
+import com.example.demo.constant.MonitoringChangeType;
+import com.example.demo.constant.MonitoringTableRoute;
+import com.example.demo.constant.MonitoringType;
+import com.example.demo.mapper.MonitoringPartitionMapper;
+import com.example.demo.pojo.entity.monitoring.MonitoringPartition;
+import com.example.demo.pojo.entity.monitoring.StationTimeKey;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 监测数据分区维护服务
+ * 五张监测数据表按monitoring_time按月范围分区（pYYYYMM + 兜底分区p_future）：后台线程定期预建未来月份分区，
+ * 将早于热数据保留期的分区迁入同结构的归档表（表名加_archive），并维护各表的归档边界；
+ * 查询按时间范围与归档边界的关系路由到热表、归档表或两者
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MonitoringPartitionService {
+
+    private static final String FUTURE_PARTITION = "p_future";
+
+    private static final String ARCHIVE_SUFFIX = "_archive";
+
+    private static final String EXCHANGE_SUFFIX = "_exchange";
+
+    private static final DateTimeFormatter PARTITION_NAME_FORMAT = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    private static final DateTimeFormatter BOUND_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final MonitoringPartitionProperties partitionProperties;
+    private final MonitoringPartitionMapper monitoringPartitionMapper;
+    private final PlatformTransactionManager transactionManager;
+    private final MonitoringDataChangePublisher monitoringDataChangePublisher;
+
+    /**
+     * 各监测类型的归档边界：早于该时间的数据在归档表中，没有归档数据的类型不在表中
+     */
+    private final Map<MonitoringType, LocalDateTime> archiveBoundaries = new ConcurrentHashMap<>();
+
+    /**
+     * 各监测类型最近一次维护的结果
+     */
+    private final Map<MonitoringType, String> lastResults = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean maintaining = new AtomicBoolean();
+
+    private volatile LocalDateTime lastMaintenanceTime;
+
+    private TransactionTemplate transactionTemplate;
+
+    private ScheduledExecutorService executor;
+
+    /**
+     * 启动后台维护线程
+     */
+    @PostConstruct
+    public void start() {
+        if (!Boolean.TRUE.equals(partitionProperties.getEnabled())) {
+            log.info("监测数据分区维护未启用，查询只读热表");
+            return;
+        }
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "monitoring-partition");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // 归档边界先行加载，维护任务执行前查询即可正确路由
+        executor.execute(this::refreshBoundaries);
+        executor.scheduleWithFixedDelay(this::maintain, partitionProperties.getInitialDelaySeconds(),
+                TimeUnit.MINUTES.toSeconds(partitionProperties.getMaintenanceIntervalMinutes()), TimeUnit.SECONDS);
+        log.info("监测数据分区维护已启动，热数据保留: {}个月，维护间隔: {}分钟",
+                partitionProperties.getHotMonths(), partitionProperties.getMaintenanceIntervalMinutes());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 按查询时间范围决定读取的数据表
+     * 开始时间不早于归档边界时只读热表，结束时间早于归档边界时只读归档表，其余情况两表以归档边界为界合并读取；
+     * 归档边界之前迟到写入热表的数据在下次维护时迁入归档表后才能查询到，迁移后发布变更通知
+     *
+     * @param type 监测类型
+     * @param startTime 开始时间，为空时不限
+     * @param endTime 结束时间，为空时不限
+     * @return 查询路由
+     */
+    public MonitoringTableRoute route(MonitoringType type, LocalDateTime startTime, LocalDateTime endTime) {
+        LocalDateTime boundary = archiveBoundaries.get(type);
+        if (boundary == null || (startTime != null && !startTime.isBefore(boundary))) {
+            return MonitoringTableRoute.HOT;
+        }
+        if (endTime != null && endTime.isBefore(boundary)) {
+            return MonitoringTableRoute.COLD;
+        }
+        return MonitoringTableRoute.both(boundary);
+    }
+
+    /**
+     * 获取归档边界，早于该时间的数据在归档表中
+     *
+     * @param type 监测类型
+     * @return 归档边界，没有归档数据时返回null
+     */
+    public LocalDateTime getArchiveBoundary(MonitoringType type) {
+        return archiveBoundaries.get(type);
+    }
+
+    /**
+     * 提交一次分区维护任务
+     *
+     * @throws IllegalStateException 分区维护未启用或已有维护任务在执行
+     */
+    public void submitMaintenance() {
+        if (executor == null) {
+            throw new IllegalStateException("监测数据分区维护未启用");
+        }
+        if (maintaining.get()) {
+            throw new IllegalStateException("分区维护任务正在执行");
+        }
+        executor.execute(this::maintain);
+    }
+
+    /**
+     * 查询分区运行状态
+     *
+     * @return 各监测类型的分区数量、归档边界及最近维护结果
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", executor != null);
+        stats.put("maintaining", maintaining.get());
+        stats.put("lastMaintenanceTime", lastMaintenanceTime);
+        List<Map<String, Object>> tables = new ArrayList<>();
+        for (MonitoringType type : MonitoringType.values()) {
+            Map<String, Object> table = new LinkedHashMap<>();
+            table.put("type", type.getPath());
+            table.put("tableName", type.getTableName());
+            table.put("archiveBoundary", archiveBoundaries.get(type));
+            table.put("lastResult", lastResults.get(type));
+            if (executor != null) {
+                List<String> partitions = new ArrayList<>();
+                for (MonitoringPartition partition : monitoringPartitionMapper.selectPartitions(type.getTableName())) {
+                    if (partition.getPartitionName() != null) {
+                        partitions.add(partition.getPartitionName());
+                    }
+                }
+                table.put("partitions", partitions);
+            }
+            tables.add(table);
+        }
+        stats.put("tables", tables);
+        return stats;
+    }
+
+    /**
+     * 依次维护各监测数据表，单表失败不影响其他表
+     */
+    private void maintain() {
+        if (!maintaining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            for (MonitoringType type : MonitoringType.values()) {
+                try {
+                    lastResults.put(type, maintain(type));
+                } catch (Exception e) {
+                    lastResults.put(type, "维护失败: " + e.getMessage());
+                    log.error("{}数据分区维护失败", type.getLabel(), e);
+                }
+            }
+            // 以分区实际状态校正归档边界，维护中途失败时边界退回未完成归档的分区之前
+            refreshBoundaries();
+            lastMaintenanceTime = LocalDateTime.now();
+        } finally {
+            maintaining.set(false);
+        }
+    }
+
+    private String maintain(MonitoringType type) {
+        String tableName = type.getTableName();
+        List<MonitoringPartition> partitions = monitoringPartitionMapper.selectPartitions(tableName);
+        if (!isRangePartitioned(partitions)) {
+            return "未按月分区，跳过";
+        }
+        String archiveTable = tableName + ARCHIVE_SUFFIX;
+        recoverExchange(type, archiveTable);
+
+        int created = ensurePartitions(type, partitions);
+        partitions = monitoringPartitionMapper.selectPartitions(tableName);
+
+        LocalDateTime cutoff = YearMonth.now().minusMonths(partitionProperties.getHotMonths()).atDay(1).atStartOfDay();
+        int archived = 0;
+        for (MonitoringPartition partition : partitions) {
+            LocalDateTime upperBound = parseUpperBound(partition);
+            if (upperBound == null || upperBound.isAfter(cutoff)) {
+                break;
+            }
+            archivePartition(type, partition.getPartitionName(), upperBound, archiveTable);
+            archived++;
+        }
+
+        int swept = sweepLateRows(type, archiveTable);
+        return String.format("新建分区%d个，归档分区%d个，迁移迟到数据%d条", created, archived, swept);
+    }
+
+    /**
+     * 预建按月分区至当月之后precreateMonths个月
+     * 尚无按月分区时从表中最早数据所在月份开始拆分p_future，首个分区同时容纳更早的数据
+     *
+     * @return 新建分区数量
+     */
+    private int ensurePartitions(MonitoringType type, List<MonitoringPartition> partitions) {
+        YearMonth last = null;
+        for (MonitoringPartition partition : partitions) {
+            LocalDateTime upperBound = parseUpperBound(partition);
+            if (upperBound != null) {
+                last = YearMonth.from(upperBound).minusMonths(1);
+            }
+        }
+        YearMonth target = YearMonth.now().plusMonths(partitionProperties.getPrecreateMonths());
+        YearMonth next;
+        if (last != null) {
+            next = last.plusMonths(1);
+        } else {
+            LocalDateTime minTime = monitoringPartitionMapper.selectMinMonitoringTime(type.getTableName());
+            next = minTime == null || YearMonth.from(minTime).isAfter(YearMonth.now())
+                    ? YearMonth.now() : YearMonth.from(minTime);
+        }
+
+        List<MonitoringPartition> created = new ArrayList<>();
+        for (YearMonth month = next; !month.isAfter(target); month = month.plusMonths(1)) {
+            String bound = "'" + month.plusMonths(1).atDay(1).atStartOfDay().format(BOUND_FORMAT) + "'";
+            created.add(new MonitoringPartition(month.atDay(1).format(PARTITION_NAME_FORMAT), bound, null));
+        }
+        if (!created.isEmpty()) {
+            monitoringPartitionMapper.splitFuturePartition(type.getTableName(), created);
+            log.info("{}数据新建分区: {} ~ {}", type.getLabel(),
+                    created.get(0).getPartitionName(), created.get(created.size() - 1).getPartitionName());
+        }
+        return created.size();
+    }
+
+    /**
+     * 将一个热表分区迁入归档表
+     * 先复制分区数据，再将分区与空的交换表整体交换，补录复制之后写入该分区的数据，删除分区后才前移归档边界，
+     * 使查询转向归档表；边界前移前合并读取只取归档表中边界之前的数据，已复制的数据不会重复返回。
+     * 中途失败时交换表保留，下次维护由recoverExchange补录
+     */
+    private void archivePartition(MonitoringType type, String partitionName, LocalDateTime upperBound, String archiveTable) {
+        String tableName = type.getTableName();
+        String exchangeTable = tableName + EXCHANGE_SUFFIX;
+        ensureArchiveTable(tableName, archiveTable);
+
+        long start = System.currentTimeMillis();
+        int copied = monitoringPartitionMapper.copyPartition(tableName, partitionName, archiveTable);
+
+        monitoringPartitionMapper.dropTable(exchangeTable);
+        monitoringPartitionMapper.createTableLike(exchangeTable, archiveTable);
+        monitoringPartitionMapper.exchangePartition(tableName, partitionName, exchangeTable);
+        int late = monitoringPartitionMapper.copyTable(exchangeTable, archiveTable);
+        monitoringPartitionMapper.dropPartition(tableName, partitionName);
+        archiveBoundaries.merge(type, upperBound, (a, b) -> a.isAfter(b) ? a : b);
+        monitoringPartitionMapper.dropTable(exchangeTable);
+        log.info("{}数据分区{}已归档，复制影响行数: {}，补录影响行数: {}，耗时: {}ms",
+                type.getLabel(), partitionName, copied, late, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 上次归档中途失败时，交换表中可能留有已移出热表的数据，补录到归档表后删除交换表
+     */
+    private void recoverExchange(MonitoringType type, String archiveTable) {
+        String exchangeTable = type.getTableName() + EXCHANGE_SUFFIX;
+        if (monitoringPartitionMapper.countTable(exchangeTable) == 0) {
+            return;
+        }
+        int recovered = monitoringPartitionMapper.copyTable(exchangeTable, archiveTable);
+        monitoringPartitionMapper.dropTable(exchangeTable);
+        log.warn("{}数据上次归档未完成，已从交换表补录，影响行数: {}", type.getLabel(), recovered);
+    }
+
+    /**
+     * 将早于归档边界、迟到写入热表首个分区的数据迁入归档表
+     * 迟到数据是后写入的，站点和监测时间与归档表已有数据相同时以迟到数据为准；迁移前合并读取不返回这些数据，
+     * 提交后按修改发布变更通知，使预聚合、分位数概要和图表缓存按归档后的数据重算
+     *
+     * @return 迁移行数
+     */
+    private int sweepLateRows(MonitoringType type, String archiveTable) {
+        LocalDateTime boundary = archiveBoundaries.get(type);
+        if (boundary == null) {
+            return 0;
+        }
+        String tableName = type.getTableName();
+        Integer moved = transactionTemplate.execute(status -> {
+            List<StationTimeKey> keys = monitoringPartitionMapper.selectRowKeysBefore(tableName, boundary);
+            if (keys.isEmpty()) {
+                return 0;
+            }
+            int affected = monitoringPartitionMapper.copyRowsBefore(tableName, archiveTable, boundary);
+            int deleted = monitoringPartitionMapper.deleteRowsBefore(tableName, boundary);
+            if (affected > deleted) {
+                log.warn("{}数据迁移迟到数据{}条，其中{}条覆盖了归档表中站点和监测时间相同的数据",
+                        type.getLabel(), deleted, affected - deleted);
+            }
+            monitoringDataChangePublisher.publish(type, MonitoringChangeType.UPDATED, keys);
+            return deleted;
+        });
+        return moved == null ? 0 : moved;
+    }
+
+    /**
+     * 归档表以热表为模板创建并去除分区，保证与热表分区可以互相交换
+     */
+    private void ensureArchiveTable(String tableName, String archiveTable) {
+        if (monitoringPartitionMapper.countTable(archiveTable) > 0) {
+            return;
+        }
+        monitoringPartitionMapper.createTableLike(archiveTable, tableName);
+        if (isRangePartitioned(monitoringPartitionMapper.selectPartitions(archiveTable))) {
+            monitoringPartitionMapper.removePartitioning(archiveTable);
+        }
+    }
+
+    private void refreshBoundaries() {
+        for (MonitoringType type : MonitoringType.values()) {
+            try {
+                refreshBoundary(type);
+            } catch (Exception e) {
+                log.error("{}数据归档边界加载失败", type.getLabel(), e);
+            }
+        }
+    }
+
+    /**
+     * 由分区信息重新计算归档边界：归档表存在时，边界为热表首个按月分区的起始时间
+     */
+    private void refreshBoundary(MonitoringType type) {
+        String tableName = type.getTableName();
+        LocalDateTime boundary = null;
+        if (monitoringPartitionMapper.countTable(tableName + ARCHIVE_SUFFIX) > 0) {
+            for (MonitoringPartition partition : monitoringPartitionMapper.selectPartitions(tableName)) {
+                LocalDateTime upperBound = parseUpperBound(partition);
+                if (upperBound != null) {
+                    boundary = upperBound.minusMonths(1);
+                    break;
+                }
+            }
+        }
+        if (boundary == null) {
+            archiveBoundaries.remove(type);
+        } else {
+            archiveBoundaries.put(type, boundary);
+        }
+    }
+
+    /**
+     * 表是否按本服务约定的方式分区（最后一个分区为p_future）
+     */
+    private static boolean isRangePartitioned(List<MonitoringPartition> partitions) {
+        return !partitions.isEmpty()
+                && FUTURE_PARTITION.equals(partitions.get(partitions.size() - 1).getPartitionName());
+    }
+
+    /**
+     * 解析按月分区的上界，p_future及其他分区返回null
+     */
+    private static LocalDateTime parseUpperBound(MonitoringPartition partition) {
+        String name = partition.getPartitionName();
+        String description = partition.getDescription();
+        if (name == null || FUTURE_PARTITION.equals(name) || description == null) {
+            return null;
+        }
+        String value = description.replace("'", "").trim();
+        if (value.length() < 10) {
+            return null;
+        }
+        return LocalDate.parse(value.substring(0, 10)).atStartOfDay();
+    }
+}
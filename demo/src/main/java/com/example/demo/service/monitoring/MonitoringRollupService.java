@@ -0,0 +1,482 @@
+package com.example.demo.service.monitoring;
+
+import com.example.demo.config.MonitoringRollupProperties;
+import com.example.demo.constant.MonitoringChangeType;
+import com.example.demo.constant.MonitoringTableRoute;
+import com.example.demo.constant.MonitoringType;
+import com.example.demo.constant.RollupGranularity;
+import com.example.demo.mapper.MonitoringRollupMapper;
+import com.example.demo.pojo.entity.monitoring.MonitoringRecord;
+import com.example.demo.utils.TimeBucketAggregator;
+import com.example.demo.utils.TimeBucketInterval;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 监测数据预聚合服务
+ * 维护按站点、指标划分的小时/日/月预聚合桶：数据写入提交后记录受影响的小时桶，
+ * 由后台线程定期以集合语句重算这些小时桶及其所在的日、月桶；图表查询在预聚合可用时直接读取预聚合表
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MonitoringRollupService implements MonitoringDataListener {
+
+    /**
+     * 参与预聚合的监测类型（水库数据没有图表查询）
+     */
+    public static final Set<MonitoringType> SUPPORTED_TYPES = Collections.unmodifiableSet(EnumSet.of(
+            MonitoringType.FLOW, MonitoringType.WATER_LEVEL, MonitoringType.WATER_QUALITY, MonitoringType.RAINFALL));
+
+    /**
+     * 合并重算区间时允许跨越的空桶数量，避免零散的脏桶拆成过多语句
+     */
+    private static final int MERGE_GAP_BUCKETS = 24;
+
+    private final MonitoringRollupProperties rollupProperties;
+    private final MonitoringRollupMapper monitoringRollupMapper;
+    private final MonitoringPartitionService monitoringPartitionService;
+    private final PlatformTransactionManager transactionManager;
+    private final MonitoringChartCache monitoringChartCache;
+
+    /**
+     * 待重算的小时桶
+     */
+    private final Set<DirtyBucket> dirtyBuckets = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 预聚合数据完整、可供图表查询使用的监测类型
+     */
+    private final Set<MonitoringType> readyTypes = ConcurrentHashMap.newKeySet();
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    private final AtomicLong flushedBuckets = new AtomicLong();
+
+    private final AtomicLong failedFlushes = new AtomicLong();
+
+    private volatile LocalDateTime lastFlushTime;
+
+    private volatile LocalDateTime lastRebuildTime;
+
+    private TransactionTemplate transactionTemplate;
+
+    private ScheduledExecutorService executor;
+
+    /**
+     * 启动后台刷新线程，并在需要时自动重建预聚合数据
+     */
+    @PostConstruct
+    public void start() {
+        if (!Boolean.TRUE.equals(rollupProperties.getEnabled())) {
+            log.info("监测数据预聚合未启用，图表查询将使用原始数据");
+            return;
+        }
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "monitoring-rollup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (Boolean.TRUE.equals(rollupProperties.getAutoRebuild())) {
+            executor.execute(this::initialize);
+        } else {
+            readyTypes.addAll(SUPPORTED_TYPES);
+        }
+        long interval = rollupProperties.getFlushIntervalMs();
+        executor.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+        log.info("监测数据预聚合已启动，刷新间隔: {}ms", interval);
+    }
+
+    /**
+     * 停机前将已记录的脏桶刷新一次
+     */
+    @PreDestroy
+    public void stop() {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(rollupProperties.getFlushIntervalMs(), TimeUnit.MILLISECONDS)) {
+                log.warn("预聚合线程未在超时时间内结束");
+                return;
+            }
+            flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void onDataChanged(MonitoringType type, MonitoringChangeType changeType, List<? extends MonitoringRecord> records) {
+        if (executor == null || !SUPPORTED_TYPES.contains(type)) {
+            return;
+        }
+        // 新增、修改、删除都只需重算所在小时桶，桶内数值由数据库按现有数据重新汇总
+        for (MonitoringRecord record : records) {
+            if (record.getStationId() != null && record.getMonitoringTime() != null) {
+                dirtyBuckets.add(new DirtyBucket(type, record.getStationId(),
+                        RollupGranularity.HOUR.truncate(record.getMonitoringTime())));
+            }
+        }
+    }
+
+    /**
+     * 提交预聚合重建任务
+     * 重建期间对应类型的图表查询回退到原始数据，重建范围按整月对齐
+     *
+     * @param type 监测类型，为空时重建全部类型
+     * @param stationId 站点ID，为空时重建全部站点
+     * @param startTime 开始时间，为空时不限
+     * @param endTime 结束时间，为空时不限
+     * @throws IllegalStateException 预聚合未启用或已有重建任务在执行
+     */
+    public void submitRebuild(MonitoringType type, Long stationId, LocalDateTime startTime, LocalDateTime endTime) {
+        if (executor == null) {
+            throw new IllegalStateException("监测数据预聚合未启用");
+        }
+        if (type != null && !SUPPORTED_TYPES.contains(type)) {
+            throw new IllegalArgumentException(type.getLabel() + "数据不支持预聚合");
+        }
+        if (startTime != null && endTime != null && startTime.isAfter(endTime)) {
+            throw new IllegalArgumentException("开始时间不能晚于结束时间");
+        }
+        if (!rebuilding.compareAndSet(false, true)) {
+            throw new IllegalStateException("已有预聚合重建任务正在执行");
+        }
+        Set<MonitoringType> types = type == null ? SUPPORTED_TYPES : EnumSet.of(type);
+        executor.execute(() -> {
+            try {
+                for (MonitoringType t : types) {
+                    rebuild(t, stationId, startTime, endTime);
+                }
+            } finally {
+                rebuilding.set(false);
+            }
+        });
+    }
+
+    /**
+     * 获取预聚合运行状态
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", executor != null);
+        List<String> ready = new ArrayList<>();
+        for (MonitoringType type : SUPPORTED_TYPES) {
+            if (readyTypes.contains(type)) {
+                ready.add(type.getPath());
+            }
+        }
+        stats.put("readyTypes", ready);
+        stats.put("rebuilding", rebuilding.get());
+        stats.put("pendingBuckets", dirtyBuckets.size());
+        stats.put("flushedBuckets", flushedBuckets.get());
+        stats.put("failedFlushes", failedFlushes.get());
+        stats.put("lastFlushTime", lastFlushTime);
+        stats.put("lastRebuildTime", lastRebuildTime);
+        return stats;
+    }
+
+    /**
+     * 从预聚合表查询图表数据
+     * 只有按单个小时、天或月统计且查询范围能被某一粒度的桶完整覆盖时才使用预聚合，
+     * 选择满足条件的最粗粒度；不满足条件时返回null，由调用方查询原始数据分桶统计
+     *
+     * @param type 监测类型
+     * @param stationId 站点ID，为空时汇总对应监测项目的全部站点
+     * @param startTime 开始时间（含）
+     * @param endTime 结束时间（含）
+     * @param interval 时间间隔，时间标签格式与{@link TimeBucketInterval#label}一致
+     * @return 图表数据，每个时间标签一行，包含data_count、station_count及各指标的
+     *         avg_/max_/min_/sum_/count_/first_/last_前缀统计值；不可使用预聚合时返回null
+     */
+    public List<Map<String, Object>> queryChartData(MonitoringType type, Long stationId, LocalDateTime startTime,
+                                                    LocalDateTime endTime, TimeBucketInterval interval) {
+        if (executor == null || !readyTypes.contains(type) || startTime == null || endTime == null) {
+            return null;
+        }
+        RollupGranularity granularity;
+        String labelFormat;
+        if (interval.isSingle("hour")) {
+            granularity = RollupGranularity.HOUR;
+            labelFormat = "%Y-%m-%d %H:%i";
+        } else if (interval.isSingle("day")) {
+            granularity = RollupGranularity.DAY;
+            labelFormat = "%Y-%m-%d";
+        } else if (interval.isSingle("month")) {
+            granularity = RollupGranularity.MONTH;
+            labelFormat = "%Y-%m";
+        } else {
+            // raw及多倍、按周间隔的桶与预聚合粒度不对应，由原始数据分桶统计
+            return null;
+        }
+
+        // 结束时间为闭区间，加1秒后判断是否落在桶边界上
+        LocalDateTime endExclusive = endTime.plusSeconds(1);
+        while (granularity != null && !(granularity.isAligned(startTime) && granularity.isAligned(endExclusive))) {
+            granularity = granularity.finer();
+        }
+        if (granularity == null) {
+            return null;
+        }
+
+        List<Map<String, Object>> rows = monitoringRollupMapper.selectChartData(type.getPath(), granularity.name(),
+                labelFormat, stationId, type.getItemCode(), startTime, endTime);
+        return pivot(rows);
+    }
+
+    /**
+     * 启动时检查各类型的预聚合数据，预聚合为空而原始数据存在时全量重建
+     */
+    private void initialize() {
+        for (MonitoringType type : SUPPORTED_TYPES) {
+            try {
+                if (monitoringRollupMapper.countRollupSample(type.getPath()) > 0
+                        || monitoringRollupMapper.countRawSample(type.getTableName()) == 0) {
+                    readyTypes.add(type);
+                    continue;
+                }
+                log.info("{}数据预聚合为空，开始全量重建", type.getLabel());
+                rebuild(type, null, null, null);
+            } catch (Exception e) {
+                log.error("{}数据预聚合初始化失败，图表查询将使用原始数据", type.getLabel(), e);
+            }
+        }
+    }
+
+    /**
+     * 重建指定类型的预聚合数据，逐站点在独立事务中执行
+     */
+    private void rebuild(MonitoringType type, Long stationId, LocalDateTime startTime, LocalDateTime endTime) {
+        LocalDateTime from = startTime == null ? null : RollupGranularity.MONTH.truncate(startTime);
+        LocalDateTime to = endTime == null ? null
+                : RollupGranularity.MONTH.next(RollupGranularity.MONTH.truncate(endTime));
+
+        Set<Long> stationIds = new TreeSet<>();
+        if (stationId != null) {
+            stationIds.add(stationId);
+        } else {
+            // 预聚合表中残留的站点也需要处理，以清理原始数据已不存在的桶
+            stationIds.addAll(monitoringRollupMapper.selectRawStationIds(type.getTableName()));
+            stationIds.addAll(monitoringRollupMapper.selectRollupStationIds(type.getPath()));
+        }
+
+        readyTypes.remove(type);
+        // 已缓存的图表结果可能来自待重建的预聚合数据
+        monitoringChartCache.invalidate(type, stationId, from, to);
+        long startMillis = System.currentTimeMillis();
+        boolean success = true;
+        for (Long id : stationIds) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> recompute(type, id, from, to));
+            } catch (Exception e) {
+                success = false;
+                log.error("{}数据预聚合重建失败，站点ID: {}", type.getLabel(), id, e);
+            }
+        }
+        if (success) {
+            readyTypes.add(type);
+            lastRebuildTime = LocalDateTime.now();
+            log.info("{}数据预聚合重建完成，站点数: {}，耗时: {}ms",
+                    type.getLabel(), stationIds.size(), System.currentTimeMillis() - startMillis);
+        } else {
+            log.warn("{}数据预聚合重建未全部成功，图表查询将使用原始数据，请重新执行重建", type.getLabel());
+        }
+    }
+
+    /**
+     * 将脏桶按类型和站点分组后重算，失败的分组放回待重算集合
+     */
+    private void flush() {
+        if (dirtyBuckets.isEmpty()) {
+            return;
+        }
+        Map<MonitoringType, Map<Long, NavigableSet<LocalDateTime>>> grouped = new EnumMap<>(MonitoringType.class);
+        Iterator<DirtyBucket> iterator = dirtyBuckets.iterator();
+        while (iterator.hasNext()) {
+            DirtyBucket bucket = iterator.next();
+            iterator.remove();
+            grouped.computeIfAbsent(bucket.getType(), k -> new HashMap<>())
+                    .computeIfAbsent(bucket.getStationId(), k -> new TreeSet<>())
+                    .add(bucket.getHourStart());
+        }
+
+        for (Map.Entry<MonitoringType, Map<Long, NavigableSet<LocalDateTime>>> typeEntry : grouped.entrySet()) {
+            MonitoringType type = typeEntry.getKey();
+            for (Map.Entry<Long, NavigableSet<LocalDateTime>> stationEntry : typeEntry.getValue().entrySet()) {
+                Long stationId = stationEntry.getKey();
+                NavigableSet<LocalDateTime> hours = stationEntry.getValue();
+                try {
+                    transactionTemplate.executeWithoutResult(status -> recomputeHours(type, stationId, hours));
+                    flushedBuckets.addAndGet(hours.size());
+                    // 数据写入后、预聚合刷新前统计的图表结果可能读取了旧的预聚合数据
+                    monitoringChartCache.invalidate(type, stationId, hours.first(), RollupGranularity.HOUR.next(hours.last()));
+                } catch (Exception e) {
+                    failedFlushes.incrementAndGet();
+                    for (LocalDateTime hour : hours) {
+                        dirtyBuckets.add(new DirtyBucket(type, stationId, hour));
+                    }
+                    log.error("{}数据预聚合刷新失败，站点ID: {}，将在下次刷新时重试", type.getLabel(), stationId, e);
+                }
+            }
+        }
+        lastFlushTime = LocalDateTime.now();
+    }
+
+    /**
+     * 重算指定小时桶，以及这些小时所在的日桶和月桶
+     */
+    private void recomputeHours(MonitoringType type, Long stationId, NavigableSet<LocalDateTime> hours) {
+        for (LocalDateTime[] range : mergeRanges(hours, RollupGranularity.HOUR)) {
+            rebuildHours(type, stationId, range[0], range[1]);
+        }
+        RollupGranularity coarser = RollupGranularity.DAY;
+        NavigableSet<LocalDateTime> buckets = hours;
+        while (coarser != null) {
+            NavigableSet<LocalDateTime> affected = new TreeSet<>();
+            for (LocalDateTime bucket : buckets) {
+                affected.add(coarser.truncate(bucket));
+            }
+            for (LocalDateTime[] range : mergeRanges(affected, coarser)) {
+                rebuildFromFiner(type, stationId, coarser, range[0], range[1]);
+            }
+            buckets = affected;
+            coarser = coarser == RollupGranularity.DAY ? RollupGranularity.MONTH : null;
+        }
+    }
+
+    /**
+     * 重算指定时间范围内的全部粒度，范围为空时不限
+     */
+    private void recompute(MonitoringType type, Long stationId, LocalDateTime from, LocalDateTime to) {
+        rebuildHours(type, stationId, from, to);
+        rebuildFromFiner(type, stationId, RollupGranularity.DAY, from, to);
+        rebuildFromFiner(type, stationId, RollupGranularity.MONTH, from, to);
+    }
+
+    private void rebuildHours(MonitoringType type, Long stationId, LocalDateTime from, LocalDateTime to) {
+        // 归档边界之前的迟到数据迁入归档表后会再次发布变更通知，届时重算
+        MonitoringTableRoute route = monitoringPartitionService.route(type, from, to);
+        monitoringRollupMapper.deleteBuckets(type.getPath(), RollupGranularity.HOUR.name(), stationId, from, to);
+        monitoringRollupMapper.insertHourBucketsFromRaw(type.getPath(), type.getTableName(), type.getMetricColumns(),
+                type == MonitoringType.WATER_QUALITY, stationId, from, to, route);
+    }
+
+    private void rebuildFromFiner(MonitoringType type, Long stationId, RollupGranularity granularity,
+                                  LocalDateTime from, LocalDateTime to) {
+        monitoringRollupMapper.deleteBuckets(type.getPath(), granularity.name(), stationId, from, to);
+        monitoringRollupMapper.insertBucketsFromFiner(type.getPath(), granularity.finer().name(), granularity.name(),
+                granularity.getBucketFormat(), stationId, from, to);
+    }
+
+    /**
+     * 将有序的桶起始时间合并为若干[起, 止)区间，相距不超过MERGE_GAP_BUCKETS个桶的合并为一个区间
+     */
+    private static List<LocalDateTime[]> mergeRanges(NavigableSet<LocalDateTime> bucketStarts, RollupGranularity granularity) {
+        List<LocalDateTime[]> ranges = new ArrayList<>();
+        LocalDateTime from = null;
+        LocalDateTime to = null;
+        for (LocalDateTime start : bucketStarts) {
+            if (from != null) {
+                LocalDateTime limit = to;
+                for (int i = 0; i < MERGE_GAP_BUCKETS; i++) {
+                    limit = granularity.next(limit);
+                }
+                if (start.isAfter(limit)) {
+                    ranges.add(new LocalDateTime[]{from, to});
+                    from = null;
+                }
+            }
+            if (from == null) {
+                from = start;
+            }
+            to = granularity.next(start);
+        }
+        if (from != null) {
+            ranges.add(new LocalDateTime[]{from, to});
+        }
+        return ranges;
+    }
+
+    /**
+     * 将“时间标签×指标”的查询结果转换为每个时间标签一行
+     */
+    private static List<Map<String, Object>> pivot(List<Map<String, Object>> rows) {
+        Map<String, Map<String, Object>> byLabel = new LinkedHashMap<>();
+        for (Map<String, Object> row : rows) {
+            String label = (String) row.get("time_label");
+            Map<String, Object> point = byLabel.computeIfAbsent(label, k -> {
+                Map<String, Object> created = new HashMap<>();
+                created.put("time_label", k);
+                created.put("data_count", 0L);
+                created.put("station_count", 0L);
+                return created;
+            });
+
+            String metric = (String) row.get("metric");
+            BigDecimal sum = toBigDecimal(row.get("sum_value"));
+            long valueCount = toLong(row.get("value_count"));
+            point.put("avg_" + metric, sum == null || valueCount == 0 ? null
+                    : TimeBucketAggregator.average(sum, valueCount));
+            point.put("max_" + metric, toBigDecimal(row.get("max_value")));
+            point.put("min_" + metric, toBigDecimal(row.get("min_value")));
+            point.put("sum_" + metric, sum);
+            point.put("count_" + metric, valueCount);
+            point.put("first_" + metric, toBigDecimal(row.get("first_value")));
+            point.put("last_" + metric, toBigDecimal(row.get("last_value")));
+            point.put("data_count", Math.max((Long) point.get("data_count"), toLong(row.get("sample_count"))));
+            point.put("station_count", Math.max((Long) point.get("station_count"), toLong(row.get("station_count"))));
+        }
+        return new ArrayList<>(byLabel.values());
+    }
+
+    private static BigDecimal toBigDecimal(Object value) {
+        if (value == null) {
+            return null;
+        }
+        return value instanceof BigDecimal ? (BigDecimal) value : new BigDecimal(value.toString());
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 0L;
+    }
+
+    /**
+     * 待重算的小时桶
+     */
+    @Value
+    private static class DirtyBucket {
+        MonitoringType type;
+        Long stationId;
+        LocalDateTime hourStart;
+    }
+}
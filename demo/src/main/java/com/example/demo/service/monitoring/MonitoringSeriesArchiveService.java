@@ -0,0 +1,429 @@
+package com.example.demo.service.monitoring;
+
+import com.example.demo.config.MonitoringSeriesArchiveProperties;
+import com.example.demo.constant.MonitoringTableRoute;
+import com.example.demo.constant.MonitoringType;
+import com.example.demo.mapper.MonitoringSeriesArchiveMapper;
+import com.example.demo.utils.ColumnarSeriesReader;
+import com.example.demo.utils.ColumnarSeriesWriter;
+import com.example.demo.utils.TimeBucketAggregator;
+import com.example.demo.utils.TimeBucketInterval;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 监测序列归档文件服务
+ * 将已结束月份的监测数据按站点导出为列式压缩文件（类型/站点ID/yyyyMM.mcs），导出从热表或归档表读取，
+ * 不修改数据库中的数据；查询以内存映射方式读取文件，按小时/日/月统计，结果列与图表预聚合一致
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MonitoringSeriesArchiveService {
+
+    private static final String FILE_SUFFIX = ".mcs";
+
+    private static final DateTimeFormatter FILE_MONTH_FORMAT = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final MonitoringSeriesArchiveProperties archiveProperties;
+    private final MonitoringSeriesArchiveMapper monitoringSeriesArchiveMapper;
+    private final MonitoringPartitionService monitoringPartitionService;
+
+    /**
+     * 已打开的文件，按访问顺序排列，超出maxOpenFiles时移除最久未访问的文件；导出覆盖或删除文件时移除。
+     * 读取器不持有文件句柄，移除后内存映射随读取器回收释放。访问需持有readers的锁
+     */
+    private final LinkedHashMap<Path, ColumnarSeriesReader> readers = new LinkedHashMap<Path, ColumnarSeriesReader>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Path, ColumnarSeriesReader> eldest) {
+            return size() > archiveProperties.getMaxOpenFiles();
+        }
+    };
+
+    private final AtomicBoolean exporting = new AtomicBoolean();
+
+    private volatile LocalDateTime lastExportTime;
+
+    private volatile String lastResult;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void start() {
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "monitoring-series-archive");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 提交归档导出任务，已存在的月份文件会被覆盖，没有数据的月份删除对应文件
+     *
+     * @param type 监测类型
+     * @param stationId 站点ID，为空时导出该类型全部有数据的站点
+     * @param startMonth 开始月份
+     * @param endMonth 结束月份
+     * @throws IllegalArgumentException 月份范围无效
+     * @throws IllegalStateException 已有导出任务在执行
+     */
+    public void submitExport(MonitoringType type, Long stationId, YearMonth startMonth, YearMonth endMonth) {
+        if (startMonth.isAfter(endMonth)) {
+            throw new IllegalArgumentException("开始月份不能晚于结束月份");
+        }
+        if (!endMonth.isBefore(YearMonth.now())) {
+            throw new IllegalArgumentException("只能归档已结束的月份");
+        }
+        if (!exporting.compareAndSet(false, true)) {
+            throw new IllegalStateException("归档导出任务正在执行");
+        }
+        try {
+            executor.execute(() -> export(type, stationId, startMonth, endMonth));
+        } catch (RuntimeException e) {
+            exporting.set(false);
+            throw e;
+        }
+    }
+
+    /**
+     * 按时间顺序扫描站点归档文件中[startTime, endTime]范围内的数据
+     *
+     * @param type 监测类型
+     * @param stationId 站点ID
+     * @param startTime 开始时间，为空时不限
+     * @param endTime 结束时间，为空时不限
+     * @param visitor 行回调，数值顺序与监测类型的指标列一致
+     * @return 扫描的行数
+     */
+    public int scan(MonitoringType type, Long stationId, LocalDateTime startTime, LocalDateTime endTime,
+                    ColumnarSeriesReader.RowVisitor visitor) {
+        int rows = 0;
+        for (Path file : listMonthFiles(stationDir(type, stationId), startTime, endTime)) {
+            rows += getReader(file).scan(startTime, endTime, visitor);
+        }
+        return rows;
+    }
+
+    /**
+     * 查询归档文件中的图表统计数据
+     *
+     * @param type 监测类型
+     * @param stationId 站点ID，为空时统计全部已归档站点
+     * @param startTime 开始时间，为空时不限
+     * @param endTime 结束时间，为空时不限
+     * @param interval 时间间隔，格式见{@link TimeBucketInterval}，raw按监测时间逐点返回
+     * @param dataQuality 数据质量，为空时不过滤
+     * @return 按时间排序的统计数据，包含time_label、data_count及各指标的avg_/max_/min_/sum_列
+     */
+    public List<Map<String, Object>> queryChartData(MonitoringType type, Long stationId, LocalDateTime startTime,
+                                                    LocalDateTime endTime, String interval, Integer dataQuality) {
+        TimeBucketInterval bucketInterval = TimeBucketInterval.parse(interval);
+        List<String> metrics = type.getMetricColumns();
+        // 多个站点的文件依次扫描，时间不是整体有序，按桶起点汇总
+        TreeMap<Long, Bucket> buckets = new TreeMap<>();
+        ColumnarSeriesReader.RowVisitor visitor = new ColumnarSeriesReader.RowVisitor() {
+
+            private long bucketStart = Long.MAX_VALUE;
+
+            private long bucketEnd = Long.MIN_VALUE;
+
+            @Override
+            public void visit(long epochSecond, int quality, long[] scaledValues, boolean[] present) {
+                if (dataQuality != null && quality != dataQuality) {
+                    return;
+                }
+                if (epochSecond < bucketStart || epochSecond >= bucketEnd) {
+                    bucketStart = bucketInterval.bucketStart(epochSecond);
+                    bucketEnd = bucketInterval.nextBucketStart(bucketStart);
+                }
+                buckets.computeIfAbsent(bucketStart, k -> new Bucket(metrics.size())).add(scaledValues, present);
+            }
+        };
+
+        if (stationId != null) {
+            scan(type, stationId, startTime, endTime, visitor);
+        } else {
+            for (Long archivedStationId : listStationIds(type)) {
+                scan(type, archivedStationId, startTime, endTime, visitor);
+            }
+        }
+
+        List<Map<String, Object>> result = new ArrayList<>(buckets.size());
+        for (Map.Entry<Long, Bucket> entry : buckets.entrySet()) {
+            Bucket bucket = entry.getValue();
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("time_label", bucketInterval.label(entry.getKey()));
+            row.put("data_count", bucket.count);
+            for (int i = 0; i < metrics.size(); i++) {
+                String metric = metrics.get(i);
+                boolean empty = bucket.counts[i] == 0;
+                row.put("avg_" + metric, empty ? null
+                        : TimeBucketAggregator.average(ColumnarSeriesWriter.fromScaled(bucket.sums[i]), bucket.counts[i]));
+                row.put("max_" + metric, empty ? null : ColumnarSeriesWriter.fromScaled(bucket.maxs[i]));
+                row.put("min_" + metric, empty ? null : ColumnarSeriesWriter.fromScaled(bucket.mins[i]));
+                row.put("sum_" + metric, empty ? null : ColumnarSeriesWriter.fromScaled(bucket.sums[i]));
+            }
+            result.add(row);
+        }
+        return result;
+    }
+
+    /**
+     * 查询归档文件状态
+     *
+     * @return 各监测类型的归档站点数、文件数、文件总字节数及最近导出结果
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("baseDir", Paths.get(archiveProperties.getBaseDir()).toAbsolutePath().toString());
+        stats.put("exporting", exporting.get());
+        stats.put("lastExportTime", lastExportTime);
+        stats.put("lastResult", lastResult);
+        List<Map<String, Object>> types = new ArrayList<>();
+        for (MonitoringType type : MonitoringType.values()) {
+            List<Long> stationIds = listStationIds(type);
+            int files = 0;
+            long bytes = 0;
+            for (Long stationId : stationIds) {
+                for (Path file : listMonthFiles(stationDir(type, stationId), null, null)) {
+                    files++;
+                    try {
+                        bytes += Files.size(file);
+                    } catch (IOException e) {
+                        log.warn("读取归档文件大小失败: {}", file, e);
+                    }
+                }
+            }
+            Map<String, Object> typeStats = new LinkedHashMap<>();
+            typeStats.put("type", type.getPath());
+            typeStats.put("stations", stationIds.size());
+            typeStats.put("files", files);
+            typeStats.put("bytes", bytes);
+            types.add(typeStats);
+        }
+        stats.put("types", types);
+        return stats;
+    }
+
+    private void export(MonitoringType type, Long stationId, YearMonth startMonth, YearMonth endMonth) {
+        long start = System.currentTimeMillis();
+        int files = 0;
+        long rows = 0;
+        try {
+            for (YearMonth month = startMonth; !month.isAfter(endMonth); month = month.plusMonths(1)) {
+                LocalDateTime from = month.atDay(1).atStartOfDay();
+                LocalDateTime to = month.plusMonths(1).atDay(1).atStartOfDay();
+                MonitoringTableRoute tableRoute = monitoringPartitionService.route(type, from, to);
+                List<Long> stationIds = new ArrayList<>();
+                if (stationId != null) {
+                    stationIds.add(stationId);
+                } else {
+                    stationIds.addAll(monitoringSeriesArchiveMapper.selectStationIds(
+                            type.getTableName(), from, to, tableRoute));
+                }
+                for (Long id : stationIds) {
+                    int count = exportMonth(type, id, month, from, to, tableRoute);
+                    if (count > 0) {
+                        files++;
+                        rows += count;
+                    }
+                }
+            }
+            lastResult = String.format("%s %s~%s 导出文件: %d，数据: %d条，耗时: %dms", type.getLabel(),
+                    startMonth, endMonth, files, rows, System.currentTimeMillis() - start);
+            log.info("监测序列归档导出完成，{}", lastResult);
+        } catch (Exception e) {
+            lastResult = type.getLabel() + "导出失败: " + e.getMessage();
+            log.error("{}监测序列归档导出失败", type.getLabel(), e);
+        } finally {
+            lastExportTime = LocalDateTime.now();
+            exporting.set(false);
+        }
+    }
+
+    private int exportMonth(MonitoringType type, Long stationId, YearMonth month, LocalDateTime from,
+                            LocalDateTime to, MonitoringTableRoute tableRoute) throws IOException {
+        List<String> metrics = type.getMetricColumns();
+        ColumnarSeriesWriter writer = new ColumnarSeriesWriter(metrics);
+        BigDecimal[] values = new BigDecimal[metrics.size()];
+        monitoringSeriesArchiveMapper.selectSeriesRows(type.getTableName(), metrics, stationId, from, to, tableRoute,
+                context -> {
+                    Map<String, Object> row = context.getResultObject();
+                    for (int i = 0; i < values.length; i++) {
+                        values[i] = toBigDecimal(row.get(metrics.get(i)));
+                    }
+                    Object quality = row.get("data_quality");
+                    writer.add(toLocalDateTime(row.get("monitoring_time")),
+                            quality instanceof Number ? ((Number) quality).intValue() : null, values);
+                });
+
+        Path file = stationDir(type, stationId).resolve(month.format(FILE_MONTH_FORMAT) + FILE_SUFFIX);
+        synchronized (readers) {
+            readers.remove(file);
+        }
+        if (writer.getRowCount() == 0) {
+            Files.deleteIfExists(file);
+        } else {
+            writer.writeTo(file);
+        }
+        return writer.getRowCount();
+    }
+
+    private ColumnarSeriesReader getReader(Path file) {
+        synchronized (readers) {
+            ColumnarSeriesReader reader = readers.get(file);
+            if (reader != null) {
+                return reader;
+            }
+        }
+        // 打开文件不持有锁，并发打开同一文件时保留先放入的读取器
+        ColumnarSeriesReader reader;
+        try {
+            reader = ColumnarSeriesReader.open(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("打开归档文件失败: " + file, e);
+        }
+        synchronized (readers) {
+            ColumnarSeriesReader existing = readers.putIfAbsent(file, reader);
+            return existing != null ? existing : reader;
+        }
+    }
+
+    private Path stationDir(MonitoringType type, Long stationId) {
+        return Paths.get(archiveProperties.getBaseDir(), type.getPath(), String.valueOf(stationId));
+    }
+
+    private List<Long> listStationIds(MonitoringType type) {
+        List<Long> stationIds = new ArrayList<>();
+        Path typeDir = Paths.get(archiveProperties.getBaseDir(), type.getPath());
+        if (!Files.isDirectory(typeDir)) {
+            return stationIds;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(typeDir, Files::isDirectory)) {
+            for (Path dir : stream) {
+                try {
+                    stationIds.add(Long.valueOf(dir.getFileName().toString()));
+                } catch (NumberFormatException e) {
+                    log.debug("忽略非站点目录: {}", dir);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取归档目录失败: " + typeDir, e);
+        }
+        stationIds.sort(null);
+        return stationIds;
+    }
+
+    /**
+     * 列出与时间范围相交的月份文件，按月份排序
+     */
+    private List<Path> listMonthFiles(Path stationDir, LocalDateTime startTime, LocalDateTime endTime) {
+        TreeMap<YearMonth, Path> files = new TreeMap<>();
+        if (!Files.isDirectory(stationDir)) {
+            return new ArrayList<>();
+        }
+        YearMonth startMonth = startTime == null ? null : YearMonth.from(startTime);
+        YearMonth endMonth = endTime == null ? null : YearMonth.from(endTime);
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(stationDir, "*" + FILE_SUFFIX)) {
+            for (Path file : stream) {
+                String name = file.getFileName().toString();
+                YearMonth month;
+                try {
+                    month = YearMonth.parse(name.substring(0, name.length() - FILE_SUFFIX.length()), FILE_MONTH_FORMAT);
+                } catch (DateTimeParseException e) {
+                    continue;
+                }
+                if ((startMonth == null || !month.isBefore(startMonth)) && (endMonth == null || !month.isAfter(endMonth))) {
+                    files.put(month, file);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取归档目录失败: " + stationDir, e);
+        }
+        return new ArrayList<>(files.values());
+    }
+
+    private static BigDecimal toBigDecimal(Object value) {
+        if (value == null || value instanceof BigDecimal) {
+            return (BigDecimal) value;
+        }
+        return new BigDecimal(value.toString());
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof Timestamp) {
+            return ((Timestamp) value).toLocalDateTime();
+        }
+        return (LocalDateTime) value;
+    }
+
+    /**
+     * 单个时间段的统计值，数值为放大后的长整数
+     */
+    private static final class Bucket {
+
+        private long count;
+
+        private final long[] counts;
+
+        private final long[] sums;
+
+        private final long[] maxs;
+
+        private final long[] mins;
+
+        private Bucket(int metricCount) {
+            counts = new long[metricCount];
+            sums = new long[metricCount];
+            maxs = new long[metricCount];
+            mins = new long[metricCount];
+        }
+
+        private void add(long[] values, boolean[] present) {
+            count++;
+            for (int i = 0; i < values.length; i++) {
+                if (!present[i]) {
+                    continue;
+                }
+                if (counts[i] == 0) {
+                    maxs[i] = values[i];
+                    mins[i] = values[i];
+                } else {
+                    maxs[i] = Math.max(maxs[i], values[i]);
+                    mins[i] = Math.min(mins[i], values[i]);
+                }
+                counts[i]++;
+                sums[i] += values[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,542 @@
+package com.example.demo.service.monitoring;
+
+import com.example.demo.config.MonitoringSketchProperties;
+import com.example.demo.constant.MonitoringChangeType;
+import com.example.demo.constant.MonitoringTableRoute;
+import com.example.demo.constant.MonitoringType;
+import com.example.demo.mapper.MonitoringChartMapper;
+import com.example.demo.mapper.MonitoringRollupMapper;
+import com.example.demo.mapper.MonitoringSketchMapper;
+import com.example.demo.pojo.DTO.monitoring.MonitoringDistributionResponseDTO;
+import com.example.demo.pojo.entity.monitoring.MonitoringChartRow;
+import com.example.demo.pojo.entity.monitoring.MonitoringDataSketch;
+import com.example.demo.pojo.entity.monitoring.MonitoringRecord;
+import com.example.demo.utils.QuantileSketch;
+import com.example.demo.utils.TimeBucketAggregator;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 监测数据分位数概要服务
+ * 按站点、指标、日保存可合并的分位数概要（{@link QuantileSketch}）：数据写入提交后记录受影响的日期，
+ * 由后台线程一次扫描原始宽行同时重算该日全部指标的概要；分布统计时合并范围内的日概要，
+ * 范围首尾不足一天的部分读取原始数据写入同一概要，一年的分位数只需合并365个概要而不是读取全部原始数据
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MonitoringSketchService implements MonitoringDataListener {
+
+    /**
+     * 合并重算区间时允许跨越的空白天数，避免零散的脏日期拆成过多扫描
+     */
+    private static final int MERGE_GAP_DAYS = 3;
+
+    /**
+     * 每条插入语句写入的概要数量
+     */
+    private static final int INSERT_BATCH_SIZE = 200;
+
+    private static final long SECONDS_PER_DAY = 86400L;
+
+    private final MonitoringSketchProperties sketchProperties;
+    private final MonitoringSketchMapper monitoringSketchMapper;
+    private final MonitoringRollupMapper monitoringRollupMapper;
+    private final MonitoringChartMapper monitoringChartMapper;
+    private final MonitoringPartitionService monitoringPartitionService;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * 待重算的站点日期
+     */
+    private final Set<DirtyDay> dirtyDays = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 概要数据完整、可供分布统计使用的监测类型
+     */
+    private final Set<MonitoringType> readyTypes = ConcurrentHashMap.newKeySet();
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    private final AtomicLong flushedDays = new AtomicLong();
+
+    private final AtomicLong failedFlushes = new AtomicLong();
+
+    private volatile LocalDateTime lastFlushTime;
+
+    private volatile LocalDateTime lastRebuildTime;
+
+    private TransactionTemplate transactionTemplate;
+
+    private ScheduledExecutorService executor;
+
+    /**
+     * 启动后台刷新线程，并在需要时自动重建概要数据
+     */
+    @PostConstruct
+    public void start() {
+        if (!Boolean.TRUE.equals(sketchProperties.getEnabled())) {
+            log.info("监测数据分位数概要未启用，分布统计将使用原始数据");
+            return;
+        }
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "monitoring-sketch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (Boolean.TRUE.equals(sketchProperties.getAutoRebuild())) {
+            executor.execute(this::initialize);
+        } else {
+            readyTypes.addAll(MonitoringRollupService.SUPPORTED_TYPES);
+        }
+        long interval = sketchProperties.getFlushIntervalMs();
+        executor.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+        log.info("监测数据分位数概要已启动，刷新间隔: {}ms", interval);
+    }
+
+    /**
+     * 停机前将已记录的脏日期刷新一次
+     */
+    @PreDestroy
+    public void stop() {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(sketchProperties.getFlushIntervalMs(), TimeUnit.MILLISECONDS)) {
+                log.warn("分位数概要线程未在超时时间内结束");
+                return;
+            }
+            flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void onDataChanged(MonitoringType type, MonitoringChangeType changeType, List<? extends MonitoringRecord> records) {
+        if (executor == null || !MonitoringRollupService.SUPPORTED_TYPES.contains(type)) {
+            return;
+        }
+        // 概要不能扣除数值，新增、修改、删除都按当天现有数据整体重算
+        for (MonitoringRecord record : records) {
+            if (record.getStationId() != null && record.getMonitoringTime() != null) {
+                dirtyDays.add(new DirtyDay(type, record.getStationId(), record.getMonitoringTime().toLocalDate()));
+            }
+        }
+    }
+
+    /**
+     * 统计单个站点单个指标在时间范围内的分位数和直方图
+     * 概要可用时合并范围内完整日期的日概要，首尾不足一天的部分读取原始数据；概要不可用（未启用或重建中）时全部读取原始数据
+     *
+     * @param type 监测类型
+     * @param stationId 站点ID
+     * @param metric 指标列名，为空时使用该监测类型的第一个指标
+     * @param startTime 开始时间（含），为空时不限
+     * @param endTime 结束时间（含），为空时不限
+     * @param bins 直方图分组数，为空时使用默认值
+     * @return 分布统计结果
+     * @throws IllegalArgumentException 参数不合法
+     */
+    public MonitoringDistributionResponseDTO getDistribution(MonitoringType type, Long stationId, String metric,
+                                                             LocalDateTime startTime, LocalDateTime endTime, Integer bins) {
+        if (!MonitoringRollupService.SUPPORTED_TYPES.contains(type)) {
+            throw new IllegalArgumentException(type.getLabel() + "数据不支持分布统计");
+        }
+        if (stationId == null) {
+            throw new IllegalArgumentException("必须提供监测站点ID");
+        }
+        String column = metric == null || metric.trim().isEmpty() ? type.getMetricColumns().get(0) : metric.trim();
+        if (!type.getMetricColumns().contains(column)) {
+            throw new IllegalArgumentException(type.getLabel() + "数据不支持指标: " + column);
+        }
+        if (startTime != null && endTime != null && startTime.isAfter(endTime)) {
+            throw new IllegalArgumentException("开始时间不能晚于结束时间");
+        }
+        int binCount = bins == null ? sketchProperties.getDefaultBins() : bins;
+        if (binCount < 1 || binCount > sketchProperties.getMaxBins()) {
+            throw new IllegalArgumentException("直方图分组数必须在1到" + sketchProperties.getMaxBins() + "之间");
+        }
+
+        QuantileSketch merged = new QuantileSketch(sketchProperties.getCompression());
+        int sketchDays = 0;
+        long rawCount = 0;
+        // 完整日期为[fullFrom, fullTo)，结束时间为闭区间，加1秒后取日期
+        LocalDate fullFrom = startTime == null ? null
+                : startTime.toLocalTime().equals(LocalTime.MIDNIGHT) ? startTime.toLocalDate() : startTime.toLocalDate().plusDays(1);
+        LocalDate fullTo = endTime == null ? null : endTime.plusSeconds(1).toLocalDate();
+        boolean useSketch = executor != null && readyTypes.contains(type)
+                && (fullFrom == null || fullTo == null || fullFrom.isBefore(fullTo));
+        if (useSketch) {
+            int[] days = new int[1];
+            monitoringSketchMapper.selectSketches(type.getPath(), stationId, column, fullFrom, fullTo, context -> {
+                merged.merge(QuantileSketch.fromBytes(context.getResultObject().getSketch()));
+                days[0]++;
+            });
+            sketchDays = days[0];
+            if (fullFrom != null && startTime.isBefore(fullFrom.atStartOfDay())) {
+                rawCount += addRaw(merged, type, stationId, column, startTime, fullFrom.atStartOfDay().minusSeconds(1));
+            }
+            if (fullTo != null && !endTime.isBefore(fullTo.atStartOfDay())) {
+                rawCount += addRaw(merged, type, stationId, column, fullTo.atStartOfDay(), endTime);
+            }
+        } else {
+            rawCount = addRaw(merged, type, stationId, column, startTime, endTime);
+        }
+
+        MonitoringDistributionResponseDTO result = new MonitoringDistributionResponseDTO();
+        result.setStationId(stationId);
+        result.setDataType(type.getPath());
+        result.setMetric(column);
+        result.setCount(merged.getCount());
+        result.setSketchDays(sketchDays);
+        result.setRawCount(rawCount);
+        result.setHistogram(new ArrayList<>());
+        if (merged.getCount() > 0) {
+            result.setMin(decimal(merged.getMin()));
+            result.setMax(decimal(merged.getMax()));
+            result.setMean(decimal(merged.getMean()));
+            result.setP5(decimal(merged.quantile(0.05)));
+            result.setP50(decimal(merged.quantile(0.5)));
+            result.setP95(decimal(merged.quantile(0.95)));
+            result.setP99(decimal(merged.quantile(0.99)));
+            result.setHistogram(histogram(merged, binCount));
+        }
+        return result;
+    }
+
+    /**
+     * 提交概要重建任务
+     * 重建期间对应类型的分布统计回退到原始数据，重建范围按整日对齐
+     *
+     * @param type 监测类型，为空时重建全部类型
+     * @param stationId 站点ID，为空时重建全部站点
+     * @param startTime 开始时间，为空时不限
+     * @param endTime 结束时间，为空时不限
+     * @throws IllegalStateException 概要未启用或已有重建任务在执行
+     */
+    public void submitRebuild(MonitoringType type, Long stationId, LocalDateTime startTime, LocalDateTime endTime) {
+        if (executor == null) {
+            throw new IllegalStateException("监测数据分位数概要未启用");
+        }
+        if (type != null && !MonitoringRollupService.SUPPORTED_TYPES.contains(type)) {
+            throw new IllegalArgumentException(type.getLabel() + "数据不支持分布统计");
+        }
+        if (startTime != null && endTime != null && startTime.isAfter(endTime)) {
+            throw new IllegalArgumentException("开始时间不能晚于结束时间");
+        }
+        if (!rebuilding.compareAndSet(false, true)) {
+            throw new IllegalStateException("已有概要重建任务正在执行");
+        }
+        Set<MonitoringType> types = type == null ? MonitoringRollupService.SUPPORTED_TYPES : EnumSet.of(type);
+        executor.execute(() -> {
+            try {
+                for (MonitoringType t : types) {
+                    rebuild(t, stationId, startTime, endTime);
+                }
+            } finally {
+                rebuilding.set(false);
+            }
+        });
+    }
+
+    /**
+     * 获取概要运行状态
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", executor != null);
+        List<String> ready = new ArrayList<>();
+        for (MonitoringType type : MonitoringRollupService.SUPPORTED_TYPES) {
+            if (readyTypes.contains(type)) {
+                ready.add(type.getPath());
+            }
+        }
+        stats.put("readyTypes", ready);
+        stats.put("rebuilding", rebuilding.get());
+        stats.put("pendingDays", dirtyDays.size());
+        stats.put("flushedDays", flushedDays.get());
+        stats.put("failedFlushes", failedFlushes.get());
+        stats.put("lastFlushTime", lastFlushTime);
+        stats.put("lastRebuildTime", lastRebuildTime);
+        return stats;
+    }
+
+    /**
+     * 启动时检查各类型的概要数据，概要为空而原始数据存在时全量重建
+     */
+    private void initialize() {
+        for (MonitoringType type : MonitoringRollupService.SUPPORTED_TYPES) {
+            try {
+                if (monitoringSketchMapper.countSketchSample(type.getPath()) > 0
+                        || monitoringRollupMapper.countRawSample(type.getTableName()) == 0) {
+                    readyTypes.add(type);
+                    continue;
+                }
+                log.info("{}数据分位数概要为空，开始全量重建", type.getLabel());
+                rebuild(type, null, null, null);
+            } catch (Exception e) {
+                log.error("{}数据分位数概要初始化失败，分布统计将使用原始数据", type.getLabel(), e);
+            }
+        }
+    }
+
+    /**
+     * 重建指定类型的概要数据，逐站点先删除再边扫描边分批写入
+     * 单个站点的全部历史不在一个事务内，失败的站点保留部分数据，该类型保持不可用直到重新重建
+     */
+    private void rebuild(MonitoringType type, Long stationId, LocalDateTime startTime, LocalDateTime endTime) {
+        LocalDate from = startTime == null ? null : startTime.toLocalDate();
+        LocalDate to = endTime == null ? null : endTime.toLocalDate().plusDays(1);
+
+        Set<Long> stationIds = new TreeSet<>();
+        if (stationId != null) {
+            stationIds.add(stationId);
+        } else {
+            // 概要表中残留的站点也需要处理，以清理原始数据已不存在的日期
+            stationIds.addAll(monitoringRollupMapper.selectRawStationIds(type.getTableName()));
+            stationIds.addAll(monitoringSketchMapper.selectSketchStationIds(type.getPath()));
+        }
+
+        readyTypes.remove(type);
+        long startMillis = System.currentTimeMillis();
+        boolean success = true;
+        for (Long id : stationIds) {
+            try {
+                monitoringSketchMapper.deleteSketches(type.getPath(), id, from, to);
+                List<MonitoringDataSketch> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+                compute(type, id, from, to, sketch -> {
+                    batch.add(sketch);
+                    if (batch.size() == INSERT_BATCH_SIZE) {
+                        monitoringSketchMapper.insertSketches(batch);
+                        batch.clear();
+                    }
+                });
+                if (!batch.isEmpty()) {
+                    monitoringSketchMapper.insertSketches(batch);
+                }
+            } catch (Exception e) {
+                success = false;
+                log.error("{}数据分位数概要重建失败，站点ID: {}", type.getLabel(), id, e);
+            }
+        }
+        if (success) {
+            readyTypes.add(type);
+            lastRebuildTime = LocalDateTime.now();
+            log.info("{}数据分位数概要重建完成，站点数: {}，耗时: {}ms",
+                    type.getLabel(), stationIds.size(), System.currentTimeMillis() - startMillis);
+        } else {
+            log.warn("{}数据分位数概要重建未全部成功，分布统计将使用原始数据，请重新执行重建", type.getLabel());
+        }
+    }
+
+    /**
+     * 将脏日期按类型和站点分组后重算，失败的分组放回待重算集合
+     */
+    private void flush() {
+        if (dirtyDays.isEmpty()) {
+            return;
+        }
+        Map<MonitoringType, Map<Long, NavigableSet<LocalDate>>> grouped = new EnumMap<>(MonitoringType.class);
+        Iterator<DirtyDay> iterator = dirtyDays.iterator();
+        while (iterator.hasNext()) {
+            DirtyDay day = iterator.next();
+            iterator.remove();
+            grouped.computeIfAbsent(day.getType(), k -> new HashMap<>())
+                    .computeIfAbsent(day.getStationId(), k -> new TreeSet<>())
+                    .add(day.getDate());
+        }
+
+        for (Map.Entry<MonitoringType, Map<Long, NavigableSet<LocalDate>>> typeEntry : grouped.entrySet()) {
+            MonitoringType type = typeEntry.getKey();
+            for (Map.Entry<Long, NavigableSet<LocalDate>> stationEntry : typeEntry.getValue().entrySet()) {
+                Long stationId = stationEntry.getKey();
+                NavigableSet<LocalDate> days = stationEntry.getValue();
+                try {
+                    for (LocalDate[] range : mergeRanges(days)) {
+                        // 先在事务外扫描原始数据，重算结果很小，再在事务内整体替换
+                        List<MonitoringDataSketch> sketches = new ArrayList<>();
+                        compute(type, stationId, range[0], range[1], sketches::add);
+                        transactionTemplate.executeWithoutResult(status -> {
+                            monitoringSketchMapper.deleteSketches(type.getPath(), stationId, range[0], range[1]);
+                            for (int i = 0; i < sketches.size(); i += INSERT_BATCH_SIZE) {
+                                monitoringSketchMapper.insertSketches(
+                                        sketches.subList(i, Math.min(i + INSERT_BATCH_SIZE, sketches.size())));
+                            }
+                        });
+                    }
+                    flushedDays.addAndGet(days.size());
+                } catch (Exception e) {
+                    failedFlushes.incrementAndGet();
+                    for (LocalDate day : days) {
+                        dirtyDays.add(new DirtyDay(type, stationId, day));
+                    }
+                    log.error("{}数据分位数概要刷新失败，站点ID: {}，将在下次刷新时重试", type.getLabel(), stationId, e);
+                }
+            }
+        }
+        lastFlushTime = LocalDateTime.now();
+    }
+
+    /**
+     * 扫描站点[from, to)日期内的原始数据，一次读取全部指标，按日输出各指标的概要
+     */
+    private void compute(MonitoringType type, Long stationId, LocalDate from, LocalDate to,
+                         Consumer<MonitoringDataSketch> sink) {
+        List<String> metrics = type.getMetricColumns();
+        LocalDateTime startTime = from == null ? null : from.atStartOfDay();
+        LocalDateTime endTime = to == null ? null : to.atStartOfDay().minusSeconds(1);
+        // 归档边界之前的迟到数据迁入归档表后会再次发布变更通知，届时重算
+        MonitoringTableRoute route = monitoringPartitionService.route(type, startTime, endTime);
+
+        int compression = sketchProperties.getCompression();
+        QuantileSketch[] sketches = new QuantileSketch[metrics.size()];
+        long[] currentDay = {Long.MIN_VALUE};
+        Runnable emit = () -> {
+            for (int m = 0; m < sketches.length; m++) {
+                if (sketches[m] != null) {
+                    MonitoringDataSketch sketch = new MonitoringDataSketch();
+                    sketch.setDataType(type.getPath());
+                    sketch.setMetric(metrics.get(m));
+                    sketch.setStationId(stationId);
+                    sketch.setBucketDate(LocalDate.ofEpochDay(currentDay[0]));
+                    sketch.setValueCount(sketches[m].getCount());
+                    sketch.setSketch(sketches[m].toBytes());
+                    sink.accept(sketch);
+                    sketches[m] = null;
+                }
+            }
+        };
+        monitoringChartMapper.selectChartRows(type.getTableName(), metrics, stationId,
+                type == MonitoringType.WATER_QUALITY, startTime, endTime, route, context -> {
+                    MonitoringChartRow row = context.getResultObject();
+                    long day = Math.floorDiv(row.getEpochSecond(), SECONDS_PER_DAY);
+                    if (day != currentDay[0]) {
+                        emit.run();
+                        currentDay[0] = day;
+                    }
+                    for (int m = 0; m < sketches.length; m++) {
+                        Double value = row.getValue(m);
+                        if (value != null) {
+                            if (sketches[m] == null) {
+                                sketches[m] = new QuantileSketch(compression);
+                            }
+                            sketches[m].add(value);
+                        }
+                    }
+                });
+        emit.run();
+    }
+
+    /**
+     * 把原始数据[startTime, endTime]的数值写入概要
+     *
+     * @return 写入的数值条数
+     */
+    private long addRaw(QuantileSketch sketch, MonitoringType type, Long stationId, String metric,
+                        LocalDateTime startTime, LocalDateTime endTime) {
+        long before = sketch.getCount();
+        monitoringChartMapper.selectStationChartSamples(type.getTableName(), metric, Collections.singletonList(stationId),
+                type == MonitoringType.WATER_QUALITY, startTime, endTime,
+                monitoringPartitionService.route(type, startTime, endTime),
+                context -> sketch.add(context.getResultObject().getValue()));
+        return sketch.getCount() - before;
+    }
+
+    /**
+     * 按[min, max]等宽分组，各组数量由概要的累积分布估算，按累积值取整保证合计等于总条数
+     */
+    private static List<MonitoringDistributionResponseDTO.Bin> histogram(QuantileSketch sketch, int binCount) {
+        double min = sketch.getMin();
+        double max = sketch.getMax();
+        int groups = min == max ? 1 : binCount;
+        double width = (max - min) / groups;
+        List<MonitoringDistributionResponseDTO.Bin> histogram = new ArrayList<>(groups);
+        long previous = 0;
+        for (int i = 0; i < groups; i++) {
+            double lower = min + width * i;
+            double upper = i == groups - 1 ? max : min + width * (i + 1);
+            long cumulative = i == groups - 1 ? sketch.getCount() : Math.round(sketch.cdf(upper) * sketch.getCount());
+            // cdf按小于等于计，上界处的数值计入下一组的误差在估算精度之内
+            cumulative = Math.max(cumulative, previous);
+            MonitoringDistributionResponseDTO.Bin bin = new MonitoringDistributionResponseDTO.Bin();
+            bin.setLower(decimal(lower));
+            bin.setUpper(decimal(upper));
+            bin.setCount(cumulative - previous);
+            histogram.add(bin);
+            previous = cumulative;
+        }
+        return histogram;
+    }
+
+    /**
+     * 将有序日期合并为若干[起, 止)区间，相距不超过MERGE_GAP_DAYS天的合并为一个区间
+     */
+    private static List<LocalDate[]> mergeRanges(NavigableSet<LocalDate> days) {
+        List<LocalDate[]> ranges = new ArrayList<>();
+        LocalDate from = null;
+        LocalDate to = null;
+        for (LocalDate day : days) {
+            if (from != null && day.isAfter(to.plusDays(MERGE_GAP_DAYS))) {
+                ranges.add(new LocalDate[]{from, to});
+                from = null;
+            }
+            if (from == null) {
+                from = day;
+            }
+            to = day.plusDays(1);
+        }
+        if (from != null) {
+            ranges.add(new LocalDate[]{from, to});
+        }
+        return ranges;
+    }
+
+    private static BigDecimal decimal(double value) {
+        return BigDecimal.valueOf(value).setScale(TimeBucketAggregator.SCALE, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * 待重算的站点日期
+     */
+    @Value
+    private static class DirtyDay {
+        MonitoringType type;
+        Long stationId;
+        LocalDate date;
+    }
+}
@@ -0,0 +1,288 @@
+package com.example.demo.service.monitoring;
+
+import com.example.demo.mapper.MonitoringStationMapper;
+import com.example.demo.pojo.entity.facility.MonitoringStation;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 监测站点注册表
+ * 在内存中维护未删除监测站点的站码与站点ID映射，供各类监测数据导入和遥测接入解析站码：
+ * <ul>
+ *     <li>启动时从数据库全量加载，之后通过MonitoringStationService的增删改在事务提交后同步更新</li>
+ *     <li>命中时不访问数据库；未命中的站码（如直接写库新增的站点）批量查询一次后补入注册表</li>
+ *     <li>自动建站在独立事务中提交，并发导入同时创建同一站码时由站码唯一键保证只创建一次，
+ *     后到者重新查询已创建的站点</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MonitoringStationRegistry {
+
+    private final MonitoringStationMapper monitoringStationMapper;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * 站码到站点ID的映射
+     */
+    private final Map<String, Long> codeToId = new ConcurrentHashMap<>();
+
+    /**
+     * 站点ID到站码的映射，用于站点修改和删除时移除旧站码
+     */
+    private final Map<Long, String> idToCode = new ConcurrentHashMap<>();
+
+    private TransactionTemplate creationTransaction;
+
+    /**
+     * 启动时加载全部未删除站点，加载失败时注册表从空开始，按需查询数据库补入
+     */
+    @PostConstruct
+    public void load() {
+        creationTransaction = new TransactionTemplate(transactionManager);
+        creationTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            long start = System.currentTimeMillis();
+            List<MonitoringStation> stations = monitoringStationMapper.selectAvailableMonitoringStations();
+            for (MonitoringStation station : stations) {
+                register(station.getId(), station.getStationCode());
+            }
+            log.info("监测站点注册表加载完成，站点数: {}，耗时: {}ms", codeToId.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("监测站点注册表加载失败，站码将按需从数据库查询", e);
+        }
+    }
+
+    /**
+     * 根据站码获取站点ID，只查询内存
+     *
+     * @param stationCode 站码
+     * @return 站点ID，未注册时返回null
+     */
+    public Long getStationId(String stationCode) {
+        String code = normalize(stationCode);
+        return code == null ? null : codeToId.get(code);
+    }
+
+    /**
+     * 批量解析站码，未注册的站码批量查询数据库一次后补入注册表
+     *
+     * @param stationCodes 站码集合
+     * @return 站码（已去除首尾空格）到站点ID的映射，不存在的站码不包含在结果中
+     */
+    public Map<String, Long> resolve(Collection<String> stationCodes) {
+        Map<String, Long> result = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String stationCode : stationCodes) {
+            String code = normalize(stationCode);
+            if (code == null || result.containsKey(code)) {
+                continue;
+            }
+            Long id = codeToId.get(code);
+            if (id != null) {
+                result.put(code, id);
+            } else {
+                missing.add(code);
+            }
+        }
+        if (!missing.isEmpty()) {
+            result.putAll(loadByCodes(missing));
+        }
+        return result;
+    }
+
+    /**
+     * 批量解析导入行的站码，不存在的站点自动创建
+     *
+     * @param rows 导入行
+     * @param codeGetter 站码取值函数
+     * @param nameGetter 站名取值函数，站名为空时以站码作为站名
+     * @param monitoringItemCode 自动创建站点的监测项目码，如Q、H、WQ
+     * @return 站码（已去除首尾空格）到站点ID的映射
+     */
+    public <T> Map<String, Long> resolveOrCreate(List<T> rows, Function<T, String> codeGetter,
+                                                 Function<T, String> nameGetter, String monitoringItemCode) {
+        // 同一站码以最后一次出现的非空站名为准
+        Map<String, String> codeToName = new LinkedHashMap<>();
+        for (T row : rows) {
+            String code = normalize(codeGetter.apply(row));
+            if (code == null) {
+                continue;
+            }
+            String name = normalize(nameGetter.apply(row));
+            if (name != null || !codeToName.containsKey(code)) {
+                codeToName.put(code, name != null ? name : code);
+            }
+        }
+
+        Map<String, Long> result = resolve(codeToName.keySet());
+        for (Map.Entry<String, String> entry : codeToName.entrySet()) {
+            if (!result.containsKey(entry.getKey())) {
+                Long id = create(entry.getKey(), entry.getValue(), monitoringItemCode);
+                if (id != null) {
+                    result.put(entry.getKey(), id);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 批量检查站点ID是否存在，未注册的ID批量查询数据库一次后补入注册表
+     *
+     * @param stationIds 站点ID集合
+     * @return 存在的站点ID
+     */
+    public Set<Long> findExistingIds(Collection<Long> stationIds) {
+        Set<Long> existing = new HashSet<>();
+        Set<Long> missing = new HashSet<>();
+        for (Long id : stationIds) {
+            if (id == null) {
+                continue;
+            }
+            if (idToCode.containsKey(id)) {
+                existing.add(id);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (MonitoringStation station : monitoringStationMapper.selectBatchIds(missing)) {
+                register(station.getId(), station.getStationCode());
+                existing.add(station.getId());
+            }
+        }
+        return existing;
+    }
+
+    /**
+     * 站点新增或修改后同步注册表，处于事务中时延迟到事务提交后执行
+     *
+     * @param stationId 站点ID
+     * @param stationCode 新站码
+     */
+    public void onStationSaved(Long stationId, String stationCode) {
+        afterCommit(() -> {
+            unregister(stationId);
+            register(stationId, stationCode);
+        });
+    }
+
+    /**
+     * 站点删除后同步注册表，处于事务中时延迟到事务提交后执行
+     *
+     * @param stationIds 站点ID集合
+     */
+    public void onStationsDeleted(Collection<Long> stationIds) {
+        List<Long> ids = new ArrayList<>(stationIds);
+        afterCommit(() -> ids.forEach(this::unregister));
+    }
+
+    /**
+     * 在独立事务中创建站点并注册
+     * 串行执行，避免本实例内并发导入重复插入；其他实例已创建同一站码时插入违反唯一键，改为查询已有站点
+     *
+     * @return 站点ID，站码被已删除站点占用时返回null
+     */
+    private synchronized Long create(String code, String name, String monitoringItemCode) {
+        Long existing = codeToId.get(code);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            Long id = creationTransaction.execute(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                MonitoringStation station = new MonitoringStation();
+                station.setStationCode(code);
+                station.setName(name);
+                station.setMonitoringItemCode(monitoringItemCode);
+                station.setCreatedAt(now);
+                station.setUpdatedAt(now);
+                monitoringStationMapper.insert(station);
+                return station.getId();
+            });
+            register(id, code);
+            log.info("导入时自动创建监测站点，站码: {}，站名: {}，站点ID: {}", code, name, id);
+            return id;
+        } catch (DuplicateKeyException e) {
+            Long id = creationTransaction.execute(status -> loadByCodes(Collections.singletonList(code)).get(code));
+            if (id == null) {
+                log.warn("站码已被已删除的监测站点占用，无法自动创建: {}", code);
+            }
+            return id;
+        }
+    }
+
+    /**
+     * 查询数据库中的站点并补入注册表
+     */
+    private Map<String, Long> loadByCodes(List<String> codes) {
+        Map<String, Long> result = new HashMap<>();
+        for (Map<String, Object> station : monitoringStationMapper.selectByStationCodes(codes)) {
+            String code = (String) station.get("station_code");
+            Long id = ((Number) station.get("id")).longValue();
+            register(id, code);
+            result.put(code, id);
+        }
+        return result;
+    }
+
+    private void register(Long stationId, String stationCode) {
+        String code = normalize(stationCode);
+        if (stationId == null || code == null) {
+            return;
+        }
+        codeToId.put(code, stationId);
+        idToCode.put(stationId, code);
+    }
+
+    private void unregister(Long stationId) {
+        String code = idToCode.remove(stationId);
+        if (code != null) {
+            codeToId.remove(code, stationId);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static String normalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+}
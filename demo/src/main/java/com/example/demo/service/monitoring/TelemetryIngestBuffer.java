@@ -0,0 +1,325 @@
+package com.example.demo.service.monitoring;
+
+import com.example.demo.config.MonitoringIngestProperties;
+import com.example.demo.constant.MonitoringImportMode;
+import com.example.demo.constant.MonitoringType;
+import com.example.demo.exception.monitoring.IngestQueueFullException;
+import com.example.demo.pojo.entity.monitoring.MonitoringRecord;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 遥测数据写入缓冲区
+ * 每种监测类型一个有界队列和一个写入线程，写入线程将队列中的数据聚合成批，
+ * 以多行INSERT批量提交；队列已满时拒绝写入，由调用方返回429让设备稍后重试
+ * 数据库不可用时批次转入{@link TelemetrySpool}本地暂存日志，数据库恢复后按顺序回放
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TelemetryIngestBuffer {
+
+    private final MonitoringIngestProperties ingestProperties;
+    private final MonitoringBulkWriter monitoringBulkWriter;
+    private final TelemetrySpool telemetrySpool;
+
+    private final Map<MonitoringType, IngestChannel> channels = new EnumMap<>(MonitoringType.class);
+
+    private volatile boolean running;
+
+    /**
+     * 初始化各监测类型的写入队列并启动写入线程
+     */
+    @PostConstruct
+    public void start() {
+        running = true;
+        for (MonitoringType type : MonitoringType.values()) {
+            IngestChannel channel = new IngestChannel(type, new ArrayBlockingQueue<>(ingestProperties.getQueueCapacity()));
+            Thread writer = new Thread(() -> runWriter(channel), "ingest-writer-" + type.getPath());
+            writer.setDaemon(true);
+            channel.writer = writer;
+            channels.put(type, channel);
+            writer.start();
+        }
+        log.info("遥测写入缓冲区已启动，队列容量: {}，批量大小: {}",
+                ingestProperties.getQueueCapacity(), ingestProperties.getBatchSize());
+    }
+
+    /**
+     * 停止接收新数据，并在超时时间内等待写入线程排空队列
+     */
+    @PreDestroy
+    public void stop() {
+        running = false;
+        long deadline = System.currentTimeMillis() + ingestProperties.getShutdownTimeoutMs();
+        for (IngestChannel channel : channels.values()) {
+            try {
+                channel.writer.join(Math.max(1, deadline - System.currentTimeMillis()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            long dropped = channel.queue.stream().filter(record -> !(record instanceof WrittenMarker)).count();
+            if (dropped > 0) {
+                log.warn("{}数据写入队列未排空，丢弃{}条数据", channel.type.getLabel(), dropped);
+            }
+        }
+    }
+
+    /**
+     * 将一批数据放入写入队列
+     * 整批放入或整批拒绝，避免同一请求的数据被部分接收
+     *
+     * @param type 监测类型
+     * @param records 数据记录
+     * @throws IngestQueueFullException 队列剩余容量不足
+     */
+    public void offer(MonitoringType type, List<? extends MonitoringRecord> records) {
+        offer(type, records, null);
+    }
+
+    /**
+     * 将一批数据放入写入队列，全部写入后回调
+     * 整批放入或整批拒绝，避免同一请求的数据被部分接收
+     *
+     * @param type 监测类型
+     * @param records 数据记录
+     * @param onWritten 该批数据全部写入数据库或本地暂存日志后由写入线程调用；有数据写入失败或停止时未写入则不调用，可为空
+     * @throws IngestQueueFullException 队列剩余容量不足
+     */
+    public void offer(MonitoringType type, List<? extends MonitoringRecord> records, Runnable onWritten) {
+        IngestChannel channel = channels.get(type);
+        if (!running) {
+            throw new IngestQueueFullException("遥测写入服务正在停止，请稍后重试", ingestProperties.getRetryAfterSeconds());
+        }
+        // 只有生产者之间需要互斥，写入线程只会增加剩余容量，检查后放入不会失败；同一请求的数据和完成标记在队列中连续
+        synchronized (channel) {
+            if (channel.queue.remainingCapacity() < records.size() + 1) {
+                channel.rejectedRows.addAndGet(records.size());
+                throw new IngestQueueFullException(type.getLabel() + "数据写入队列已满，请稍后重试",
+                        ingestProperties.getRetryAfterSeconds());
+            }
+            channel.queue.addAll(records);
+            // 没有回调的请求同样放入标记，作为请求边界清除失败状态，避免影响下一个请求
+            channel.queue.add(new WrittenMarker(onWritten));
+        }
+        channel.acceptedRows.addAndGet(records.size());
+    }
+
+    /**
+     * 获取各监测类型的队列统计
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        for (IngestChannel channel : channels.values()) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("queueSize", channel.queue.size());
+            item.put("remainingCapacity", channel.queue.remainingCapacity());
+            item.put("acceptedRows", channel.acceptedRows.get());
+            item.put("writtenRows", channel.writtenRows.get());
+            item.put("duplicateRows", channel.duplicateRows.get());
+            item.put("failedRows", channel.failedRows.get());
+            item.put("rejectedRows", channel.rejectedRows.get());
+            item.put("spooledRows", channel.spooledRows.get());
+            stats.put(channel.type.getPath(), item);
+        }
+        stats.put("spool", telemetrySpool.getStats());
+        return stats;
+    }
+
+    /**
+     * 写入线程主循环
+     * 取到第一条数据后最多等待lingerMs聚合更多数据，凑满batchSize或超时即提交
+     */
+    private void runWriter(IngestChannel channel) {
+        int batchSize = ingestProperties.getBatchSize();
+        long lingerNanos = TimeUnit.MILLISECONDS.toNanos(ingestProperties.getLingerMs());
+        List<MonitoringRecord> batch = new ArrayList<>(batchSize);
+
+        while (running || !channel.queue.isEmpty()) {
+            try {
+                MonitoringRecord first = channel.queue.poll(ingestProperties.getLingerMs(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < batchSize) {
+                    channel.queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                        break;
+                    }
+                    MonitoringRecord next = channel.queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                writeBatch(channel, batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("{}数据写入线程异常", channel.type.getLabel(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 批量提交一批数据，失败时逐条重试以隔离问题数据
+     * 设备重传的同站点同时间数据由唯一键跳过，计入重复行数
+     * 处于暂存状态或数据库连接不可用时，整批追加到本地暂存日志
+     * 批中的完成标记按顺序处理：标记之前属于同一请求的数据都已写入时才回调
+     */
+    private void writeBatch(IngestChannel channel, List<MonitoringRecord> batch) throws InterruptedException {
+        List<MonitoringRecord> records = withoutMarkers(batch);
+        if (records.isEmpty()) {
+            completeMarkers(channel, batch);
+            return;
+        }
+        if (telemetrySpool.appendIfActive(channel.type, records)) {
+            channel.spooledRows.addAndGet(records.size());
+            completeMarkers(channel, batch);
+            return;
+        }
+        try {
+            record(channel, monitoringBulkWriter.write(channel.type, records, MonitoringImportMode.SKIP));
+            completeMarkers(channel, batch);
+        } catch (Exception e) {
+            if (TelemetrySpool.isUnavailable(e)) {
+                telemetrySpool.activate(e);
+                if (telemetrySpool.appendIfActive(channel.type, records)) {
+                    channel.spooledRows.addAndGet(records.size());
+                    completeMarkers(channel, batch);
+                    return;
+                }
+            }
+            log.warn("{}数据批量写入失败，改为逐条写入，批量大小: {}，原因: {}",
+                    channel.type.getLabel(), records.size(), e.getMessage());
+            for (MonitoringRecord record : batch) {
+                if (record instanceof WrittenMarker) {
+                    complete(channel, (WrittenMarker) record);
+                    continue;
+                }
+                try {
+                    record(channel, monitoringBulkWriter.write(channel.type,
+                            Collections.singletonList(record), MonitoringImportMode.SKIP));
+                } catch (Exception ex) {
+                    channel.failedRows.incrementAndGet();
+                    channel.pendingFailed = true;
+                    log.error("{}数据写入失败，站点ID: {}，监测时间: {}，原因: {}", channel.type.getLabel(),
+                            record.getStationId(), record.getMonitoringTime(), ex.getMessage());
+                }
+            }
+        }
+    }
+
+    private static List<MonitoringRecord> withoutMarkers(List<MonitoringRecord> batch) {
+        List<MonitoringRecord> records = null;
+        for (int i = 0; i < batch.size(); i++) {
+            if (batch.get(i) instanceof WrittenMarker) {
+                if (records == null) {
+                    records = new ArrayList<>(batch.subList(0, i));
+                }
+            } else if (records != null) {
+                records.add(batch.get(i));
+            }
+        }
+        return records == null ? batch : records;
+    }
+
+    private void completeMarkers(IngestChannel channel, List<MonitoringRecord> batch) {
+        for (MonitoringRecord record : batch) {
+            if (record instanceof WrittenMarker) {
+                complete(channel, (WrittenMarker) record);
+            }
+        }
+    }
+
+    /**
+     * 处理完成标记：标记所属请求的数据全部写入时回调，有数据写入失败时不回调；之后的数据属于下一个请求
+     */
+    private void complete(IngestChannel channel, WrittenMarker marker) {
+        boolean failed = channel.pendingFailed;
+        channel.pendingFailed = false;
+        if (failed || marker.onWritten == null) {
+            return;
+        }
+        try {
+            marker.onWritten.run();
+        } catch (Exception e) {
+            log.warn("{}数据写入完成回调失败: {}", channel.type.getLabel(), e.getMessage());
+        }
+    }
+
+    private static void record(IngestChannel channel, MonitoringBulkWriter.WriteResult result) {
+        channel.writtenRows.addAndGet(result.getWrittenRows());
+        channel.duplicateRows.addAndGet(result.getDuplicateRows());
+    }
+
+    /**
+     * 单个监测类型的写入通道
+     */
+    private static class IngestChannel {
+
+        private final MonitoringType type;
+        private final BlockingQueue<MonitoringRecord> queue;
+        private final AtomicLong acceptedRows = new AtomicLong();
+        private final AtomicLong writtenRows = new AtomicLong();
+        private final AtomicLong duplicateRows = new AtomicLong();
+        private final AtomicLong failedRows = new AtomicLong();
+        private final AtomicLong rejectedRows = new AtomicLong();
+        private final AtomicLong spooledRows = new AtomicLong();
+        private Thread writer;
+
+        /**
+         * 当前请求（最近一个完成标记之后）是否有数据写入失败，仅由写入线程访问
+         */
+        private boolean pendingFailed;
+
+        private IngestChannel(MonitoringType type, BlockingQueue<MonitoringRecord> queue) {
+            this.type = type;
+            this.queue = queue;
+        }
+    }
+
+    /**
+     * 请求写入完成标记，每个请求的数据之后都放入一个并占用一个队列位置，标记请求边界；
+     * 写入线程按顺序处理，处理到标记时该请求的数据都已写入或失败
+     */
+    private static final class WrittenMarker implements MonitoringRecord {
+
+        private final Runnable onWritten;
+
+        private WrittenMarker(Runnable onWritten) {
+            this.onWritten = onWritten;
+        }
+
+        @Override
+        public Long getStationId() {
+            return null;
+        }
+
+        @Override
+        public LocalDateTime getMonitoringTime() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package com.example.demo.service.monitoring;
+
+import com.example.demo.config.MonitoringIngestProperties;
+import com.example.demo.constant.MonitoringType;
+import com.example.demo.pojo.DTO.monitoring.ImportResultDTO;
+import com.example.demo.pojo.DTO.monitoring.TelemetryIngestResultDTO;
+import com.example.demo.pojo.DTO.monitoring.TelemetryReadingDTO;
+import com.example.demo.exception.monitoring.IngestQueueFullException;
+import com.example.demo.pojo.entity.monitoring.FlowMonitoringData;
+import com.example.demo.pojo.entity.monitoring.MonitoringImportBatch;
+import com.example.demo.pojo.entity.monitoring.MonitoringRecord;
+import com.example.demo.pojo.entity.monitoring.RainfallMonitoringData;
+import com.example.demo.pojo.entity.monitoring.ReservoirMonitoringData;
+import com.example.demo.pojo.entity.monitoring.WaterLevelMonitoringData;
+import com.example.demo.pojo.entity.monitoring.WaterQualityMonitoringData;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 遥测数据接入服务
+ * 校验设备上报的读数并转换为对应监测数据实体，放入写入缓冲区由后台批量提交
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TelemetryIngestService {
+
+    private final TelemetryIngestBuffer ingestBuffer;
+    private final MonitoringStationRegistry monitoringStationRegistry;
+    private final MonitoringIngestProperties ingestProperties;
+    private final MonitoringImportBatchLedger monitoringImportBatchLedger;
+
+    /**
+     * 接收一批遥测数据
+     * 携带批次ID时，已接收过的批次直接返回台账中的结果，不再校验数据；新批次在数据全部写入数据库或本地暂存日志后
+     * 才记录台账，队列已满、写入前或有数据写入失败时网关可用同一批次ID重试，已写入的重复数据由唯一键跳过
+     *
+     * @param type 监测类型
+     * @param readings 上报数据
+     * @param batchId 客户端批次ID，为空时不做幂等处理
+     * @return 接收结果
+     * @throws IngestQueueFullException 写入队列已满
+     */
+    public TelemetryIngestResultDTO ingest(MonitoringType type, List<TelemetryReadingDTO> readings, String batchId) {
+        MonitoringImportBatch existing = findBatch(batchId, type);
+        if (existing != null) {
+            return toReplay(existing);
+        }
+        if (readings == null || readings.isEmpty()) {
+            throw new IllegalArgumentException("上报数据不能为空");
+        }
+        if (readings.size() > ingestProperties.getMaxRequestRows()) {
+            throw new IllegalArgumentException("单次上报数据不能超过" + ingestProperties.getMaxRequestRows() + "条");
+        }
+
+        Long[] stationIds = resolveStationIds(readings);
+
+        List<MonitoringRecord> records = new ArrayList<>(readings.size());
+        List<ImportResultDTO.ImportErrorDTO> errors = new ArrayList<>();
+        for (int i = 0; i < readings.size(); i++) {
+            TelemetryReadingDTO reading = readings.get(i);
+            String error = validate(type, reading, stationIds[i]);
+            if (error != null) {
+                errors.add(ImportResultDTO.ImportErrorDTO.builder()
+                        .rowNumber(i + 1)
+                        .stationCode(reading.getStationCode())
+                        .error(error)
+                        .build());
+                continue;
+            }
+            records.add(toRecord(type, reading, stationIds[i]));
+        }
+
+        String id = batchId == null || batchId.trim().isEmpty() ? null : batchId.trim();
+        Runnable onWritten = null;
+        if (id != null) {
+            MonitoringImportBatch batch = new MonitoringImportBatch();
+            batch.setTotalRows(readings.size());
+            batch.setSuccessRows(records.size());
+            batch.setErrorRows(errors.size());
+            batch.setDuplicateRows(0);
+            onWritten = () -> recordBatch(id, type, batch);
+        }
+
+        if (!records.isEmpty()) {
+            ingestBuffer.offer(type, records, onWritten);
+        } else if (onWritten != null) {
+            // 全部数据校验失败，没有需要写入的数据
+            onWritten.run();
+        }
+
+        return TelemetryIngestResultDTO.builder()
+                .totalRows(readings.size())
+                .acceptedRows(records.size())
+                .rejectedRows(errors.size())
+                .errors(errors)
+                .batchId(id)
+                .build();
+    }
+
+    /**
+     * 查询批次台账；数据库不可用时不做幂等处理，数据暂存后重复的批次在入库时由唯一键跳过
+     */
+    private MonitoringImportBatch findBatch(String batchId, MonitoringType type) {
+        try {
+            return monitoringImportBatchLedger.find(batchId, type);
+        } catch (DataAccessException e) {
+            log.warn("数据库不可用，跳过{}数据批次台账查询: {}", type.getLabel(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 记录批次台账，由写入线程在批次数据全部写入后调用
+     * 并发重试的同一批次已被记录时保留先记录的结果；数据库不可用时不记录，重复的批次在入库时由唯一键跳过
+     */
+    private void recordBatch(String batchId, MonitoringType type, MonitoringImportBatch batch) {
+        try {
+            monitoringImportBatchLedger.record(batchId, type, batch);
+        } catch (DataAccessException e) {
+            log.warn("数据库不可用，{}数据批次{}未记入台账: {}", type.getLabel(), batchId, e.getMessage());
+        }
+    }
+
+    /**
+     * 由批次台账记录生成重复提交时返回的接收结果
+     */
+    private static TelemetryIngestResultDTO toReplay(MonitoringImportBatch batch) {
+        return TelemetryIngestResultDTO.builder()
+                .totalRows(batch.getTotalRows())
+                .acceptedRows(batch.getSuccessRows())
+                .rejectedRows(batch.getErrorRows())
+                .errors(Collections.emptyList())
+                .batchId(batch.getBatchId())
+                .replayed(true)
+                .build();
+    }
+
+    /**
+     * 获取写入队列统计
+     */
+    public Map<String, Object> getStats() {
+        return ingestBuffer.getStats();
+    }
+
+    /**
+     * 解析每条上报数据对应的站点ID，站点不存在时对应位置为null
+     * 站码和站点ID优先通过站点注册表在内存中解析，未命中的部分各批量查询一次数据库
+     */
+    private Long[] resolveStationIds(List<TelemetryReadingDTO> readings) {
+        Set<Long> reportedIds = new HashSet<>();
+        Set<String> reportedCodes = new HashSet<>();
+        for (TelemetryReadingDTO reading : readings) {
+            if (reading == null) {
+                continue;
+            }
+            if (reading.getStationId() != null) {
+                reportedIds.add(reading.getStationId());
+            } else if (reading.getStationCode() != null) {
+                reportedCodes.add(reading.getStationCode());
+            }
+        }
+        Set<Long> existingIds = reportedIds.isEmpty() ? reportedIds : monitoringStationRegistry.findExistingIds(reportedIds);
+        Map<String, Long> codeToId = reportedCodes.isEmpty() ? new HashMap<>() : monitoringStationRegistry.resolve(reportedCodes);
+
+        Long[] stationIds = new Long[readings.size()];
+        for (int i = 0; i < readings.size(); i++) {
+            TelemetryReadingDTO reading = readings.get(i);
+            if (reading == null) {
+                continue;
+            }
+            if (reading.getStationId() != null) {
+                stationIds[i] = existingIds.contains(reading.getStationId()) ? reading.getStationId() : null;
+            } else if (reading.getStationCode() != null) {
+                stationIds[i] = codeToId.get(reading.getStationCode().trim());
+            }
+        }
+        return stationIds;
+    }
+
+    /**
+     * 校验单条上报数据
+     *
+     * @return 错误信息，校验通过返回null
+     */
+    private String validate(MonitoringType type, TelemetryReadingDTO reading, Long stationId) {
+        if (reading == null) {
+            return "数据不能为空";
+        }
+        if (reading.getStationId() == null && (reading.getStationCode() == null || reading.getStationCode().trim().isEmpty())) {
+            return "站点ID和站码不能同时为空";
+        }
+        if (stationId == null) {
+            return "监测站点不存在";
+        }
+        if (reading.getMonitoringTime() == null) {
+            return "监测时间不能为空";
+        }
+        if (!hasValue(type, reading)) {
+            return "未包含" + type.getLabel() + "监测数值";
+        }
+        return null;
+    }
+
+    /**
+     * 判断上报数据是否包含该监测类型的任一数值
+     */
+    private boolean hasValue(MonitoringType type, TelemetryReadingDTO r) {
+        switch (type) {
+            case FLOW:
+                return r.getInstantFlow() != null || r.getCumulativeFlow() != null;
+            case WATER_LEVEL:
+                return r.getWaterLevel() != null;
+            case WATER_QUALITY:
+                return r.getWaterTemperature() != null || r.getTurbidity() != null || r.getPhValue() != null
+                        || r.getConductivity() != null || r.getDissolvedOxygen() != null
+                        || r.getAmmoniaNitrogen() != null || r.getCodValue() != null || r.getResidualChlorine() != null;
+            case RAINFALL:
+                return r.getRainfall() != null || r.getRainfallIntensity() != null || r.getCumulativeRainfall() != null;
+            case RESERVOIR:
+                return r.getWaterLevel() != null || r.getStorageCapacity() != null || r.getFloodLimitDiff() != null
+                        || r.getInflow() != null || r.getOutflow() != null;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * 将上报数据转换为对应的监测数据实体
+     */
+    private MonitoringRecord toRecord(MonitoringType type, TelemetryReadingDTO r, Long stationId) {
+        switch (type) {
+            case FLOW: {
+                FlowMonitoringData data = new FlowMonitoringData();
+                data.setStationId(stationId);
+                data.setMonitoringTime(r.getMonitoringTime());
+                data.setInstantFlow(r.getInstantFlow());
+                data.setCumulativeFlow(r.getCumulativeFlow());
+                data.setDataQuality(r.getDataQuality() != null ? r.getDataQuality() : 1);
+                data.setCollectionMethod(r.getCollectionMethod() != null ? r.getCollectionMethod() : "AUTO");
+                data.setDataSource(r.getDataSource());
+                data.setRemark(r.getRemark());
+                return data;
+            }
+            case WATER_LEVEL: {
+                WaterLevelMonitoringData data = new WaterLevelMonitoringData();
+                data.setStationId(stationId);
+                data.setMonitoringTime(r.getMonitoringTime());
+                data.setWaterLevel(r.getWaterLevel());
+                data.setDataQuality(r.getDataQuality() != null ? r.getDataQuality() : 1);
+                data.setCollectionMethod(r.getCollectionMethod() != null ? r.getCollectionMethod() : "AUTO");
+                data.setDataSource(r.getDataSource());
+                data.setRemark(r.getRemark());
+                return data;
+            }
+            case WATER_QUALITY: {
+                WaterQualityMonitoringData data = new WaterQualityMonitoringData();
+                data.setStationId(stationId);
+                data.setMonitoringTime(r.getMonitoringTime());
+                data.setWaterTemperature(r.getWaterTemperature());
+                data.setTurbidity(r.getTurbidity());
+                data.setPhValue(r.getPhValue());
+                data.setConductivity(r.getConductivity());
+                data.setDissolvedOxygen(r.getDissolvedOxygen());
+                data.setAmmoniaNitrogen(r.getAmmoniaNitrogen());
+                data.setCodValue(r.getCodValue());
+                data.setResidualChlorine(r.getResidualChlorine());
+                data.setDataQuality(r.getDataQuality() != null ? r.getDataQuality() : 1);
+                data.setCollectionMethod(r.getCollectionMethod() != null ? r.getCollectionMethod() : "AUTO");
+                data.setDataSource(r.getDataSource());
+                data.setRemark(r.getRemark());
+                return data;
+            }
+            case RAINFALL: {
+                RainfallMonitoringData data = new RainfallMonitoringData();
+                data.setStationId(stationId);
+                data.setMonitoringTime(r.getMonitoringTime());
+                data.setRainfall(r.getRainfall());
+                data.setRainfallIntensity(r.getRainfallIntensity());
+                data.setCumulativeRainfall(r.getCumulativeRainfall());
+                data.setDataQuality(r.getDataQuality() != null ? r.getDataQuality() : 1);
+                data.setCollectionMethod(r.getCollectionMethod() != null ? r.getCollectionMethod() : "AUTO");
+                data.setDataSource(r.getDataSource());
+                data.setRemark(r.getRemark());
+                return data;
+            }
+            case RESERVOIR: {
+                ReservoirMonitoringData data = new ReservoirMonitoringData();
+                data.setStationId(stationId);
+                data.setMonitoringTime(r.getMonitoringTime());
+                data.setWaterLevel(r.getWaterLevel());
+                data.setStorageCapacity(r.getStorageCapacity());
+                data.setFloodLimitDiff(r.getFloodLimitDiff());
+                data.setInflow(r.getInflow());
+                data.setOutflow(r.getOutflow());
+                data.setDataQuality(r.getDataQuality() != null ? r.getDataQuality() : 1);
+                data.setCollectionMethod(r.getCollectionMethod() != null ? r.getCollectionMethod() : "AUTO");
+                data.setDataSource(r.getDataSource());
+                data.setRemark(r.getRemark());
+                return data;
+            }
+            default:
+                throw new IllegalArgumentException("不支持的监测数据类型: " + type);
+        }
+    }
+}
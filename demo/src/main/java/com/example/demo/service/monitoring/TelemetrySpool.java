@@ -0,0 +1,661 @@
+package com.example.demo.service.monitoring;
+
+import com.example.demo.config.MonitoringSpoolProperties;
+import com.example.demo.constant.MonitoringImportMode;
+import com.example.demo.constant.MonitoringType;
+import com.example.demo.pojo.entity.monitoring.FlowMonitoringData;
+import com.example.demo.pojo.entity.monitoring.MonitoringRecord;
+import com.example.demo.pojo.entity.monitoring.RainfallMonitoringData;
+import com.example.demo.pojo.entity.monitoring.ReservoirMonitoringData;
+import com.example.demo.pojo.entity.monitoring.WaterLevelMonitoringData;
+import com.example.demo.pojo.entity.monitoring.WaterQualityMonitoringData;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientConnectionException;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * 遥测数据本地暂存日志
+ * 数据库重启或主备切换期间，遥测写入线程将批次追加到本地分段日志而不是丢弃，数据库恢复后按写入顺序回放入库：
+ * <ul>
+ *     <li>日志按序号分段（segment-序号.log），每个条目为 长度(4字节) + CRC32(4字节) + 内容，
+ *     内容为监测类型和该批记录的JSON；写满分段后切换到新分段，回放完的分段整体删除</li>
+ *     <li>追加只写入页缓存，由后台线程按刷盘间隔合并执行fsync</li>
+ *     <li>一旦开始暂存，在日志回放完之前新批次也追加到日志，保证同一站点的数据按接收顺序入库</li>
+ *     <li>回放位置记录在checkpoint文件中；进程异常退出后可能重复回放最后一批，重复数据由唯一键跳过</li>
+ *     <li>日志总大小达到磁盘配额时写入线程等待回放释放空间，写入队列积压后接口返回429</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TelemetrySpool {
+
+    private static final String SEGMENT_PREFIX = "segment-";
+
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    /**
+     * 条目头：内容长度(4字节) + CRC32(4字节)
+     */
+    private static final int HEADER_BYTES = 8;
+
+    /**
+     * 磁盘配额已满时写入线程的等待间隔（毫秒）
+     */
+    private static final long FULL_WAIT_MS = 500;
+
+    /**
+     * 日志使用独立的序列化配置，不受Web层JSON配置影响
+     */
+    private static final ObjectMapper JOURNAL_MAPPER = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final MonitoringSpoolProperties spoolProperties;
+    private final MonitoringBulkWriter monitoringBulkWriter;
+    private final DataSource dataSource;
+
+    /**
+     * 保护写入端状态和日志总大小
+     */
+    private final Object lock = new Object();
+
+    private Path dir;
+
+    private long writeSeq;
+
+    private FileChannel writeChannel;
+
+    /**
+     * 当前写入分段中已完整写入的字节数，回放不会读取超过该位置的数据
+     */
+    private long writePosition;
+
+    private boolean dirty;
+
+    private long totalBytes;
+
+    /**
+     * 是否处于暂存状态：数据库不可用，或暂存日志尚未回放完
+     */
+    private volatile boolean active;
+
+    /**
+     * 回放位置，仅由回放线程访问
+     */
+    private long readSeq;
+
+    private long readPosition;
+
+    private FileChannel readChannel;
+
+    private final AtomicLong spooledRows = new AtomicLong();
+    private final AtomicLong spooledBatches = new AtomicLong();
+    private final AtomicLong replayedRows = new AtomicLong();
+    private final AtomicLong failedRows = new AtomicLong();
+    private final AtomicLong fsyncCount = new AtomicLong();
+
+    private volatile double lastReplayRowsPerSecond;
+
+    private volatile LocalDateTime lastOutageAt;
+
+    private volatile LocalDateTime lastRecoveredAt;
+
+    private ScheduledExecutorService executor;
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!Boolean.TRUE.equals(spoolProperties.getEnabled())) {
+            return;
+        }
+        dir = Paths.get(spoolProperties.getDir());
+        Files.createDirectories(dir);
+
+        TreeMap<Long, Path> segments = listSegments();
+        long[] checkpoint = readCheckpoint();
+        readSeq = checkpoint != null ? checkpoint[0] : (segments.isEmpty() ? 1 : segments.firstKey());
+        readPosition = checkpoint != null ? checkpoint[1] : 0;
+        for (Map.Entry<Long, Path> segment : segments.entrySet()) {
+            if (segment.getKey() < readSeq) {
+                Files.deleteIfExists(segment.getValue());
+            } else {
+                totalBytes += Files.size(segment.getValue());
+            }
+        }
+        // 重启后总是写入新分段，上次未写完的条目由回放时的CRC校验跳过
+        writeSeq = segments.isEmpty() ? readSeq : Math.max(readSeq, segments.lastKey() + 1);
+        openWriteSegment();
+        // 回放位置超出分段长度（分段被截断或checkpoint与分段不一致）时从分段末尾继续，否则回放线程会一直等待读不到的数据
+        Path readSegment = segmentPath(readSeq);
+        long readLimit = Files.exists(readSegment) ? Files.size(readSegment) : 0;
+        if (readPosition > readLimit) {
+            log.warn("遥测暂存日志回放位置{}超出分段{}的长度{}，从分段末尾继续", readPosition, readSegment, readLimit);
+            readPosition = readLimit;
+            writeCheckpoint();
+        }
+        active = totalBytes > readPosition;
+        if (active) {
+            log.info("遥测暂存日志存在未回放数据: {} 字节，待数据库可用后回放", totalBytes - readPosition);
+        }
+
+        executor = Executors.newScheduledThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "telemetry-spool");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::flush, spoolProperties.getFsyncIntervalMs(),
+                spoolProperties.getFsyncIntervalMs(), TimeUnit.MILLISECONDS);
+        executor.scheduleWithFixedDelay(this::replay, spoolProperties.getRecoveryCheckIntervalMs(),
+                spoolProperties.getRecoveryCheckIntervalMs(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (lock) {
+            closeQuietly(writeChannel, true);
+        }
+        closeQuietly(readChannel, false);
+    }
+
+    /**
+     * 是否处于暂存状态，此时新批次应追加到暂存日志以保持入库顺序
+     */
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * 数据库不可用时进入暂存状态
+     *
+     * @param cause 写入数据库失败的异常
+     */
+    public void activate(Exception cause) {
+        if (executor == null) {
+            return;
+        }
+        synchronized (lock) {
+            if (!active) {
+                active = true;
+                lastOutageAt = LocalDateTime.now();
+                log.warn("数据库不可用，遥测数据转入本地暂存日志: {}", cause.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 处于暂存状态时将一批数据追加到暂存日志；磁盘配额已满时等待回放释放空间
+     *
+     * @param type 监测类型
+     * @param records 数据记录
+     * @return 已追加返回true；未处于暂存状态或日志写入失败时返回false，由调用方直接写入数据库
+     * @throws InterruptedException 等待磁盘空间时被中断
+     */
+    public boolean appendIfActive(MonitoringType type, List<? extends MonitoringRecord> records)
+            throws InterruptedException {
+        if (!active || records.isEmpty()) {
+            return false;
+        }
+        byte[] entry;
+        try {
+            entry = encode(type, records);
+        } catch (IOException e) {
+            log.error("{}数据序列化到暂存日志失败", type.getLabel(), e);
+            return false;
+        }
+        boolean warned = false;
+        while (true) {
+            synchronized (lock) {
+                if (!active) {
+                    return false;
+                }
+                if (totalBytes + entry.length <= spoolProperties.getMaxBytes()) {
+                    try {
+                        write(entry);
+                    } catch (IOException e) {
+                        log.error("{}数据写入暂存日志失败", type.getLabel(), e);
+                        return false;
+                    }
+                    spooledRows.addAndGet(records.size());
+                    spooledBatches.incrementAndGet();
+                    return true;
+                }
+            }
+            if (!warned) {
+                log.warn("遥测暂存日志已达磁盘配额 {} 字节，等待回放释放空间", spoolProperties.getMaxBytes());
+                warned = true;
+            }
+            Thread.sleep(FULL_WAIT_MS);
+        }
+    }
+
+    /**
+     * 判断异常是否由数据库连接不可用引起（而不是数据本身的问题）
+     */
+    public static boolean isUnavailable(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            if (t instanceof CannotGetJdbcConnectionException || t instanceof DataAccessResourceFailureException
+                    || t instanceof CannotCreateTransactionException || t instanceof RecoverableDataAccessException
+                    || t instanceof SQLTransientConnectionException || t instanceof SQLNonTransientConnectionException
+                    || t instanceof SQLRecoverableException || t instanceof ConnectException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 获取暂存日志统计
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", executor != null);
+        stats.put("active", active);
+        synchronized (lock) {
+            stats.put("diskBytes", totalBytes);
+            stats.put("segments", executor == null ? 0 : writeSeq - readSeq + 1);
+        }
+        stats.put("maxBytes", spoolProperties.getMaxBytes());
+        stats.put("spooledRows", spooledRows.get());
+        stats.put("spooledBatches", spooledBatches.get());
+        stats.put("replayedRows", replayedRows.get());
+        stats.put("failedRows", failedRows.get());
+        stats.put("fsyncCount", fsyncCount.get());
+        stats.put("lastReplayRowsPerSecond", Math.round(lastReplayRowsPerSecond));
+        stats.put("lastOutageAt", lastOutageAt);
+        stats.put("lastRecoveredAt", lastRecoveredAt);
+        return stats;
+    }
+
+    /**
+     * 合并刷盘：将刷盘间隔内追加的数据一次fsync
+     */
+    private void flush() {
+        FileChannel channel;
+        synchronized (lock) {
+            if (!dirty) {
+                return;
+            }
+            dirty = false;
+            channel = writeChannel;
+        }
+        try {
+            channel.force(false);
+            fsyncCount.incrementAndGet();
+        } catch (ClosedChannelException e) {
+            // 分段已切换，切换时已刷盘
+        } catch (IOException e) {
+            log.error("遥测暂存日志刷盘失败", e);
+        }
+    }
+
+    /**
+     * 数据库可用时按顺序回放暂存日志，回放到日志末尾后退出暂存状态
+     */
+    private void replay() {
+        if (!active || !isDatabaseAvailable()) {
+            return;
+        }
+        long startNanos = System.nanoTime();
+        long rows = 0;
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                Entry entry = readNext();
+                if (entry == null) {
+                    synchronized (lock) {
+                        if (readSeq == writeSeq && readPosition >= writePosition) {
+                            if (readPosition > writePosition) {
+                                log.warn("遥测暂存日志回放位置{}超出写入位置{}，按已回放到末尾处理", readPosition, writePosition);
+                                readPosition = writePosition;
+                                writeCheckpoint();
+                            }
+                            active = false;
+                            lastRecoveredAt = LocalDateTime.now();
+                            break;
+                        }
+                    }
+                    // 读取期间写入端追加了数据或切换了分段，继续读取
+                    continue;
+                }
+                rows += replayEntry(entry);
+                readPosition = entry.nextPosition;
+                writeCheckpoint();
+            }
+            if (rows > 0 || !active) {
+                log.info("遥测暂存日志回放完成，回放{}条，暂存状态: {}", rows, active);
+            }
+        } catch (Exception e) {
+            if (isUnavailable(e)) {
+                log.warn("遥测暂存日志回放中断，数据库仍不可用: {}", e.getMessage());
+            } else {
+                log.error("遥测暂存日志回放失败", e);
+            }
+        } finally {
+            double seconds = (System.nanoTime() - startNanos) / 1e9;
+            if (rows > 0 && seconds > 0) {
+                lastReplayRowsPerSecond = rows / seconds;
+            }
+        }
+    }
+
+    /**
+     * 写入一批回放数据，数据库不可用时抛出异常中断回放，单条数据问题逐条隔离
+     *
+     * @return 处理的记录数
+     */
+    private long replayEntry(Entry entry) {
+        try {
+            MonitoringBulkWriter.WriteResult result = monitoringBulkWriter.write(entry.type, entry.records, MonitoringImportMode.SKIP);
+            replayedRows.addAndGet(result.getWrittenRows() + result.getDuplicateRows());
+        } catch (RuntimeException e) {
+            if (isUnavailable(e)) {
+                throw e;
+            }
+            for (MonitoringRecord record : entry.records) {
+                try {
+                    MonitoringBulkWriter.WriteResult result = monitoringBulkWriter.write(entry.type,
+                            Collections.singletonList(record), MonitoringImportMode.SKIP);
+                    replayedRows.addAndGet(result.getWrittenRows() + result.getDuplicateRows());
+                } catch (RuntimeException ex) {
+                    if (isUnavailable(ex)) {
+                        throw ex;
+                    }
+                    failedRows.incrementAndGet();
+                    log.error("{}暂存数据回放失败，站点ID: {}，监测时间: {}，原因: {}", entry.type.getLabel(),
+                            record.getStationId(), record.getMonitoringTime(), ex.getMessage());
+                }
+            }
+        }
+        return entry.records.size();
+    }
+
+    /**
+     * 读取下一个条目，已读到写入位置时返回null；读完的非写入分段被删除
+     */
+    private Entry readNext() throws IOException {
+        while (true) {
+            boolean current;
+            long limit;
+            synchronized (lock) {
+                current = readSeq == writeSeq;
+                limit = writePosition;
+            }
+            Path segment = segmentPath(readSeq);
+            if (!current) {
+                limit = Files.exists(segment) ? Files.size(segment) : 0;
+            }
+            if (readPosition >= limit) {
+                if (current) {
+                    return null;
+                }
+                finishSegment();
+                continue;
+            }
+            if (readChannel == null) {
+                readChannel = FileChannel.open(segment, StandardOpenOption.READ);
+            }
+            Entry entry = readEntry(limit);
+            if (entry == null) {
+                log.warn("遥测暂存日志分段{}在位置{}处条目不完整或校验失败，跳过该分段剩余数据", segment, readPosition);
+                readPosition = limit;
+                continue;
+            }
+            return entry;
+        }
+    }
+
+    /**
+     * 删除已读完的分段并移到下一个分段
+     */
+    private void finishSegment() throws IOException {
+        closeQuietly(readChannel, false);
+        readChannel = null;
+        Path segment = segmentPath(readSeq);
+        long size = Files.exists(segment) ? Files.size(segment) : 0;
+        Files.deleteIfExists(segment);
+        synchronized (lock) {
+            totalBytes -= size;
+        }
+        readSeq++;
+        readPosition = 0;
+        writeCheckpoint();
+    }
+
+    /**
+     * 从回放位置读取一个条目
+     *
+     * @param limit 可读取的上限位置
+     * @return 条目，不完整或校验失败时返回null
+     */
+    private Entry readEntry(long limit) throws IOException {
+        if (readPosition + HEADER_BYTES > limit) {
+            return null;
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        readFully(header, readPosition);
+        int length = header.getInt(0);
+        long crc = header.getInt(4) & 0xFFFFFFFFL;
+        if (length <= 0 || readPosition + HEADER_BYTES + length > limit) {
+            return null;
+        }
+        ByteBuffer payload = ByteBuffer.allocate(length);
+        readFully(payload, readPosition + HEADER_BYTES);
+        CRC32 checksum = new CRC32();
+        checksum.update(payload.array(), 0, length);
+        if (checksum.getValue() != crc) {
+            return null;
+        }
+        int typeLength = payload.array()[0];
+        MonitoringType type = MonitoringType.fromPath(new String(payload.array(), 1, typeLength, StandardCharsets.UTF_8));
+        List<MonitoringRecord> records = JOURNAL_MAPPER.readValue(payload.array(), 1 + typeLength,
+                length - 1 - typeLength, recordListType(type));
+        return new Entry(type, records, readPosition + HEADER_BYTES + length);
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (readChannel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("暂存日志意外结束");
+            }
+        }
+    }
+
+    /**
+     * 追加一个条目，调用方持有lock
+     */
+    private void write(byte[] entry) throws IOException {
+        if (writePosition > 0 && writePosition + entry.length > spoolProperties.getSegmentBytes()) {
+            writeChannel.force(false);
+            writeChannel.close();
+            writeSeq++;
+            openWriteSegment();
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(entry);
+        while (buffer.hasRemaining()) {
+            writeChannel.write(buffer);
+        }
+        writePosition += entry.length;
+        totalBytes += entry.length;
+        dirty = true;
+    }
+
+    private void openWriteSegment() throws IOException {
+        writeChannel = FileChannel.open(segmentPath(writeSeq),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        writePosition = writeChannel.size();
+    }
+
+    private static byte[] encode(MonitoringType type, List<? extends MonitoringRecord> records) throws IOException {
+        byte[] typeBytes = type.getPath().getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(256 + records.size() * 128);
+        payload.write(typeBytes.length);
+        payload.write(typeBytes);
+        JOURNAL_MAPPER.writeValue(payload, records);
+        byte[] body = payload.toByteArray();
+
+        CRC32 checksum = new CRC32();
+        checksum.update(body, 0, body.length);
+        ByteBuffer entry = ByteBuffer.allocate(HEADER_BYTES + body.length);
+        entry.putInt(body.length);
+        entry.putInt((int) checksum.getValue());
+        entry.put(body);
+        return entry.array();
+    }
+
+    private static JavaType recordListType(MonitoringType type) {
+        Class<? extends MonitoringRecord> entityClass;
+        switch (type) {
+            case FLOW:
+                entityClass = FlowMonitoringData.class;
+                break;
+            case WATER_LEVEL:
+                entityClass = WaterLevelMonitoringData.class;
+                break;
+            case WATER_QUALITY:
+                entityClass = WaterQualityMonitoringData.class;
+                break;
+            case RAINFALL:
+                entityClass = RainfallMonitoringData.class;
+                break;
+            case RESERVOIR:
+                entityClass = ReservoirMonitoringData.class;
+                break;
+            default:
+                throw new IllegalArgumentException("不支持的监测数据类型: " + type);
+        }
+        return JOURNAL_MAPPER.getTypeFactory().constructCollectionType(List.class, entityClass);
+    }
+
+    private boolean isDatabaseAvailable() {
+        try (Connection connection = dataSource.getConnection()) {
+            return connection.isValid(2);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private TreeMap<Long, Path> listSegments() throws IOException {
+        TreeMap<Long, Path> segments = new TreeMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    segments.put(Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                            name.length() - SEGMENT_SUFFIX.length())), file);
+                } catch (NumberFormatException e) {
+                    log.warn("忽略无法识别的暂存日志文件: {}", file);
+                }
+            }
+        }
+        return segments;
+    }
+
+    private Path segmentPath(long seq) {
+        return dir.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, seq, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * 读取回放位置
+     *
+     * @return [分段序号, 分段内偏移]，不存在时返回null
+     */
+    private long[] readCheckpoint() {
+        Path file = dir.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            String[] parts = new String(Files.readAllBytes(file), StandardCharsets.UTF_8).trim().split("\\s+");
+            return new long[]{Long.parseLong(parts[0]), Long.parseLong(parts[1])};
+        } catch (IOException | RuntimeException e) {
+            log.warn("遥测暂存日志回放位置读取失败，从最早的分段开始回放", e);
+            return null;
+        }
+    }
+
+    private void writeCheckpoint() throws IOException {
+        Path temp = dir.resolve(CHECKPOINT_FILE + ".tmp");
+        Files.write(temp, (readSeq + " " + readPosition).getBytes(StandardCharsets.UTF_8));
+        Files.move(temp, dir.resolve(CHECKPOINT_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void closeQuietly(FileChannel channel, boolean force) {
+        if (channel == null || !channel.isOpen()) {
+            return;
+        }
+        try {
+            if (force) {
+                channel.force(false);
+            }
+            channel.close();
+        } catch (IOException e) {
+            log.warn("关闭遥测暂存日志失败", e);
+        }
+    }
+
+    /**
+     * 暂存日志条目
+     */
+    @RequiredArgsConstructor
+    private static class Entry {
+
+        private final MonitoringType type;
+        private final List<MonitoringRecord> records;
+
+        /**
+         * 下一个条目在分段中的偏移
+         */
+        private final long nextPosition;
+    }
+}
@@ -0,0 +1,434 @@
+package com.example.demo.service.monitoring.gateway;
+
+import com.example.demo.config.MonitoringGatewayProperties;
+import com.example.demo.constant.MonitoringType;
+import com.example.demo.pojo.DTO.monitoring.TelemetryReadingDTO;
+import com.example.demo.utils.FastTimestampParser;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 内置设备模拟器
+ * 在本机回环地址上启动一个Modbus-TCP从站和一个最小MQTT代理，用于在没有现场设备时联调和压测协议接入网关：
+ * <ul>
+ *     <li>每个模拟站点按正弦曲线生成与监测类型对应的读数，模拟时钟每次生成前进timeStepSeconds秒，
+ *     配置起始时间并将发布间隔调小、步长调大即可按历史时间快速回放，产生每秒数千条消息</li>
+ *     <li>Modbus从站按站点的从站地址提供保持寄存器，布局见{@link TelemetryFrameCodec}</li>
+ *     <li>MQTT代理接受任意客户端的连接和订阅，不做主题匹配，每次生成后向所有订阅者以QoS 0发布全部站点的消息帧，
+ *     主题为telemetry/{监测类型}/{站码}</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DeviceSimulator {
+
+    private static final String TOPIC_PREFIX = "telemetry/";
+
+    private final MonitoringGatewayProperties gatewayProperties;
+
+    private final List<SimulatedStation> stations = new ArrayList<>();
+
+    private final Map<Integer, SimulatedStation> stationsByUnit = new HashMap<>();
+
+    private final List<OutputStream> subscribers = new CopyOnWriteArrayList<>();
+
+    private final List<ServerSocket> servers = new ArrayList<>();
+
+    private final List<Socket> clients = new CopyOnWriteArrayList<>();
+
+    private ExecutorService executor;
+
+    private ScheduledExecutorService publisher;
+
+    /**
+     * 模拟时钟（纪元秒），仅由发布线程修改
+     */
+    private long simulatedEpochSecond;
+
+    private byte[] frame = new byte[0];
+
+    @PostConstruct
+    public void start() throws IOException {
+        MonitoringGatewayProperties.Simulator simulator = gatewayProperties.getSimulator();
+        if (!Boolean.TRUE.equals(simulator.getEnabled()) || simulator.getStations().isEmpty()) {
+            return;
+        }
+        int index = 0;
+        for (MonitoringGatewayProperties.Station config : simulator.getStations()) {
+            SimulatedStation station = new SimulatedStation(config, index++);
+            stations.add(station);
+            if (stationsByUnit.putIfAbsent(station.unitId, station) != null) {
+                throw new IllegalArgumentException("模拟站点的Modbus从站地址重复: " + station.unitId);
+            }
+            frame = new byte[Math.max(frame.length, TelemetryFrameCodec.maxFrameLength(station.type))];
+        }
+        AtomicInteger threadIndex = new AtomicInteger();
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "device-simulator-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        publisher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "device-simulator-publisher");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        LocalDateTime startTime = simulator.getStartTime() == null || simulator.getStartTime().trim().isEmpty()
+                ? LocalDateTime.now().withNano(0)
+                : LocalDateTime.parse(simulator.getStartTime().trim(), FastTimestampParser.FORMATTER);
+        simulatedEpochSecond = FastTimestampParser.toEpochSecond(startTime);
+        generate();
+        if (simulator.getModbusPort() != null && simulator.getModbusPort() > 0) {
+            ServerSocket server = listen(simulator.getModbusPort());
+            executor.execute(() -> accept(server, this::serveModbus));
+        }
+        if (simulator.getMqttPort() != null && simulator.getMqttPort() > 0) {
+            ServerSocket server = listen(simulator.getMqttPort());
+            executor.execute(() -> accept(server, this::serveMqtt));
+        }
+        publisher.scheduleAtFixedRate(this::tick, simulator.getPublishIntervalMs(),
+                simulator.getPublishIntervalMs(), TimeUnit.MILLISECONDS);
+        log.info("设备模拟器已启动，模拟站点: {}个，Modbus端口: {}，MQTT端口: {}",
+                stations.size(), simulator.getModbusPort(), simulator.getMqttPort());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor == null) {
+            return;
+        }
+        publisher.shutdownNow();
+        executor.shutdownNow();
+        for (ServerSocket server : servers) {
+            closeQuietly(server);
+        }
+        for (Socket client : clients) {
+            closeQuietly(client);
+        }
+    }
+
+    private ServerSocket listen(int port) throws IOException {
+        ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        servers.add(server);
+        return server;
+    }
+
+    private void accept(ServerSocket server, ConnectionHandler handler) {
+        while (!server.isClosed()) {
+            try {
+                Socket socket = server.accept();
+                socket.setTcpNoDelay(true);
+                clients.add(socket);
+                executor.execute(() -> {
+                    try {
+                        handler.serve(socket);
+                    } catch (IOException e) {
+                        log.debug("模拟器连接关闭: {}", e.getMessage());
+                    } finally {
+                        clients.remove(socket);
+                        closeQuietly(socket);
+                    }
+                });
+            } catch (IOException e) {
+                if (!server.isClosed()) {
+                    log.warn("设备模拟器接受连接失败", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * 生成下一组读数并发布到MQTT订阅者
+     */
+    private void tick() {
+        try {
+            simulatedEpochSecond += gatewayProperties.getSimulator().getTimeStepSeconds();
+            generate();
+            if (subscribers.isEmpty()) {
+                return;
+            }
+            for (SimulatedStation station : stations) {
+                int length = TelemetryFrameCodec.encodeFrame(station.type, station.reading, frame, 0);
+                for (OutputStream subscriber : subscribers) {
+                    publish(subscriber, station.topic, length);
+                }
+            }
+            for (OutputStream subscriber : subscribers) {
+                flush(subscriber);
+            }
+        } catch (RuntimeException e) {
+            log.error("设备模拟器生成读数失败", e);
+        }
+    }
+
+    private void generate() {
+        for (SimulatedStation station : stations) {
+            station.update(simulatedEpochSecond, gatewayProperties.getSimulator().getTimeStepSeconds());
+        }
+    }
+
+    private void publish(OutputStream subscriber, byte[] topic, int length) {
+        try {
+            synchronized (subscriber) {
+                subscriber.write(MqttSubscriber.PUBLISH);
+                int remaining = 2 + topic.length + length;
+                do {
+                    int b = remaining & 0x7F;
+                    remaining >>>= 7;
+                    subscriber.write(remaining > 0 ? b | 0x80 : b);
+                } while (remaining > 0);
+                subscriber.write(topic.length >>> 8);
+                subscriber.write(topic.length);
+                subscriber.write(topic);
+                subscriber.write(frame, 0, length);
+            }
+        } catch (IOException e) {
+            subscribers.remove(subscriber);
+        }
+    }
+
+    private void flush(OutputStream subscriber) {
+        try {
+            synchronized (subscriber) {
+                subscriber.flush();
+            }
+        } catch (IOException e) {
+            subscribers.remove(subscriber);
+        }
+    }
+
+    /**
+     * Modbus从站：仅支持读保持寄存器，其他功能码返回非法功能异常
+     */
+    private void serveModbus(Socket socket) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+        byte[] header = new byte[7];
+        byte[] pdu = new byte[260];
+        byte[] response = new byte[9 + ModbusTcpClient.MAX_REGISTERS * 2];
+        while (true) {
+            in.readFully(header);
+            int length = ((header[4] & 0xFF) << 8) | (header[5] & 0xFF);
+            if (length < 2 || length - 1 > pdu.length) {
+                throw new IOException("Modbus请求长度错误: " + length);
+            }
+            in.readFully(pdu, 0, length - 1);
+            System.arraycopy(header, 0, response, 0, 4);
+            response[6] = header[6];
+            int function = pdu[0] & 0xFF;
+            int address = ((pdu[1] & 0xFF) << 8) | (pdu[2] & 0xFF);
+            int quantity = ((pdu[3] & 0xFF) << 8) | (pdu[4] & 0xFF);
+            SimulatedStation station = stationsByUnit.get(header[6] & 0xFF);
+            int exception = 0;
+            byte[] registers = station == null ? null : station.registers;
+            if (function != 0x03 || length != 6) {
+                exception = 0x01;
+            } else if (registers == null || quantity < 1 || quantity > ModbusTcpClient.MAX_REGISTERS
+                    || (address + quantity) * 2 > registers.length) {
+                exception = 0x02;
+            }
+            int responseLength;
+            if (exception != 0) {
+                response[7] = (byte) (function | 0x80);
+                response[8] = (byte) exception;
+                responseLength = 9;
+            } else {
+                response[7] = (byte) function;
+                response[8] = (byte) (quantity * 2);
+                System.arraycopy(registers, address * 2, response, 9, quantity * 2);
+                responseLength = 9 + quantity * 2;
+            }
+            response[4] = (byte) ((responseLength - 6) >>> 8);
+            response[5] = (byte) (responseLength - 6);
+            out.write(response, 0, responseLength);
+            out.flush();
+        }
+    }
+
+    /**
+     * 最小MQTT代理：应答CONNECT、SUBSCRIBE和PINGREQ，订阅后开始接收发布的消息
+     */
+    private void serveMqtt(Socket socket) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        OutputStream out = new BufferedOutputStream(socket.getOutputStream(), 64 * 1024);
+        byte[] body = new byte[1024];
+        try {
+            while (true) {
+                int header = in.read();
+                if (header < 0) {
+                    throw new EOFException("MQTT客户端关闭了连接");
+                }
+                int length = MqttSubscriber.readRemainingLength(in);
+                if (length > body.length) {
+                    body = new byte[length];
+                }
+                in.readFully(body, 0, length);
+                synchronized (out) {
+                    switch (header & 0xF0) {
+                        case MqttSubscriber.CONNECT:
+                            MqttSubscriber.writePacket(out, MqttSubscriber.CONNACK, new byte[]{0, 0}, 2);
+                            break;
+                        case MqttSubscriber.SUBSCRIBE & 0xF0:
+                            // 按订阅的主题数量全部授予QoS 0
+                            int filters = 0;
+                            for (int pos = 2; pos + 2 <= length; filters++) {
+                                pos += 2 + (((body[pos] & 0xFF) << 8) | (body[pos + 1] & 0xFF)) + 1;
+                            }
+                            byte[] ack = new byte[2 + filters];
+                            ack[0] = body[0];
+                            ack[1] = body[1];
+                            MqttSubscriber.writePacket(out, MqttSubscriber.SUBACK, ack, ack.length);
+                            if (!subscribers.contains(out)) {
+                                subscribers.add(out);
+                            }
+                            break;
+                        case MqttSubscriber.PINGREQ:
+                            MqttSubscriber.writePacket(out, MqttSubscriber.PINGRESP, body, 0);
+                            break;
+                        case MqttSubscriber.DISCONNECT:
+                            return;
+                        default:
+                            // 模拟器只作为代理向订阅者发布，忽略客户端发布的消息
+                            break;
+                    }
+                }
+            }
+        } finally {
+            subscribers.remove(out);
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException ignored) {
+            // 停止时忽略关闭异常
+        }
+    }
+
+    @FunctionalInterface
+    private interface ConnectionHandler {
+
+        void serve(Socket socket) throws IOException;
+    }
+
+    /**
+     * 模拟站点，当前读数和寄存器内容由发布线程整体替换
+     */
+    private static class SimulatedStation {
+
+        private final MonitoringType type;
+        private final String stationCode;
+        private final int unitId;
+        private final byte[] topic;
+
+        /**
+         * 站点相位，使各站点曲线错开
+         */
+        private final double phase;
+
+        private double cumulative;
+
+        private volatile TelemetryReadingDTO reading;
+
+        private volatile byte[] registers;
+
+        private SimulatedStation(MonitoringGatewayProperties.Station config, int index) {
+            if (config.getStationCode() == null || config.getStationCode().trim().isEmpty()) {
+                throw new IllegalArgumentException("模拟站点站码不能为空");
+            }
+            this.type = MonitoringType.fromPath(config.getType());
+            this.stationCode = config.getStationCode().trim();
+            this.unitId = config.getUnitId();
+            this.topic = (TOPIC_PREFIX + type.getPath() + "/" + stationCode).getBytes(StandardCharsets.UTF_8);
+            this.phase = index * 0.7;
+        }
+
+        /**
+         * 生成指定时刻的读数，每日一个周期
+         */
+        private void update(long epochSecond, long stepSeconds) {
+            double s = Math.sin(2 * Math.PI * (epochSecond % 86400) / 86400 + phase);
+            TelemetryReadingDTO r = new TelemetryReadingDTO();
+            r.setStationCode(stationCode);
+            r.setMonitoringTime(FastTimestampParser.toLocalDateTime(epochSecond));
+            r.setDataQuality(1);
+            switch (type) {
+                case FLOW:
+                    double flow = 2.5 + s;
+                    cumulative += flow * stepSeconds;
+                    r.setInstantFlow(decimal(flow));
+                    r.setCumulativeFlow(decimal(cumulative));
+                    break;
+                case WATER_LEVEL:
+                    r.setWaterLevel(decimal(12 + 0.8 * s));
+                    break;
+                case WATER_QUALITY:
+                    r.setWaterTemperature(decimal(18 + 4 * s));
+                    r.setTurbidity(decimal(1.2 + 0.5 * s));
+                    r.setPhValue(decimal(7.2 + 0.3 * s));
+                    r.setConductivity(decimal(450 + 50 * s));
+                    r.setDissolvedOxygen(decimal(8 + s));
+                    r.setAmmoniaNitrogen(decimal(0.3 + 0.1 * s));
+                    r.setCodValue(decimal(12 + 3 * s));
+                    r.setResidualChlorine(decimal(0.5 + 0.1 * s));
+                    break;
+                case RAINFALL:
+                    double rainfall = Math.max(0, 2 * s);
+                    cumulative += rainfall;
+                    r.setRainfall(decimal(rainfall));
+                    r.setRainfallIntensity(decimal(rainfall * 3600 / Math.max(1, stepSeconds)));
+                    r.setCumulativeRainfall(decimal(cumulative));
+                    break;
+                case RESERVOIR:
+                    double level = 150 + 2 * s;
+                    r.setWaterLevel(decimal(level));
+                    r.setStorageCapacity(decimal(3200 + 150 * s));
+                    r.setFloodLimitDiff(decimal(level - 151));
+                    r.setInflow(decimal(30 + 10 * s));
+                    r.setOutflow(decimal(28 + 8 * s));
+                    break;
+                default:
+                    break;
+            }
+            byte[] next = new byte[TelemetryFrameCodec.registerCount(type) * 2];
+            TelemetryFrameCodec.encodeRegisters(type, r, next, 0);
+            reading = r;
+            registers = next;
+        }
+
+        private static BigDecimal decimal(double value) {
+            return BigDecimal.valueOf(value).setScale(3, RoundingMode.HALF_UP);
+        }
+    }
+}
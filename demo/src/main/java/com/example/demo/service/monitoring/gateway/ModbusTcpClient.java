@@ -0,0 +1,132 @@
+package com.example.demo.service.monitoring.gateway;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+
+/**
+ * Modbus-TCP主站客户端
+ * 仅实现读保持寄存器（功能码0x03），请求和响应复用固定缓冲区；非线程安全，每个设备端点一个实例
+ */
+public class ModbusTcpClient implements Closeable {
+
+    /**
+     * 单次读取的最大寄存器数量
+     */
+    public static final int MAX_REGISTERS = 125;
+
+    private static final int FUNCTION_READ_HOLDING_REGISTERS = 0x03;
+
+    private static final int MBAP_LENGTH = 7;
+
+    private final String host;
+
+    private final int port;
+
+    private final int timeoutMs;
+
+    private final byte[] request = new byte[MBAP_LENGTH + 5];
+
+    private final byte[] response = new byte[MBAP_LENGTH + 2 + MAX_REGISTERS * 2];
+
+    private Socket socket;
+
+    private DataInputStream in;
+
+    private OutputStream out;
+
+    private int transactionId;
+
+    public ModbusTcpClient(String host, int port, int timeoutMs) {
+        this.host = host;
+        this.port = port;
+        this.timeoutMs = timeoutMs;
+    }
+
+    public void connect() throws IOException {
+        close();
+        Socket socket = new Socket();
+        socket.setTcpNoDelay(true);
+        socket.setSoTimeout(timeoutMs);
+        socket.connect(new InetSocketAddress(host, port), timeoutMs);
+        this.socket = socket;
+        this.in = new DataInputStream(socket.getInputStream());
+        this.out = socket.getOutputStream();
+    }
+
+    public boolean isConnected() {
+        return socket != null && socket.isConnected() && !socket.isClosed();
+    }
+
+    /**
+     * 读保持寄存器
+     *
+     * @param unitId 从站地址
+     * @param address 起始寄存器地址
+     * @param quantity 寄存器数量
+     * @return 响应缓冲区，寄存器数据从{@link #dataOffset()}开始，下次请求前有效
+     * @throws IOException 连接异常、响应不匹配或从站返回异常码
+     */
+    public byte[] readHoldingRegisters(int unitId, int address, int quantity) throws IOException {
+        if (quantity < 1 || quantity > MAX_REGISTERS) {
+            throw new IllegalArgumentException("寄存器数量必须在1到" + MAX_REGISTERS + "之间");
+        }
+        int id = transactionId = (transactionId + 1) & 0xFFFF;
+        writeShort(request, 0, id);
+        writeShort(request, 2, 0);
+        writeShort(request, 4, 6);
+        request[6] = (byte) unitId;
+        request[7] = FUNCTION_READ_HOLDING_REGISTERS;
+        writeShort(request, 8, address);
+        writeShort(request, 10, quantity);
+        out.write(request);
+        out.flush();
+
+        in.readFully(response, 0, MBAP_LENGTH);
+        int length = readShort(response, 4);
+        if (readShort(response, 0) != id || length < 2 || length > response.length - MBAP_LENGTH + 1) {
+            throw new IOException("Modbus响应帧无效，事务号: " + readShort(response, 0) + "，长度: " + length);
+        }
+        // 长度字段包含单元标识，已随报文头读取
+        in.readFully(response, MBAP_LENGTH, length - 1);
+        int function = response[MBAP_LENGTH] & 0xFF;
+        if (function == (FUNCTION_READ_HOLDING_REGISTERS | 0x80)) {
+            throw new IOException("Modbus从站" + unitId + "返回异常码: " + (response[MBAP_LENGTH + 1] & 0xFF));
+        }
+        if (function != FUNCTION_READ_HOLDING_REGISTERS || (response[MBAP_LENGTH + 1] & 0xFF) != quantity * 2) {
+            throw new IOException("Modbus响应与请求不符，功能码: " + function);
+        }
+        return response;
+    }
+
+    /**
+     * 响应缓冲区中寄存器数据的起始偏移
+     */
+    public int dataOffset() {
+        return MBAP_LENGTH + 2;
+    }
+
+    @Override
+    public void close() {
+        if (socket != null) {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // 关闭失败不影响重连
+            }
+            socket = null;
+        }
+    }
+
+    private static void writeShort(byte[] buf, int pos, int value) {
+        buf[pos] = (byte) (value >>> 8);
+        buf[pos + 1] = (byte) value;
+    }
+
+    private static int readShort(byte[] buf, int pos) {
+        return ((buf[pos] & 0xFF) << 8) | (buf[pos + 1] & 0xFF);
+    }
+}
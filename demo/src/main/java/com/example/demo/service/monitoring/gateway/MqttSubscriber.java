@@ -0,0 +1,256 @@
+package com.example.demo.service.monitoring.gateway;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * MQTT 3.1.1订阅客户端
+ * 以QoS 0订阅单个主题并逐条回调消息负载，负载在接收缓冲区内原地传递，不复制、不解析主题字符串；
+ * 空闲达到心跳间隔一半时发送PINGREQ，超过1.5倍心跳间隔未收到任何报文视为连接失效
+ * 非线程安全，每个设备端点一个实例
+ */
+public class MqttSubscriber implements Closeable {
+
+    static final int CONNECT = 0x10;
+    static final int CONNACK = 0x20;
+    static final int PUBLISH = 0x30;
+    static final int PUBACK = 0x40;
+    static final int SUBSCRIBE = 0x82;
+    static final int SUBACK = 0x90;
+    static final int PINGREQ = 0xC0;
+    static final int PINGRESP = 0xD0;
+    static final int DISCONNECT = 0xE0;
+
+    /**
+     * 单个报文的最大长度
+     */
+    static final int MAX_PACKET_LENGTH = 1024 * 1024;
+
+    private final String host;
+
+    private final int port;
+
+    private final int timeoutMs;
+
+    private Socket socket;
+
+    private DataInputStream in;
+
+    private OutputStream out;
+
+    private byte[] buffer = new byte[1024];
+
+    private int keepAliveMs;
+
+    /**
+     * 消息负载回调
+     */
+    @FunctionalInterface
+    public interface MessageHandler {
+
+        /**
+         * @param payload 接收缓冲区，回调返回后即被复用
+         */
+        void onMessage(byte[] payload, int off, int len) throws InterruptedException;
+    }
+
+    public MqttSubscriber(String host, int port, int timeoutMs) {
+        this.host = host;
+        this.port = port;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * 建立连接并订阅主题（清除会话）
+     *
+     * @throws IOException 连接失败、代理拒绝连接或订阅
+     */
+    public void connect(String clientId, String topic, int keepAliveSeconds) throws IOException {
+        close();
+        keepAliveMs = keepAliveSeconds * 1000;
+        Socket socket = new Socket();
+        socket.setTcpNoDelay(true);
+        socket.connect(new InetSocketAddress(host, port), timeoutMs);
+        socket.setSoTimeout(timeoutMs);
+        this.socket = socket;
+        this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 64 * 1024));
+        this.out = new BufferedOutputStream(socket.getOutputStream());
+
+        byte[] client = clientId.getBytes(StandardCharsets.UTF_8);
+        byte[] connect = new byte[10 + 2 + client.length];
+        int pos = writeString(connect, 0, "MQTT".getBytes(StandardCharsets.US_ASCII));
+        connect[pos++] = 4;
+        // 清除会话
+        connect[pos++] = 0x02;
+        connect[pos++] = (byte) (keepAliveSeconds >>> 8);
+        connect[pos++] = (byte) keepAliveSeconds;
+        writeString(connect, pos, client);
+        writePacket(out, CONNECT, connect, connect.length);
+
+        int length = readPacket(CONNACK);
+        if (length != 2 || buffer[1] != 0) {
+            throw new IOException("MQTT代理拒绝连接，返回码: " + (length == 2 ? buffer[1] : -1));
+        }
+
+        byte[] filter = topic.getBytes(StandardCharsets.UTF_8);
+        byte[] subscribe = new byte[2 + 2 + filter.length + 1];
+        subscribe[1] = 1;
+        pos = writeString(subscribe, 2, filter);
+        subscribe[pos] = 0;
+        writePacket(out, SUBSCRIBE, subscribe, subscribe.length);
+
+        length = readPacket(SUBACK);
+        if (length < 3 || (buffer[2] & 0xFF) == 0x80) {
+            throw new IOException("MQTT代理拒绝订阅主题: " + topic);
+        }
+        if (keepAliveMs > 0) {
+            socket.setSoTimeout(keepAliveMs / 2);
+        }
+    }
+
+    /**
+     * 持续接收消息直到连接断开或线程中断
+     *
+     * @throws IOException 连接断开或心跳超时
+     */
+    public void receive(MessageHandler handler) throws IOException, InterruptedException {
+        long lastReceived = System.currentTimeMillis();
+        while (!Thread.currentThread().isInterrupted()) {
+            int header;
+            try {
+                header = in.read();
+            } catch (SocketTimeoutException e) {
+                if (keepAliveMs <= 0) {
+                    continue;
+                }
+                if (System.currentTimeMillis() - lastReceived > keepAliveMs * 3L / 2) {
+                    throw new IOException("MQTT心跳超时");
+                }
+                writePacket(out, PINGREQ, buffer, 0);
+                continue;
+            }
+            if (header < 0) {
+                throw new EOFException("MQTT代理关闭了连接");
+            }
+            lastReceived = System.currentTimeMillis();
+            int length = readBody();
+            if ((header & 0xF0) != PUBLISH) {
+                continue;
+            }
+            int qos = (header >> 1) & 0x03;
+            int pos = 2 + (((buffer[0] & 0xFF) << 8) | (buffer[1] & 0xFF)) + (qos > 0 ? 2 : 0);
+            if (pos > length) {
+                throw new IOException("MQTT PUBLISH报文长度错误");
+            }
+            if (qos == 1) {
+                // 代理按订阅QoS下发，正常情况下不会出现；QoS 1仍按协议应答
+                writePacket(out, PUBACK, new byte[]{buffer[pos - 2], buffer[pos - 1]}, 2);
+            }
+            handler.onMessage(buffer, pos, length - pos);
+        }
+        throw new InterruptedException();
+    }
+
+    @Override
+    public void close() {
+        if (socket != null) {
+            try {
+                writePacket(out, DISCONNECT, buffer, 0);
+            } catch (IOException ignored) {
+                // 连接已断开
+            }
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // 关闭失败不影响重连
+            }
+            socket = null;
+        }
+    }
+
+    /**
+     * 读取指定类型的报文，跳过其间的其他报文
+     *
+     * @return 报文体长度
+     */
+    private int readPacket(int expectedType) throws IOException {
+        while (true) {
+            int header = in.read();
+            if (header < 0) {
+                throw new EOFException("MQTT代理关闭了连接");
+            }
+            int length = readBody();
+            if ((header & 0xF0) == expectedType) {
+                return length;
+            }
+        }
+    }
+
+    /**
+     * 读取剩余长度及报文体到接收缓冲区
+     */
+    private int readBody() throws IOException {
+        int length = readRemainingLength(in);
+        if (length > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(length, buffer.length * 2));
+        }
+        in.readFully(buffer, 0, length);
+        return length;
+    }
+
+    static int readRemainingLength(InputStream input) throws IOException {
+        int length = 0;
+        for (int shift = 0; shift < 28; shift += 7) {
+            int b = input.read();
+            if (b < 0) {
+                throw new EOFException("MQTT报文不完整");
+            }
+            length |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                if (length > MAX_PACKET_LENGTH) {
+                    throw new IOException("MQTT报文超过" + MAX_PACKET_LENGTH + "字节");
+                }
+                return length;
+            }
+        }
+        throw new IOException("MQTT剩余长度编码错误");
+    }
+
+    /**
+     * 写出一个完整报文并刷新
+     */
+    static void writePacket(OutputStream output, int header, byte[] body, int length) throws IOException {
+        output.write(header);
+        int remaining = length;
+        do {
+            int b = remaining & 0x7F;
+            remaining >>>= 7;
+            output.write(remaining > 0 ? b | 0x80 : b);
+        } while (remaining > 0);
+        output.write(body, 0, length);
+        output.flush();
+    }
+
+    /**
+     * 写入带2字节长度前缀的字符串
+     *
+     * @return 写入后的偏移
+     */
+    static int writeString(byte[] buf, int pos, byte[] value) {
+        buf[pos] = (byte) (value.length >>> 8);
+        buf[pos + 1] = (byte) value.length;
+        System.arraycopy(value, 0, buf, pos + 2, value.length);
+        return pos + 2 + value.length;
+    }
+}
@@ -0,0 +1,301 @@
+package com.example.demo.service.monitoring.gateway;
+
+import com.example.demo.constant.MonitoringType;
+import com.example.demo.pojo.DTO.monitoring.TelemetryReadingDTO;
+import com.example.demo.utils.FastTimestampParser;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * 设备遥测二进制编解码
+ * 所有数值按3位小数放大为整数，以大端字节序传输；窄字段为int32，累计量等宽字段为int64，
+ * 最小值（Integer.MIN_VALUE/Long.MIN_VALUE）表示该项未采集
+ * <p>
+ * MQTT消息帧：
+ * <pre>
+ * magic(1)=0x57 | version(1)=1 | type(1) | codeLength(1) | stationCode(ASCII) | epochSecond(8) | dataQuality(1) | values
+ * </pre>
+ * Modbus保持寄存器（每个寄存器2字节）：
+ * <pre>
+ * epochSecond(4个寄存器) | dataQuality(1个寄存器) | values(窄字段2个寄存器，宽字段4个寄存器)
+ * </pre>
+ * 各监测类型的数值字段顺序见LAYOUTS；监测时间的纪元秒与{@link FastTimestampParser}一致，按本地时间换算；
+ * dataQuality为0表示未提供。解码直接读取字节数组，不经过流和中间缓冲
+ */
+public final class TelemetryFrameCodec {
+
+    public static final byte MAGIC = 0x57;
+
+    public static final byte VERSION = 1;
+
+    /**
+     * 帧头长度（不含站码）
+     */
+    private static final int HEADER_LENGTH = 4;
+
+    /**
+     * 监测时间和数据质量的长度
+     */
+    private static final int META_LENGTH = 9;
+
+    private static final int SCALE = 3;
+
+    /**
+     * 帧中的监测类型编码，下标即编码
+     */
+    private static final MonitoringType[] TYPE_CODES = {
+            null, MonitoringType.FLOW, MonitoringType.WATER_LEVEL, MonitoringType.WATER_QUALITY,
+            MonitoringType.RAINFALL, MonitoringType.RESERVOIR
+    };
+
+    private static final Map<MonitoringType, Field[]> LAYOUTS = new EnumMap<>(MonitoringType.class);
+
+    static {
+        LAYOUTS.put(MonitoringType.FLOW, new Field[]{Field.INSTANT_FLOW, Field.CUMULATIVE_FLOW});
+        LAYOUTS.put(MonitoringType.WATER_LEVEL, new Field[]{Field.WATER_LEVEL});
+        LAYOUTS.put(MonitoringType.WATER_QUALITY, new Field[]{Field.WATER_TEMPERATURE, Field.TURBIDITY,
+                Field.PH_VALUE, Field.CONDUCTIVITY, Field.DISSOLVED_OXYGEN, Field.AMMONIA_NITROGEN,
+                Field.COD_VALUE, Field.RESIDUAL_CHLORINE});
+        LAYOUTS.put(MonitoringType.RAINFALL, new Field[]{Field.RAINFALL, Field.RAINFALL_INTENSITY,
+                Field.CUMULATIVE_RAINFALL});
+        LAYOUTS.put(MonitoringType.RESERVOIR, new Field[]{Field.WATER_LEVEL, Field.STORAGE_CAPACITY,
+                Field.FLOOD_LIMIT_DIFF, Field.INFLOW, Field.OUTFLOW});
+    }
+
+    private TelemetryFrameCodec() {
+    }
+
+    /**
+     * 读取消息帧的监测类型并校验帧头
+     *
+     * @throws IllegalArgumentException 帧头无效或监测类型未知
+     */
+    public static MonitoringType frameType(byte[] buf, int off, int len) {
+        if (len < HEADER_LENGTH || buf[off] != MAGIC) {
+            throw new IllegalArgumentException("无效的遥测消息帧");
+        }
+        if (buf[off + 1] != VERSION) {
+            throw new IllegalArgumentException("不支持的遥测消息帧版本: " + buf[off + 1]);
+        }
+        int code = buf[off + 2] & 0xFF;
+        if (code == 0 || code >= TYPE_CODES.length) {
+            throw new IllegalArgumentException("未知的监测类型编码: " + code);
+        }
+        return TYPE_CODES[code];
+    }
+
+    /**
+     * 解码一条消息帧
+     *
+     * @param type 由{@link #frameType}读取的监测类型
+     * @throws IllegalArgumentException 站码为空或帧长度与监测类型不符
+     */
+    public static TelemetryReadingDTO decodeFrame(MonitoringType type, byte[] buf, int off, int len) {
+        int codeLength = buf[off + 3] & 0xFF;
+        if (codeLength == 0) {
+            throw new IllegalArgumentException("遥测消息帧站码为空");
+        }
+        if (len != HEADER_LENGTH + codeLength + META_LENGTH + valueBytes(type)) {
+            throw new IllegalArgumentException(type.getLabel() + "遥测消息帧长度错误: " + len);
+        }
+        TelemetryReadingDTO reading = new TelemetryReadingDTO();
+        reading.setStationCode(new String(buf, off + HEADER_LENGTH, codeLength, StandardCharsets.US_ASCII));
+        int pos = off + HEADER_LENGTH + codeLength;
+        reading.setMonitoringTime(FastTimestampParser.toLocalDateTime(readLong(buf, pos)));
+        int quality = buf[pos + 8] & 0xFF;
+        reading.setDataQuality(quality == 0 ? null : quality);
+        decodeValues(type, reading, buf, pos + META_LENGTH);
+        return reading;
+    }
+
+    /**
+     * 编码一条消息帧，供设备模拟器使用
+     *
+     * @return 写入的字节数
+     */
+    public static int encodeFrame(MonitoringType type, TelemetryReadingDTO reading, byte[] out, int off) {
+        byte[] code = reading.getStationCode().getBytes(StandardCharsets.US_ASCII);
+        if (code.length == 0 || code.length > 255) {
+            throw new IllegalArgumentException("站码长度必须在1到255之间");
+        }
+        out[off] = MAGIC;
+        out[off + 1] = VERSION;
+        out[off + 2] = (byte) typeCode(type);
+        out[off + 3] = (byte) code.length;
+        System.arraycopy(code, 0, out, off + HEADER_LENGTH, code.length);
+        int pos = off + HEADER_LENGTH + code.length;
+        writeLong(out, pos, FastTimestampParser.toEpochSecond(reading.getMonitoringTime()));
+        out[pos + 8] = (byte) (reading.getDataQuality() == null ? 0 : reading.getDataQuality());
+        pos = encodeValues(type, reading, out, pos + META_LENGTH);
+        return pos - off;
+    }
+
+    /**
+     * 消息帧的最大长度
+     */
+    public static int maxFrameLength(MonitoringType type) {
+        return HEADER_LENGTH + 255 + META_LENGTH + valueBytes(type);
+    }
+
+    /**
+     * 一个站点读数占用的Modbus寄存器数量
+     */
+    public static int registerCount(MonitoringType type) {
+        return (8 + 2 + valueBytes(type)) / 2;
+    }
+
+    /**
+     * 解码Modbus保持寄存器中的读数，站码由调用方按设备配置填写
+     *
+     * @param buf 寄存器数据，每个寄存器2字节，大端
+     */
+    public static TelemetryReadingDTO decodeRegisters(MonitoringType type, byte[] buf, int off) {
+        TelemetryReadingDTO reading = new TelemetryReadingDTO();
+        reading.setMonitoringTime(FastTimestampParser.toLocalDateTime(readLong(buf, off)));
+        int quality = ((buf[off + 8] & 0xFF) << 8) | (buf[off + 9] & 0xFF);
+        reading.setDataQuality(quality == 0 ? null : quality);
+        decodeValues(type, reading, buf, off + 10);
+        return reading;
+    }
+
+    /**
+     * 编码读数到Modbus保持寄存器，供设备模拟器使用
+     */
+    public static void encodeRegisters(MonitoringType type, TelemetryReadingDTO reading, byte[] out, int off) {
+        writeLong(out, off, FastTimestampParser.toEpochSecond(reading.getMonitoringTime()));
+        int quality = reading.getDataQuality() == null ? 0 : reading.getDataQuality();
+        out[off + 8] = (byte) (quality >>> 8);
+        out[off + 9] = (byte) quality;
+        encodeValues(type, reading, out, off + 10);
+    }
+
+    /**
+     * 读取纪元秒，供Modbus轮询判断设备读数是否已更新
+     */
+    public static long readEpochSecond(byte[] buf, int off) {
+        return readLong(buf, off);
+    }
+
+    private static int typeCode(MonitoringType type) {
+        for (int i = 1; i < TYPE_CODES.length; i++) {
+            if (TYPE_CODES[i] == type) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("不支持的监测数据类型: " + type);
+    }
+
+    private static Field[] fields(MonitoringType type) {
+        Field[] fields = LAYOUTS.get(type);
+        if (fields == null) {
+            throw new IllegalArgumentException("不支持的监测数据类型: " + type);
+        }
+        return fields;
+    }
+
+    private static int valueBytes(MonitoringType type) {
+        int length = 0;
+        for (Field field : fields(type)) {
+            length += field.wide ? 8 : 4;
+        }
+        return length;
+    }
+
+    private static void decodeValues(MonitoringType type, TelemetryReadingDTO reading, byte[] buf, int pos) {
+        for (Field field : fields(type)) {
+            if (field.wide) {
+                long raw = readLong(buf, pos);
+                if (raw != Long.MIN_VALUE) {
+                    field.setter.accept(reading, BigDecimal.valueOf(raw, SCALE));
+                }
+                pos += 8;
+            } else {
+                int raw = readInt(buf, pos);
+                if (raw != Integer.MIN_VALUE) {
+                    field.setter.accept(reading, BigDecimal.valueOf(raw, SCALE));
+                }
+                pos += 4;
+            }
+        }
+    }
+
+    private static int encodeValues(MonitoringType type, TelemetryReadingDTO reading, byte[] out, int pos) {
+        for (Field field : fields(type)) {
+            BigDecimal value = field.getter.apply(reading);
+            if (field.wide) {
+                writeLong(out, pos, value == null ? Long.MIN_VALUE : unscaled(value));
+                pos += 8;
+            } else {
+                writeInt(out, pos, value == null ? Integer.MIN_VALUE : Math.toIntExact(unscaled(value)));
+                pos += 4;
+            }
+        }
+        return pos;
+    }
+
+    private static long unscaled(BigDecimal value) {
+        return value.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static int readInt(byte[] buf, int pos) {
+        return ((buf[pos] & 0xFF) << 24) | ((buf[pos + 1] & 0xFF) << 16)
+                | ((buf[pos + 2] & 0xFF) << 8) | (buf[pos + 3] & 0xFF);
+    }
+
+    private static long readLong(byte[] buf, int pos) {
+        return ((long) readInt(buf, pos) << 32) | (readInt(buf, pos + 4) & 0xFFFFFFFFL);
+    }
+
+    private static void writeInt(byte[] out, int pos, int value) {
+        out[pos] = (byte) (value >>> 24);
+        out[pos + 1] = (byte) (value >>> 16);
+        out[pos + 2] = (byte) (value >>> 8);
+        out[pos + 3] = (byte) value;
+    }
+
+    private static void writeLong(byte[] out, int pos, long value) {
+        writeInt(out, pos, (int) (value >>> 32));
+        writeInt(out, pos + 4, (int) value);
+    }
+
+    /**
+     * 数值字段，wide为true时按int64传输
+     */
+    private enum Field {
+        INSTANT_FLOW(false, TelemetryReadingDTO::getInstantFlow, TelemetryReadingDTO::setInstantFlow),
+        CUMULATIVE_FLOW(true, TelemetryReadingDTO::getCumulativeFlow, TelemetryReadingDTO::setCumulativeFlow),
+        WATER_LEVEL(false, TelemetryReadingDTO::getWaterLevel, TelemetryReadingDTO::setWaterLevel),
+        WATER_TEMPERATURE(false, TelemetryReadingDTO::getWaterTemperature, TelemetryReadingDTO::setWaterTemperature),
+        TURBIDITY(false, TelemetryReadingDTO::getTurbidity, TelemetryReadingDTO::setTurbidity),
+        PH_VALUE(false, TelemetryReadingDTO::getPhValue, TelemetryReadingDTO::setPhValue),
+        CONDUCTIVITY(false, TelemetryReadingDTO::getConductivity, TelemetryReadingDTO::setConductivity),
+        DISSOLVED_OXYGEN(false, TelemetryReadingDTO::getDissolvedOxygen, TelemetryReadingDTO::setDissolvedOxygen),
+        AMMONIA_NITROGEN(false, TelemetryReadingDTO::getAmmoniaNitrogen, TelemetryReadingDTO::setAmmoniaNitrogen),
+        COD_VALUE(false, TelemetryReadingDTO::getCodValue, TelemetryReadingDTO::setCodValue),
+        RESIDUAL_CHLORINE(false, TelemetryReadingDTO::getResidualChlorine, TelemetryReadingDTO::setResidualChlorine),
+        RAINFALL(false, TelemetryReadingDTO::getRainfall, TelemetryReadingDTO::setRainfall),
+        RAINFALL_INTENSITY(false, TelemetryReadingDTO::getRainfallIntensity, TelemetryReadingDTO::setRainfallIntensity),
+        CUMULATIVE_RAINFALL(true, TelemetryReadingDTO::getCumulativeRainfall, TelemetryReadingDTO::setCumulativeRainfall),
+        STORAGE_CAPACITY(true, TelemetryReadingDTO::getStorageCapacity, TelemetryReadingDTO::setStorageCapacity),
+        FLOOD_LIMIT_DIFF(false, TelemetryReadingDTO::getFloodLimitDiff, TelemetryReadingDTO::setFloodLimitDiff),
+        INFLOW(false, TelemetryReadingDTO::getInflow, TelemetryReadingDTO::setInflow),
+        OUTFLOW(false, TelemetryReadingDTO::getOutflow, TelemetryReadingDTO::setOutflow);
+
+        private final boolean wide;
+        private final Function<TelemetryReadingDTO, BigDecimal> getter;
+        private final BiConsumer<TelemetryReadingDTO, BigDecimal> setter;
+
+        Field(boolean wide, Function<TelemetryReadingDTO, BigDecimal> getter,
+              BiConsumer<TelemetryReadingDTO, BigDecimal> setter) {
+            this.wide = wide;
+            this.getter = getter;
+            this.setter = setter;
+        }
+    }
+}
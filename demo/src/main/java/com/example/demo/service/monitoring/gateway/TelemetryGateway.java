@@ -0,0 +1,418 @@
+package com.example.demo.service.monitoring.gateway;
+
+import com.example.demo.config.MonitoringGatewayProperties;
+import com.example.demo.config.MonitoringIngestProperties;
+import com.example.demo.constant.MonitoringType;
+import com.example.demo.exception.monitoring.IngestQueueFullException;
+import com.example.demo.pojo.DTO.monitoring.TelemetryIngestResultDTO;
+import com.example.demo.pojo.DTO.monitoring.TelemetryReadingDTO;
+import com.example.demo.service.monitoring.TelemetryIngestService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 设备协议接入网关
+ * 按配置轮询Modbus-TCP设备的保持寄存器、订阅MQTT代理的遥测主题，将二进制读数解码后放入按监测类型划分的缓冲队列，
+ * 每种监测类型一个转发线程将队列中的读数聚合成批交给{@link TelemetryIngestService}，与REST上报走同一条校验和写入链路
+ * 接入服务写入队列已满时转发线程按建议间隔重试同一批数据，网关队列随之积满后暂停读取设备，由TCP连接向设备端反压
+ * 每个设备端点占用一个线程，连接断开后按重连间隔自动重连
+ */
+@Slf4j
+@Component
+@DependsOn("deviceSimulator")
+@RequiredArgsConstructor
+public class TelemetryGateway {
+
+    private static final String PROTOCOL_MODBUS = "modbus";
+
+    private static final String PROTOCOL_MQTT = "mqtt";
+
+    private final MonitoringGatewayProperties gatewayProperties;
+    private final MonitoringIngestProperties ingestProperties;
+    private final TelemetryIngestService telemetryIngestService;
+
+    private final Map<MonitoringType, GatewayChannel> channels = new EnumMap<>(MonitoringType.class);
+
+    private final List<Endpoint> endpoints = new ArrayList<>();
+
+    private ExecutorService executor;
+
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        if (!Boolean.TRUE.equals(gatewayProperties.getEnabled()) || gatewayProperties.getDevices().isEmpty()) {
+            return;
+        }
+        for (MonitoringGatewayProperties.Device device : gatewayProperties.getDevices()) {
+            endpoints.add(new Endpoint(device));
+        }
+        running = true;
+        for (MonitoringType type : MonitoringType.values()) {
+            GatewayChannel channel = new GatewayChannel(type, new ArrayBlockingQueue<>(gatewayProperties.getQueueCapacity()));
+            Thread forwarder = new Thread(() -> runForwarder(channel), "gateway-forwarder-" + type.getPath());
+            forwarder.setDaemon(true);
+            channel.forwarder = forwarder;
+            channels.put(type, channel);
+            forwarder.start();
+        }
+        AtomicInteger threadIndex = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(endpoints.size(), runnable -> {
+            Thread thread = new Thread(runnable, "gateway-endpoint-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (Endpoint endpoint : endpoints) {
+            executor.execute(PROTOCOL_MODBUS.equals(endpoint.protocol) ? () -> pollModbus(endpoint) : () -> subscribeMqtt(endpoint));
+        }
+        log.info("协议接入网关已启动，设备端点: {}个", endpoints.size());
+    }
+
+    /**
+     * 停止读取设备，并在超时时间内等待转发线程交出已缓冲的读数
+     */
+    @PreDestroy
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        executor.shutdownNow();
+        for (Endpoint endpoint : endpoints) {
+            endpoint.close();
+        }
+        long deadline = System.currentTimeMillis() + ingestProperties.getShutdownTimeoutMs();
+        for (GatewayChannel channel : channels.values()) {
+            try {
+                channel.forwarder.join(Math.max(1, deadline - System.currentTimeMillis()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (!channel.queue.isEmpty()) {
+                log.warn("{}数据网关队列未排空，丢弃{}条数据", channel.type.getLabel(), channel.queue.size());
+            }
+        }
+    }
+
+    /**
+     * 获取网关统计
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", running);
+        Map<String, Object> channelStats = new LinkedHashMap<>();
+        for (GatewayChannel channel : channels.values()) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("queueSize", channel.queue.size());
+            item.put("receivedRows", channel.receivedRows.get());
+            item.put("forwardedRows", channel.forwardedRows.get());
+            item.put("rejectedRows", channel.rejectedRows.get());
+            item.put("failedRows", channel.failedRows.get());
+            item.put("retries", channel.retries.get());
+            channelStats.put(channel.type.getPath(), item);
+        }
+        stats.put("channels", channelStats);
+        List<Map<String, Object>> endpointStats = new ArrayList<>();
+        for (Endpoint endpoint : endpoints) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("name", endpoint.name);
+            item.put("protocol", endpoint.protocol);
+            item.put("connected", endpoint.connected);
+            item.put("messages", endpoint.messages.get());
+            item.put("decodeErrors", endpoint.decodeErrors.get());
+            item.put("connectionErrors", endpoint.connectionErrors.get());
+            endpointStats.add(item);
+        }
+        stats.put("endpoints", endpointStats);
+        return stats;
+    }
+
+    /**
+     * 轮询Modbus设备，设备读数的监测时间变化后才放入队列
+     */
+    private void pollModbus(Endpoint endpoint) {
+        ModbusTcpClient client = new ModbusTcpClient(endpoint.host, endpoint.port, gatewayProperties.getTimeoutMs());
+        endpoint.connection = client;
+        int quantity = TelemetryFrameCodec.registerCount(endpoint.type);
+        long lastEpochSecond = 0;
+        while (running) {
+            try {
+                if (!client.isConnected()) {
+                    client.connect();
+                    onConnected(endpoint);
+                }
+                byte[] response = client.readHoldingRegisters(endpoint.unitId, endpoint.address, quantity);
+                int offset = client.dataOffset();
+                long epochSecond = TelemetryFrameCodec.readEpochSecond(response, offset);
+                // 纪元秒为0表示设备尚未采集
+                if (epochSecond != 0 && epochSecond != lastEpochSecond) {
+                    lastEpochSecond = epochSecond;
+                    TelemetryReadingDTO reading = TelemetryFrameCodec.decodeRegisters(endpoint.type, response, offset);
+                    reading.setStationCode(endpoint.stationCode);
+                    enqueue(endpoint, endpoint.type, reading);
+                }
+                Thread.sleep(endpoint.pollIntervalMs);
+            } catch (IOException e) {
+                client.close();
+                if (!onDisconnected(endpoint, e)) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * 订阅MQTT主题，每条消息为一个遥测消息帧
+     */
+    private void subscribeMqtt(Endpoint endpoint) {
+        MqttSubscriber subscriber = new MqttSubscriber(endpoint.host, endpoint.port, gatewayProperties.getTimeoutMs());
+        endpoint.connection = subscriber;
+        while (running) {
+            try {
+                subscriber.connect(endpoint.clientId, endpoint.topic, endpoint.keepAliveSeconds);
+                onConnected(endpoint);
+                subscriber.receive((payload, off, len) -> onFrame(endpoint, payload, off, len));
+            } catch (IOException e) {
+                subscriber.close();
+                if (!onDisconnected(endpoint, e)) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void onFrame(Endpoint endpoint, byte[] payload, int off, int len) throws InterruptedException {
+        MonitoringType type;
+        TelemetryReadingDTO reading;
+        try {
+            type = TelemetryFrameCodec.frameType(payload, off, len);
+            reading = TelemetryFrameCodec.decodeFrame(type, payload, off, len);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            if (endpoint.decodeErrors.incrementAndGet() % 1000 == 1) {
+                log.warn("设备端点{}的遥测消息解码失败，累计{}条: {}", endpoint.name, endpoint.decodeErrors.get(), e.getMessage());
+            }
+            return;
+        }
+        enqueue(endpoint, type, reading);
+    }
+
+    /**
+     * 放入网关队列，队列已满时阻塞读取线程
+     */
+    private void enqueue(Endpoint endpoint, MonitoringType type, TelemetryReadingDTO reading) throws InterruptedException {
+        reading.setCollectionMethod("AUTO");
+        reading.setDataSource(endpoint.name);
+        GatewayChannel channel = channels.get(type);
+        channel.queue.put(reading);
+        channel.receivedRows.incrementAndGet();
+        endpoint.messages.incrementAndGet();
+    }
+
+    private void onConnected(Endpoint endpoint) {
+        endpoint.connected = true;
+        log.info("设备端点{}已连接: {}:{}", endpoint.name, endpoint.host, endpoint.port);
+    }
+
+    /**
+     * 记录连接断开并等待重连间隔
+     *
+     * @return 线程被中断时返回false
+     */
+    private boolean onDisconnected(Endpoint endpoint, IOException e) {
+        if (endpoint.connected || endpoint.connectionErrors.get() == 0) {
+            log.warn("设备端点{}连接断开，{}毫秒后重连: {}", endpoint.name, gatewayProperties.getReconnectDelayMs(), e.getMessage());
+        }
+        endpoint.connected = false;
+        endpoint.connectionErrors.incrementAndGet();
+        try {
+            Thread.sleep(gatewayProperties.getReconnectDelayMs());
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * 转发线程主循环
+     * 取到第一条读数后最多等待lingerMs聚合更多读数，凑满批量大小或超时即转交接入服务
+     */
+    private void runForwarder(GatewayChannel channel) {
+        int batchSize = Math.min(gatewayProperties.getBatchSize(), ingestProperties.getMaxRequestRows());
+        long lingerNanos = TimeUnit.MILLISECONDS.toNanos(gatewayProperties.getLingerMs());
+        List<TelemetryReadingDTO> batch = new ArrayList<>(batchSize);
+
+        while (running || !channel.queue.isEmpty()) {
+            try {
+                TelemetryReadingDTO first = channel.queue.poll(gatewayProperties.getLingerMs(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < batchSize) {
+                    channel.queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                        break;
+                    }
+                    TelemetryReadingDTO next = channel.queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                forward(channel, batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                channel.failedRows.addAndGet(batch.size());
+                log.error("{}数据网关转发异常，丢弃{}条数据", channel.type.getLabel(), batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 转交一批读数，接入服务写入队列已满时按建议间隔重试
+     */
+    private void forward(GatewayChannel channel, List<TelemetryReadingDTO> batch) throws InterruptedException {
+        while (true) {
+            try {
+                TelemetryIngestResultDTO result = telemetryIngestService.ingest(channel.type, batch, null);
+                channel.forwardedRows.addAndGet(result.getAcceptedRows());
+                if (result.getRejectedRows() > 0) {
+                    channel.rejectedRows.addAndGet(result.getRejectedRows());
+                    log.warn("{}数据网关转发被拒绝{}条，首条原因: 站码{}，{}", channel.type.getLabel(), result.getRejectedRows(),
+                            result.getErrors().get(0).getStationCode(), result.getErrors().get(0).getError());
+                }
+                return;
+            } catch (IngestQueueFullException e) {
+                if (!running) {
+                    throw e;
+                }
+                channel.retries.incrementAndGet();
+                Thread.sleep(TimeUnit.SECONDS.toMillis(e.getRetryAfterSeconds()));
+            }
+        }
+    }
+
+    /**
+     * 单个监测类型的网关缓冲队列
+     */
+    private static class GatewayChannel {
+
+        private final MonitoringType type;
+        private final BlockingQueue<TelemetryReadingDTO> queue;
+        private final AtomicLong receivedRows = new AtomicLong();
+        private final AtomicLong forwardedRows = new AtomicLong();
+        private final AtomicLong rejectedRows = new AtomicLong();
+        private final AtomicLong failedRows = new AtomicLong();
+        private final AtomicLong retries = new AtomicLong();
+        private Thread forwarder;
+
+        private GatewayChannel(MonitoringType type, BlockingQueue<TelemetryReadingDTO> queue) {
+            this.type = type;
+            this.queue = queue;
+        }
+    }
+
+    /**
+     * 设备端点及其运行状态
+     */
+    private static class Endpoint {
+
+        private final String name;
+        private final String protocol;
+        private final String host;
+        private final int port;
+        private final int unitId;
+        private final int address;
+        private final long pollIntervalMs;
+        private final MonitoringType type;
+        private final String stationCode;
+        private final String topic;
+        private final String clientId;
+        private final int keepAliveSeconds;
+        private final AtomicLong messages = new AtomicLong();
+        private final AtomicLong decodeErrors = new AtomicLong();
+        private final AtomicLong connectionErrors = new AtomicLong();
+        private volatile boolean connected;
+        private volatile Closeable connection;
+
+        /**
+         * @throws IllegalArgumentException 协议不支持、地址未配置或Modbus设备缺少监测类型和站码
+         */
+        private Endpoint(MonitoringGatewayProperties.Device device) {
+            this.protocol = device.getProtocol() == null ? null : device.getProtocol().trim().toLowerCase(Locale.ROOT);
+            if (!PROTOCOL_MODBUS.equals(protocol) && !PROTOCOL_MQTT.equals(protocol)) {
+                throw new IllegalArgumentException("不支持的设备接入协议: " + device.getProtocol());
+            }
+            if (device.getHost() == null || device.getHost().trim().isEmpty() || device.getPort() == null) {
+                throw new IllegalArgumentException("设备端点地址和端口不能为空");
+            }
+            this.host = device.getHost().trim();
+            this.port = device.getPort();
+            this.name = device.getName() != null && !device.getName().trim().isEmpty()
+                    ? device.getName().trim() : protocol + "://" + host + ":" + port;
+            this.unitId = device.getUnitId();
+            this.address = device.getAddress();
+            this.pollIntervalMs = device.getPollIntervalMs();
+            this.topic = device.getTopic();
+            this.clientId = device.getClientId() != null ? device.getClientId() : "water-gateway-" + name.hashCode();
+            this.keepAliveSeconds = device.getKeepAliveSeconds();
+            if (PROTOCOL_MODBUS.equals(protocol)) {
+                if (device.getStationCode() == null || device.getStationCode().trim().isEmpty()) {
+                    throw new IllegalArgumentException("Modbus设备端点" + name + "未配置站码");
+                }
+                this.type = MonitoringType.fromPath(device.getType());
+                this.stationCode = device.getStationCode().trim();
+                if (TelemetryFrameCodec.registerCount(type) > ModbusTcpClient.MAX_REGISTERS) {
+                    throw new IllegalArgumentException(type.getLabel() + "读数超过单次可读取的寄存器数量");
+                }
+            } else {
+                this.type = null;
+                this.stationCode = null;
+            }
+        }
+
+        private void close() {
+            Closeable current = connection;
+            if (current != null) {
+                try {
+                    current.close();
+                } catch (IOException ignored) {
+                    // 仅用于唤醒阻塞的读取线程
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package com.example.demo.utils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 图表数据降采样器
+ * 逐点接收按时间排序的数据，只保留有限数量的候选点：数据按等宽分段，每段保留首、末、最小、最大四个点，
+ * 候选点超过上限时相邻两段合并、段宽翻倍；全部数据接收完后再用LTTB(Largest-Triangle-Three-Buckets)
+ * 从候选点中选出目标数量的点。单次遍历完成，内存与原始点数无关，峰谷值优先保留
+ * 原始点数不超过目标点数时原样返回全部点
+ */
+public class ChartDownsampler {
+
+    /**
+     * 目标点数下限，LTTB至少需要首、末两点加一个中间点
+     */
+    public static final int MIN_POINTS = 3;
+
+    private final int maxPoints;
+
+    /**
+     * 分段数量上限，候选点数不超过分段数的4倍
+     */
+    private final int maxSegments;
+
+    private final List<Segment> segments = new ArrayList<>();
+
+    /**
+     * 当前每段包含的原始点数
+     */
+    private long segmentWidth = 1;
+
+    private long count;
+
+    private BigDecimal maxValue;
+
+    private BigDecimal minValue;
+
+    private BigDecimal sum = BigDecimal.ZERO;
+
+    /**
+     * @param maxPoints 目标点数，小于MIN_POINTS时按MIN_POINTS处理
+     */
+    public ChartDownsampler(int maxPoints) {
+        this.maxPoints = Math.max(maxPoints, MIN_POINTS);
+        this.maxSegments = this.maxPoints;
+    }
+
+    /**
+     * 接收一个数据点，数据点需按时间先后顺序传入
+     *
+     * @param label 时间标签
+     * @param value 数值，不能为空
+     */
+    public void add(String label, BigDecimal value) {
+        long index = count++;
+        maxValue = maxValue == null || value.compareTo(maxValue) > 0 ? value : maxValue;
+        minValue = minValue == null || value.compareTo(minValue) < 0 ? value : minValue;
+        sum = sum.add(value);
+
+        Point point = new Point(index, label, value);
+        Segment last = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        if (last != null && index / segmentWidth == last.first.index / segmentWidth) {
+            last.add(point);
+            return;
+        }
+        segments.add(new Segment(point));
+        if (segments.size() > maxSegments) {
+            compact();
+        }
+    }
+
+    /**
+     * 获取降采样后的数据点，按时间先后排列
+     */
+    public List<Point> getPoints() {
+        List<Point> candidates = new ArrayList<>(segments.size() * 4);
+        for (Segment segment : segments) {
+            segment.appendTo(candidates);
+        }
+        if (candidates.size() <= maxPoints) {
+            return candidates;
+        }
+        return lttb(candidates, maxPoints);
+    }
+
+    /**
+     * 原始点数
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * 全部原始点的最大值，无数据时为null
+     */
+    public BigDecimal getMaxValue() {
+        return maxValue;
+    }
+
+    /**
+     * 全部原始点的最小值，无数据时为null
+     */
+    public BigDecimal getMinValue() {
+        return minValue;
+    }
+
+    /**
+     * 全部原始点的合计值
+     */
+    public BigDecimal getSum() {
+        return sum;
+    }
+
+    /**
+     * 相邻两段合并，段宽翻倍
+     */
+    private void compact() {
+        segmentWidth *= 2;
+        List<Segment> merged = new ArrayList<>(segments.size() / 2 + 1);
+        for (Segment segment : segments) {
+            Segment last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && segment.first.index / segmentWidth == last.first.index / segmentWidth) {
+                last.merge(segment);
+            } else {
+                merged.add(segment);
+            }
+        }
+        segments.clear();
+        segments.addAll(merged);
+    }
+
+    /**
+     * LTTB降采样：保留首末点，其余点分桶，每桶选出与前一选中点、下一桶均值点构成三角形面积最大的点
+     */
+    private static List<Point> lttb(List<Point> points, int threshold) {
+        int size = points.size();
+        List<Point> sampled = new ArrayList<>(threshold);
+        double bucketSize = (double) (size - 2) / (threshold - 2);
+
+        Point selected = points.get(0);
+        sampled.add(selected);
+        for (int i = 0; i < threshold - 2; i++) {
+            int start = (int) Math.floor(i * bucketSize) + 1;
+            int end = (int) Math.floor((i + 1) * bucketSize) + 1;
+
+            // 下一桶的均值点，最后一桶以末点代替
+            int nextStart = end;
+            int nextEnd = Math.min((int) Math.floor((i + 2) * bucketSize) + 1, size);
+            double avgX = 0;
+            double avgY = 0;
+            if (nextStart >= size - 1 || nextStart >= nextEnd) {
+                Point lastPoint = points.get(size - 1);
+                avgX = lastPoint.index;
+                avgY = lastPoint.doubleValue;
+            } else {
+                for (int j = nextStart; j < nextEnd; j++) {
+                    avgX += points.get(j).index;
+                    avgY += points.get(j).doubleValue;
+                }
+                avgX /= nextEnd - nextStart;
+                avgY /= nextEnd - nextStart;
+            }
+
+            double maxArea = -1;
+            Point candidate = points.get(start);
+            for (int j = start; j < end && j < size - 1; j++) {
+                Point point = points.get(j);
+                double area = Math.abs((selected.index - avgX) * (point.doubleValue - selected.doubleValue)
+                        - (selected.index - point.index) * (avgY - selected.doubleValue));
+                if (area > maxArea) {
+                    maxArea = area;
+                    candidate = point;
+                }
+            }
+            sampled.add(candidate);
+            selected = candidate;
+        }
+        sampled.add(points.get(size - 1));
+        return sampled;
+    }
+
+    /**
+     * 数据点
+     */
+    public static final class Point {
+
+        private final long index;
+
+        private final String label;
+
+        private final BigDecimal value;
+
+        private final double doubleValue;
+
+        private Point(long index, String label, BigDecimal value) {
+            this.index = index;
+            this.label = label;
+            this.value = value;
+            this.doubleValue = value.doubleValue();
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public BigDecimal getValue() {
+            return value;
+        }
+    }
+
+    /**
+     * 分段，保留段内首、末、最小、最大四个点
+     */
+    private static final class Segment {
+
+        private Point first;
+
+        private Point last;
+
+        private Point min;
+
+        private Point max;
+
+        private Segment(Point point) {
+            first = point;
+            last = point;
+            min = point;
+            max = point;
+        }
+
+        private void add(Point point) {
+            last = point;
+            if (point.doubleValue < min.doubleValue) {
+                min = point;
+            }
+            if (point.doubleValue > max.doubleValue) {
+                max = point;
+            }
+        }
+
+        private void merge(Segment next) {
+            last = next.last;
+            if (next.min.doubleValue < min.doubleValue) {
+                min = next.min;
+            }
+            if (next.max.doubleValue > max.doubleValue) {
+                max = next.max;
+            }
+        }
+
+        /**
+         * 按原始顺序输出段内去重后的点
+         */
+        private void appendTo(List<Point> target) {
+            Point[] points = {first, min, max, last};
+            Arrays.sort(points, (a, b) -> Long.compare(a.index, b.index));
+            Point previous = null;
+            for (Point point : points) {
+                if (point != previous) {
+                    target.add(point);
+                }
+                previous = point;
+            }
+        }
+    }
+}
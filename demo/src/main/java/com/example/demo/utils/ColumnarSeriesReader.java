@@ -0,0 +1,207 @@
+package com.example.demo.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 列式监测序列文件读取器
+ * 以只读内存映射方式打开ColumnarSeriesWriter写出的文件，按时间范围顺序解码各列；
+ * 解码状态保存在每次扫描内部，同一个读取器可被多个线程同时扫描
+ */
+public final class ColumnarSeriesReader {
+
+    private final ByteBuffer buffer;
+
+    private final List<String> metrics;
+
+    private final int rowCount;
+
+    private final long firstTime;
+
+    private final long lastTime;
+
+    private final int timeStart;
+
+    private final int qualityStart;
+
+    private final int[] presenceStarts;
+
+    private final int[] valueStarts;
+
+    private ColumnarSeriesReader(ByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.getInt(0) != ColumnarSeriesWriter.MAGIC) {
+            throw new IllegalArgumentException("不是列式监测序列文件");
+        }
+        if (buffer.get(4) != ColumnarSeriesWriter.VERSION) {
+            throw new IllegalArgumentException("不支持的列式序列文件版本: " + buffer.get(4));
+        }
+        rowCount = buffer.getInt(5);
+        firstTime = buffer.getLong(9);
+        lastTime = buffer.getLong(17);
+        int metricCount = buffer.get(25) & 0xFF;
+        int position = 26;
+        List<String> names = new ArrayList<>(metricCount);
+        for (int i = 0; i < metricCount; i++) {
+            int length = buffer.getShort(position);
+            byte[] name = new byte[length];
+            for (int j = 0; j < length; j++) {
+                name[j] = buffer.get(position + 2 + j);
+            }
+            names.add(new String(name, StandardCharsets.UTF_8));
+            position += 2 + length;
+        }
+        metrics = Collections.unmodifiableList(names);
+
+        timeStart = position + 4;
+        position = timeStart + buffer.getInt(position);
+        qualityStart = position + 4;
+        position = qualityStart + buffer.getInt(position);
+        presenceStarts = new int[metricCount];
+        valueStarts = new int[metricCount];
+        for (int i = 0; i < metricCount; i++) {
+            presenceStarts[i] = position + 4;
+            position = presenceStarts[i] + buffer.getInt(position);
+            valueStarts[i] = position + 4;
+            position = valueStarts[i] + buffer.getInt(position);
+        }
+    }
+
+    /**
+     * 以只读内存映射方式打开文件，映射建立后文件通道即可关闭
+     */
+    public static ColumnarSeriesReader open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new ColumnarSeriesReader(buffer);
+        }
+    }
+
+    public List<String> getMetrics() {
+        return metrics;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public LocalDateTime getFirstTime() {
+        return ColumnarSeriesWriter.fromEpochSecond(firstTime);
+    }
+
+    public LocalDateTime getLastTime() {
+        return ColumnarSeriesWriter.fromEpochSecond(lastTime);
+    }
+
+    /**
+     * 按时间顺序扫描[from, to]范围内的行，越过to后立即停止解码
+     *
+     * @param from 开始时间，为空表示不限
+     * @param to 结束时间，为空表示不限
+     * @param visitor 行回调，回调参数中的数组在各行之间复用
+     * @return 回调的行数
+     */
+    public int scan(LocalDateTime from, LocalDateTime to, RowVisitor visitor) {
+        long fromSecond = from == null ? Long.MIN_VALUE : ColumnarSeriesWriter.toEpochSecond(from);
+        long toSecond = to == null ? Long.MAX_VALUE : ColumnarSeriesWriter.toEpochSecond(to);
+        if (rowCount == 0 || fromSecond > lastTime || toSecond < firstTime) {
+            return 0;
+        }
+
+        int metricCount = metrics.size();
+        SeriesBitReader timeBits = new SeriesBitReader(buffer, timeStart);
+        SeriesBitReader qualityBits = new SeriesBitReader(buffer, qualityStart);
+        SeriesBitReader[] presenceBits = new SeriesBitReader[metricCount];
+        SeriesBitReader[] valueBits = new SeriesBitReader[metricCount];
+        for (int i = 0; i < metricCount; i++) {
+            presenceBits[i] = new SeriesBitReader(buffer, presenceStarts[i]);
+            valueBits[i] = new SeriesBitReader(buffer, valueStarts[i]);
+        }
+        long[] values = new long[metricCount];
+        boolean[] present = new boolean[metricCount];
+        boolean[] started = new boolean[metricCount];
+        int[] leading = new int[metricCount];
+        int[] trailing = new int[metricCount];
+
+        long time = 0;
+        long delta = 0;
+        int visited = 0;
+        for (int row = 0; row < rowCount; row++) {
+            if (row == 0) {
+                time = timeBits.readBits(64);
+            } else {
+                delta += readDeltaOfDelta(timeBits);
+                time += delta;
+            }
+            if (time > toSecond) {
+                break;
+            }
+            int quality = (int) qualityBits.readBits(2);
+            // 早于from的行也要解码，异或编码依赖前一个值
+            for (int i = 0; i < metricCount; i++) {
+                present[i] = presenceBits[i].readBit();
+                if (present[i]) {
+                    SeriesBitReader bits = valueBits[i];
+                    if (!started[i]) {
+                        values[i] = bits.readBits(64);
+                        started[i] = true;
+                        leading[i] = -1;
+                    } else if (bits.readBit()) {
+                        if (bits.readBit()) {
+                            leading[i] = (int) bits.readBits(6);
+                            int meaningful = (int) bits.readBits(6) + 1;
+                            trailing[i] = 64 - leading[i] - meaningful;
+                        }
+                        int meaningful = 64 - leading[i] - trailing[i];
+                        values[i] ^= bits.readBits(meaningful) << trailing[i];
+                    }
+                }
+            }
+            if (time >= fromSecond) {
+                visitor.visit(time, quality, values, present);
+                visited++;
+            }
+        }
+        return visited;
+    }
+
+    private static long readDeltaOfDelta(SeriesBitReader bits) {
+        if (!bits.readBit()) {
+            return 0;
+        }
+        if (!bits.readBit()) {
+            return bits.readBits(7) - 63;
+        }
+        if (!bits.readBit()) {
+            return bits.readBits(9) - 255;
+        }
+        if (!bits.readBit()) {
+            return bits.readBits(12) - 2047;
+        }
+        return bits.readBits(64);
+    }
+
+    /**
+     * 行回调
+     */
+    @FunctionalInterface
+    public interface RowVisitor {
+
+        /**
+         * @param epochSecond 监测时间秒数，可用ColumnarSeriesWriter.fromEpochSecond转换
+         * @param quality 数据质量，0表示未记录
+         * @param scaledValues 各指标放大后的数值，可用ColumnarSeriesWriter.fromScaled转换
+         * @param present 各指标是否有值
+         */
+        void visit(long epochSecond, int quality, long[] scaledValues, boolean[] present);
+    }
+}
@@ -0,0 +1,249 @@
+package com.example.demo.utils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 列式监测序列文件写入器
+ * 一个文件保存一个站点一段时间内按时间排序的监测数据，各列独立压缩：
+ * 监测时间按秒做二阶差分（delta-of-delta）变长编码；数值按3位小数放大为长整数后做相邻值异或（Gorilla）编码，
+ * 空值由每列的存在位图标记；数据质量每行占2位。数据逐行编码，内存只保留压缩后的结果
+ *
+ * 文件结构：魔数、版本、行数、首末时间、指标名列表，之后依次为时间列、质量列、各指标的存在位图和数值列，
+ * 每列以4字节长度开头
+ */
+public class ColumnarSeriesWriter {
+
+    /**
+     * 文件魔数 "MCS1"
+     */
+    public static final int MAGIC = 0x4D435331;
+
+    public static final byte VERSION = 1;
+
+    /**
+     * 数值放大倍数对应的小数位数，与监测表decimal(*,3)一致
+     */
+    public static final int SCALE = 3;
+
+    private final List<String> metrics;
+
+    private final SeriesBitWriter timeBits = new SeriesBitWriter(1024);
+
+    private final SeriesBitWriter qualityBits = new SeriesBitWriter(1024);
+
+    private final SeriesBitWriter[] presenceBits;
+
+    private final SeriesBitWriter[] valueBits;
+
+    private final long[] previousValues;
+
+    private final int[] previousLeading;
+
+    private final int[] previousTrailing;
+
+    private final boolean[] hasValue;
+
+    private int rowCount;
+
+    private long firstTime;
+
+    private long lastTime;
+
+    private long previousDelta;
+
+    /**
+     * @param metrics 指标名，写入文件头，读取时按相同顺序返回数值
+     */
+    public ColumnarSeriesWriter(List<String> metrics) {
+        this.metrics = Collections.unmodifiableList(new ArrayList<>(metrics));
+        int size = metrics.size();
+        presenceBits = new SeriesBitWriter[size];
+        valueBits = new SeriesBitWriter[size];
+        for (int i = 0; i < size; i++) {
+            presenceBits[i] = new SeriesBitWriter(256);
+            valueBits[i] = new SeriesBitWriter(1024);
+        }
+        previousValues = new long[size];
+        previousLeading = new int[size];
+        previousTrailing = new int[size];
+        hasValue = new boolean[size];
+    }
+
+    /**
+     * 追加一行，监测时间不能早于上一行
+     *
+     * @param time 监测时间
+     * @param quality 数据质量(1:正常,2:异常,3:缺失)，为空或超出范围时记为0
+     * @param values 各指标数值，顺序与构造时的指标一致，允许为空
+     */
+    public void add(LocalDateTime time, Integer quality, BigDecimal... values) {
+        if (values.length != metrics.size()) {
+            throw new IllegalArgumentException("指标数量不匹配: " + values.length + " != " + metrics.size());
+        }
+        long epochSecond = toEpochSecond(time);
+        if (rowCount > 0 && epochSecond < lastTime) {
+            throw new IllegalArgumentException("监测时间必须按先后顺序写入: " + time);
+        }
+        writeTime(epochSecond);
+        qualityBits.writeBits(quality == null || quality < 0 || quality > 3 ? 0 : quality, 2);
+        for (int i = 0; i < values.length; i++) {
+            presenceBits[i].writeBit(values[i] != null);
+            if (values[i] != null) {
+                writeValue(i, toScaled(values[i]));
+            }
+        }
+        rowCount++;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * 写入文件，先写临时文件再替换目标文件，读取方不会看到写了一半的文件
+     *
+     * @param path 目标文件
+     * @return 文件字节数
+     */
+    public long writeTo(Path path) throws IOException {
+        List<byte[]> columns = new ArrayList<>();
+        columns.add(timeBits.toByteArray());
+        columns.add(qualityBits.toByteArray());
+        for (int i = 0; i < metrics.size(); i++) {
+            columns.add(presenceBits[i].toByteArray());
+            columns.add(valueBits[i].toByteArray());
+        }
+
+        List<byte[]> names = new ArrayList<>();
+        int size = 4 + 1 + 4 + 8 + 8 + 1;
+        for (String metric : metrics) {
+            byte[] name = metric.getBytes(StandardCharsets.UTF_8);
+            names.add(name);
+            size += 2 + name.length;
+        }
+        for (byte[] column : columns) {
+            size += 4 + column.length;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(MAGIC).put(VERSION).putInt(rowCount).putLong(firstTime).putLong(lastTime);
+        buffer.put((byte) names.size());
+        for (byte[] name : names) {
+            buffer.putShort((short) name.length).put(name);
+        }
+        for (byte[] column : columns) {
+            buffer.putInt(column.length).put(column);
+        }
+
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temp, buffer.array());
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return size;
+    }
+
+    /**
+     * 二阶差分编码：差分的变化量为0时只占1位，常见的固定采集间隔几乎不占空间
+     */
+    private void writeTime(long epochSecond) {
+        if (rowCount == 0) {
+            firstTime = epochSecond;
+            timeBits.writeBits(epochSecond, 64);
+        } else {
+            long delta = epochSecond - lastTime;
+            long deltaOfDelta = delta - previousDelta;
+            if (deltaOfDelta == 0) {
+                timeBits.writeBit(false);
+            } else if (deltaOfDelta >= -63 && deltaOfDelta <= 64) {
+                timeBits.writeBits(0b10, 2);
+                timeBits.writeBits(deltaOfDelta + 63, 7);
+            } else if (deltaOfDelta >= -255 && deltaOfDelta <= 256) {
+                timeBits.writeBits(0b110, 3);
+                timeBits.writeBits(deltaOfDelta + 255, 9);
+            } else if (deltaOfDelta >= -2047 && deltaOfDelta <= 2048) {
+                timeBits.writeBits(0b1110, 4);
+                timeBits.writeBits(deltaOfDelta + 2047, 12);
+            } else {
+                timeBits.writeBits(0b1111, 4);
+                timeBits.writeBits(deltaOfDelta, 64);
+            }
+            previousDelta = delta;
+        }
+        lastTime = epochSecond;
+    }
+
+    /**
+     * 异或编码：与上一个值相同只占1位；不同则只写异或结果的有效位，有效位落在上一次的窗口内时复用窗口
+     */
+    private void writeValue(int column, long value) {
+        SeriesBitWriter bits = valueBits[column];
+        if (!hasValue[column]) {
+            bits.writeBits(value, 64);
+            hasValue[column] = true;
+            previousValues[column] = value;
+            previousLeading[column] = -1;
+            return;
+        }
+        long xor = value ^ previousValues[column];
+        previousValues[column] = value;
+        if (xor == 0) {
+            bits.writeBit(false);
+            return;
+        }
+        bits.writeBit(true);
+        int leading = Math.min(Long.numberOfLeadingZeros(xor), 63);
+        int trailing = Long.numberOfTrailingZeros(xor);
+        if (previousLeading[column] >= 0 && leading >= previousLeading[column] && trailing >= previousTrailing[column]) {
+            bits.writeBit(false);
+            int meaningful = 64 - previousLeading[column] - previousTrailing[column];
+            bits.writeBits(xor >>> previousTrailing[column], meaningful);
+        } else {
+            int meaningful = 64 - leading - trailing;
+            bits.writeBit(true);
+            bits.writeBits(leading, 6);
+            bits.writeBits(meaningful - 1, 6);
+            bits.writeBits(xor >>> trailing, meaningful);
+            previousLeading[column] = leading;
+            previousTrailing[column] = trailing;
+        }
+    }
+
+    /**
+     * 监测时间转换为秒数（监测时间不带时区，按UTC换算只用于编码）
+     */
+    public static long toEpochSecond(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    public static LocalDateTime fromEpochSecond(long epochSecond) {
+        return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * 数值按SCALE位小数放大为长整数
+     */
+    public static long toScaled(BigDecimal value) {
+        return value.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal fromScaled(long scaled) {
+        return BigDecimal.valueOf(scaled, SCALE);
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.demo.utils;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CSV文件逐行读取器
+ * 按RFC 4180解析（支持双引号包围、字段内逗号/换行及""转义），文件编码为UTF-8，自动跳过BOM
+ */
+public class CsvRowReader implements TabularRowReader {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final char BOM = '\uFEFF';
+
+    private final Reader reader;
+
+    /**
+     * 文件总字节数，未知时为-1
+     */
+    private final long totalBytes;
+
+    private long bytesRead;
+
+    private final StringBuilder field = new StringBuilder();
+
+    private int rowNumber;
+
+    private boolean firstChar = true;
+
+    private boolean eof;
+
+    public CsvRowReader(InputStream inputStream) {
+        this(inputStream, -1);
+    }
+
+    /**
+     * @param inputStream 文件输入流
+     * @param totalBytes 文件总字节数，用于计算读取进度，未知时传-1
+     */
+    public CsvRowReader(InputStream inputStream, long totalBytes) {
+        this.totalBytes = totalBytes;
+        this.reader = new BufferedReader(new InputStreamReader(new CountingInputStream(inputStream), StandardCharsets.UTF_8),
+                BUFFER_SIZE);
+    }
+
+    @Override
+    public String[] next() throws IOException {
+        while (!eof) {
+            List<String> cells = readRecord();
+            if (cells == null) {
+                return null;
+            }
+            rowNumber++;
+            // 跳过空行
+            if (cells.size() == 1 && cells.get(0) == null) {
+                continue;
+            }
+            return cells.toArray(new String[0]);
+        }
+        return null;
+    }
+
+    @Override
+    public int getRowNumber() {
+        return rowNumber;
+    }
+
+    /**
+     * 按已读取的字节数估算进度，精度为读取缓冲区大小
+     */
+    @Override
+    public double getProgress() {
+        if (totalBytes <= 0) {
+            return -1;
+        }
+        return Math.min(1.0, (double) bytesRead / totalBytes);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * 读取一条记录，文件结束且无数据时返回null
+     */
+    private List<String> readRecord() throws IOException {
+        List<String> cells = new ArrayList<>();
+        field.setLength(0);
+        boolean quoted = false;
+        boolean fieldQuoted = false;
+        boolean any = false;
+
+        int c;
+        while ((c = reader.read()) != -1) {
+            if (firstChar) {
+                firstChar = false;
+                if (c == BOM) {
+                    continue;
+                }
+            }
+            any = true;
+            char ch = (char) c;
+            if (quoted) {
+                if (ch == '"') {
+                    reader.mark(1);
+                    int n = reader.read();
+                    if (n == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        if (n != -1) {
+                            reader.reset();
+                        }
+                    }
+                } else {
+                    field.append(ch);
+                }
+                continue;
+            }
+            if (ch == '"' && field.length() == 0 && !fieldQuoted) {
+                quoted = true;
+                fieldQuoted = true;
+            } else if (ch == ',') {
+                cells.add(toCell(fieldQuoted));
+                fieldQuoted = false;
+            } else if (ch == '\n') {
+                cells.add(toCell(fieldQuoted));
+                return cells;
+            } else if (ch == '\r') {
+                reader.mark(1);
+                if (reader.read() != '\n') {
+                    reader.reset();
+                }
+                cells.add(toCell(fieldQuoted));
+                return cells;
+            } else {
+                field.append(ch);
+            }
+        }
+
+        eof = true;
+        if (!any) {
+            return null;
+        }
+        if (quoted) {
+            throw new IOException("CSV文件格式错误：第" + (rowNumber + 1) + "行引号未闭合");
+        }
+        cells.add(toCell(fieldQuoted));
+        return cells;
+    }
+
+    /**
+     * 结束当前字段，未加引号的空白字段视为空值
+     */
+    private String toCell(boolean fieldQuoted) {
+        String value = field.toString();
+        field.setLength(0);
+        if (!fieldQuoted && value.trim().isEmpty()) {
+            return null;
+        }
+        return value;
+    }
+
+    /**
+     * 统计已读取字节数的输入流
+     */
+    private class CountingInputStream extends FilterInputStream {
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                bytesRead++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                bytesRead += n;
+            }
+            return n;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.demo.utils;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * 游标分页令牌工具类
+ * 将(monitoring_time, id)编码为不透明的URL安全字符串，供键集分页续查使用
+ */
+public class CursorTokenUtil {
+
+    private static final String SEPARATOR = "|";
+
+    private CursorTokenUtil() {
+    }
+
+    /**
+     * 生成游标令牌
+     *
+     * @param monitoringTime 最后一条记录的监测时间
+     * @param id             最后一条记录的ID
+     * @return 游标令牌
+     */
+    public static String encode(LocalDateTime monitoringTime, Long id) {
+        String raw = monitoringTime + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游标令牌
+     *
+     * @param token 游标令牌
+     * @return 游标位置，令牌为空时返回null
+     * @throws IllegalArgumentException 令牌格式无效时抛出
+     */
+    public static CursorPosition decode(String token) {
+        if (token == null || token.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+            int index = raw.indexOf(SEPARATOR);
+            if (index <= 0) {
+                throw new IllegalArgumentException("无效的分页游标");
+            }
+            LocalDateTime monitoringTime = LocalDateTime.parse(raw.substring(0, index));
+            Long id = Long.valueOf(raw.substring(index + 1));
+            return new CursorPosition(monitoringTime, id);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("无效的分页游标");
+        }
+    }
+
+    /**
+     * 判断排序参数是否为按监测时间升序，游标分页仅支持按监测时间排序
+     *
+     * @param sort 排序参数，如"monitoring_time,asc"
+     * @return 升序返回true，其余情况按降序处理
+     */
+    public static boolean isTimeAscending(String sort) {
+        return sort != null && (sort.contains("monitoring_time,asc") || sort.contains("monitoringTime,asc"));
+    }
+
+    /**
+     * 游标位置
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class CursorPosition {
+
+        /**
+         * 监测时间
+         */
+        private final LocalDateTime monitoringTime;
+
+        /**
+         * 记录ID
+         */
+        private final Long id;
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.demo.utils;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * 导入监测时间快速解析器
+ * 按固定格式yyyy-MM-dd HH:mm:ss逐字符直接解析为纪元秒（按本地时间换算，不涉及时区），解析过程不创建对象：
+ * <ul>
+ *     <li>导入文件中相邻行通常属于同一天，解析器缓存上一次解析的日期部分，日期相同时跳过日期的校验与换算</li>
+ *     <li>不符合固定格式或需要按解析规则修正的文本（如4月31日）交由{@link #FORMATTER}处理，
+ *     可接受的输入和解析结果与LocalDateTime.parse(text, FORMATTER)一致</li>
+ * </ul>
+ * 实例持有缓存状态，非线程安全，每个工作线程使用各自的实例
+ */
+public class FastTimestampParser {
+
+    public static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final int TEXT_LENGTH = 19;
+
+    private static final int DATE_LENGTH = 10;
+
+    private static final long SECONDS_PER_DAY = 86400L;
+
+    /**
+     * 0000-01-01至1970-01-01的天数
+     */
+    private static final long DAYS_0000_TO_1970 = 719528L;
+
+    private static final long INVALID = Long.MIN_VALUE;
+
+    /**
+     * 上一次日期部分解析成功的文本
+     */
+    private String cachedText;
+
+    private long cachedEpochDay;
+
+    /**
+     * 解析监测时间
+     *
+     * @param text 监测时间文本
+     * @return 纪元秒
+     * @throws java.time.format.DateTimeParseException 格式错误
+     */
+    public long parseEpochSecond(String text) {
+        if (text != null && text.length() == TEXT_LENGTH
+                && text.charAt(4) == '-' && text.charAt(7) == '-' && text.charAt(10) == ' '
+                && text.charAt(13) == ':' && text.charAt(16) == ':') {
+            long epochDay = epochDay(text);
+            int secondOfDay = secondOfDay(text);
+            if (epochDay != INVALID && secondOfDay >= 0) {
+                return epochDay * SECONDS_PER_DAY + secondOfDay;
+            }
+        }
+        return toEpochSecond(LocalDateTime.parse(text, FORMATTER));
+    }
+
+    /**
+     * 解析监测时间
+     *
+     * @param text 监测时间文本
+     * @return 监测时间
+     * @throws java.time.format.DateTimeParseException 格式错误
+     */
+    public LocalDateTime parse(String text) {
+        return toLocalDateTime(parseEpochSecond(text));
+    }
+
+    public static LocalDateTime toLocalDateTime(long epochSecond) {
+        return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+
+    public static long toEpochSecond(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private long epochDay(String text) {
+        if (cachedText != null && text.regionMatches(0, cachedText, 0, DATE_LENGTH)) {
+            return cachedEpochDay;
+        }
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 2);
+        int day = digits(text, 8, 2);
+        if (year < 1 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            return INVALID;
+        }
+        cachedText = text;
+        cachedEpochDay = toEpochDay(year, month, day);
+        return cachedEpochDay;
+    }
+
+    private static int secondOfDay(String text) {
+        int hour = digits(text, 11, 2);
+        int minute = digits(text, 14, 2);
+        int second = digits(text, 17, 2);
+        if (hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return -1;
+        }
+        return hour * 3600 + minute * 60 + second;
+    }
+
+    /**
+     * 读取定长十进制数字，含非数字字符时返回-1
+     */
+    private static int digits(String text, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * 与LocalDate.toEpochDay相同的换算（仅公元后年份）
+     */
+    private static long toEpochDay(int year, int month, int day) {
+        long total = 365L * year + (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+        total += (367 * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total--;
+            if (!isLeapYear(year)) {
+                total--;
+            }
+        }
+        return total - DAYS_0000_TO_1970;
+    }
+}
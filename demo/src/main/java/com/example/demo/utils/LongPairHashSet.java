@@ -0,0 +1,94 @@
+package com.example.demo.utils;
+
+/**
+ * 以两个long组成键的哈希集合
+ * 开放寻址（线性探测）存放在并列的基本类型数组中，添加元素时不装箱、不创建键对象，
+ * 用于导入时按（站点ID, 监测时间纪元秒）去重。非线程安全
+ */
+public class LongPairHashSet {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] firsts;
+
+    private long[] seconds;
+
+    private boolean[] used;
+
+    private int mask;
+
+    private int size;
+
+    /**
+     * @param expectedSize 预计元素数，容量按不超过一半装载预分配
+     */
+    public LongPairHashSet(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    /**
+     * 添加键
+     *
+     * @return 键原先不存在时返回true
+     */
+    public boolean add(long first, long second) {
+        int index = indexOf(first, second);
+        while (used[index]) {
+            if (firsts[index] == first && seconds[index] == second) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        used[index] = true;
+        firsts[index] = first;
+        seconds[index] = second;
+        if (++size > (mask + 1) >> 1) {
+            rehash();
+        }
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int indexOf(long first, long second) {
+        long hash = first * 0x9E3779B97F4A7C15L + second;
+        hash ^= hash >>> 32;
+        hash *= 0xC2B2AE3D27D4EB4FL;
+        return (int) (hash ^ (hash >>> 29)) & mask;
+    }
+
+    private void rehash() {
+        long[] oldFirsts = firsts;
+        long[] oldSeconds = seconds;
+        boolean[] oldUsed = used;
+        allocate(oldUsed.length << 1);
+        for (int i = 0; i < oldUsed.length; i++) {
+            if (oldUsed[i]) {
+                int index = indexOf(oldFirsts[i], oldSeconds[i]);
+                while (used[index]) {
+                    index = (index + 1) & mask;
+                }
+                used[index] = true;
+                firsts[index] = oldFirsts[i];
+                seconds[index] = oldSeconds[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        firsts = new long[capacity];
+        seconds = new long[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity >> 1 < expectedSize && capacity < (1 << 30)) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
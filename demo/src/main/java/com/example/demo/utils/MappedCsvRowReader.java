@@ -0,0 +1,232 @@
+package com.example.demo.utils;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 内存映射CSV文件逐行读取器
+ * 将本地文件按窗口映射到内存，直接在映射的字节上按RFC 4180切分字段（支持双引号包围、字段内逗号/换行及""转义），
+ * 每个字段只解码一次为字符串，不经过逐字符读取和整行字符串；文件编码为UTF-8，自动跳过BOM
+ * 记录跨越映射窗口边界时从该记录起点重新映射，单条记录不能超过窗口大小
+ */
+public class MappedCsvRowReader implements TabularRowReader {
+
+    /**
+     * 默认映射窗口大小
+     */
+    public static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+    private static final byte QUOTE = '"';
+
+    private final FileChannel channel;
+
+    private final long fileSize;
+
+    private final int windowSize;
+
+    private MappedByteBuffer window;
+
+    /**
+     * 当前窗口在文件中的起始偏移
+     */
+    private long windowStart;
+
+    /**
+     * 下一条记录在文件中的偏移
+     */
+    private long position;
+
+    private int rowNumber;
+
+    /**
+     * 字段字节缓冲，用于拼接加引号字段中的转义引号
+     */
+    private byte[] scratch = new byte[256];
+
+    private final List<String> cells = new ArrayList<>();
+
+    public MappedCsvRowReader(Path file) throws IOException {
+        this(file, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * @param file 本地CSV文件
+     * @param windowSize 映射窗口大小（字节）
+     */
+    public MappedCsvRowReader(Path file, int windowSize) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.fileSize = channel.size();
+        this.windowSize = windowSize;
+        if (fileSize >= 3) {
+            map(0);
+            if ((window.get(0) & 0xFF) == 0xEF && (window.get(1) & 0xFF) == 0xBB && (window.get(2) & 0xFF) == 0xBF) {
+                position = 3;
+            }
+        }
+    }
+
+    @Override
+    public String[] next() throws IOException {
+        while (position < fileSize) {
+            if (!readRecord()) {
+                // 记录跨越窗口边界，从记录起点重新映射
+                if (windowStart == position && windowStart + window.limit() < fileSize) {
+                    throw new IOException("CSV文件格式错误：第" + (rowNumber + 1) + "行超过" + windowSize + "字节");
+                }
+                map(position);
+                continue;
+            }
+            rowNumber++;
+            // 跳过空行
+            if (cells.size() == 1 && cells.get(0) == null) {
+                continue;
+            }
+            return cells.toArray(new String[0]);
+        }
+        return null;
+    }
+
+    @Override
+    public int getRowNumber() {
+        return rowNumber;
+    }
+
+    @Override
+    public double getProgress() {
+        if (fileSize <= 0) {
+            return -1;
+        }
+        return Math.min(1.0, (double) position / fileSize);
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+
+    private void map(long start) throws IOException {
+        windowStart = start;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(windowSize, fileSize - start));
+    }
+
+    /**
+     * 从position开始读取一条记录到cells
+     *
+     * @return 读取成功返回true并推进position；记录在当前窗口内不完整且文件未结束时返回false
+     * @throws IOException 文件结束时引号未闭合
+     */
+    private boolean readRecord() throws IOException {
+        if (window == null || position < windowStart || position >= windowStart + window.limit()) {
+            map(position);
+        }
+        cells.clear();
+        MappedByteBuffer buf = window;
+        int limit = buf.limit();
+        boolean atEof = windowStart + limit >= fileSize;
+        int i = (int) (position - windowStart);
+
+        while (true) {
+            if (i < limit && buf.get(i) == QUOTE) {
+                // 加引号字段：逐字节拷贝，""转义为一个引号
+                int length = 0;
+                i++;
+                while (true) {
+                    if (i >= limit) {
+                        if (atEof) {
+                            throw new IOException("CSV文件格式错误：第" + (rowNumber + 1) + "行引号未闭合");
+                        }
+                        return false;
+                    }
+                    byte b = buf.get(i);
+                    if (b == QUOTE) {
+                        if (i + 1 >= limit && !atEof) {
+                            return false;
+                        }
+                        if (i + 1 < limit && buf.get(i + 1) == QUOTE) {
+                            append(length++, QUOTE);
+                            i += 2;
+                            continue;
+                        }
+                        i++;
+                        break;
+                    }
+                    append(length++, b);
+                    i++;
+                }
+                // 闭合引号后到分隔符之间的内容按原样追加
+                while (i < limit && !isDelimiter(buf.get(i))) {
+                    append(length++, buf.get(i++));
+                }
+                cells.add(new String(scratch, 0, length, StandardCharsets.UTF_8));
+            } else {
+                int start = i;
+                while (i < limit && !isDelimiter(buf.get(i))) {
+                    i++;
+                }
+                cells.add(decode(buf, start, i));
+            }
+
+            if (i >= limit) {
+                if (!atEof) {
+                    return false;
+                }
+                position = windowStart + i;
+                return true;
+            }
+            byte delimiter = buf.get(i++);
+            if (delimiter == ',') {
+                continue;
+            }
+            if (delimiter == '\r') {
+                if (i >= limit && !atEof) {
+                    return false;
+                }
+                if (i < limit && buf.get(i) == '\n') {
+                    i++;
+                }
+            }
+            position = windowStart + i;
+            return true;
+        }
+    }
+
+    /**
+     * 解码未加引号的字段，空白字段视为空值
+     */
+    private String decode(MappedByteBuffer buf, int start, int end) {
+        int length = end - start;
+        ensureScratch(length);
+        boolean blank = true;
+        for (int k = 0; k < length; k++) {
+            byte b = buf.get(start + k);
+            scratch[k] = b;
+            if (blank && (b < 0 || b > ' ')) {
+                blank = false;
+            }
+        }
+        return blank ? null : new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private void append(int index, byte b) {
+        ensureScratch(index + 1);
+        scratch[index] = b;
+    }
+
+    private void ensureScratch(int length) {
+        if (length > scratch.length) {
+            scratch = Arrays.copyOf(scratch, Math.max(length, scratch.length * 2));
+        }
+    }
+
+    private static boolean isDelimiter(byte b) {
+        return b == ',' || b == '\n' || b == '\r';
+    }
+}
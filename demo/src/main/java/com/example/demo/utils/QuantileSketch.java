@@ -0,0 +1,387 @@
+package com.example.demo.utils;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * 可合并的分位数概要（合并式t-digest）
+ * 数值先写入缓冲区，缓冲区满或查询时按均值排序后与已有质心一起贪心合并：质心允许的最大权重由
+ * k1尺度函数 k(q) = δ/(2π)·asin(2q-1) 决定，分布两端的质心很小、中部较大，P1/P99等尾部分位数误差远小于中位数附近，
+ * 质心数量不超过约δ个，与数据条数无关。两个概要合并即把对方的质心写入缓冲区，合并结果与一次性统计全部数据的精度相当；
+ * 最小值、最大值、条数和合计精确保留
+ *
+ * 序列化结构：版本、压缩参数δ、条数、最小值、最大值、质心数，之后依次为各质心的均值（8字节）和权重（变长整数）
+ * 非线程安全
+ */
+public final class QuantileSketch {
+
+    public static final byte VERSION = 1;
+
+    /**
+     * 默认压缩参数，日概要约100个质心、序列化后约1KB
+     */
+    public static final double DEFAULT_COMPRESSION = 100;
+
+    private final double compression;
+
+    private double[] means;
+
+    private long[] weights;
+
+    private int centroidCount;
+
+    private double[] bufferMeans;
+
+    private long[] bufferWeights;
+
+    private int bufferCount;
+
+    private long count;
+
+    private double min = Double.POSITIVE_INFINITY;
+
+    private double max = Double.NEGATIVE_INFINITY;
+
+    /**
+     * @param compression 压缩参数δ，越大越精确、质心越多，取值10~1000
+     */
+    public QuantileSketch(double compression) {
+        if (compression < 10 || compression > 1000) {
+            throw new IllegalArgumentException("压缩参数必须在10到1000之间: " + compression);
+        }
+        this.compression = compression;
+        int capacity = (int) Math.ceil(compression) * 2 + 10;
+        means = new double[capacity];
+        weights = new long[capacity];
+        bufferMeans = new double[capacity * 5];
+        bufferWeights = new long[capacity * 5];
+    }
+
+    /**
+     * 写入一个数值，NaN和无穷值忽略
+     */
+    public void add(double value) {
+        add(value, 1);
+    }
+
+    /**
+     * 合并另一个概要，对方不受影响
+     */
+    public void merge(QuantileSketch other) {
+        if (other.count == 0) {
+            return;
+        }
+        other.compress();
+        for (int i = 0; i < other.centroidCount; i++) {
+            add(other.means[i], other.weights[i]);
+        }
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * 数值条数
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * 最小值，没有数据时为NaN
+     */
+    public double getMin() {
+        return count == 0 ? Double.NaN : min;
+    }
+
+    /**
+     * 最大值，没有数据时为NaN
+     */
+    public double getMax() {
+        return count == 0 ? Double.NaN : max;
+    }
+
+    /**
+     * 平均值，没有数据时为NaN
+     */
+    public double getMean() {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        compress();
+        double sum = 0;
+        for (int i = 0; i < centroidCount; i++) {
+            sum += means[i] * weights[i];
+        }
+        return sum / count;
+    }
+
+    /**
+     * 估算分位数：相邻质心中心之间按权重线性插值，首尾质心与最小值、最大值之间同样插值
+     *
+     * @param q 分位点，0~1
+     * @return 分位数，没有数据时为NaN
+     */
+    public double quantile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("分位点必须在0到1之间: " + q);
+        }
+        if (count == 0) {
+            return Double.NaN;
+        }
+        if (q == 0) {
+            return min;
+        }
+        if (q == 1) {
+            return max;
+        }
+        compress();
+        if (centroidCount == 1) {
+            return interpolate(min, max, q);
+        }
+        double index = q * count;
+        double firstHalf = weights[0] / 2.0;
+        if (index < firstHalf) {
+            return interpolate(min, means[0], index / firstHalf);
+        }
+        double weightSoFar = firstHalf;
+        for (int i = 0; i < centroidCount - 1; i++) {
+            double step = (weights[i] + weights[i + 1]) / 2.0;
+            if (weightSoFar + step > index) {
+                return interpolate(means[i], means[i + 1], (index - weightSoFar) / step);
+            }
+            weightSoFar += step;
+        }
+        double lastHalf = weights[centroidCount - 1] / 2.0;
+        return interpolate(means[centroidCount - 1], max, Math.min(1, (index - weightSoFar) / lastHalf));
+    }
+
+    /**
+     * 估算小于等于x的数值占比，插值方式与{@link #quantile}一致
+     *
+     * @return 0~1，没有数据时为NaN
+     */
+    public double cdf(double x) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        if (x < min) {
+            return 0;
+        }
+        if (x >= max) {
+            return 1;
+        }
+        compress();
+        if (centroidCount == 1) {
+            return (x - min) / (max - min);
+        }
+        double firstHalf = weights[0] / 2.0;
+        if (x < means[0]) {
+            return means[0] == min ? 0 : (x - min) / (means[0] - min) * firstHalf / count;
+        }
+        double weightSoFar = firstHalf;
+        for (int i = 0; i < centroidCount - 1; i++) {
+            double step = (weights[i] + weights[i + 1]) / 2.0;
+            if (x < means[i + 1]) {
+                double fraction = means[i + 1] == means[i] ? 0 : (x - means[i]) / (means[i + 1] - means[i]);
+                return (weightSoFar + fraction * step) / count;
+            }
+            weightSoFar += step;
+        }
+        double lastMean = means[centroidCount - 1];
+        double lastHalf = weights[centroidCount - 1] / 2.0;
+        return (weightSoFar + (x - lastMean) / (max - lastMean) * lastHalf) / count;
+    }
+
+    /**
+     * 序列化为字节数组
+     */
+    public byte[] toBytes() {
+        compress();
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 8 + 8 + 8 + 8 + 4 + centroidCount * (8 + 10));
+        buffer.put(VERSION);
+        buffer.putDouble(compression);
+        buffer.putLong(count);
+        buffer.putDouble(min);
+        buffer.putDouble(max);
+        buffer.putInt(centroidCount);
+        for (int i = 0; i < centroidCount; i++) {
+            buffer.putDouble(means[i]);
+            long weight = weights[i];
+            while ((weight & ~0x7FL) != 0) {
+                buffer.put((byte) ((weight & 0x7F) | 0x80));
+                weight >>>= 7;
+            }
+            buffer.put((byte) weight);
+        }
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    /**
+     * 由{@link #toBytes}的结果还原概要
+     *
+     * @throws IllegalArgumentException 数据格式不正确
+     */
+    public static QuantileSketch fromBytes(byte[] bytes) {
+        try {
+            return read(ByteBuffer.wrap(bytes));
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("分位数概要数据不完整", e);
+        }
+    }
+
+    private static QuantileSketch read(ByteBuffer buffer) {
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("不支持的分位数概要版本: " + version);
+        }
+        QuantileSketch sketch = new QuantileSketch(buffer.getDouble());
+        long expectedCount = buffer.getLong();
+        double min = buffer.getDouble();
+        double max = buffer.getDouble();
+        int centroids = buffer.getInt();
+        for (int i = 0; i < centroids; i++) {
+            double mean = buffer.getDouble();
+            long weight = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer.get();
+                weight |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            sketch.add(mean, weight);
+        }
+        if (sketch.count != expectedCount) {
+            throw new IllegalArgumentException("分位数概要数据损坏");
+        }
+        sketch.min = min;
+        sketch.max = max;
+        return sketch;
+    }
+
+    private void add(double mean, long weight) {
+        if (Double.isNaN(mean) || Double.isInfinite(mean)) {
+            return;
+        }
+        if (bufferCount == bufferMeans.length) {
+            compress();
+        }
+        bufferMeans[bufferCount] = mean;
+        bufferWeights[bufferCount] = weight;
+        bufferCount++;
+        count += weight;
+        if (mean < min) {
+            min = mean;
+        }
+        if (mean > max) {
+            max = mean;
+        }
+    }
+
+    /**
+     * 把缓冲区与已有质心按均值排序后重新合并
+     */
+    private void compress() {
+        if (bufferCount == 0) {
+            return;
+        }
+        int total = centroidCount + bufferCount;
+        double[] allMeans = Arrays.copyOf(means, total);
+        long[] allWeights = Arrays.copyOf(weights, total);
+        System.arraycopy(bufferMeans, 0, allMeans, centroidCount, bufferCount);
+        System.arraycopy(bufferWeights, 0, allWeights, centroidCount, bufferCount);
+        bufferCount = 0;
+        sortByMean(allMeans, allWeights, total);
+
+        if (means.length < total) {
+            means = new double[total];
+            weights = new long[total];
+        }
+        int size = 0;
+        double currentMean = allMeans[0];
+        long currentWeight = allWeights[0];
+        long weightSoFar = 0;
+        double weightLimit = count * kInverse(k(0) + 1);
+        for (int i = 1; i < total; i++) {
+            if (weightSoFar + currentWeight + allWeights[i] <= weightLimit) {
+                currentWeight += allWeights[i];
+                currentMean += (allMeans[i] - currentMean) * allWeights[i] / currentWeight;
+            } else {
+                means[size] = currentMean;
+                weights[size] = currentWeight;
+                size++;
+                weightSoFar += currentWeight;
+                weightLimit = count * kInverse(k((double) weightSoFar / count) + 1);
+                currentMean = allMeans[i];
+                currentWeight = allWeights[i];
+            }
+        }
+        means[size] = currentMean;
+        weights[size] = currentWeight;
+        centroidCount = size + 1;
+    }
+
+    private double k(double q) {
+        return compression / (2 * Math.PI) * Math.asin(2 * q - 1);
+    }
+
+    private double kInverse(double k) {
+        if (k >= compression / 4) {
+            return 1;
+        }
+        return (Math.sin(k * 2 * Math.PI / compression) + 1) / 2;
+    }
+
+    private static double interpolate(double from, double to, double fraction) {
+        return from + (to - from) * fraction;
+    }
+
+    /**
+     * 按均值升序排序，权重随均值一起移动
+     */
+    private static void sortByMean(double[] means, long[] weights, int size) {
+        quickSort(means, weights, 0, size - 1);
+    }
+
+    private static void quickSort(double[] means, long[] weights, int low, int high) {
+        while (high - low > 16) {
+            double pivot = means[(low + high) >>> 1];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (means[i] < pivot) {
+                    i++;
+                }
+                while (means[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(means, weights, i++, j--);
+                }
+            }
+            // 先递归较短的一段，递归深度不超过log(n)
+            if (j - low < high - i) {
+                quickSort(means, weights, low, j);
+                low = i;
+            } else {
+                quickSort(means, weights, i, high);
+                high = j;
+            }
+        }
+        for (int i = low + 1; i <= high; i++) {
+            for (int j = i; j > low && means[j - 1] > means[j]; j--) {
+                swap(means, weights, j - 1, j);
+            }
+        }
+    }
+
+    private static void swap(double[] means, long[] weights, int a, int b) {
+        double mean = means[a];
+        means[a] = means[b];
+        means[b] = mean;
+        long weight = weights[a];
+        weights[a] = weights[b];
+        weights[b] = weight;
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.demo.utils;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 按位读取缓冲区
+ * 以绝对位置读取ByteBuffer（可为内存映射缓冲区），不改变缓冲区自身的position，位序与SeriesBitWriter一致
+ */
+public final class SeriesBitReader {
+
+    private final ByteBuffer buffer;
+
+    private final int start;
+
+    private long bitPosition;
+
+    /**
+     * @param buffer 数据缓冲区
+     * @param start 起始字节位置
+     */
+    public SeriesBitReader(ByteBuffer buffer, int start) {
+        this.buffer = buffer;
+        this.start = start;
+    }
+
+    /**
+     * 读取一位
+     */
+    public boolean readBit() {
+        int current = buffer.get(start + (int) (bitPosition >>> 3));
+        boolean bit = (current & (0x80 >>> (bitPosition & 7))) != 0;
+        bitPosition++;
+        return bit;
+    }
+
+    /**
+     * 读取bits位并作为无符号数返回，高位在前
+     *
+     * @param bits 位数，0~64
+     */
+    public long readBits(int bits) {
+        long value = 0;
+        while (bits > 0) {
+            int offset = (int) (bitPosition & 7);
+            int take = Math.min(8 - offset, bits);
+            int current = buffer.get(start + (int) (bitPosition >>> 3)) & 0xFF;
+            int chunk = (current >>> (8 - offset - take)) & ((1 << take) - 1);
+            value = (value << take) | chunk;
+            bitPosition += take;
+            bits -= take;
+        }
+        return value;
+    }
+}
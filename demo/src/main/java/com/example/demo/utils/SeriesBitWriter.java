@@ -0,0 +1,68 @@
+package com.example.demo.utils;
+
+import java.util.Arrays;
+
+/**
+ * 按位写入缓冲区
+ * 位序为高位在前，写满的字节依次追加，用于列式序列文件的压缩编码
+ */
+public final class SeriesBitWriter {
+
+    private byte[] buffer;
+
+    private long bitLength;
+
+    public SeriesBitWriter(int initialBytes) {
+        this.buffer = new byte[Math.max(initialBytes, 16)];
+    }
+
+    /**
+     * 写入一位
+     */
+    public void writeBit(boolean bit) {
+        ensureCapacity(bitLength + 1);
+        if (bit) {
+            buffer[(int) (bitLength >>> 3)] |= (byte) (0x80 >>> (bitLength & 7));
+        }
+        bitLength++;
+    }
+
+    /**
+     * 写入value的低bits位，高位在前
+     *
+     * @param value 数值
+     * @param bits 位数，0~64
+     */
+    public void writeBits(long value, int bits) {
+        ensureCapacity(bitLength + bits);
+        while (bits > 0) {
+            int offset = (int) (bitLength & 7);
+            int take = Math.min(8 - offset, bits);
+            int chunk = (int) ((value >>> (bits - take)) & ((1 << take) - 1));
+            buffer[(int) (bitLength >>> 3)] |= (byte) (chunk << (8 - offset - take));
+            bitLength += take;
+            bits -= take;
+        }
+    }
+
+    /**
+     * 已写入的位数
+     */
+    public long getBitLength() {
+        return bitLength;
+    }
+
+    /**
+     * 获取写入内容，末尾不足一字节的部分以0补齐
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, (int) ((bitLength + 7) >>> 3));
+    }
+
+    private void ensureCapacity(long bits) {
+        int bytes = (int) ((bits + 7) >>> 3);
+        if (bytes > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(bytes, buffer.length * 2));
+        }
+    }
+}
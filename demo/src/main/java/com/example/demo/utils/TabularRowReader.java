@@ -0,0 +1,77 @@
+package com.example.demo.utils;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * 表格文件逐行读取器
+ * 按行流式读取CSV/XLSX文件，不将整个文件加载到内存，用于大文件导入
+ */
+public interface TabularRowReader extends Closeable {
+
+    /**
+     * 读取下一行
+     *
+     * @return 该行各列的文本值（空单元格为null），文件结束返回null
+     * @throws IOException 文件读取或格式错误
+     */
+    String[] next() throws IOException;
+
+    /**
+     * 获取最近一次读取的行在文件中的行号（从1开始，含标题行）
+     */
+    int getRowNumber();
+
+    /**
+     * 获取读取进度
+     *
+     * @return 0~1之间的进度，无法估算时返回-1
+     */
+    default double getProgress() {
+        return -1;
+    }
+
+    /**
+     * 根据文件扩展名打开对应的读取器
+     *
+     * @param file 上传文件，支持.csv和.xlsx
+     * @return 行读取器，使用完毕后需关闭
+     * @throws IOException 文件读取失败
+     * @throws IllegalArgumentException 文件类型不支持
+     */
+    static TabularRowReader open(MultipartFile file) throws IOException {
+        String filename = file.getOriginalFilename() == null ? "" : file.getOriginalFilename().toLowerCase(Locale.ROOT);
+        if (filename.endsWith(".csv")) {
+            return new CsvRowReader(file.getInputStream());
+        }
+        if (filename.endsWith(".xlsx")) {
+            return XlsxRowReader.open(file);
+        }
+        throw new IllegalArgumentException("不支持的文件类型，仅支持.csv和.xlsx文件");
+    }
+
+    /**
+     * 根据文件名扩展名打开本地文件的读取器，关闭读取器不会删除文件
+     *
+     * @param file 本地文件
+     * @param filename 原始文件名，用于判断文件类型
+     * @return 行读取器，使用完毕后需关闭
+     * @throws IOException 文件读取失败
+     * @throws IllegalArgumentException 文件类型不支持
+     */
+    static TabularRowReader open(Path file, String filename) throws IOException {
+        String name = filename == null ? "" : filename.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return new CsvRowReader(Files.newInputStream(file), Files.size(file));
+        }
+        if (name.endsWith(".xlsx")) {
+            return XlsxRowReader.open(file);
+        }
+        throw new IllegalArgumentException("不支持的文件类型，仅支持.csv和.xlsx文件");
+    }
+}
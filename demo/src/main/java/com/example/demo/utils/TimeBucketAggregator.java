@@ -0,0 +1,275 @@
+package com.example.demo.utils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+
+/**
+ * 时间分桶聚合器
+ * 逐行接收按监测时间升序排列的数据，单次遍历按{@link TimeBucketInterval}分桶，每个指标累加
+ * 行数、计数、最小值、最大值、合计、首值和末值；数值按{@link #SCALE}位小数放大为长整数精确累加，
+ * 合计和平均值不受浮点误差影响，合计超出long范围时转入BigDecimal继续累加；时间跨入下一个桶时把当前桶交给处理器并复用累加器，
+ * 内存只与指标数量有关，与数据行数和桶数量无关。没有数据的桶不输出
+ * 非线程安全
+ */
+public class TimeBucketAggregator {
+
+    /**
+     * 输出数值的小数位数，与监测数据表DECIMAL(*,3)一致
+     */
+    public static final int SCALE = 3;
+
+    /**
+     * 平均值的小数位数，与MySQL对DECIMAL(*,3)求AVG的结果精度一致；原始数据分桶、预聚合、列式归档和批量图表统一使用
+     */
+    public static final int AVG_SCALE = 7;
+
+    private static final double SCALE_FACTOR = 1000;
+
+    private final TimeBucketInterval interval;
+
+    private final BucketHandler handler;
+
+    private final Bucket bucket;
+
+    /**
+     * 当前桶的结束纪元秒（不含），尚无数据时为Long.MIN_VALUE
+     */
+    private long bucketEnd = Long.MIN_VALUE;
+
+    private long rowCount;
+
+    private long bucketCount;
+
+    /**
+     * 桶处理器
+     */
+    @FunctionalInterface
+    public interface BucketHandler {
+
+        /**
+         * @param bucket 当前桶，处理器返回后即被复用
+         */
+        void accept(Bucket bucket);
+    }
+
+    /**
+     * @param interval 时间间隔
+     * @param metricCount 指标数量
+     * @param handler 桶处理器，按时间先后依次调用
+     */
+    public TimeBucketAggregator(TimeBucketInterval interval, int metricCount, BucketHandler handler) {
+        this.interval = interval;
+        this.handler = handler;
+        this.bucket = new Bucket(metricCount);
+    }
+
+    /**
+     * 接收单指标数据
+     */
+    public void add(long epochSecond, double value) {
+        addRow(epochSecond);
+        addValue(0, value);
+    }
+
+    /**
+     * 开始一行数据，随后以{@link #addValue}写入该行的各指标值，值为空的指标不写入
+     *
+     * @throws IllegalStateException 数据未按监测时间升序排列
+     */
+    public void addRow(long epochSecond) {
+        if (epochSecond >= bucketEnd) {
+            flush();
+            bucket.start = interval.bucketStart(epochSecond);
+            bucketEnd = interval.nextBucketStart(bucket.start);
+        } else if (epochSecond < bucket.start) {
+            throw new IllegalStateException("图表数据必须按监测时间升序排列");
+        }
+        bucket.rows++;
+        rowCount++;
+    }
+
+    /**
+     * 写入当前行的指标值
+     * 监测数据为DECIMAL(*,3)，读出的double放大后取整即得到原值，超出3位的小数四舍五入
+     */
+    public void addValue(int metric, double value) {
+        addScaledValue(metric, Math.round(value * SCALE_FACTOR));
+    }
+
+    /**
+     * 写入当前行按{@link #SCALE}位小数放大为长整数的指标值
+     */
+    public void addScaledValue(int metric, long scaled) {
+        Bucket b = bucket;
+        if (b.counts[metric]++ == 0) {
+            b.mins[metric] = scaled;
+            b.maxs[metric] = scaled;
+            b.firsts[metric] = scaled;
+        } else {
+            if (scaled < b.mins[metric]) {
+                b.mins[metric] = scaled;
+            }
+            if (scaled > b.maxs[metric]) {
+                b.maxs[metric] = scaled;
+            }
+        }
+        long sum = b.sums[metric];
+        long next = sum + scaled;
+        // 同号相加结果变号即溢出
+        if (((sum ^ next) & (scaled ^ next)) < 0) {
+            b.carry(metric);
+            next = scaled;
+        }
+        b.sums[metric] = next;
+        b.lasts[metric] = scaled;
+    }
+
+    /**
+     * 输出最后一个桶，全部数据接收完后调用
+     */
+    public void finish() {
+        flush();
+        bucketEnd = Long.MIN_VALUE;
+    }
+
+    /**
+     * 已接收的数据行数
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * 已输出的桶数量
+     */
+    public long getBucketCount() {
+        return bucketCount;
+    }
+
+    private void flush() {
+        if (bucket.rows == 0) {
+            return;
+        }
+        bucketCount++;
+        handler.accept(bucket);
+        bucket.reset();
+    }
+
+    /**
+     * 桶的统计值，指标在桶内没有数据时对应统计值为null
+     */
+    public final class Bucket {
+
+        private long start;
+
+        private long rows;
+
+        private final long[] counts;
+
+        private final long[] mins;
+
+        private final long[] maxs;
+
+        private final long[] sums;
+
+        /**
+         * 合计超出long范围时转入的部分，没有溢出时为null
+         */
+        private final BigDecimal[] overflowSums;
+
+        private final long[] firsts;
+
+        private final long[] lasts;
+
+        private Bucket(int metricCount) {
+            counts = new long[metricCount];
+            mins = new long[metricCount];
+            maxs = new long[metricCount];
+            sums = new long[metricCount];
+            overflowSums = new BigDecimal[metricCount];
+            firsts = new long[metricCount];
+            lasts = new long[metricCount];
+        }
+
+        /**
+         * 桶起始纪元秒
+         */
+        public long getStart() {
+            return start;
+        }
+
+        /**
+         * 时间标签，格式见{@link TimeBucketInterval#label}
+         */
+        public String getLabel() {
+            return interval.label(start);
+        }
+
+        /**
+         * 桶内数据行数
+         */
+        public long getRowCount() {
+            return rows;
+        }
+
+        /**
+         * 指标的非空值个数
+         */
+        public long getCount(int metric) {
+            return counts[metric];
+        }
+
+        public BigDecimal getAvg(int metric) {
+            return counts[metric] == 0 ? null : average(sum(metric), counts[metric]);
+        }
+
+        public BigDecimal getMin(int metric) {
+            return counts[metric] == 0 ? null : decimal(mins[metric]);
+        }
+
+        public BigDecimal getMax(int metric) {
+            return counts[metric] == 0 ? null : decimal(maxs[metric]);
+        }
+
+        public BigDecimal getSum(int metric) {
+            return counts[metric] == 0 ? null : sum(metric);
+        }
+
+        public BigDecimal getFirst(int metric) {
+            return counts[metric] == 0 ? null : decimal(firsts[metric]);
+        }
+
+        public BigDecimal getLast(int metric) {
+            return counts[metric] == 0 ? null : decimal(lasts[metric]);
+        }
+
+        private BigDecimal sum(int metric) {
+            BigDecimal sum = decimal(sums[metric]);
+            return overflowSums[metric] == null ? sum : overflowSums[metric].add(sum);
+        }
+
+        private void carry(int metric) {
+            BigDecimal sum = decimal(sums[metric]);
+            overflowSums[metric] = overflowSums[metric] == null ? sum : overflowSums[metric].add(sum);
+        }
+
+        private void reset() {
+            rows = 0;
+            Arrays.fill(counts, 0);
+            Arrays.fill(sums, 0);
+            Arrays.fill(overflowSums, null);
+        }
+    }
+
+    /**
+     * 由合计和计数计算平均值，保留{@link #AVG_SCALE}位小数
+     */
+    public static BigDecimal average(BigDecimal sum, long count) {
+        return sum.divide(BigDecimal.valueOf(count), AVG_SCALE, RoundingMode.HALF_UP);
+    }
+
+    private static BigDecimal decimal(long scaled) {
+        return BigDecimal.valueOf(scaled, SCALE);
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.demo.utils;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 图表统计时间间隔
+ * 支持raw（按监测时刻逐点）及[N]min、[N]hour、[N]day、[N]week、[N]month，如5min、15min、hour、6hour、day、week、month；
+ * 时间以纪元秒表示（按本地时间换算，与{@link FastTimestampParser}一致）：
+ * <ul>
+ *     <li>分钟、小时、天间隔按固定秒数从1970-01-01 00:00对齐，6hour即0/6/12/18点</li>
+ *     <li>周间隔从周一00:00起算，月间隔从每月1日00:00起算</li>
+ * </ul>
+ * 实例不可变，线程安全
+ */
+public final class TimeBucketInterval {
+
+    /**
+     * 按监测时刻逐点统计，同一秒的多条数据（如多个站点）合为一点
+     */
+    public static final TimeBucketInterval RAW = new TimeBucketInterval("raw", Unit.SECOND, 1);
+
+    /**
+     * 单个间隔的最大倍数
+     */
+    public static final int MAX_MULTIPLE = 1000;
+
+    private static final Pattern PATTERN = Pattern.compile("(\\d{1,4})?(min|hour|day|week|month)");
+
+    private static final long SECONDS_PER_DAY = 86400L;
+
+    /**
+     * 1970-01-01为周四，加3天后按7天取整即对齐到周一
+     */
+    private static final long MONDAY_OFFSET_DAYS = 3L;
+
+    private static final DateTimeFormatter SECOND_LABEL_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final DateTimeFormatter MINUTE_LABEL_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private static final DateTimeFormatter DAY_LABEL_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    private static final DateTimeFormatter MONTH_LABEL_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM");
+
+    private final String code;
+
+    private final Unit unit;
+
+    private final int multiple;
+
+    /**
+     * 固定宽度间隔的秒数，月间隔为0
+     */
+    private final long widthSeconds;
+
+    private TimeBucketInterval(String code, Unit unit, int multiple) {
+        this.code = code;
+        this.unit = unit;
+        this.multiple = multiple;
+        this.widthSeconds = unit == Unit.MONTH ? 0 : unit.seconds * multiple;
+    }
+
+    /**
+     * 解析时间间隔
+     *
+     * @param interval 时间间隔，为空时按raw处理
+     * @throws IllegalArgumentException 格式不支持或倍数超出范围
+     */
+    public static TimeBucketInterval parse(String interval) {
+        if (interval == null || interval.trim().isEmpty()) {
+            return RAW;
+        }
+        String text = interval.trim().toLowerCase(Locale.ROOT);
+        if (RAW.code.equals(text)) {
+            return RAW;
+        }
+        Matcher matcher = PATTERN.matcher(text);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("不支持的时间间隔: " + interval + "，可选raw或[N]min/hour/day/week/month");
+        }
+        int multiple = matcher.group(1) == null ? 1 : Integer.parseInt(matcher.group(1));
+        if (multiple < 1 || multiple > MAX_MULTIPLE) {
+            throw new IllegalArgumentException("时间间隔倍数必须在1到" + MAX_MULTIPLE + "之间: " + interval);
+        }
+        Unit unit = Unit.valueOf(matcher.group(2).toUpperCase(Locale.ROOT));
+        return new TimeBucketInterval(multiple == 1 ? unit.code : multiple + unit.code, unit, multiple);
+    }
+
+    /**
+     * 规范化后的间隔代码，如raw、5min、hour、week
+     */
+    public String getCode() {
+        return code;
+    }
+
+    public boolean isRaw() {
+        return this == RAW;
+    }
+
+    /**
+     * 判断是否为单个小时、天或月，可直接由同粒度预聚合数据得到
+     */
+    public boolean isSingle(String unitCode) {
+        return multiple == 1 && unit.code.equals(unitCode);
+    }
+
+    /**
+     * 计算时间所在桶的起始纪元秒
+     */
+    public long bucketStart(long epochSecond) {
+        switch (unit) {
+            case MONTH: {
+                LocalDate date = LocalDate.ofEpochDay(Math.floorDiv(epochSecond, SECONDS_PER_DAY));
+                long months = date.getYear() * 12L + date.getMonthValue() - 1;
+                // 退回到所在桶的第一个月
+                LocalDate start = date.withDayOfMonth(1).minusMonths(Math.floorMod(months, (long) multiple));
+                return start.toEpochDay() * SECONDS_PER_DAY;
+            }
+            case WEEK: {
+                long offset = MONDAY_OFFSET_DAYS * SECONDS_PER_DAY;
+                return Math.floorDiv(epochSecond + offset, widthSeconds) * widthSeconds - offset;
+            }
+            default:
+                return Math.floorDiv(epochSecond, widthSeconds) * widthSeconds;
+        }
+    }
+
+    /**
+     * 计算下一个桶的起始纪元秒
+     *
+     * @param bucketStart 由{@link #bucketStart}得到的桶起点
+     */
+    public long nextBucketStart(long bucketStart) {
+        if (unit == Unit.MONTH) {
+            LocalDate start = LocalDate.ofEpochDay(Math.floorDiv(bucketStart, SECONDS_PER_DAY));
+            return start.plusMonths(multiple).toEpochDay() * SECONDS_PER_DAY;
+        }
+        return bucketStart + widthSeconds;
+    }
+
+    /**
+     * 桶的时间标签：raw为yyyy-MM-dd HH:mm:ss，分钟和小时间隔为yyyy-MM-dd HH:mm，天和周间隔为yyyy-MM-dd，月间隔为yyyy-MM
+     */
+    public String label(long bucketStart) {
+        return FastTimestampParser.toLocalDateTime(bucketStart).format(labelFormat());
+    }
+
+    private DateTimeFormatter labelFormat() {
+        switch (unit) {
+            case SECOND:
+                return SECOND_LABEL_FORMAT;
+            case MIN:
+            case HOUR:
+                return MINUTE_LABEL_FORMAT;
+            case DAY:
+            case WEEK:
+                return DAY_LABEL_FORMAT;
+            default:
+                return MONTH_LABEL_FORMAT;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return code;
+    }
+
+    private enum Unit {
+        SECOND("second", 1L),
+        MIN("min", 60L),
+        HOUR("hour", 3600L),
+        DAY("day", SECONDS_PER_DAY),
+        WEEK("week", 7 * SECONDS_PER_DAY),
+        MONTH("month", 0L);
+
+        private final String code;
+
+        private final long seconds;
+
+        Unit(String code, long seconds) {
+            this.code = code;
+            this.seconds = seconds;
+        }
+    }
+}
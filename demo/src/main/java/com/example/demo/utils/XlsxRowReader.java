@@ -0,0 +1,371 @@
+package com.example.demo.utils;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * XLSX文件逐行读取器
+ * 直接以StAX流式解析工作簿中第一个工作表的XML，只常驻共享字符串表，不构建整个工作簿对象
+ * 上传文件先落盘为临时文件（ZIP需要随机访问），关闭读取器时删除
+ */
+public class XlsxRowReader implements TabularRowReader {
+
+    private static final String DEFAULT_SHEET = "xl/worksheets/sheet1.xml";
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createInputFactory();
+
+    private final Path file;
+
+    /**
+     * 关闭时是否删除文件（上传文件复制出的临时文件）
+     */
+    private final boolean deleteOnClose;
+
+    private final ZipFile zipFile;
+
+    private final List<String> sharedStrings;
+
+    private final InputStream sheetStream;
+
+    private final XMLStreamReader sheet;
+
+    private int rowNumber;
+
+    /**
+     * 工作表dimension声明的最后一行行号，未声明时为0
+     */
+    private int lastRowNumber;
+
+    private boolean finished;
+
+    private XlsxRowReader(Path file, boolean deleteOnClose) throws IOException {
+        this.file = file;
+        this.deleteOnClose = deleteOnClose;
+        this.zipFile = new ZipFile(file.toFile());
+        try {
+            this.sharedStrings = readSharedStrings();
+            ZipEntry sheetEntry = zipFile.getEntry(resolveFirstSheet());
+            if (sheetEntry == null) {
+                throw new IOException("Excel文件格式错误：未找到工作表");
+            }
+            this.sheetStream = zipFile.getInputStream(sheetEntry);
+            this.sheet = XML_INPUT_FACTORY.createXMLStreamReader(sheetStream);
+        } catch (XMLStreamException e) {
+            zipFile.close();
+            throw new IOException("Excel文件格式错误：" + e.getMessage(), e);
+        } catch (IOException | RuntimeException e) {
+            zipFile.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 将上传文件保存为临时文件并打开读取器
+     */
+    static XlsxRowReader open(MultipartFile file) throws IOException {
+        Path temp = Files.createTempFile("monitoring-import-", ".xlsx");
+        try {
+            try (InputStream in = file.getInputStream()) {
+                Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return new XlsxRowReader(temp, true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    /**
+     * 打开本地文件，关闭读取器时不删除文件
+     */
+    static XlsxRowReader open(Path file) throws IOException {
+        return new XlsxRowReader(file, false);
+    }
+
+    @Override
+    public String[] next() throws IOException {
+        if (finished) {
+            return null;
+        }
+        try {
+            while (sheet.hasNext()) {
+                int event = sheet.next();
+                if (event == XMLStreamConstants.START_ELEMENT && "dimension".equals(sheet.getLocalName())) {
+                    lastRowNumber = parseLastRow(sheet.getAttributeValue(null, "ref"));
+                } else if (event == XMLStreamConstants.START_ELEMENT && "row".equals(sheet.getLocalName())) {
+                    String r = sheet.getAttributeValue(null, "r");
+                    rowNumber = r != null ? Integer.parseInt(r) : rowNumber + 1;
+                    String[] cells = readRow();
+                    if (cells.length > 0) {
+                        return cells;
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT && "sheetData".equals(sheet.getLocalName())) {
+                    break;
+                }
+            }
+            finished = true;
+            return null;
+        } catch (XMLStreamException | NumberFormatException e) {
+            throw new IOException("Excel文件格式错误：第" + rowNumber + "行解析失败", e);
+        }
+    }
+
+    @Override
+    public int getRowNumber() {
+        return rowNumber;
+    }
+
+    /**
+     * 按工作表dimension声明的行数估算进度，未声明时无法估算
+     */
+    @Override
+    public double getProgress() {
+        if (lastRowNumber <= 0) {
+            return -1;
+        }
+        return finished ? 1.0 : Math.min(1.0, (double) rowNumber / lastRowNumber);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            sheet.close();
+        } catch (XMLStreamException e) {
+            // 忽略关闭异常
+        }
+        try {
+            sheetStream.close();
+            zipFile.close();
+        } finally {
+            if (deleteOnClose) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * 解析dimension引用（如A1:L1001）中的最后一行行号，无法解析时返回0
+     */
+    private static int parseLastRow(String ref) {
+        if (ref == null) {
+            return 0;
+        }
+        String last = ref.substring(ref.indexOf(':') + 1);
+        int start = 0;
+        while (start < last.length() && !Character.isDigit(last.charAt(start))) {
+            start++;
+        }
+        try {
+            return Integer.parseInt(last.substring(start));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * 读取当前row元素内的所有单元格，读取结束时停在row的结束标签
+     */
+    private String[] readRow() throws XMLStreamException {
+        List<String> cells = new ArrayList<>();
+        int column = 0;
+        while (sheet.hasNext()) {
+            int event = sheet.next();
+            if (event == XMLStreamConstants.END_ELEMENT && "row".equals(sheet.getLocalName())) {
+                break;
+            }
+            if (event != XMLStreamConstants.START_ELEMENT || !"c".equals(sheet.getLocalName())) {
+                continue;
+            }
+            String ref = sheet.getAttributeValue(null, "r");
+            if (ref != null) {
+                column = columnIndex(ref);
+            }
+            String value = readCellValue(sheet.getAttributeValue(null, "t"));
+            if (value != null) {
+                while (cells.size() < column) {
+                    cells.add(null);
+                }
+                cells.add(value);
+            }
+            column++;
+        }
+        return cells.toArray(new String[0]);
+    }
+
+    /**
+     * 读取当前c元素的值，读取结束时停在c的结束标签
+     */
+    private String readCellValue(String type) throws XMLStreamException {
+        String raw = null;
+        StringBuilder inline = null;
+        while (sheet.hasNext()) {
+            int event = sheet.next();
+            if (event == XMLStreamConstants.END_ELEMENT && "c".equals(sheet.getLocalName())) {
+                break;
+            }
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                continue;
+            }
+            String name = sheet.getLocalName();
+            if ("v".equals(name)) {
+                raw = sheet.getElementText();
+            } else if ("t".equals(name)) {
+                if (inline == null) {
+                    inline = new StringBuilder();
+                }
+                inline.append(sheet.getElementText());
+            }
+        }
+
+        if ("inlineStr".equals(type)) {
+            return inline == null ? null : inline.toString();
+        }
+        if (raw == null || raw.isEmpty()) {
+            return null;
+        }
+        if ("s".equals(type)) {
+            int index = Integer.parseInt(raw.trim());
+            return index >= 0 && index < sharedStrings.size() ? sharedStrings.get(index) : null;
+        }
+        return raw;
+    }
+
+    /**
+     * 读取共享字符串表，忽略注音(rPh)文本
+     */
+    private List<String> readSharedStrings() throws IOException, XMLStreamException {
+        List<String> strings = new ArrayList<>();
+        ZipEntry entry = zipFile.getEntry("xl/sharedStrings.xml");
+        if (entry == null) {
+            return strings;
+        }
+        try (InputStream in = zipFile.getInputStream(entry)) {
+            XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(in);
+            StringBuilder current = null;
+            int phoneticDepth = 0;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String name = reader.getLocalName();
+                    if ("si".equals(name)) {
+                        current = new StringBuilder();
+                    } else if ("rPh".equals(name)) {
+                        phoneticDepth++;
+                    } else if ("t".equals(name) && current != null && phoneticDepth == 0) {
+                        current.append(reader.getElementText());
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    String name = reader.getLocalName();
+                    if ("si".equals(name) && current != null) {
+                        strings.add(current.toString());
+                        current = null;
+                    } else if ("rPh".equals(name)) {
+                        phoneticDepth--;
+                    }
+                }
+            }
+            reader.close();
+        }
+        return strings;
+    }
+
+    /**
+     * 通过workbook.xml及其关系文件定位第一个工作表，无法解析时使用默认路径
+     */
+    private String resolveFirstSheet() throws IOException, XMLStreamException {
+        String relationId = findFirstAttribute("xl/workbook.xml", "sheet", "id");
+        if (relationId == null) {
+            return DEFAULT_SHEET;
+        }
+        ZipEntry rels = zipFile.getEntry("xl/_rels/workbook.xml.rels");
+        if (rels == null) {
+            return DEFAULT_SHEET;
+        }
+        try (InputStream in = zipFile.getInputStream(rels)) {
+            XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(in);
+            try {
+                while (reader.hasNext()) {
+                    if (reader.next() == XMLStreamConstants.START_ELEMENT
+                            && "Relationship".equals(reader.getLocalName())
+                            && relationId.equals(reader.getAttributeValue(null, "Id"))) {
+                        String target = reader.getAttributeValue(null, "Target");
+                        if (target == null) {
+                            return DEFAULT_SHEET;
+                        }
+                        return target.startsWith("/") ? target.substring(1) : "xl/" + target;
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        }
+        return DEFAULT_SHEET;
+    }
+
+    /**
+     * 查找XML中第一个指定元素的指定属性（按属性本地名匹配，忽略命名空间）
+     */
+    private String findFirstAttribute(String entryName, String element, String attribute)
+            throws IOException, XMLStreamException {
+        ZipEntry entry = zipFile.getEntry(entryName);
+        if (entry == null) {
+            return null;
+        }
+        try (InputStream in = zipFile.getInputStream(entry)) {
+            XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(in);
+            try {
+                while (reader.hasNext()) {
+                    if (reader.next() == XMLStreamConstants.START_ELEMENT && element.equals(reader.getLocalName())) {
+                        for (int i = 0; i < reader.getAttributeCount(); i++) {
+                            if (attribute.equals(reader.getAttributeLocalName(i))) {
+                                return reader.getAttributeValue(i);
+                            }
+                        }
+                        return null;
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 将单元格引用（如"AB12"）转换为从0开始的列序号
+     */
+    private static int columnIndex(String ref) {
+        int index = 0;
+        for (int i = 0; i < ref.length(); i++) {
+            char ch = ref.charAt(i);
+            if (ch < 'A' || ch > 'Z') {
+                break;
+            }
+            index = index * 26 + (ch - 'A' + 1);
+        }
+        return index - 1;
+    }
+
+    /**
+     * 创建禁用DTD和外部实体的StAX工厂，防止XXE
+     */
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+}
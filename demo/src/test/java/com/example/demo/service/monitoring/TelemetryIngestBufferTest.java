@@ -0,0 +1,134 @@
+package com.example.demo.service.monitoring;
+
+import com.example.demo.config.MonitoringIngestProperties;
+import com.example.demo.constant.MonitoringImportMode;
+import com.example.demo.constant.MonitoringType;
+import com.example.demo.pojo.entity.monitoring.MonitoringRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 遥测写入缓冲区测试：写入完成回调只在请求的数据全部写入或暂存后调用
+ */
+class TelemetryIngestBufferTest {
+
+    private static final MonitoringType TYPE = MonitoringType.WATER_LEVEL;
+
+    private final MonitoringBulkWriter bulkWriter = mock(MonitoringBulkWriter.class);
+
+    private final TelemetrySpool spool = mock(TelemetrySpool.class);
+
+    private TelemetryIngestBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        MonitoringIngestProperties properties = new MonitoringIngestProperties();
+        properties.setLingerMs(20L);
+        buffer = new TelemetryIngestBuffer(properties, bulkWriter, spool);
+        buffer.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        buffer.stop();
+    }
+
+    @Test
+    void callbackRunsAfterRecordsAreWritten() throws Exception {
+        List<MonitoringRecord> records = Arrays.asList(record(1), record(2), record(3));
+        when(bulkWriter.write(eq(TYPE), anyList(), eq(MonitoringImportMode.SKIP))).thenAnswer(invocation -> {
+            List<MonitoringRecord> batch = invocation.getArgument(1);
+            // 完成标记不会交给批量写入
+            assertThat(batch).containsExactlyElementsOf(records);
+            return new MonitoringBulkWriter.WriteResult(batch.size(), 0);
+        });
+        CountDownLatch written = new CountDownLatch(1);
+
+        buffer.offer(TYPE, records, written::countDown);
+
+        assertThat(written.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void failedRecordSkipsOnlyItsOwnRequestCallback() throws Exception {
+        MonitoringRecord bad = record(2);
+        when(bulkWriter.write(eq(TYPE), anyList(), eq(MonitoringImportMode.SKIP))).thenAnswer(invocation -> {
+            List<MonitoringRecord> batch = invocation.getArgument(1);
+            if (batch.contains(bad)) {
+                throw new IllegalStateException("数据错误");
+            }
+            return new MonitoringBulkWriter.WriteResult(batch.size(), 0);
+        });
+        AtomicBoolean firstWritten = new AtomicBoolean();
+        CountDownLatch secondWritten = new CountDownLatch(1);
+
+        buffer.offer(TYPE, Arrays.asList(record(1), bad), () -> firstWritten.set(true));
+        buffer.offer(TYPE, Collections.singletonList(record(3)), secondWritten::countDown);
+
+        // 同一写入线程按顺序处理，第二个请求回调时第一个请求的标记已处理
+        assertThat(secondWritten.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(firstWritten).isFalse();
+    }
+
+    @Test
+    void failedRowOfRequestWithoutCallbackDoesNotAffectNextRequest() throws Exception {
+        MonitoringRecord bad = record(2);
+        when(bulkWriter.write(eq(TYPE), anyList(), eq(MonitoringImportMode.SKIP))).thenAnswer(invocation -> {
+            List<MonitoringRecord> batch = invocation.getArgument(1);
+            if (batch.contains(bad)) {
+                throw new IllegalStateException("数据错误");
+            }
+            return new MonitoringBulkWriter.WriteResult(batch.size(), 0);
+        });
+        CountDownLatch written = new CountDownLatch(1);
+
+        buffer.offer(TYPE, Arrays.asList(record(1), bad));
+        buffer.offer(TYPE, Arrays.asList(record(3), record(4)), written::countDown);
+
+        assertThat(written.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void callbackRunsAfterRecordsAreSpooled() throws Exception {
+        when(spool.appendIfActive(eq(TYPE), anyList())).thenReturn(true);
+        CountDownLatch written = new CountDownLatch(1);
+
+        buffer.offer(TYPE, Arrays.asList(record(1), record(2)), written::countDown);
+
+        assertThat(written.await(5, TimeUnit.SECONDS)).isTrue();
+        verify(bulkWriter, never()).write(any(), anyList(), any());
+    }
+
+    private static MonitoringRecord record(long stationId) {
+        LocalDateTime time = LocalDateTime.of(2024, 6, 1, 8, 0);
+        return new MonitoringRecord() {
+            @Override
+            public Long getStationId() {
+                return stationId;
+            }
+
+            @Override
+            public LocalDateTime getMonitoringTime() {
+                return time;
+            }
+        };
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.demo.service.monitoring.gateway;
+
+import com.example.demo.constant.MonitoringType;
+import com.example.demo.pojo.DTO.monitoring.TelemetryReadingDTO;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 设备遥测二进制编解码测试：合法帧、截断帧和格式错误的帧
+ */
+class TelemetryFrameCodecTest {
+
+    private static final LocalDateTime TIME = LocalDateTime.of(2024, 6, 1, 8, 30, 15);
+
+    @Test
+    void decodesValidFramesOfEveryType() {
+        for (MonitoringType type : MonitoringType.values()) {
+            TelemetryReadingDTO reading = reading(type);
+            byte[] frame = encode(type, reading);
+
+            assertThat(TelemetryFrameCodec.frameType(frame, 0, frame.length)).isEqualTo(type);
+            assertThat(TelemetryFrameCodec.decodeFrame(type, frame, 0, frame.length)).as(type.getLabel()).isEqualTo(reading);
+        }
+    }
+
+    @Test
+    void decodesFrameAtOffsetInLargerBuffer() {
+        TelemetryReadingDTO reading = reading(MonitoringType.FLOW);
+        byte[] frame = encode(MonitoringType.FLOW, reading);
+        byte[] buffer = new byte[frame.length + 20];
+        Arrays.fill(buffer, (byte) 0x7F);
+        System.arraycopy(frame, 0, buffer, 7, frame.length);
+
+        MonitoringType type = TelemetryFrameCodec.frameType(buffer, 7, frame.length);
+
+        assertThat(TelemetryFrameCodec.decodeFrame(type, buffer, 7, frame.length)).isEqualTo(reading);
+    }
+
+    @Test
+    void missingValuesAndQualityDecodeAsNull() {
+        TelemetryReadingDTO reading = new TelemetryReadingDTO();
+        reading.setStationCode("WQ01");
+        reading.setMonitoringTime(TIME);
+        reading.setPhValue(new BigDecimal("7.125"));
+        byte[] frame = encode(MonitoringType.WATER_QUALITY, reading);
+
+        TelemetryReadingDTO decoded = TelemetryFrameCodec.decodeFrame(MonitoringType.WATER_QUALITY, frame, 0, frame.length);
+
+        assertThat(decoded.getDataQuality()).isNull();
+        assertThat(decoded.getPhValue()).isEqualTo(new BigDecimal("7.125"));
+        assertThat(decoded.getTurbidity()).isNull();
+        assertThat(decoded.getResidualChlorine()).isNull();
+    }
+
+    @Test
+    void rejectsTruncatedFrames() {
+        byte[] frame = encode(MonitoringType.RESERVOIR, reading(MonitoringType.RESERVOIR));
+
+        for (int length = 0; length < 4; length++) {
+            byte[] truncated = Arrays.copyOf(frame, length);
+            int len = length;
+            assertThatThrownBy(() -> TelemetryFrameCodec.frameType(truncated, 0, len))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+        for (int length = 4; length < frame.length; length++) {
+            byte[] truncated = Arrays.copyOf(frame, length);
+            int len = length;
+            MonitoringType type = TelemetryFrameCodec.frameType(truncated, 0, len);
+            assertThatThrownBy(() -> TelemetryFrameCodec.decodeFrame(type, truncated, 0, len))
+                    .as("length %d", length)
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Test
+    void rejectsFramesWithTrailingBytes() {
+        byte[] frame = encode(MonitoringType.WATER_LEVEL, reading(MonitoringType.WATER_LEVEL));
+        byte[] padded = Arrays.copyOf(frame, frame.length + 1);
+
+        assertThatThrownBy(() -> TelemetryFrameCodec.decodeFrame(MonitoringType.WATER_LEVEL, padded, 0, padded.length))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsMalformedHeaders() {
+        byte[] frame = encode(MonitoringType.RAINFALL, reading(MonitoringType.RAINFALL));
+
+        assertThatThrownBy(() -> TelemetryFrameCodec.frameType(with(frame, 0, 0x00), 0, frame.length))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("无效");
+        assertThatThrownBy(() -> TelemetryFrameCodec.frameType(with(frame, 1, 2), 0, frame.length))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("版本");
+        for (int code : new int[]{0, 6, 0xFF}) {
+            assertThatThrownBy(() -> TelemetryFrameCodec.frameType(with(frame, 2, code), 0, frame.length))
+                    .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("监测类型编码");
+        }
+    }
+
+    @Test
+    void rejectsEmptyOrMismatchedStationCode() {
+        byte[] frame = encode(MonitoringType.FLOW, reading(MonitoringType.FLOW));
+
+        assertThatThrownBy(() -> TelemetryFrameCodec.decodeFrame(MonitoringType.FLOW, with(frame, 3, 0), 0, frame.length))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("站码为空");
+        // 站码长度声明比实际长时，帧长度与监测类型不符
+        assertThatThrownBy(() -> TelemetryFrameCodec.decodeFrame(MonitoringType.FLOW, with(frame, 3, 200), 0, frame.length))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("长度错误");
+        // 帧头声明的类型与按其他类型解码时，帧长度不符
+        assertThatThrownBy(() -> TelemetryFrameCodec.decodeFrame(MonitoringType.WATER_QUALITY, frame, 0, frame.length))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("长度错误");
+    }
+
+    @Test
+    void registersRoundTrip() {
+        for (MonitoringType type : MonitoringType.values()) {
+            TelemetryReadingDTO reading = reading(type);
+            reading.setStationCode(null);
+            byte[] registers = new byte[TelemetryFrameCodec.registerCount(type) * 2];
+            TelemetryFrameCodec.encodeRegisters(type, reading, registers, 0);
+
+            assertThat(TelemetryFrameCodec.readEpochSecond(registers, 0)).isEqualTo(TIME.toEpochSecond(ZoneOffset.UTC));
+            assertThat(TelemetryFrameCodec.decodeRegisters(type, registers, 0)).as(type.getLabel()).isEqualTo(reading);
+        }
+    }
+
+    /**
+     * 各字段填入互不相同的3位小数，含负值和超出int32范围的宽字段
+     */
+    private static TelemetryReadingDTO reading(MonitoringType type) {
+        TelemetryReadingDTO reading = new TelemetryReadingDTO();
+        reading.setStationCode("ST-" + type.getPath());
+        reading.setMonitoringTime(TIME);
+        reading.setDataQuality(2);
+        switch (type) {
+            case FLOW:
+                reading.setInstantFlow(new BigDecimal("12.345"));
+                reading.setCumulativeFlow(new BigDecimal("98765432109.876"));
+                break;
+            case WATER_LEVEL:
+                reading.setWaterLevel(new BigDecimal("-1.250"));
+                break;
+            case WATER_QUALITY:
+                reading.setWaterTemperature(new BigDecimal("18.600"));
+                reading.setTurbidity(new BigDecimal("3.210"));
+                reading.setPhValue(new BigDecimal("7.450"));
+                reading.setConductivity(new BigDecimal("512.000"));
+                reading.setDissolvedOxygen(new BigDecimal("8.125"));
+                reading.setAmmoniaNitrogen(new BigDecimal("0.035"));
+                reading.setCodValue(new BigDecimal("15.500"));
+                reading.setResidualChlorine(new BigDecimal("0.300"));
+                break;
+            case RAINFALL:
+                reading.setRainfall(new BigDecimal("2.500"));
+                reading.setRainfallIntensity(new BigDecimal("10.000"));
+                reading.setCumulativeRainfall(new BigDecimal("3000000.125"));
+                break;
+            case RESERVOIR:
+                reading.setWaterLevel(new BigDecimal("156.780"));
+                reading.setStorageCapacity(new BigDecimal("12345678901.234"));
+                reading.setFloodLimitDiff(new BigDecimal("-0.420"));
+                reading.setInflow(new BigDecimal("35.600"));
+                reading.setOutflow(new BigDecimal("28.900"));
+                break;
+            default:
+                throw new IllegalArgumentException("未覆盖的监测类型: " + type);
+        }
+        return reading;
+    }
+
+    private static byte[] encode(MonitoringType type, TelemetryReadingDTO reading) {
+        byte[] out = new byte[TelemetryFrameCodec.maxFrameLength(type)];
+        int length = TelemetryFrameCodec.encodeFrame(type, reading, out, 0);
+        return Arrays.copyOf(out, length);
+    }
+
+    private static byte[] with(byte[] frame, int index, int value) {
+        byte[] copy = frame.clone();
+        copy[index] = (byte) value;
+        return copy;
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.demo.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 列式监测序列文件编解码测试
+ */
+class ColumnarSeriesCodecTest {
+
+    private static final List<String> METRICS = Arrays.asList("flow_rate", "velocity", "water_level");
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void roundTripRestoresTimesQualitiesAndValues() throws IOException {
+        List<Row> rows = randomRows(5000, new Random(42));
+        Path file = write(rows);
+
+        ColumnarSeriesReader reader = ColumnarSeriesReader.open(file);
+        assertThat(reader.getMetrics()).isEqualTo(METRICS);
+        assertThat(reader.getRowCount()).isEqualTo(rows.size());
+        assertThat(reader.getFirstTime()).isEqualTo(rows.get(0).time);
+        assertThat(reader.getLastTime()).isEqualTo(rows.get(rows.size() - 1).time);
+
+        List<Row> decoded = scan(reader, null, null);
+        assertThat(decoded).hasSize(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            assertRowEquals(decoded.get(i), rows.get(i));
+        }
+    }
+
+    @Test
+    void scanReturnsOnlyRowsInsideRange() throws IOException {
+        List<Row> rows = randomRows(2000, new Random(7));
+        ColumnarSeriesReader reader = ColumnarSeriesReader.open(write(rows));
+        LocalDateTime from = rows.get(500).time;
+        LocalDateTime to = rows.get(1499).time;
+
+        List<Row> decoded = scan(reader, from, to);
+
+        List<Row> expected = new ArrayList<>();
+        for (Row row : rows) {
+            if (!row.time.isBefore(from) && !row.time.isAfter(to)) {
+                expected.add(row);
+            }
+        }
+        assertThat(decoded).hasSize(expected.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertRowEquals(decoded.get(i), expected.get(i));
+        }
+        assertThat(scan(reader, rows.get(rows.size() - 1).time.plusSeconds(1), null)).isEmpty();
+        assertThat(scan(reader, null, rows.get(0).time.minusSeconds(1))).isEmpty();
+    }
+
+    @Test
+    void extremeTimeGapsAndValuesRoundTrip() throws IOException {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<Row> rows = new ArrayList<>();
+        rows.add(new Row(start, 1, new BigDecimal[]{new BigDecimal("-99999999.999"), BigDecimal.ZERO, null}));
+        rows.add(new Row(start, 2, new BigDecimal[]{new BigDecimal("99999999.999"), BigDecimal.ZERO, null}));
+        rows.add(new Row(start.plusSeconds(64), 3, new BigDecimal[]{new BigDecimal("0.001"), null, new BigDecimal("1.5")}));
+        rows.add(new Row(start.plusDays(400), null, new BigDecimal[]{new BigDecimal("0.001"), new BigDecimal("-0.001"), new BigDecimal("1.5")}));
+        rows.add(new Row(start.plusDays(400).plusSeconds(1), 1, new BigDecimal[]{null, null, null}));
+        ColumnarSeriesReader reader = ColumnarSeriesReader.open(write(rows));
+
+        List<Row> decoded = scan(reader, null, null);
+
+        assertThat(decoded).hasSize(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            assertRowEquals(decoded.get(i), rows.get(i));
+        }
+    }
+
+    @Test
+    void valuesAreRoundedToThreeDecimals() throws IOException {
+        List<Row> rows = new ArrayList<>();
+        rows.add(new Row(LocalDateTime.of(2024, 1, 1, 0, 0), 1,
+                new BigDecimal[]{new BigDecimal("1.23456"), new BigDecimal("1.0005"), new BigDecimal("2")}));
+        ColumnarSeriesReader reader = ColumnarSeriesReader.open(write(rows));
+
+        Row decoded = scan(reader, null, null).get(0);
+
+        assertThat(decoded.values[0]).isEqualByComparingTo("1.235");
+        assertThat(decoded.values[1]).isEqualByComparingTo("1.001");
+        assertThat(decoded.values[2]).isEqualByComparingTo("2");
+    }
+
+    @Test
+    void emptyFileHasNoRows() throws IOException {
+        ColumnarSeriesReader reader = ColumnarSeriesReader.open(write(new ArrayList<>()));
+
+        assertThat(reader.getRowCount()).isZero();
+        assertThat(scan(reader, null, null)).isEmpty();
+    }
+
+    @Test
+    void writerRejectsOutOfOrderTimesAndWrongMetricCount() {
+        ColumnarSeriesWriter writer = new ColumnarSeriesWriter(METRICS);
+        LocalDateTime time = LocalDateTime.of(2024, 1, 1, 0, 0);
+        writer.add(time, 1, BigDecimal.ONE, BigDecimal.ONE, BigDecimal.ONE);
+
+        assertThatThrownBy(() -> writer.add(time.minusSeconds(1), 1, BigDecimal.ONE, BigDecimal.ONE, BigDecimal.ONE))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> writer.add(time.plusSeconds(1), 1, BigDecimal.ONE))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void readerRejectsOtherFiles() throws IOException {
+        Path file = tempDir.resolve("other.mcs");
+        Files.write(file, new byte[64]);
+
+        assertThatThrownBy(() -> ColumnarSeriesReader.open(file)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * 以固定间隔为主，夹杂缺测、补测和时间跳变，数值在基线附近波动并有空值
+     */
+    private static List<Row> randomRows(int count, Random random) {
+        List<Row> rows = new ArrayList<>(count);
+        LocalDateTime time = LocalDateTime.of(2024, 3, 1, 0, 0);
+        double level = 12.5;
+        for (int i = 0; i < count; i++) {
+            int gap = random.nextInt(10);
+            time = time.plusSeconds(gap < 7 ? 300 : gap < 9 ? random.nextInt(3600) : random.nextInt(86400 * 3));
+            level += (random.nextDouble() - 0.5) * 0.2;
+            BigDecimal[] values = new BigDecimal[METRICS.size()];
+            values[0] = random.nextInt(20) == 0 ? null : BigDecimal.valueOf(random.nextInt(2_000_000) - 1_000_000L, 3);
+            values[1] = random.nextInt(3) == 0 ? values[1] : BigDecimal.valueOf(random.nextInt(5000), 3);
+            values[2] = BigDecimal.valueOf(Math.round(level * 1000), 3);
+            Integer quality = random.nextInt(10) == 0 ? null : 1 + random.nextInt(3);
+            rows.add(new Row(time, quality, values));
+        }
+        return rows;
+    }
+
+    private Path write(List<Row> rows) throws IOException {
+        ColumnarSeriesWriter writer = new ColumnarSeriesWriter(METRICS);
+        for (Row row : rows) {
+            writer.add(row.time, row.quality, row.values);
+        }
+        Path file = tempDir.resolve("202403.mcs");
+        long size = writer.writeTo(file);
+        assertThat(Files.size(file)).isEqualTo(size);
+        return file;
+    }
+
+    private static List<Row> scan(ColumnarSeriesReader reader, LocalDateTime from, LocalDateTime to) {
+        List<Row> rows = new ArrayList<>();
+        reader.scan(from, to, (epochSecond, quality, scaledValues, present) -> {
+            BigDecimal[] values = new BigDecimal[scaledValues.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = present[i] ? ColumnarSeriesWriter.fromScaled(scaledValues[i]) : null;
+            }
+            rows.add(new Row(ColumnarSeriesWriter.fromEpochSecond(epochSecond), quality, values));
+        });
+        return rows;
+    }
+
+    private static void assertRowEquals(Row actual, Row expected) {
+        assertThat(actual.time).isEqualTo(expected.time);
+        assertThat(actual.quality).isEqualTo(expected.quality == null ? 0 : expected.quality);
+        for (int i = 0; i < expected.values.length; i++) {
+            if (expected.values[i] == null) {
+                assertThat(actual.values[i]).isNull();
+            } else {
+                assertThat(actual.values[i]).isEqualByComparingTo(expected.values[i]);
+            }
+        }
+    }
+
+    private static final class Row {
+
+        private final LocalDateTime time;
+
+        private final Integer quality;
+
+        private final BigDecimal[] values;
+
+        private Row(LocalDateTime time, Integer quality, BigDecimal[] values) {
+            this.time = time;
+            this.quality = quality;
+            this.values = values;
+        }
+    }
+}
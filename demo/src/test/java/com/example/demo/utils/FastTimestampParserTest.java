@@ -0,0 +1,79 @@
+package com.example.demo.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 导入监测时间快速解析器测试：可接受的输入和解析结果须与LocalDateTime.parse(text, FORMATTER)一致
+ */
+class FastTimestampParserTest {
+
+    @Test
+    void randomTimestampsMatchFormatter() {
+        Random random = new Random(11);
+        FastTimestampParser parser = new FastTimestampParser();
+        LocalDateTime time = LocalDateTime.of(1999, 12, 31, 0, 0);
+        List<String> texts = new ArrayList<>();
+        for (int i = 0; i < 200_000; i++) {
+            // 多数相邻行同一天，偶尔跨越较长时间，覆盖日期缓存命中和失效
+            time = time.plusSeconds(random.nextInt(20) == 0 ? random.nextInt(90 * 86400) : random.nextInt(900));
+            texts.add(time.format(FastTimestampParser.FORMATTER));
+        }
+        for (String text : texts) {
+            assertEquivalent(parser, text);
+        }
+    }
+
+    @Test
+    void calendarEdgesMatchFormatter() {
+        FastTimestampParser parser = new FastTimestampParser();
+        for (String text : Arrays.asList(
+                "0001-01-01 00:00:00", "1970-01-01 00:00:00", "1969-12-31 23:59:59", "9999-12-31 23:59:59",
+                "2000-02-29 12:00:00", "2024-02-29 00:00:00", "1900-02-28 23:59:59", "2100-03-01 00:00:00",
+                // 按解析规则修正的日期（如4月31日修正为4月30日）由后备解析处理
+                "2023-02-29 08:00:00", "1900-02-29 08:00:00", "2024-04-31 08:00:00", "2024-02-30 08:00:00")) {
+            assertEquivalent(parser, text);
+        }
+    }
+
+    @Test
+    void malformedTextsAreRejectedLikeFormatter() {
+        FastTimestampParser parser = new FastTimestampParser();
+        // 先解析一个合法值写入日期缓存，确认缓存不会让同日期的错误时间通过
+        parser.parseEpochSecond("2024-05-01 10:00:00");
+        for (String text : Arrays.asList(
+                "", "2024-05-01", "2024-05-01 10:00", "2024-05-01T10:00:00", "2024/05/01 10:00:00",
+                "2024-05-01 24:00:00", "2024-05-01 23:60:00", "2024-05-01 23:59:60", "2024-05-01 1a:00:00",
+                "2024-13-01 00:00:00", "2024-00-10 00:00:00", "2024-05-00 00:00:00", "2024-05-32 00:00:00",
+                "0000-01-01 00:00:00", "2024-05-01 10:00:00 ", " 2024-05-01 10:00:00", "２０２４-05-01 10:00:00")) {
+            assertEquivalent(parser, text);
+        }
+    }
+
+    @Test
+    void nullIsRejected() {
+        assertThatThrownBy(() -> new FastTimestampParser().parseEpochSecond(null))
+                .isInstanceOf(NullPointerException.class);
+    }
+
+    private static void assertEquivalent(FastTimestampParser parser, String text) {
+        LocalDateTime expected;
+        try {
+            expected = LocalDateTime.parse(text, FastTimestampParser.FORMATTER);
+        } catch (DateTimeParseException e) {
+            assertThatThrownBy(() -> parser.parse(text)).as(text).isInstanceOf(DateTimeParseException.class);
+            return;
+        }
+        assertThat(parser.parse(text)).as(text).isEqualTo(expected);
+        assertThat(parser.parseEpochSecond(text)).as(text).isEqualTo(FastTimestampParser.toEpochSecond(expected));
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.demo.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.AbstractMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 两个long组成键的哈希集合测试：add结果和元素数须与HashSet一致
+ */
+class LongPairHashSetTest {
+
+    @Test
+    void matchesHashSetForStationTimeKeys() {
+        Random random = new Random(21);
+        // 预计容量远小于实际元素数，覆盖多次扩容
+        LongPairHashSet set = new LongPairHashSet(4);
+        Set<Map.Entry<Long, Long>> expected = new HashSet<>();
+        long start = 1_704_067_200L;
+        for (int i = 0; i < 300_000; i++) {
+            long stationId = 1 + random.nextInt(50);
+            long epochSecond = start + random.nextInt(2000) * 300L;
+            assertThat(set.add(stationId, epochSecond)).isEqualTo(expected.add(entry(stationId, epochSecond)));
+        }
+        assertThat(set.size()).isEqualTo(expected.size());
+    }
+
+    @Test
+    void matchesHashSetForArbitraryValues() {
+        Random random = new Random(22);
+        LongPairHashSet set = new LongPairHashSet(1000);
+        Set<Map.Entry<Long, Long>> expected = new HashSet<>();
+        long[] pool = new long[500];
+        for (int i = 0; i < pool.length; i++) {
+            pool[i] = random.nextLong();
+        }
+        pool[0] = 0;
+        pool[1] = Long.MIN_VALUE;
+        pool[2] = Long.MAX_VALUE;
+        pool[3] = -1;
+        for (int i = 0; i < 200_000; i++) {
+            long first = pool[random.nextInt(pool.length)];
+            long second = pool[random.nextInt(pool.length)];
+            assertThat(set.add(first, second)).isEqualTo(expected.add(entry(first, second)));
+        }
+        assertThat(set.size()).isEqualTo(expected.size());
+    }
+
+    @Test
+    void pairsAreOrdered() {
+        LongPairHashSet set = new LongPairHashSet(0);
+
+        assertThat(set.add(1, 2)).isTrue();
+        assertThat(set.add(2, 1)).isTrue();
+        assertThat(set.add(1, 2)).isFalse();
+        assertThat(set.add(0, 0)).isTrue();
+        assertThat(set.add(0, 0)).isFalse();
+        assertThat(set.size()).isEqualTo(3);
+    }
+
+    private static Map.Entry<Long, Long> entry(long first, long second) {
+        return new AbstractMap.SimpleImmutableEntry<>(first, second);
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.demo.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * 分位数概要测试：与排序后的精确分位数对比，误差按名次（分位点）衡量
+ */
+class QuantileSketchTest {
+
+    private static final double[] QUANTILES = {0.001, 0.01, 0.05, 0.25, 0.5, 0.75, 0.95, 0.99, 0.999};
+
+    @Test
+    void quantilesOfUniformDataAreAccurate() {
+        double[] values = new Random(1).doubles(100_000).toArray();
+        QuantileSketch sketch = sketchOf(values);
+
+        assertQuantileAccuracy(sketch, values);
+    }
+
+    @Test
+    void quantilesOfSkewedDataAreAccurate() {
+        Random random = new Random(2);
+        double[] values = new double[100_000];
+        for (int i = 0; i < values.length; i++) {
+            // 对数正态分布，长尾与降雨量、浊度等指标相似
+            values[i] = Math.exp(random.nextGaussian() * 1.5);
+        }
+        QuantileSketch sketch = sketchOf(values);
+
+        assertQuantileAccuracy(sketch, values);
+    }
+
+    @Test
+    void cdfIsConsistentWithQuantile() {
+        double[] values = new Random(3).doubles(50_000, -20, 80).toArray();
+        QuantileSketch sketch = sketchOf(values);
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+
+        for (double q : QUANTILES) {
+            double x = sorted[(int) (q * sorted.length)];
+            assertThat(sketch.cdf(x)).isCloseTo(q, within(0.005));
+        }
+        assertThat(sketch.cdf(sorted[0] - 1)).isZero();
+        assertThat(sketch.cdf(sorted[sorted.length - 1])).isEqualTo(1.0);
+    }
+
+    @Test
+    void minMaxCountAndMeanAreExact() {
+        double[] values = new Random(4).doubles(10_000, 0, 1000).toArray();
+        QuantileSketch sketch = sketchOf(values);
+
+        assertThat(sketch.getCount()).isEqualTo(values.length);
+        assertThat(sketch.getMin()).isEqualTo(Arrays.stream(values).min().getAsDouble());
+        assertThat(sketch.getMax()).isEqualTo(Arrays.stream(values).max().getAsDouble());
+        assertThat(sketch.getMean()).isCloseTo(Arrays.stream(values).average().getAsDouble(), within(1e-6));
+        assertThat(sketch.quantile(0)).isEqualTo(sketch.getMin());
+        assertThat(sketch.quantile(1)).isEqualTo(sketch.getMax());
+    }
+
+    @Test
+    void mergedDailySketchesMatchSingleSketch() {
+        Random random = new Random(5);
+        double[] all = new double[365 * 288];
+        QuantileSketch merged = new QuantileSketch(QuantileSketch.DEFAULT_COMPRESSION);
+        for (int day = 0; day < 365; day++) {
+            QuantileSketch daily = new QuantileSketch(QuantileSketch.DEFAULT_COMPRESSION);
+            double seasonal = 10 * Math.sin(day * 2 * Math.PI / 365);
+            for (int i = 0; i < 288; i++) {
+                double value = 15 + seasonal + random.nextGaussian() * 3;
+                all[day * 288 + i] = value;
+                daily.add(value);
+            }
+            // 与日概要存取方式一致：先序列化再还原后合并
+            merged.merge(QuantileSketch.fromBytes(daily.toBytes()));
+        }
+
+        assertThat(merged.getCount()).isEqualTo(all.length);
+        assertQuantileAccuracy(merged, all);
+    }
+
+    @Test
+    void mergeLeavesOtherSketchUnchanged() {
+        QuantileSketch a = sketchOf(new Random(6).doubles(1000).toArray());
+        QuantileSketch b = sketchOf(new Random(7).doubles(1000, 5, 6).toArray());
+        double median = b.quantile(0.5);
+
+        a.merge(b);
+
+        assertThat(b.getCount()).isEqualTo(1000);
+        assertThat(b.quantile(0.5)).isEqualTo(median);
+        assertThat(a.getCount()).isEqualTo(2000);
+        assertThat(a.getMax()).isEqualTo(b.getMax());
+    }
+
+    @Test
+    void bytesRoundTripPreservesSketch() {
+        QuantileSketch sketch = sketchOf(new Random(8).doubles(20_000, 0, 100).toArray());
+
+        QuantileSketch restored = QuantileSketch.fromBytes(sketch.toBytes());
+
+        assertThat(restored.getCount()).isEqualTo(sketch.getCount());
+        assertThat(restored.getMin()).isEqualTo(sketch.getMin());
+        assertThat(restored.getMax()).isEqualTo(sketch.getMax());
+        assertThat(restored.getMean()).isCloseTo(sketch.getMean(), within(1e-9));
+        for (double q : QUANTILES) {
+            assertThat(restored.quantile(q)).isCloseTo(sketch.quantile(q), within(1e-9));
+        }
+        assertThat(restored.toBytes()).isEqualTo(sketch.toBytes());
+    }
+
+    @Test
+    void emptySketchRoundTripsAndReturnsNaN() {
+        QuantileSketch restored = QuantileSketch.fromBytes(new QuantileSketch(50).toBytes());
+
+        assertThat(restored.getCount()).isZero();
+        assertThat(restored.quantile(0.5)).isNaN();
+        assertThat(restored.cdf(1)).isNaN();
+        assertThat(restored.getMin()).isNaN();
+    }
+
+    @Test
+    void singleValueAndNonFiniteValues() {
+        QuantileSketch sketch = new QuantileSketch(QuantileSketch.DEFAULT_COMPRESSION);
+        sketch.add(Double.NaN);
+        sketch.add(Double.POSITIVE_INFINITY);
+        sketch.add(7.5);
+
+        assertThat(sketch.getCount()).isEqualTo(1);
+        assertThat(sketch.quantile(0.5)).isEqualTo(7.5);
+        assertThat(sketch.cdf(7.4)).isZero();
+        assertThat(sketch.cdf(7.5)).isEqualTo(1.0);
+    }
+
+    @Test
+    void fromBytesRejectsCorruptData() {
+        byte[] bytes = sketchOf(new Random(9).doubles(1000).toArray()).toBytes();
+
+        assertThatThrownBy(() -> QuantileSketch.fromBytes(Arrays.copyOf(bytes, bytes.length / 2)))
+                .isInstanceOf(IllegalArgumentException.class);
+        byte[] wrongVersion = bytes.clone();
+        wrongVersion[0] = 99;
+        assertThatThrownBy(() -> QuantileSketch.fromBytes(wrongVersion)).isInstanceOf(IllegalArgumentException.class);
+        byte[] wrongCount = bytes.clone();
+        wrongCount[9 + 7]++;
+        assertThatThrownBy(() -> QuantileSketch.fromBytes(wrongCount)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsInvalidArguments() {
+        assertThatThrownBy(() -> new QuantileSketch(5)).isInstanceOf(IllegalArgumentException.class);
+        QuantileSketch sketch = new QuantileSketch(QuantileSketch.DEFAULT_COMPRESSION);
+        assertThatThrownBy(() -> sketch.quantile(1.5)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static QuantileSketch sketchOf(double[] values) {
+        QuantileSketch sketch = new QuantileSketch(QuantileSketch.DEFAULT_COMPRESSION);
+        for (double value : values) {
+            sketch.add(value);
+        }
+        return sketch;
+    }
+
+    /**
+     * 估算值在精确排序中的名次与目标分位点之差：尾部不超过0.2%，中部不超过1%
+     */
+    private static void assertQuantileAccuracy(QuantileSketch sketch, double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        for (double q : QUANTILES) {
+            double estimate = sketch.quantile(q);
+            double rank = (double) lowerBound(sorted, estimate) / sorted.length;
+            double tolerance = q < 0.05 || q > 0.95 ? 0.002 : 0.01;
+            assertThat(rank).as("q=%s", q).isCloseTo(q, within(tolerance));
+        }
+    }
+
+    private static int lowerBound(double[] sorted, double value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
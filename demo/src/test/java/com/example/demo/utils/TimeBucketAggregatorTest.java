@@ -0,0 +1,124 @@
+package com.example.demo.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 时间分桶聚合器测试：合计和平均值与BigDecimal精确计算一致
+ */
+class TimeBucketAggregatorTest {
+
+    private static final long START = LocalDateTime.of(2024, 3, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+
+    @Test
+    void sumAndAvgAreExact() {
+        List<BigDecimal[]> buckets = new ArrayList<>();
+        TimeBucketAggregator aggregator = new TimeBucketAggregator(TimeBucketInterval.parse("day"), 1,
+                bucket -> buckets.add(new BigDecimal[]{bucket.getSum(0), bucket.getAvg(0)}));
+
+        // 0.1累加在double中会产生误差，一天1440个值的精确合计为144.000
+        for (int i = 0; i < 1440; i++) {
+            aggregator.add(START + i * 60L, 0.1);
+        }
+        aggregator.finish();
+
+        assertThat(buckets).hasSize(1);
+        assertThat(buckets.get(0)[0]).isEqualTo(new BigDecimal("144.000"));
+        assertThat(buckets.get(0)[1]).isEqualTo(new BigDecimal("0.1000000"));
+    }
+
+    @Test
+    void statisticsMatchBigDecimalOverLargeValues() {
+        BigDecimal[] values = {new BigDecimal("98765432109.876"), new BigDecimal("98765432110.001"),
+                new BigDecimal("-0.003"), new BigDecimal("98765432110.127")};
+        List<TimeBucketAggregator.Bucket> seen = new ArrayList<>();
+        BigDecimal[] result = new BigDecimal[6];
+        TimeBucketAggregator aggregator = new TimeBucketAggregator(TimeBucketInterval.parse("hour"), 1, bucket -> {
+            seen.add(bucket);
+            result[0] = bucket.getSum(0);
+            result[1] = bucket.getAvg(0);
+            result[2] = bucket.getMin(0);
+            result[3] = bucket.getMax(0);
+            result[4] = bucket.getFirst(0);
+            result[5] = bucket.getLast(0);
+        });
+        BigDecimal sum = BigDecimal.ZERO;
+        for (int i = 0; i < values.length; i++) {
+            aggregator.add(START + i, values[i].doubleValue());
+            sum = sum.add(values[i]);
+        }
+        aggregator.finish();
+
+        assertThat(seen).hasSize(1);
+        assertThat(result[0]).isEqualTo(sum);
+        assertThat(result[1]).isEqualTo(new BigDecimal("74074074082.5002500"));
+        assertThat(result[2]).isEqualTo(new BigDecimal("-0.003"));
+        assertThat(result[3]).isEqualTo(new BigDecimal("98765432110.127"));
+        assertThat(result[4]).isEqualTo(new BigDecimal("98765432109.876"));
+        assertThat(result[5]).isEqualTo(new BigDecimal("98765432110.127"));
+    }
+
+    @Test
+    void sumBeyondLongRangeStaysExact() {
+        BigDecimal[] sum = new BigDecimal[1];
+        TimeBucketAggregator aggregator = new TimeBucketAggregator(TimeBucketInterval.parse("day"), 1,
+                bucket -> sum[0] = bucket.getSum(0));
+        long scaled = Long.MAX_VALUE / 3;
+
+        aggregator.addRow(START);
+        for (int i = 0; i < 10; i++) {
+            aggregator.addScaledValue(0, scaled);
+        }
+        aggregator.finish();
+
+        assertThat(sum[0]).isEqualTo(BigDecimal.valueOf(scaled, TimeBucketAggregator.SCALE).multiply(BigDecimal.TEN));
+    }
+
+    @Test
+    void metricsWithoutValuesAreNullAndBucketsResetBetweenIntervals() {
+        List<String> labels = new ArrayList<>();
+        List<BigDecimal> sums = new ArrayList<>();
+        TimeBucketAggregator aggregator = new TimeBucketAggregator(TimeBucketInterval.parse("hour"), 2, bucket -> {
+            labels.add(bucket.getLabel());
+            sums.add(bucket.getSum(0));
+            assertThat(bucket.getAvg(1)).isNull();
+        });
+
+        aggregator.addRow(START);
+        aggregator.addValue(0, 1.5);
+        aggregator.addRow(START + 7200);
+        aggregator.addValue(0, 2.25);
+        aggregator.finish();
+
+        assertThat(labels).containsExactly("2024-03-01 00:00", "2024-03-01 02:00");
+        assertThat(sums).containsExactly(new BigDecimal("1.500"), new BigDecimal("2.250"));
+        assertThat(aggregator.getRowCount()).isEqualTo(2);
+        assertThat(aggregator.getBucketCount()).isEqualTo(2);
+        assertThatThrownBy(() -> {
+            aggregator.addRow(START + 7200);
+            aggregator.addRow(START);
+        }).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void multiMonthBucketsStartOnAlignedMonths() {
+        TimeBucketInterval quarter = TimeBucketInterval.parse("3month");
+
+        for (LocalDate date = LocalDate.of(2023, 1, 1); date.getYear() < 2026; date = date.plusDays(5)) {
+            long epochSecond = date.atTime(12, 0).toEpochSecond(ZoneOffset.UTC);
+            LocalDate start = LocalDate.of(date.getYear(), (date.getMonthValue() - 1) / 3 * 3 + 1, 1);
+
+            assertThat(quarter.bucketStart(epochSecond)).as(date.toString())
+                    .isEqualTo(start.atStartOfDay().toEpochSecond(ZoneOffset.UTC));
+        }
+    }
+}
@@ -50,6 +50,14 @@ export {
 	exportRainfallData,
 } from "./monitoring/rainfall";
 
+// 导出监测数据导入任务相关API
+export {
+	submitImportJob,
+	getImportJob,
+	cancelImportJob,
+	downloadImportErrorReport,
+} from "./monitoring/importJob";
+
 // 导出水情监测相关API
 export {
 	getWaterConditionMonitoringData,
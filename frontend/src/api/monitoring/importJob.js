@@ -0,0 +1,59 @@
+import request from "../request";
+
+/**
+ * 提交监测数据导入任务
+ * @param {string} type - 监测类型（flow、water-level、water-quality、rainfall）
+ * @param {File} file - 导入文件（.csv或.xlsx）
+ * @param {Object} params - 其他参数（mode为导入模式skip/overwrite/error，雨情导入需要stationId，batchId为可选的客户端批次ID，重复提交同一批次时返回已有任务或首次导入结果）
+ * @returns {Promise} - 返回任务状态（包含jobId）
+ */
+export const submitImportJob = (type, file, params) => {
+	const formData = new FormData();
+	formData.append("file", file);
+	return request({
+		url: `/monitoring/import-jobs/${type}`,
+		method: "post",
+		data: formData,
+		params,
+		headers: { "Content-Type": "multipart/form-data" },
+		// 只包含文件上传时间，导入在后台执行
+		timeout: 300000,
+	});
+};
+
+/**
+ * 查询导入任务状态
+ * @param {string} jobId - 任务ID
+ * @returns {Promise} - 返回任务状态
+ */
+export const getImportJob = (jobId) => {
+	return request({
+		url: `/monitoring/import-jobs/${jobId}`,
+		method: "get",
+	});
+};
+
+/**
+ * 取消导入任务
+ * @param {string} jobId - 任务ID
+ * @returns {Promise} - 返回任务状态
+ */
+export const cancelImportJob = (jobId) => {
+	return request({
+		url: `/monitoring/import-jobs/${jobId}/cancel`,
+		method: "post",
+	});
+};
+
+/**
+ * 下载导入错误报告
+ * @param {string} reportId - 错误报告ID（导入结果中的errorReportId）
+ * @returns {Promise<Blob>} - 返回CSV文件Blob对象，包含全部错误行
+ */
+export const downloadImportErrorReport = (reportId) => {
+	return request({
+		url: `/monitoring/import-error-reports/${reportId}`,
+		method: "get",
+		responseType: "blob",
+	});
+};